@@ -0,0 +1,121 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.model.game;
+
+import it.polimi.ingsw.am07.exceptions.CardNotFoundException;
+import it.polimi.ingsw.am07.model.game.card.GameCard;
+import it.polimi.ingsw.am07.utils.assets.GameResources;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the deck: simulated games where cards are picked, among the visible ones and the top of the piles,
+ * until the deck is empty.
+ * Run it with {@code mvn -P benchmark -Djmh.args=DeckBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckBenchmark {
+
+    @Param({"1000"})
+    public int games;
+
+    private List<List<GameCard>> resourceOrders;
+    private List<List<GameCard>> goldOrders;
+    private int[] choices;
+
+    @Setup
+    public void setup() {
+        GameResources gameResources = GameResources.getInstance();
+        Random random = new Random(42);
+
+        resourceOrders = new ArrayList<>();
+        goldOrders = new ArrayList<>();
+        for (int game = 0; game < games; game++) {
+            List<GameCard> resourceCards = new ArrayList<>(gameResources.getResourceCards());
+            List<GameCard> goldCards = new ArrayList<>(gameResources.getGoldCards());
+            Collections.shuffle(resourceCards, random);
+            Collections.shuffle(goldCards, random);
+            resourceOrders.add(resourceCards);
+            goldOrders.add(goldCards);
+        }
+
+        choices = new int[resourceOrders.getFirst().size() + goldOrders.getFirst().size()];
+        for (int i = 0; i < choices.length; i++) {
+            choices[i] = random.nextInt(6);
+        }
+    }
+
+    /**
+     * Play every game, popping one card per turn until the deck is empty.
+     */
+    @Benchmark
+    public int playGames() throws CardNotFoundException {
+        int picked = 0;
+        for (int game = 0; game < games; game++) {
+            List<GameCard> resourceCards = new ArrayList<>(resourceOrders.get(game));
+            List<GameCard> goldCards = new ArrayList<>(goldOrders.get(game));
+            GameCard[] visibleResCards = new GameCard[Deck.VISIBLE_CARDS_COUNT];
+            GameCard[] visibleGoldCards = new GameCard[Deck.VISIBLE_CARDS_COUNT];
+            for (int i = 0; i < Deck.VISIBLE_CARDS_COUNT; i++) {
+                visibleResCards[i] = resourceCards.removeFirst();
+                visibleGoldCards[i] = goldCards.removeFirst();
+            }
+            Deck deck = new Deck(resourceCards, goldCards, visibleResCards, visibleGoldCards);
+
+            for (int turn = 0; ; turn++) {
+                GameCard card = null;
+                for (int option = 0; option < 6 && card == null; option++) {
+                    card = pickable(deck, (choices[turn % choices.length] + option) % 6);
+                }
+                if (card == null) {
+                    break;
+                }
+
+                deck.popCard(card);
+                ++picked;
+            }
+        }
+        return picked;
+    }
+
+    private static GameCard pickable(Deck deck, int option) {
+        return switch (option) {
+            case 0, 1 -> deck.visibleResCards()[option];
+            case 2 -> deck.peekTopResCard();
+            case 3, 4 -> deck.visibleGoldCards()[option - 3];
+            default -> deck.peekTopGoldCard();
+        };
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.model.game;
+
+import it.polimi.ingsw.am07.exceptions.IllegalGamePositionException;
+import it.polimi.ingsw.am07.exceptions.IllegalPlacementException;
+import it.polimi.ingsw.am07.model.game.card.GameCard;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
+import it.polimi.ingsw.am07.simulation.GameStage;
+import it.polimi.ingsw.am07.simulation.Placement;
+import it.polimi.ingsw.am07.simulation.PlayerStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the placement rules of a player, on the field of a game at the given stage.
+ * Run it with {@code mvn -P benchmark -Djmh.args=PlayerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+
+    @Param({"EARLY", "MID", "LATE"})
+    public GameStage stage;
+
+    private Player player;
+
+    @Setup
+    public void setup() {
+        player = stage.buildGame(2, 42).getPlayers().getFirst();
+    }
+
+    /**
+     * Place a legal card on the field, updating resources, score and objectives.
+     */
+    @Benchmark
+    public Player placeAt(NextMove move) throws IllegalPlacementException, IllegalGamePositionException {
+        move.player.placeAt(move.placement.side(), move.placement.position());
+        return move.player;
+    }
+
+    /**
+     * Check every side of every card in the hand against every available position.
+     */
+    @Benchmark
+    public int canBePlacedAt() {
+        int legal = 0;
+        for (GameCard card : player.getPlayableCards()) {
+            for (GameFieldPosition position : player.getAvailablePositions()) {
+                if (player.canBePlacedAt(card.front(), position)) {
+                    ++legal;
+                }
+                if (player.canBePlacedAt(card.back(), position)) {
+                    ++legal;
+                }
+            }
+        }
+        return legal;
+    }
+
+    /**
+     * A fresh player and one of its legal moves, built before every call since a placement cannot be undone.
+     * Both change at every call, so that the benchmark does not keep hitting the same position.
+     */
+    @State(Scope.Thread)
+    public static class NextMove {
+
+        private Player player;
+        private Placement placement;
+        private long seed;
+
+        @Setup(Level.Invocation)
+        public void setup(PlayerBenchmark benchmark) {
+            player = benchmark.stage.buildGame(2, seed++ % 16).getPlayers().getFirst();
+
+            List<Placement> placements = PlayerStrategy.legalPlacements(player);
+            placement = placements.get(new Random(seed).nextInt(placements.size()));
+        }
+
+    }
+
+}
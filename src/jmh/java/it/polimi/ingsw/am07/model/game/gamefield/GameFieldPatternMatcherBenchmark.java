@@ -0,0 +1,111 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.model.game.gamefield;
+
+import it.polimi.ingsw.am07.model.game.Player;
+import it.polimi.ingsw.am07.model.game.ResourceHolder;
+import it.polimi.ingsw.am07.model.game.card.ObjectiveCard;
+import it.polimi.ingsw.am07.model.game.card.PatternObjectiveCard;
+import it.polimi.ingsw.am07.simulation.GameStage;
+import it.polimi.ingsw.am07.utils.assets.GameResources;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the end of game scoring: every objective card evaluated on the fields of 4 players, at the given stage
+ * of the game.
+ * Run it with {@code mvn -P benchmark -Djmh.args=GameFieldPatternMatcherBenchmark}, and add
+ * the {@code gc} profiler to check that scoring does not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameFieldPatternMatcherBenchmark {
+
+    private static final int PLAYERS = 4;
+
+    @Param({"EARLY", "MID", "LATE"})
+    public GameStage stage;
+
+    private GameField[] fields;
+    private ResourceHolder[] resources;
+    private List<ObjectiveCard> objectives;
+    private List<GameFieldPattern> patterns;
+
+    @Setup
+    public void setup() {
+        GameResources gameResources = GameResources.getInstance();
+        List<Player> players = stage.buildGame(PLAYERS, 42).getPlayers();
+
+        fields = new GameField[PLAYERS];
+        resources = new ResourceHolder[PLAYERS];
+        for (int player = 0; player < PLAYERS; player++) {
+            fields[player] = players.get(player).getPlayerGameField();
+            resources[player] = players.get(player).getPlayerResources();
+        }
+
+        objectives = gameResources.getObjectiveCards();
+        patterns = new ArrayList<>();
+        for (ObjectiveCard objective : objectives) {
+            if (objective instanceof PatternObjectiveCard patternObjective) {
+                patterns.add(patternObjective.getPattern());
+            }
+        }
+    }
+
+    /**
+     * Score every objective card for every player, with the patterns compiled once by the cards.
+     */
+    @Benchmark
+    public int scoreObjectives() {
+        int score = 0;
+        for (int player = 0; player < PLAYERS; player++) {
+            for (ObjectiveCard objective : objectives) {
+                score += objective.calculateScore(resources[player], fields[player]);
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Count the matches of every pattern for every player, compiling the patterns on every call.
+     */
+    @Benchmark
+    public int countMatchesUncompiled() {
+        int matches = 0;
+        for (int player = 0; player < PLAYERS; player++) {
+            for (GameFieldPattern pattern : patterns) {
+                matches += fields[player].countMatches(pattern);
+            }
+        }
+        return matches;
+    }
+
+}
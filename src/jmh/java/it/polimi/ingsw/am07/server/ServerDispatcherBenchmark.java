@@ -0,0 +1,243 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.server;
+
+import it.polimi.ingsw.am07.action.Action;
+import it.polimi.ingsw.am07.action.lobby.ReconnectAction;
+import it.polimi.ingsw.am07.action.player.PlayerInitialChoiceAction;
+import it.polimi.ingsw.am07.action.player.PlayerPickCardAction;
+import it.polimi.ingsw.am07.action.player.PlayerPlaceCardAction;
+import it.polimi.ingsw.am07.model.game.Game;
+import it.polimi.ingsw.am07.model.game.GameState;
+import it.polimi.ingsw.am07.model.game.Pawn;
+import it.polimi.ingsw.am07.model.game.Player;
+import it.polimi.ingsw.am07.model.game.card.GameCard;
+import it.polimi.ingsw.am07.model.lobby.Lobby;
+import it.polimi.ingsw.am07.reactive.Listener;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
+import it.polimi.ingsw.am07.server.executor.VirtualThreadServerExecutor;
+import it.polimi.ingsw.am07.simulation.Placement;
+import it.polimi.ingsw.am07.simulation.PlayerStrategy;
+import it.polimi.ingsw.am07.simulation.RandomStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the place and pick turns of several games played at once through the server dispatcher.
+ * Every game plays the same turns, so while the games are processed in parallel the time of an iteration stays about
+ * the same as games are added, until the cores are used up; a dispatcher serializing the games grows linearly instead.
+ * Run it with {@code mvn -P benchmark -Djmh.args=ServerDispatcherBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class ServerDispatcherBenchmark {
+
+    private static final int PLAYERS_PER_GAME = 2;
+    private static final int TURNS = 20;
+
+    @Param({"1", "2", "4", "8"})
+    public int games;
+
+    private ServerExecutor executor;
+    private ServerDispatcher dispatcher;
+    private List<List<Action>> streams;
+    private CountDownLatch played;
+
+    /**
+     * Build new games and the turns played on them, since the turns of a game cannot be played twice.
+     */
+    @Setup(Level.Iteration)
+    public void setup() throws Exception {
+        Map<UUID, Game> gameModels = new ConcurrentHashMap<>();
+        List<Game> newGames = new ArrayList<>();
+        streams = new ArrayList<>();
+
+        for (int index = 0; index < games; index++) {
+            Game game = newGame(index);
+            gameModels.put(game.getId(), game);
+            newGames.add(game);
+            streams.add(play(copy(game), new Random(index)));
+        }
+
+        executor = new VirtualThreadServerExecutor();
+        dispatcher = new ServerDispatcher(gameModels, executor);
+        played = new CountDownLatch(games * PLAYERS_PER_GAME);
+
+        for (int index = 0; index < games; index++) {
+            for (Player player : newGames.get(index).getPlayers()) {
+                CountingListener listener = new CountingListener(player.getIdentity(), streams.get(index).getLast());
+                dispatcher.registerNewListener(listener);
+                listener.awaitNotification();
+
+                dispatcher.execute(new ReconnectAction(player.getNickname(), player.getIdentity()));
+            }
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Submit the turns of every game, interleaved as their clients would send them, and wait until every listener
+     * has been notified of the last one.
+     */
+    @Benchmark
+    public void playTurns() throws InterruptedException {
+        for (int action = 0; action < streams.getFirst().size(); action++) {
+            for (List<Action> stream : streams) {
+                if (action < stream.size()) {
+                    dispatcher.execute(stream.get(action));
+                }
+            }
+        }
+
+        played.await();
+    }
+
+    /**
+     * Create a new game.
+     *
+     * @param index the index of the game, used to build unique identities
+     * @return the game
+     */
+    private Game newGame(int index) {
+        Lobby lobby = new Lobby();
+        for (int seat = 0; seat < PLAYERS_PER_GAME; seat++) {
+            lobby.addNewPlayer("player" + seat, "game" + index + "-player" + seat, Pawn.values()[seat]);
+        }
+
+        return new Game.Factory()
+                .fromLobby(lobby)
+                .withRandom(new Random(index))
+                .build();
+    }
+
+    /**
+     * Play the turns of a game with random legal moves.
+     *
+     * @param game   the game to play on, it is modified
+     * @param random the source of the moves
+     * @return the actions played
+     */
+    private List<Action> play(Game game, Random random) {
+        PlayerStrategy strategy = new RandomStrategy();
+        List<Action> actions = new ArrayList<>();
+
+        for (Player player : game.getPlayers()) {
+            actions.add(execute(game, new PlayerInitialChoiceAction(player.getNickname(), player.getIdentity(),
+                    strategy.chooseObjective(player, game, random), strategy.chooseStarterSide(player, game, random))));
+        }
+
+        for (int turn = 0; turn < TURNS && game.getGameState() != GameState.ENDED; turn++) {
+            Player player = game.getPlayingPlayer();
+
+            Placement placement = strategy.choosePlacement(player, game, random);
+            actions.add(execute(game, new PlayerPlaceCardAction(player.getNickname(), player.getIdentity(), placement.side(), placement.position())));
+
+            GameCard card = strategy.choosePick(player, game, random);
+            actions.add(execute(game, new PlayerPickCardAction(player.getNickname(), player.getIdentity(), card)));
+        }
+
+        return actions;
+    }
+
+    private static Action execute(Game game, Action action) {
+        action.execute(game);
+        if (!action.isExecutedCorrectly()) {
+            throw new IllegalStateException(action.getClass().getSimpleName() + " rejected: " + action.getErrorMessage());
+        }
+        return action;
+    }
+
+    /**
+     * Deep copy a game.
+     *
+     * @param game the game to copy
+     * @return the copy
+     */
+    private static Game copy(Game game) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(game);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (Game) in.readObject();
+        }
+    }
+
+    /**
+     * A listener that counts down the latch of the benchmark when it is notified of the last turn of its game.
+     */
+    private class CountingListener implements Listener {
+
+        private final String identity;
+        private final Action lastAction;
+        private final CountDownLatch notified;
+
+        CountingListener(String identity, Action lastAction) {
+            this.identity = identity;
+            this.lastAction = lastAction;
+            this.notified = new CountDownLatch(1);
+        }
+
+        @Override
+        public void notify(Action action) {
+            notified.countDown();
+
+            if (action == lastAction) {
+                played.countDown();
+            }
+        }
+
+        @Override
+        public String getIdentity() {
+            return identity;
+        }
+
+        void awaitNotification() throws InterruptedException {
+            notified.await();
+        }
+
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.simulation;
+
+import it.polimi.ingsw.am07.exceptions.IllegalGamePositionException;
+import it.polimi.ingsw.am07.exceptions.IllegalPlacementException;
+import it.polimi.ingsw.am07.model.game.Game;
+import it.polimi.ingsw.am07.model.game.Pawn;
+import it.polimi.ingsw.am07.model.game.Player;
+import it.polimi.ingsw.am07.model.game.card.GameCard;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
+import it.polimi.ingsw.am07.model.lobby.Lobby;
+import it.polimi.ingsw.am07.utils.assets.GameResources;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Game states shared by the benchmarks: seeded games where every player has placed a given number of cards.
+ * The cards placed by each player are drawn from a private copy of the resource and gold cards, so that the fields
+ * can grow past what a single deck allows, and are placed with legal random moves as a {@link RandomStrategy} would.
+ */
+public enum GameStage {
+
+    /**
+     * The first turns of a game.
+     */
+    EARLY(5),
+    /**
+     * Around the end of a typical game.
+     */
+    MID(20),
+    /**
+     * A long game, with a field much wider than usual.
+     */
+    LATE(40);
+
+    private final int placedCards;
+
+    GameStage(int placedCards) {
+        this.placedCards = placedCards;
+    }
+
+    /**
+     * Get the number of cards placed by every player, excluding the starter card.
+     *
+     * @return the number of placed cards
+     */
+    public int getPlacedCards() {
+        return placedCards;
+    }
+
+    /**
+     * Build a game at this stage. The same seed always builds the same game.
+     *
+     * @param players the number of players
+     * @param seed    the seed of the game
+     * @return the game
+     */
+    public Game buildGame(int players, long seed) {
+        Random random = new Random(seed);
+        RandomStrategy strategy = new RandomStrategy();
+
+        Lobby lobby = new Lobby();
+        for (int seat = 0; seat < players; seat++) {
+            lobby.addNewPlayer("bot-" + seat, "bot-" + seat, Pawn.values()[seat]);
+        }
+
+        Game game = new Game.Factory()
+                .fromLobby(lobby)
+                .withRandom(random)
+                .build();
+
+        GameResources gameResources = GameResources.getInstance();
+        for (Player player : game.getPlayers()) {
+            List<GameCard> pool = new ArrayList<>(gameResources.getResourceCards());
+            pool.addAll(gameResources.getGoldCards());
+            Collections.shuffle(pool, random);
+
+            try {
+                player.setPlayerObjectiveCard(strategy.chooseObjective(player, game, random));
+                player.placeAt(strategy.chooseStarterSide(player, game, random), new GameFieldPosition(0, 0));
+
+                for (int card = 0; card < placedCards; card++) {
+                    Placement placement = strategy.choosePlacement(player, game, random);
+                    player.placeAt(placement.side(), placement.position());
+                    player.addPlayableCard(pool.removeLast());
+                }
+            } catch (IllegalPlacementException | IllegalGamePositionException e) {
+                throw new IllegalStateException("A legal placement was rejected", e);
+            }
+        }
+
+        return game;
+    }
+
+}
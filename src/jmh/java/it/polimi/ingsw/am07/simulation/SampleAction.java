@@ -0,0 +1,164 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.polimi.ingsw.am07.simulation;
+
+import it.polimi.ingsw.am07.action.Action;
+import it.polimi.ingsw.am07.action.chat.SendMessageAction;
+import it.polimi.ingsw.am07.action.error.ErrorAction;
+import it.polimi.ingsw.am07.action.lobby.CreateLobbyAction;
+import it.polimi.ingsw.am07.action.lobby.GameStartAction;
+import it.polimi.ingsw.am07.action.lobby.PlayerJoinAction;
+import it.polimi.ingsw.am07.action.lobby.ReconnectAction;
+import it.polimi.ingsw.am07.action.player.PlayerInitialChoiceAction;
+import it.polimi.ingsw.am07.action.player.PlayerPickCardAction;
+import it.polimi.ingsw.am07.action.player.PlayerPlaceCardAction;
+import it.polimi.ingsw.am07.action.server.*;
+import it.polimi.ingsw.am07.model.chat.ChatMessage;
+import it.polimi.ingsw.am07.model.game.Game;
+import it.polimi.ingsw.am07.model.game.Player;
+import it.polimi.ingsw.am07.model.lobby.Lobby;
+
+import java.util.List;
+
+/**
+ * One sample of every action type sent over the network, shared by the serializer benchmarks.
+ * The samples are built from a game at a {@link GameStage}, so the actions carrying the game or its cards grow with it.
+ */
+public enum SampleAction {
+
+    GAME_START {
+        @Override
+        Action build(Game game, Player player, Lobby lobby) {
+            return new GameStartAction(player.getNickname(), player.getIdentity());
+        }
+    },
+    PLAYER_PICK_CARD {
+        @Override
+        Action build(Game game, Player player, Lobby lobby) {
+            return new PlayerPickCardAction(player.getNickname(), player.getIdentity(), game.getDeck().peekTopResCard());
+        }
+    },
+    PLAYER_PLACE_CARD {
+        @Override
+        Action build(Game game, Player player, Lobby lobby) {
+            Placement placement = PlayerStrategy.legalPlacements(player).getFirst();
+            return new PlayerPlaceCardAction(player.getNickname(), player.getIdentity(), placement.side(), placement.position());
+        }
+    },
+    LOBBY_STATE_SYNC {
+        @Override
+        Action build(Game game, Player player, Lobby lobby) {
+            return new LobbyStateSyncAction(lobby);
+        }
+    },
+    CREATE_LOBBY {
+        @Override
+        Action build(Game game, Player player, Lobby lobby) {
+            return new CreateLobbyAction(player.getNickname(), player.getIdentity(), player.getPlayerPawn());
+        }
+    },
+    PLAYER_JOIN {
+        @Override
+        Action build(Game game, Player player, Lobby lobby) {
+            return new PlayerJoinAction(player.getNickname(), player.getIdentity(), lobby.getId(), player.getPlayerPawn());
+        }
+    },
+    LOBBY_LIST {
+        @Override
+        Action build(Game game, Player player, Lobby lobby) {
+            return new LobbyListAction(List.of(lobby, new Lobby()));
+        }
+    },
+    ERROR {
+        @Override
+        Action build(Game game, Player player, Lobby lobby) {
+            return new ErrorAction("error");
+        }
+    },
+    SEND_MESSAGE {
+        @Override
+        Action build(Game game, Player player, Lobby lobby) {
+            List<String> receivers = game.getPlayers().stream()
+                    .map(Player::getNickname)
+                    .filter(nickname -> !nickname.equals(player.getNickname()))
+                    .toList();
+            return new SendMessageAction(player.getNickname(), player.getIdentity(), new ChatMessage(player.getNickname(), receivers, "hello"));
+        }
+    },
+    PLAYER_INITIAL_CHOICE {
+        @Override
+        Action build(Game game, Player player, Lobby lobby) {
+            return new PlayerInitialChoiceAction(player.getNickname(), player.getIdentity(), player.getAvailableObjectives()[0], player.getStarterCard().front());
+        }
+    },
+    SERVER_GAME_START {
+        @Override
+        Action build(Game game, Player player, Lobby lobby) {
+            return new ServerGameStartAction(game);
+        }
+    },
+    RESUME_GAME {
+        @Override
+        Action build(Game game, Player player, Lobby lobby) {
+            return new ResumeGameAction(game, player.getIdentity());
+        }
+    },
+    HANG_GAME {
+        @Override
+        Action build(Game game, Player player, Lobby lobby) {
+            return new HangGameAction(player.getIdentity());
+        }
+    },
+    RECONNECT {
+        @Override
+        Action build(Game game, Player player, Lobby lobby) {
+            return new ReconnectAction(player.getNickname(), player.getIdentity(), game.getId(), game.getVersion());
+        }
+    };
+
+    /**
+     * Build the sample of this action type, sent by the first player of a game.
+     *
+     * @param game the game
+     * @return the action
+     */
+    public Action build(Game game) {
+        Lobby lobby = new Lobby();
+        for (Player player : game.getPlayers()) {
+            lobby.addNewPlayer(player.getNickname(), player.getIdentity(), player.getPlayerPawn());
+        }
+
+        return build(game, game.getPlayers().getFirst(), lobby);
+    }
+
+    /**
+     * Build the sample of this action type.
+     *
+     * @param game   the game
+     * @param player the player sending the action
+     * @param lobby  a lobby with the players of the game
+     * @return the action
+     */
+    abstract Action build(Game game, Player player, Lobby lobby);
+
+}
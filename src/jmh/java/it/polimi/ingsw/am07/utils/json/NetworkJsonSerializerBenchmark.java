@@ -0,0 +1,85 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.json;
+
+import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.NetworkPacket;
+import it.polimi.ingsw.am07.simulation.GameStage;
+import it.polimi.ingsw.am07.simulation.SampleAction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the json serialization of the network packets: one packet for every action type, built from a
+ * 4 players game at the given stage, so that the full game sent when a game starts or resumes is measured as well as
+ * the card placements sent during a game.
+ * Run it with {@code mvn -P benchmark -Djmh.args=NetworkJsonSerializerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkJsonSerializerBenchmark {
+
+    @Param({"EARLY", "MID", "LATE"})
+    public GameStage stage;
+
+    /**
+     * The type of the action sent, every registered one by default.
+     */
+    @Param
+    public SampleAction action;
+
+    /**
+     * Whether cards are written as references to the card catalogue.
+     */
+    @Param({"false", "true"})
+    public boolean cardReferences;
+
+    private NetworkJsonSerializer serializer;
+    private NetworkPacket packet;
+    private String json;
+
+    @Setup
+    public void setup() {
+        serializer = NetworkJsonSerializer.getInstance(cardReferences);
+
+        packet = new ActionNetworkPacket(action.build(stage.buildGame(4, 42)));
+        json = serializer.toJson(packet);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return serializer.toJson(packet);
+    }
+
+    @Benchmark
+    public NetworkPacket fromJson() {
+        return serializer.fromJson(json);
+    }
+
+}
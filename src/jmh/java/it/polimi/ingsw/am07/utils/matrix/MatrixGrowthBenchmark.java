@@ -0,0 +1,101 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.matrix;
+
+import it.polimi.ingsw.am07.model.game.Symbol;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
+import it.polimi.ingsw.am07.model.game.side.Side;
+import it.polimi.ingsw.am07.model.game.side.SideFieldRepresentation;
+import it.polimi.ingsw.am07.simulation.GameStage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the growth of the field matrices, replaying in order the cards placed by a player at the given stage
+ * of the game, so that the matrices are extended as they are during a real game.
+ * Run it with {@code mvn -P benchmark -Djmh.args=MatrixGrowthBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixGrowthBenchmark {
+
+    @Param({"EARLY", "MID", "LATE"})
+    public GameStage stage;
+
+    private GameFieldPosition[] positions;
+    private Matrix<Symbol>[] corners;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        List<Map.Entry<GameFieldPosition, Side>> placedCards = stage.buildGame(2, 42).getPlayers().getFirst()
+                .getPlacedCards().entrySet().stream()
+                .sorted(Comparator.comparingInt(entry -> entry.getKey().z()))
+                .toList();
+
+        positions = new GameFieldPosition[placedCards.size()];
+        corners = new Matrix[placedCards.size()];
+        for (int card = 0; card < placedCards.size(); card++) {
+            positions[card] = placedCards.get(card).getKey();
+            corners[card] = placedCards.get(card).getValue().fieldRepresentation().corners();
+        }
+    }
+
+    @Benchmark
+    public Matrix<Symbol> genericMatrix() {
+        Matrix<Symbol> matrix = new Matrix<>(SideFieldRepresentation.SIDE_SIZE, SideFieldRepresentation.SIDE_SIZE, Symbol.EMPTY);
+        for (int card = 0; card < positions.length; card++) {
+            GameFieldPosition pos = positions[card];
+            for (int i = 0; i < SideFieldRepresentation.SIDE_SIZE; i++) {
+                for (int j = 0; j < SideFieldRepresentation.SIDE_SIZE; j++) {
+                    matrix.set(pos.x() + i, pos.y() + j, corners[card].get(i, j));
+                }
+            }
+        }
+        return matrix;
+    }
+
+    @Benchmark
+    public SymbolMatrix symbolMatrix() {
+        SymbolMatrix matrix = new SymbolMatrix(SideFieldRepresentation.SIDE_SIZE, SideFieldRepresentation.SIDE_SIZE, Symbol.EMPTY);
+        for (int card = 0; card < positions.length; card++) {
+            GameFieldPosition pos = positions[card];
+            for (int i = 0; i < SideFieldRepresentation.SIDE_SIZE; i++) {
+                for (int j = 0; j < SideFieldRepresentation.SIDE_SIZE; j++) {
+                    matrix.set(pos.x() + i, pos.y() + j, corners[card].get(i, j));
+                }
+            }
+        }
+        return matrix;
+    }
+
+}
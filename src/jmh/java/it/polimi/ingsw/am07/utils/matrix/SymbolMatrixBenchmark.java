@@ -0,0 +1,166 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.matrix;
+
+import it.polimi.ingsw.am07.model.game.Symbol;
+import it.polimi.ingsw.am07.model.game.card.GameCard;
+import it.polimi.ingsw.am07.model.game.gamefield.GameField;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
+import it.polimi.ingsw.am07.model.game.side.Side;
+import it.polimi.ingsw.am07.model.game.side.SideFieldRepresentation;
+import it.polimi.ingsw.am07.utils.assets.GameResources;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the game field matrix, placing cards in layouts that keep extending the field.
+ * Run it with {@code mvn -P benchmark -Djmh.args=SymbolMatrixBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SymbolMatrixBenchmark {
+
+    /**
+     * Card layouts, all starting from the starter card in (0, 0).
+     */
+    public enum Layout {
+        /**
+         * A square spiral around the starter card: the field grows on every side in turn.
+         */
+        SPIRAL,
+        /**
+         * Every card is placed on the top-left corner of the previous one: every card adds a row on top and a
+         * column on the left, the worst case for a matrix that has to shift its elements.
+         */
+        TOP_LEFT
+    }
+
+    @Param({"SPIRAL", "TOP_LEFT"})
+    public Layout layout;
+
+    @Param({"40", "80"})
+    public int cards;
+
+    private List<GameFieldPosition> positions;
+    private List<Side> sides;
+
+    @Setup
+    public void setup() {
+        positions = switch (layout) {
+            case SPIRAL -> spiral(cards);
+            case TOP_LEFT -> topLeft(cards);
+        };
+
+        GameResources resources = GameResources.getInstance();
+        List<GameCard> resourceCards = resources.getResourceCards();
+
+        sides = new ArrayList<>(cards);
+        sides.add(resources.getStarterCards().getFirst().front());
+        for (int i = 1; i < cards; i++) {
+            GameCard card = resourceCards.get(i % resourceCards.size());
+            sides.add(i % 2 == 0 ? card.front() : card.back());
+        }
+    }
+
+    @Benchmark
+    public SymbolMatrix symbolMatrix() {
+        SymbolMatrix matrix = new SymbolMatrix(SideFieldRepresentation.SIDE_SIZE, SideFieldRepresentation.SIDE_SIZE, Symbol.EMPTY);
+        for (int card = 0; card < positions.size(); card++) {
+            Matrix<Symbol> corners = sides.get(card).fieldRepresentation().corners();
+            GameFieldPosition pos = positions.get(card);
+            for (int i = 0; i < SideFieldRepresentation.SIDE_SIZE; i++) {
+                for (int j = 0; j < SideFieldRepresentation.SIDE_SIZE; j++) {
+                    matrix.set(pos.x() + i, pos.y() + j, corners.get(i, j));
+                }
+            }
+        }
+        return matrix;
+    }
+
+    @Benchmark
+    public Matrix<Symbol> genericMatrix() {
+        Matrix<Symbol> matrix = new Matrix<>(SideFieldRepresentation.SIDE_SIZE, SideFieldRepresentation.SIDE_SIZE, Symbol.EMPTY);
+        for (int card = 0; card < positions.size(); card++) {
+            Matrix<Symbol> corners = sides.get(card).fieldRepresentation().corners();
+            GameFieldPosition pos = positions.get(card);
+            for (int i = 0; i < SideFieldRepresentation.SIDE_SIZE; i++) {
+                for (int j = 0; j < SideFieldRepresentation.SIDE_SIZE; j++) {
+                    matrix.set(pos.x() + i, pos.y() + j, corners.get(i, j));
+                }
+            }
+        }
+        return matrix;
+    }
+
+    @Benchmark
+    public GameField gameField() {
+        GameField field = new GameField();
+        for (int card = 0; card < positions.size(); card++) {
+            field.placeOnFieldAt(sides.get(card), positions.get(card));
+        }
+        return field;
+    }
+
+    /**
+     * Positions of a square spiral on the diagonal lattice of the field, where every card covers a corner of the
+     * previous one.
+     */
+    private static List<GameFieldPosition> spiral(int count) {
+        List<GameFieldPosition> result = new ArrayList<>(count);
+        int u = 0, v = 0;
+        int du = 1, dv = 0;
+        int leg = 1;
+
+        while (result.size() < count) {
+            for (int turn = 0; turn < 2 && result.size() < count; turn++) {
+                for (int step = 0; step < leg && result.size() < count; step++) {
+                    result.add(new GameFieldPosition(u + v, u - v));
+                    u += du;
+                    v += dv;
+                }
+                int previousDu = du;
+                du = -dv;
+                dv = previousDu;
+            }
+            leg++;
+        }
+        return result;
+    }
+
+    private static List<GameFieldPosition> topLeft(int count) {
+        List<GameFieldPosition> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new GameFieldPosition(-i, -i));
+        }
+        return result;
+    }
+
+}
@@ -2,8 +2,20 @@ package it.polimi.ingsw.am07;
 
 import it.polimi.ingsw.am07.client.cli.CLI;
 import it.polimi.ingsw.am07.client.gui.GUI;
+import it.polimi.ingsw.am07.network.NetworkType;
+import it.polimi.ingsw.am07.network.tcp.TCPServerMode;
 import it.polimi.ingsw.am07.server.Server;
+import it.polimi.ingsw.am07.server.executor.BoundedPoolServerExecutor;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
+import it.polimi.ingsw.am07.simulation.GameSimulator;
+import it.polimi.ingsw.am07.simulation.GreedyStrategy;
+import it.polimi.ingsw.am07.simulation.LoadTest;
+import it.polimi.ingsw.am07.simulation.PlayerStrategy;
+import it.polimi.ingsw.am07.simulation.RandomStrategy;
 import it.polimi.ingsw.am07.utils.IdentityManager;
+import it.polimi.ingsw.am07.utils.assets.AssetsRegistry;
+
+import java.net.Socket;
 
 /**
  * Main class of the application.
@@ -12,18 +24,47 @@ public class Application {
 
     public static void main(String[] args) {
         if (args.length < 1) {
-            System.out.println("Usage: java -jar <jarfile> <cli|gui|server> [options]");
-            System.out.println("Options: -refresh=True|False");
+            System.out.println("Usage: java -jar <jarfile> <cli|gui|server|simulate|loadtest> [options]");
+            System.out.println("Options: -refresh=True|False -tcp=blocking|nio -executor=virtual|pool -metrics=<port>");
+            System.out.println("Simulation options: -games=<count> -seed=<seed> -players=random|greedy,...");
+            System.out.println("Load test options: -games=<count> -seed=<seed> -players=random|greedy,... -transport=tcp|rmi,...");
+            System.out.println("                   -server=local|fork|<hostname> -timeout=<milliseconds>");
             System.exit(1);
         }
 
         String option = args[0];
         boolean refresh = false;
+        TCPServerMode tcpServerMode = TCPServerMode.BLOCKING;
+        ServerExecutor executor = ServerExecutor.getDefault();
+        long games = 1000;
+        long seed = 0;
+        String[] strategies = {"greedy", "random"};
+        String[] transports = {"tcp"};
+        String serverLocation = "local";
+        long timeoutMillis = 60_000;
+        int metricsPort = -1;
+
+        for (int i = 1; i < args.length; i++) {
+            String[] options = args[i].split("=");
+            if (options.length != 2) {
+                continue;
+            }
 
-        if (args.length > 1) {
-            String[] options = args[1].split("=");
-            if (options.length == 2 && options[0].equals("-refresh")) {
-                refresh = Boolean.parseBoolean(options[1]);
+            switch (options[0]) {
+                case "-refresh" -> refresh = Boolean.parseBoolean(options[1]);
+                case "-tcp" -> tcpServerMode = TCPServerMode.valueOf(options[1].toUpperCase());
+                case "-executor" -> {
+                    if (options[1].equalsIgnoreCase("pool")) {
+                        executor = new BoundedPoolServerExecutor(Runtime.getRuntime().availableProcessors() * 2);
+                    }
+                }
+                case "-games" -> games = Long.parseLong(options[1]);
+                case "-seed" -> seed = Long.parseLong(options[1]);
+                case "-players" -> strategies = options[1].split(",");
+                case "-transport" -> transports = options[1].split(",");
+                case "-server" -> serverLocation = options[1];
+                case "-timeout" -> timeoutMillis = Long.parseLong(options[1]);
+                case "-metrics" -> metricsPort = Integer.parseInt(options[1]);
             }
         }
 
@@ -35,12 +76,104 @@ public class Application {
             // lo chiamerà il client handler
             case "cli" -> new CLI().entrypoint();
             case "gui" -> new GUI().entrypoint();
-            case "server" -> new Server().entrypoint();
+            case "server" -> new Server.Factory()
+                    .withTcpServerMode(tcpServerMode)
+                    .withExecutor(executor)
+                    .withMetricsPort(metricsPort)
+                    .build()
+                    .entrypoint();
+            case "simulate" -> {
+                GameSimulator.Factory factory = new GameSimulator.Factory().withSeed(seed);
+                for (String strategy : strategies) {
+                    factory.withPlayer(parseStrategy(strategy));
+                }
+
+                long start = System.nanoTime();
+                System.out.print(factory.build().run(games));
+                System.out.printf("%.1f s%n", (System.nanoTime() - start) / 1e9);
+            }
+            case "loadtest" -> {
+                LoadTest.Factory factory = new LoadTest.Factory()
+                        .withGames(games)
+                        .withSeed(seed)
+                        .withTimeout(timeoutMillis);
+                for (String strategy : strategies) {
+                    factory.withPlayer(parseStrategy(strategy));
+                }
+                for (String transport : transports) {
+                    factory.withNetworkType(NetworkType.valueOf(transport.toUpperCase()));
+                }
+
+                Process serverProcess = null;
+                switch (serverLocation) {
+                    case "local" -> new Server.Factory()
+                            .withTcpServerMode(tcpServerMode)
+                            .withExecutor(executor)
+                            .withMetricsPort(metricsPort)
+                            .build()
+                            .entrypoint();
+                    case "fork" -> serverProcess = forkServer(tcpServerMode);
+                    default -> factory.withHostname(serverLocation);
+                }
+
+                System.out.print(factory.build().run());
+
+                if (serverProcess != null) {
+                    serverProcess.destroy();
+                }
+                System.exit(0);
+            }
             default -> {
-                System.out.println("Usage: java -jar <jarfile> <cli|gui|server>");
+                System.out.println("Usage: java -jar <jarfile> <cli|gui|server|simulate|loadtest>");
                 System.exit(1);
             }
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Parse the name of a bot strategy.
+     *
+     * @param strategy the name of the strategy, greedy or random
+     * @return the strategy
+     */
+    private static PlayerStrategy parseStrategy(String strategy) {
+        return strategy.equalsIgnoreCase("greedy") ? new GreedyStrategy() : new RandomStrategy();
+    }
+
+    /**
+     * Start a server in a new process, with the same classpath as this one, and wait for it to accept connections.
+     *
+     * @param tcpServerMode the implementation used to serve TCP clients
+     * @return the server process
+     */
+    private static Process forkServer(TCPServerMode tcpServerMode) {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        int tcpPort = AssetsRegistry.getInstance().getGameResourceDefinition().tcpPort();
+
+        try {
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    Application.class.getName(), "server", "-tcp=" + tcpServerMode.name().toLowerCase())
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+
+            for (int attempt = 0; attempt < 100; attempt++) {
+                try (Socket ignored = new Socket("localhost", tcpPort)) {
+                    // The RMI registry is created after the TCP socket, leave it some time
+                    Thread.sleep(500);
+                    return process;
+                } catch (Exception e) {
+                    Thread.sleep(100);
+                }
+            }
+
+            process.destroy();
+        } catch (Exception e) {
+            System.out.println("Failed to start the server: " + e.getMessage());
+        }
+
+        System.exit(1);
+        return null;
+    }
+
+}
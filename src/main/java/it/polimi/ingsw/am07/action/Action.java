@@ -38,6 +38,7 @@ public abstract class Action implements Serializable {
     protected boolean executedCorrectly;
     private String identity;
     private String error;
+    private long gameVersion;
 
     /**
      * Empty constructor.
@@ -92,6 +93,16 @@ public abstract class Action implements Serializable {
         throw new RuntimeException("Not implemented");
     }
 
+    /**
+     * Replay the action on the client state, while a reconnecting client catches up with the actions it missed.
+     * By default, replaying an action is the same as reflecting it.
+     *
+     * @param clientState the client state
+     */
+    public void replay(ClientState clientState) {
+        reflect(clientState);
+    }
+
     /**
      * Get the identity of the action.
      *
@@ -140,4 +151,20 @@ public abstract class Action implements Serializable {
         this.executedCorrectly = executedCorrectly;
     }
 
+    /**
+     * Get the version of the game after this action was executed.
+     *
+     * @return the game version, or 0 if the action was not executed on a game
+     */
+    public long getGameVersion() {
+        return gameVersion;
+    }
+
+    /**
+     * Set the version of the game after this action was executed.
+     */
+    public void setGameVersion(long gameVersion) {
+        this.gameVersion = gameVersion;
+    }
+
 }
@@ -27,11 +27,23 @@ import it.polimi.ingsw.am07.action.PlayerAction;
 import it.polimi.ingsw.am07.model.ClientState;
 import it.polimi.ingsw.am07.model.matchmaking.Matchmaking;
 
+import java.util.UUID;
+
 /**
  * Action to reconnect to a game after the server has crashed.
  */
 public class ReconnectAction extends PlayerAction {
 
+    /**
+     * The id of the game last seen by the client, null if the client has no game
+     */
+    private final UUID lastGameId;
+
+    /**
+     * The version of the game last seen by the client, 0 if the client has no game
+     */
+    private final long lastGameVersion;
+
     /**
      * Constructor
      *
@@ -39,7 +51,21 @@ public class ReconnectAction extends PlayerAction {
      * @param identity       the player identity
      */
     public ReconnectAction(String playerNickname, String identity) {
+        this(playerNickname, identity, null, 0);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param playerNickname  the player nickname
+     * @param identity        the player identity
+     * @param lastGameId      the id of the game last seen by the client
+     * @param lastGameVersion the version of the game last seen by the client
+     */
+    public ReconnectAction(String playerNickname, String identity, UUID lastGameId, long lastGameVersion) {
         super(playerNickname, identity);
+        this.lastGameId = lastGameId;
+        this.lastGameVersion = lastGameVersion;
     }
 
     /**
@@ -51,6 +77,8 @@ public class ReconnectAction extends PlayerAction {
     public void execute(Matchmaking matchmaking) {
         matchmaking.setAskedForReconnection(true);
         matchmaking.setPlayerNickname(getPlayerNickname());
+        matchmaking.setLastGameId(lastGameId);
+        matchmaking.setLastGameVersion(lastGameVersion);
     }
 
     /**
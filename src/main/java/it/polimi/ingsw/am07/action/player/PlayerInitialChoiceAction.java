@@ -141,6 +141,7 @@ public class PlayerInitialChoiceAction extends PlayerAction {
 
         if (gameCanStart && executedCorrectly) {
             state.setPlayerState(amITheFirstPlayer ? PlayerState.PLACING_CARD : PlayerState.SLEEPING);
+            state.notifyGameModelUpdate();
             return;
         }
 
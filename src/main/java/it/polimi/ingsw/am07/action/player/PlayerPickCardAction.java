@@ -66,8 +66,14 @@ public class PlayerPickCardAction extends PlayerAction {
     @Override
     public void execute(Game gameModel) {
         try {
-            getCorrespondingPlayer(gameModel).addPlayableCard(pickedCard);
+            Player player = getCorrespondingPlayer(gameModel);
+            if (player == null) {
+                throw new IllegalArgumentException("Player not found");
+            }
+
+            // Pop the card first: it fails if the card cannot be picked, leaving the hand untouched
             gameModel.popCard(pickedCard);
+            player.addPlayableCard(pickedCard);
 
             // I can increment the turn
             gameModel.incrementTurn();
@@ -92,8 +98,8 @@ public class PlayerPickCardAction extends PlayerAction {
         }
 
         try {
-            state.getGameModel().getPlayerByNickname(playerNickname).addPlayableCard(pickedCard);
             state.getGameModel().popCard(pickedCard);
+            state.getGameModel().getPlayerByNickname(playerNickname).addPlayableCard(pickedCard);
             state.getGameModel().incrementTurn();
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -105,9 +111,7 @@ public class PlayerPickCardAction extends PlayerAction {
 
             // evaluate the objective score for each player
             for (Player player : state.getGameModel().getPlayers()) {
-                player.evaluateObjectiveScore(player.getPlayerObjectiveCard());
-                player.evaluateObjectiveScore(state.getGameModel().getCommonObjectives()[0]);
-                player.evaluateObjectiveScore(state.getGameModel().getCommonObjectives()[1]);
+                player.evaluateObjectiveScore();
             }
         } else if (state.getNickname().equals(playerNickname)) {
             state.setPlayerState(PlayerState.SLEEPING);
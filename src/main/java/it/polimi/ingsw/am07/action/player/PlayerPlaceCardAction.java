@@ -49,13 +49,13 @@ public class PlayerPlaceCardAction extends PlayerAction {
      * Constructor.
      *
      * @param playerNickname the player nickname
-     * @param side           the side
+     * @param placedSide     the side
      * @param position       the position
      */
-    public PlayerPlaceCardAction(String playerNickname, String identity, Side side, GameFieldPosition position) {
+    public PlayerPlaceCardAction(String playerNickname, String identity, Side placedSide, GameFieldPosition position) {
         super(playerNickname, identity);
 
-        this.placedSide = side;
+        this.placedSide = placedSide;
         this.position = position;
     }
 
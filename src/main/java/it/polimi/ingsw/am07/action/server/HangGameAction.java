@@ -116,6 +116,17 @@ public class HangGameAction extends ServerAction {
         System.out.println("Execute: connection lost");
     }
 
+    /**
+     * Replay the action on the client state.
+     * Unlike reflecting it, this also applies the disconnection of the player replaying it, who was not connected when
+     * the action was executed.
+     * @param state the client state
+     */
+    @Override
+    public void replay(ClientState state) {
+        execute(state.getGameModel());
+    }
+
     /**
      * Reflect the action on the client state.
      * @param state the client state
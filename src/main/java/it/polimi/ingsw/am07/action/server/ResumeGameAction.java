@@ -23,31 +23,56 @@
 
 package it.polimi.ingsw.am07.action.server;
 
+import it.polimi.ingsw.am07.action.Action;
 import it.polimi.ingsw.am07.action.ServerAction;
 import it.polimi.ingsw.am07.model.ClientState;
 import it.polimi.ingsw.am07.model.PlayerState;
 import it.polimi.ingsw.am07.model.game.Game;
 import it.polimi.ingsw.am07.model.game.Player;
 
+import java.util.List;
+
 /**
- * Action to resume a game after the server has crashed.
+ * Action to resume a game after the server has crashed or a player has lost connection.
+ * The reconnecting player receives either a snapshot of the game or, if the server still remembers them, the actions
+ * executed since the last version of the game the player has seen.
  */
 public class ResumeGameAction extends ServerAction {
 
     /**
-     * The reference to the game model
+     * The reference to the game model, null if the missed actions are sent instead
      */
     private final Game game;
 
+    /**
+     * The actions missed by the reconnecting player, null if a snapshot of the game is sent instead
+     */
+    private final List<Action> missedActions;
+
     /**
      * Constructor
      *
-     * @param game the game model
+     * @param game     the game model
+     * @param identity the identity of the reconnecting player
      */
     public ResumeGameAction(Game game, String identity) {
         super(identity);
 
         this.game = game;
+        this.missedActions = null;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param identity      the identity of the reconnecting player
+     * @param missedActions the actions executed since the last version of the game seen by the player
+     */
+    public ResumeGameAction(String identity, List<Action> missedActions) {
+        super(identity);
+
+        this.game = null;
+        this.missedActions = missedActions;
     }
 
     /**
@@ -68,7 +93,17 @@ public class ResumeGameAction extends ServerAction {
      */
     @Override
     public void reflect(ClientState state) {
-        state.setGameModel(game);
+        if (game != null) {
+            state.setGameModel(game);
+        } else {
+            // Only the reconnecting player has missed the actions, the others just see the player coming back
+            if (state.getIdentity().equals(getIdentity())) {
+                missedActions.forEach(action -> action.replay(state));
+            }
+
+            replay(state);
+        }
+
         state.getGameModel().setSelfNickname(state.getNickname());
 
         Player self = state.getGameModel().getSelf();
@@ -82,4 +117,14 @@ public class ResumeGameAction extends ServerAction {
         state.notifyGameModelUpdate();
     }
 
+    /**
+     * Replay the action on the client state
+     *
+     * @param state the client state
+     */
+    @Override
+    public void replay(ClientState state) {
+        execute(state.getGameModel());
+    }
+
 }
@@ -248,7 +248,7 @@ public class CLI implements UserInterface {
                     }
                 } else {
                     clientState.setPlayerState(PlayerState.SLEEPING);
-                    controller.execute(new ReconnectAction(clientState.getNickname(), clientState.getIdentity()));
+                    controller.execute(new ReconnectAction(clientState.getNickname(), clientState.getIdentity(), clientState.getGameId(), clientState.getGameVersion()));
                 }
 
                 break;
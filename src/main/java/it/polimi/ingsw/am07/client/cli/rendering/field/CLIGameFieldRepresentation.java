@@ -90,6 +90,12 @@ public class CLIGameFieldRepresentation implements CLIElement {
         CLISideRepresentation representation = new CLISideRepresentation.Factory(side).large();
         GameFieldPosition newPosition = mapToCliPosition(position, representation.width(), representation.height(), representation.overlapAmount());
 
+        // Set the opposite corners first, so that the matrix is extended at most twice per card instead of once per column
+        int lastX = representation.width() - 1;
+        int lastY = representation.height() - 1;
+        fieldRepresentation.set(newPosition.x(), newPosition.y(), representation.getMatrix().get(0, 0));
+        fieldRepresentation.set(newPosition.x() + lastX, newPosition.y() + lastY, representation.getMatrix().get(lastX, lastY));
+
         for (int x = newPosition.x(); x < newPosition.x() + representation.width(); x++) {
             for (int y = newPosition.y(); y < newPosition.y() + representation.height(); y++) {
                 fieldRepresentation.set(x, y, representation.getMatrix().get(x - newPosition.x(), y - newPosition.y()));
@@ -294,7 +294,7 @@ public class GUI extends javafx.application.Application implements UserInterface
                 controller = clientNetworkManager.getController();
 
                 if (controller != null) {
-                    controller.execute(new ReconnectAction(state.getNickname(), state.getIdentity()));
+                    controller.execute(new ReconnectAction(state.getNickname(), state.getIdentity(), state.getGameId(), state.getGameVersion()));
                     break;
                 }
 
@@ -309,7 +309,7 @@ public class GUI extends javafx.application.Application implements UserInterface
                         controller = clientNetworkManager.getController();
 
                         if (controller != null) {
-                            controller.execute(new ReconnectAction(state.getNickname(), state.getIdentity()));
+                            controller.execute(new ReconnectAction(state.getNickname(), state.getIdentity(), state.getGameId(), state.getGameVersion()));
                         }
                     } catch (Exception e) {
                         LOGGER.error(e);
@@ -40,7 +40,7 @@ import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
 import it.polimi.ingsw.am07.model.game.side.Side;
 import it.polimi.ingsw.am07.model.game.side.SideBack;
 import it.polimi.ingsw.am07.reactive.Controller;
-import it.polimi.ingsw.am07.utils.matrix.Matrix;
+import it.polimi.ingsw.am07.utils.matrix.SymbolMatrix;
 import it.polimi.ingsw.am07.utils.logging.AppLogger;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
@@ -481,21 +481,21 @@ public class PlayerViewController {
         GameFieldPosition bottomLeft = new GameFieldPosition((int) ((x - DELTA_X) / (DELTA_X)), (int) ((y - DELTA_Y) / (DELTA_Y)));
         GameFieldPosition bottomRight = new GameFieldPosition((int) ((x + DELTA_X) / (DELTA_X)), (int) ((y - DELTA_Y) / (DELTA_Y)));
 
-        Side side = new SideBack(0, null, null, Symbol.GREEN);
+        Set<GameFieldPosition> availablePositions = clientState.getGameModel().getSelf().getAvailablePositions();
 
-        if (clientState.getGameModel().getSelf().canBePlacedAt(side, topLeft)) {
+        if (availablePositions.contains(topLeft)) {
             createNewRectangle(x - DELTA_X, y + DELTA_Y);
         }
 
-        if (clientState.getGameModel().getSelf().canBePlacedAt(side, topRight)) {
+        if (availablePositions.contains(topRight)) {
             createNewRectangle(x + DELTA_X, y + DELTA_Y);
         }
 
-        if (clientState.getGameModel().getSelf().canBePlacedAt(side, bottomLeft)) {
+        if (availablePositions.contains(bottomLeft)) {
             createNewRectangle(x - DELTA_X, y - DELTA_Y);
         }
 
-        if (clientState.getGameModel().getSelf().canBePlacedAt(side, bottomRight)) {
+        if (availablePositions.contains(bottomRight)) {
             createNewRectangle(x + DELTA_X, y - DELTA_Y);
         }
     }
@@ -594,7 +594,7 @@ public class PlayerViewController {
      */
     private void render(Player player) {
         Map<GameFieldPosition, Side> placedCards = new HashMap<>(player.getPlacedCards());
-        Matrix<Symbol> myMatrix = player.getPlayerGameField().getFieldMatrix();
+        SymbolMatrix myMatrix = player.getPlayerGameField().getFieldMatrix();
 
         int minX = myMatrix.getMinX();
         int minY = myMatrix.getMinY();
@@ -92,7 +92,7 @@ public class WelcomeViewController {
      * @param clientState the updated client state containing lobby information
      */
     private void updateView(ClientState clientState) {
-        LOGGER.info("Lobby available: " + clientState.getAvailableLobbies().size());
+        LOGGER.info("Lobby available: {0,number,#}", clientState.getAvailableLobbies().size());
         if (!clientState.getAvailableLobbies().isEmpty()) {
             for (Lobby lobby : clientState.getAvailableLobbies()) {
                 try {
@@ -112,7 +112,7 @@ public class WelcomeViewController {
                 }
             }
         }
-        LOGGER.info("Welcome view, Client state updated: " + clientState);
+        LOGGER.info("Welcome view, Client state updated: {0}", clientState);
     }
 
     /**
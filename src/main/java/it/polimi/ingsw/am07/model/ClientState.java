@@ -28,6 +28,7 @@ import it.polimi.ingsw.am07.model.game.Player;
 import it.polimi.ingsw.am07.model.lobby.Lobby;
 
 import java.util.List;
+import java.util.UUID;
 import java.util.function.Consumer;
 
 /**
@@ -109,6 +110,37 @@ public class ClientState {
         this.gameModel.setSelfNickname(nickname);
     }
 
+    /**
+     * Retrieves the id of the local game model.
+     * It is sent to the server on reconnection, together with the version of the game.
+     *
+     * @return The id of the local game model, or null if there is no game.
+     */
+    public UUID getGameId() {
+        return gameModel == null ? null : gameModel.getId();
+    }
+
+    /**
+     * Retrieves the version of the local game model.
+     * It is sent to the server on reconnection, so that only the missed actions have to be sent back.
+     *
+     * @return The version of the local game model, or 0 if there is no game.
+     */
+    public long getGameVersion() {
+        return gameModel == null ? 0 : gameModel.getVersion();
+    }
+
+    /**
+     * Sets the version of the local game model, after an action of the game has been reflected on it.
+     *
+     * @param gameVersion The version of the game after the action.
+     */
+    public void setGameVersion(long gameVersion) {
+        if (gameModel != null) {
+            gameModel.setVersion(gameVersion);
+        }
+    }
+
     /**
      * Retrieves the local lobby model.
      *
@@ -29,30 +29,108 @@ import it.polimi.ingsw.am07.utils.assets.GameResources;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.Random;
 import java.util.function.Supplier;
 
 /**
  * Represents the game deck.
- *
- * @param availableResCards  the uncovered resource cards
- * @param availableGoldCards the uncovered gold cards
- * @param visibleResCards    the visible resource cards
- * @param visibleGoldCards   the visible gold cards
+ * The deck keeps a table with the location of every card, indexed by card id, so that checking and popping a card
+ * does not scan the piles. The piles must only be changed through the methods of the deck.
  */
-public record Deck(
-        List<GameCard> availableResCards,
-        List<GameCard> availableGoldCards,
-        GameCard[] visibleResCards,
-        GameCard[] visibleGoldCards
-) implements Serializable {
+public final class Deck implements Serializable {
 
     /**
      * The number of visible cards in the deck.
      */
     public static final int VISIBLE_CARDS_COUNT = 2;
 
+    private static final byte NOT_IN_DECK = 0;
+    private static final byte RES_PILE = 1;
+    private static final byte GOLD_PILE = 2;
+    private static final byte VISIBLE_RES = 3;
+    private static final byte VISIBLE_GOLD = VISIBLE_RES + VISIBLE_CARDS_COUNT;
+
+    /**
+     * The uncovered resource cards.
+     */
+    private final List<GameCard> availableResCards;
+
+    /**
+     * The uncovered gold cards.
+     */
+    private final List<GameCard> availableGoldCards;
+
+    /**
+     * The visible resource cards.
+     */
+    private final GameCard[] visibleResCards;
+
+    /**
+     * The visible gold cards.
+     */
+    private final GameCard[] visibleGoldCards;
+
+    /**
+     * The location of every card, indexed by card id: a pile, a visible slot, or not in the deck.
+     * It is derived from the piles, and rebuilt when missing, for example after deserialization.
+     */
+    private transient byte[] locations;
+
+    /**
+     * Constructs a new deck.
+     *
+     * @param availableResCards  the uncovered resource cards
+     * @param availableGoldCards the uncovered gold cards
+     * @param visibleResCards    the visible resource cards
+     * @param visibleGoldCards   the visible gold cards
+     */
+    public Deck(List<GameCard> availableResCards, List<GameCard> availableGoldCards, GameCard[] visibleResCards, GameCard[] visibleGoldCards) {
+        this.availableResCards = availableResCards;
+        this.availableGoldCards = availableGoldCards;
+        this.visibleResCards = visibleResCards;
+        this.visibleGoldCards = visibleGoldCards;
+    }
+
+    /**
+     * Returns the uncovered resource cards, the first one being the top of the pile.
+     *
+     * @return the uncovered resource cards
+     */
+    public List<GameCard> availableResCards() {
+        return availableResCards;
+    }
+
+    /**
+     * Returns the uncovered gold cards, the first one being the top of the pile.
+     *
+     * @return the uncovered gold cards
+     */
+    public List<GameCard> availableGoldCards() {
+        return availableGoldCards;
+    }
+
+    /**
+     * Returns the visible resource cards.
+     *
+     * @return the visible resource cards
+     */
+    public GameCard[] visibleResCards() {
+        return visibleResCards;
+    }
+
+    /**
+     * Returns the visible gold cards.
+     *
+     * @return the visible gold cards
+     */
+    public GameCard[] visibleGoldCards() {
+        return visibleGoldCards;
+    }
+
     /**
      * This method is used to peek at the top resource card in the deck.
      * It first checks if the list of available resource cards is empty.
@@ -113,7 +191,7 @@ public record Deck(
             return null;
         }
 
-        return availableResCards.removeFirst();
+        return moveCard(availableResCards.removeFirst(), NOT_IN_DECK);
     }
 
     /**
@@ -126,72 +204,193 @@ public record Deck(
             return null;
         }
 
-        return availableGoldCards.removeFirst();
+        return moveCard(availableGoldCards.removeFirst(), NOT_IN_DECK);
+    }
+
+    /**
+     * Checks whether a card can be picked by a player: it is either one of the visible cards or the top card of a pile.
+     *
+     * @param card the card to check
+     * @return true if the card can be picked, false otherwise
+     */
+    public boolean isPickable(GameCard card) {
+        return card != null && switch (locationOf(card.id())) {
+            case NOT_IN_DECK -> false;
+            case RES_PILE -> availableResCards.getFirst().id() == card.id();
+            case GOLD_PILE -> availableGoldCards.getFirst().id() == card.id();
+            default -> true;
+        };
     }
 
     /**
      * Pops a card from the deck and, if needed, replaces it with a substitute card.
+     * Only the cards that can be picked by a player, as checked by {@link #isPickable(GameCard)}, can be popped.
      *
      * @param card the card to pop
      * @throws CardNotFoundException if the card is not found in the deck
      */
     public void popCard(GameCard card) throws CardNotFoundException {
-        if (popHiddenCard(card, availableResCards)) {
-            return;
+        if (!isPickable(card)) {
+            throw new CardNotFoundException("Card not found in the deck");
         }
 
-        if (popHiddenCard(card, availableGoldCards)) {
-            return;
-        }
+        byte location = locationOf(card.id());
 
-        if (popVisibleCard(card, this::popRandomResCard, visibleResCards)) {
-            return;
+        if (location == RES_PILE) {
+            popRandomResCard();
+        } else if (location == GOLD_PILE) {
+            popRandomGoldCard();
+        } else if (location < VISIBLE_GOLD) {
+            popVisibleCard(location - VISIBLE_RES, this::popRandomResCard, visibleResCards, VISIBLE_RES);
+        } else {
+            popVisibleCard(location - VISIBLE_GOLD, this::popRandomGoldCard, visibleGoldCards, VISIBLE_GOLD);
         }
+    }
 
-        if (popVisibleCard(card, this::popRandomGoldCard, visibleGoldCards)) {
-            return;
-        }
+    /**
+     * Pops a visible card from the deck
+     *
+     * @param slot       the slot of the card to pop
+     * @param substitute the card to replace the popped card with
+     * @param target     the array from which to pop the card
+     * @param firstSlot  the location of the first slot of the array
+     */
+    private void popVisibleCard(int slot, Supplier<GameCard> substitute, GameCard[] target, byte firstSlot) {
+        moveCard(target[slot], NOT_IN_DECK);
+        target[slot] = moveCard(substitute.get(), (byte) (firstSlot + slot));
+    }
 
-        throw new CardNotFoundException("Card not found in the deck");
+    /**
+     * Computes the hash code of a card from its id.
+     *
+     * @param card the card, or null
+     * @return the hash code of the card
+     */
+    private static int hashOf(GameCard card) {
+        return card == null ? 0 : Integer.hashCode(card.id());
     }
 
     /**
-     * Pops a card from the deck
+     * Retrieves the location of a card.
      *
-     * @param card   the card to pop
-     * @param target the list from which to pop the card
-     * @return true if the card was found and popped, false otherwise
+     * @param id the id of the card
+     * @return the location of the card
      */
-    private boolean popHiddenCard(GameCard card, List<GameCard> target) {
-        for (GameCard c : target) {
-            if (c.equals(card)) {
-                target.remove(c);
+    private byte locationOf(int id) {
+        byte[] table = getLocations();
+        return id >= 0 && id < table.length ? table[id] : NOT_IN_DECK;
+    }
 
-                return true;
-            }
+    /**
+     * Records the new location of a card.
+     *
+     * @param card     the card, or null
+     * @param location the new location of the card
+     * @return the card
+     */
+    private GameCard moveCard(GameCard card, byte location) {
+        if (card != null) {
+            getLocations()[card.id()] = location;
         }
-
-        return false;
+        return card;
     }
 
     /**
-     * Pops a visible card from the deck
+     * Retrieves the location table, building it if needed.
      *
-     * @param card       the card to pop
-     * @param substitute the card to replace the popped card with
-     * @param target     the array from which to pop the card
-     * @return true if the card was found and popped, false otherwise
+     * @return the location of every card, indexed by card id
      */
-    private boolean popVisibleCard(GameCard card, Supplier<GameCard> substitute, GameCard[] target) {
-        for (int i = 0; i < target.length; i++) {
-            if (target[i].equals(card)) {
-                target[i] = substitute.get();
+    private byte[] getLocations() {
+        if (locations == null) {
+            int maxId = -1;
+            for (GameCard card : availableResCards) {
+                maxId = Math.max(maxId, card.id());
+            }
+            for (GameCard card : availableGoldCards) {
+                maxId = Math.max(maxId, card.id());
+            }
+            for (int i = 0; i < VISIBLE_CARDS_COUNT; i++) {
+                maxId = Math.max(maxId, visibleResCards[i] == null ? -1 : visibleResCards[i].id());
+                maxId = Math.max(maxId, visibleGoldCards[i] == null ? -1 : visibleGoldCards[i].id());
+            }
 
-                return true;
+            byte[] table = new byte[maxId + 1];
+            for (GameCard card : availableResCards) {
+                table[card.id()] = RES_PILE;
             }
+            for (GameCard card : availableGoldCards) {
+                table[card.id()] = GOLD_PILE;
+            }
+            for (int i = 0; i < VISIBLE_CARDS_COUNT; i++) {
+                if (visibleResCards[i] != null) {
+                    table[visibleResCards[i].id()] = (byte) (VISIBLE_RES + i);
+                }
+                if (visibleGoldCards[i] != null) {
+                    table[visibleGoldCards[i].id()] = (byte) (VISIBLE_GOLD + i);
+                }
+            }
+            locations = table;
+        }
+        return locations;
+    }
+
+    /**
+     * Checks whether two decks hold the same cards in the same places.
+     * The location table is derived from the piles, so it is not compared.
+     *
+     * @param o the object to compare with
+     * @return true if the decks are equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Deck deck)) {
+            return false;
         }
 
-        return false;
+        return Objects.equals(availableResCards, deck.availableResCards)
+                && Objects.equals(availableGoldCards, deck.availableGoldCards)
+                && Arrays.equals(visibleResCards, deck.visibleResCards)
+                && Arrays.equals(visibleGoldCards, deck.visibleGoldCards);
+    }
+
+    /**
+     * Computes the hash code of the deck, consistent with {@link #equals(Object)}.
+     * Cards are equal when they have the same id, so the ids are hashed instead of the cards.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (GameCard card : availableResCards) {
+            result = 31 * result + hashOf(card);
+        }
+        for (GameCard card : availableGoldCards) {
+            result = 31 * result + hashOf(card);
+        }
+        for (GameCard card : visibleResCards) {
+            result = 31 * result + hashOf(card);
+        }
+        for (GameCard card : visibleGoldCards) {
+            result = 31 * result + hashOf(card);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a description of the deck, in the same form as the one of a record.
+     *
+     * @return the description of the deck
+     */
+    @Override
+    public String toString() {
+        return "Deck[availableResCards=" + availableResCards
+                + ", availableGoldCards=" + availableGoldCards
+                + ", visibleResCards=" + Arrays.toString(visibleResCards)
+                + ", visibleGoldCards=" + Arrays.toString(visibleGoldCards) + "]";
     }
 
     /**
@@ -225,6 +424,11 @@ public record Deck(
          */
         private boolean mustBeInitialized = true;
 
+        /**
+         * The source of randomness used to shuffle a new deck, or null to use a default one.
+         */
+        private Random random;
+
         /**
          * Constructs a new Factory instance.
          */
@@ -284,6 +488,17 @@ public record Deck(
         }
 
 
+        /**
+         * This method is used to set the source of randomness used to shuffle a new deck, so that it can be reproduced.
+         *
+         * @param random the source of randomness
+         * @return the Factory instance
+         */
+        public Factory withRandom(Random random) {
+            this.random = random;
+            return this;
+        }
+
         /**
          * This method is used to build a new deck of cards.
          *
@@ -338,8 +553,9 @@ public record Deck(
             List<GameCard> resourceCards = new ArrayList<>(gameResources.getResourceCards());
             List<GameCard> goldCards = new ArrayList<>(gameResources.getGoldCards());
 
-            Collections.shuffle(resourceCards);
-            Collections.shuffle(goldCards);
+            Random random = this.random != null ? this.random : new Random();
+            Collections.shuffle(resourceCards, random);
+            Collections.shuffle(goldCards, random);
 
             GameCard[] visibleResCards = new GameCard[VISIBLE_CARDS_COUNT];
             GameCard[] visibleGoldCards = new GameCard[VISIBLE_CARDS_COUNT];
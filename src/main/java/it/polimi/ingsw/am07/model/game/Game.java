@@ -35,6 +35,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -90,6 +91,11 @@ public class Game implements Serializable {
      */
     private GameState gameState;
 
+    /**
+     * The version of the game, incremented by the server every time an action is executed on it.
+     */
+    private long version;
+
     /**
      * Constructor for the Game class, called by Lobby Class.
      * <strong>SHOULD NEVER BE CALLED IF NOT BY THE COMPANION FACTORY!</strong>
@@ -98,18 +104,46 @@ public class Game implements Serializable {
      * @param commonObjectives the common objectives in the game
      */
     public Game(List<Player> players, ObjectiveCard[] commonObjectives) {
-        this.commonObjectives = commonObjectives;
-        this.players = players;
-        this.selfNickname = null;
+        this(players, commonObjectives, new Deck.Factory().build());
+    }
+
+    /**
+     * Constructor for the Game class, with an already built deck.
+     *
+     * @param players          the list of players in the game
+     * @param commonObjectives the common objectives in the game
+     * @param deck             the deck of the game
+     */
+    private Game(List<Player> players, ObjectiveCard[] commonObjectives, Deck deck) {
+        this(UUID.randomUUID(), players, new ArrayList<>(), deck, commonObjectives);
 
-        disconnectedPlayers = new ArrayList<>();
+        for (Player player : players) {
+            player.setCommonObjectives(commonObjectives);
+        }
 
-        id = UUID.randomUUID();
         currentPlayerIndex = 0;
-        deck = new Deck.Factory().build();
         gameState = GameState.STARTING;
     }
 
+    /**
+     * Constructor for the Game class from its final fields, without building anything.
+     * It is used by the binary codec, which assigns the other fields afterwards.
+     *
+     * @param id                  the id of the game
+     * @param players             the list of players in the game
+     * @param disconnectedPlayers the list of disconnected players
+     * @param deck                the deck of the game
+     * @param commonObjectives    the common objectives in the game
+     */
+    private Game(UUID id, List<Player> players, List<Player> disconnectedPlayers, Deck deck, ObjectiveCard[] commonObjectives) {
+        this.id = id;
+        this.players = players;
+        this.disconnectedPlayers = disconnectedPlayers;
+        this.deck = deck;
+        this.commonObjectives = commonObjectives;
+        this.selfNickname = null;
+    }
+
     /**
      * Constructor for the Game class, which creates a shallow copy of the game object.
      *
@@ -129,6 +163,7 @@ public class Game implements Serializable {
         this.currentPlayerIndex = other.currentPlayerIndex;
         this.gameState = other.gameState;
         this.disconnectedPlayers = new ArrayList<>(other.disconnectedPlayers);
+        this.version = other.version;
     }
 
     /**
@@ -140,6 +175,33 @@ public class Game implements Serializable {
         return id;
     }
 
+    /**
+     * This method returns the version of the game.
+     *
+     * @return the number of actions executed on the game
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * This method increments the version of the game, after an action has been executed on it.
+     *
+     * @return the new version of the game
+     */
+    public long incrementVersion() {
+        return ++version;
+    }
+
+    /**
+     * This method sets the version of the game, used by the clients to follow the version of the server's game.
+     *
+     * @param version the version of the game
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     /**
      * This method returns the list of players in the game.
      *
@@ -338,11 +400,9 @@ public class Game implements Serializable {
      */
     public List<Player> getWinners() throws IllegalGameStateException {
         if (gameState == GameState.ENDED) {
-            // calculate contributing score of objective cards
+            // contributing score of objective cards, tracked while the cards were placed
             for (Player player : players) {
-                player.evaluateObjectiveScore(player.getPlayerObjectiveCard());
-                player.evaluateObjectiveScore(commonObjectives[0]);
-                player.evaluateObjectiveScore(commonObjectives[1]);
+                player.evaluateObjectiveScore();
             }
 
             int maxScore = players.stream()
@@ -441,11 +501,17 @@ public class Game implements Serializable {
          */
         private Lobby lobby;
 
+        /**
+         * The source of randomness used to deal the cards and to choose the order of the players, or null to use a default one.
+         */
+        private Random random;
+
         /**
          * Constructor for the Factory class.
          */
         public Factory() {
             this.lobby = null;
+            this.random = null;
         }
 
         /**
@@ -460,6 +526,18 @@ public class Game implements Serializable {
             return this;
         }
 
+        /**
+         * This method sets the source of randomness of the game, so that a game can be reproduced from a seed.
+         *
+         * @param random the source of randomness
+         * @return the factory object
+         */
+        public Factory withRandom(Random random) {
+            this.random = random;
+
+            return this;
+        }
+
         /**
          * This method builds the game object.
          *
@@ -468,8 +546,9 @@ public class Game implements Serializable {
         public Game build() {
             // Initialize an empty list of players and get the shuffled objective cards
             List<Player> players = new ArrayList<>();
-            List<ObjectiveCard> objectiveCards = GameResources.getInstance().getShuffledObjectiveCards();
-            List<GameCard> starterCards = GameResources.getInstance().getShuffledStarterCards();
+            Random random = this.random != null ? this.random : new Random();
+            List<ObjectiveCard> objectiveCards = GameResources.getInstance().getShuffledObjectiveCards(random);
+            List<GameCard> starterCards = GameResources.getInstance().getShuffledStarterCards(random);
 
             // Pick the common objectives
             ObjectiveCard[] commonObjectives = new ObjectiveCard[2];
@@ -477,7 +556,7 @@ public class Game implements Serializable {
             commonObjectives[1] = objectiveCards.removeFirst();
 
             // Create the game object
-            Game game = new Game(players, commonObjectives);
+            Game game = new Game(players, commonObjectives, new Deck.Factory().withRandom(random).build());
 
             // Create a player for each lobbyPlayer in the lobby
             for (LobbyPlayer lobbyPlayer : lobby.getPlayers()) {
@@ -486,6 +565,7 @@ public class Game implements Serializable {
                 availableObjectives[1] = objectiveCards.removeFirst();
 
                 Player player = new Player(lobbyPlayer.getNickname(), lobbyPlayer.getIdentity(), lobbyPlayer.getPlayerPawn(), starterCards.removeFirst(), availableObjectives);
+                player.setCommonObjectives(commonObjectives);
 
                 players.add(player);
             }
@@ -505,7 +585,7 @@ public class Game implements Serializable {
             }
 
             // Shuffle the player list
-            Collections.shuffle(players);
+            Collections.shuffle(players, random);
 
             return game;
         }
@@ -0,0 +1,89 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.model.game;
+
+import it.polimi.ingsw.am07.model.game.card.ObjectiveCard;
+import it.polimi.ingsw.am07.model.game.gamefield.GameField;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
+
+import java.util.List;
+
+/**
+ * Keeps the score of a player's objective cards up to date while cards are placed, so that the current objective
+ * score is always available without calculating it again.
+ * After each placement, only the objectives whose score may have changed are updated, each from its own score.
+ */
+public class ObjectiveTracker {
+
+    private final ResourceHolder playerResources;
+    private final GameField playerGameField;
+    private final ObjectiveCard[] objectives;
+    private final int[] scores;
+    private int score;
+
+    /**
+     * Constructs a new ObjectiveTracker, calculating the current score of the objectives.
+     *
+     * @param playerResources the resources of the player
+     * @param playerGameField the game field of the player
+     * @param objectives      the objective cards to track
+     */
+    public ObjectiveTracker(ResourceHolder playerResources, GameField playerGameField, List<ObjectiveCard> objectives) {
+        this.playerResources = playerResources;
+        this.playerGameField = playerGameField;
+        this.objectives = objectives.toArray(new ObjectiveCard[0]);
+        this.scores = new int[this.objectives.length];
+
+        for (int i = 0; i < this.objectives.length; i++) {
+            scores[i] = this.objectives[i].calculateScore(playerResources, playerGameField);
+            score += scores[i];
+        }
+    }
+
+    /**
+     * Updates the scores after a card has been placed on the game field and its resources have been added.
+     *
+     * @param position        the position of the placed card
+     * @param placedResources the resources added by the placed card, minus the ones of the corners it covers
+     */
+    public void onCardPlaced(GameFieldPosition position, ResourceHolder placedResources) {
+        for (int i = 0; i < objectives.length; i++) {
+            if (objectives[i].mayChangeScore(placedResources, playerGameField, position)) {
+                int newScore = objectives[i].updateScore(scores[i], playerResources, playerGameField, position);
+                score += newScore - scores[i];
+                scores[i] = newScore;
+            }
+        }
+    }
+
+    /**
+     * Returns the current score of all the tracked objectives.
+     *
+     * @return the sum of the current scores of the objectives
+     */
+    public int getScore() {
+        return score;
+    }
+
+}
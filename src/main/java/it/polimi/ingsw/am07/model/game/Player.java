@@ -32,10 +32,12 @@ import it.polimi.ingsw.am07.model.game.gamefield.GameField;
 import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
 import it.polimi.ingsw.am07.model.game.side.Side;
 
+import java.io.Serial;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This class represents a player in the game.
@@ -107,6 +109,16 @@ public class Player implements Serializable {
      */
     private ObjectiveCard playerObjectiveCard;
 
+    /**
+     * The objective cards shared by all the players of the game.
+     */
+    private ObjectiveCard[] commonObjectives;
+
+    /**
+     * The tracker of the current score of the objective cards, rebuilt whenever the objectives change.
+     */
+    private transient ObjectiveTracker objectiveTracker;
+
     /**
      * Constructs a new Player with the specified parameters.
      *
@@ -117,18 +129,40 @@ public class Player implements Serializable {
      * @param availableObjectives The available objective cards for the player.
      */
     public Player(String nickname, String identity, Pawn playerPawn, GameCard starterCard, ObjectiveCard[] availableObjectives) {
+        this(nickname, identity, playerPawn, starterCard, availableObjectives,
+                new ResourceHolder(), new GameField(), new ArrayList<>(), new PlayerChat(new ArrayList<>(), nickname));
+
+        rebuildObjectiveTracker();
+    }
+
+    /**
+     * Constructs a Player from its final fields, without building anything.
+     * It is used by the binary codec, which assigns the other fields and rebuilds the objective tracker afterwards.
+     *
+     * @param nickname            The nickname of the player.
+     * @param identity            The identity of the player.
+     * @param playerPawn          The pawn associated with the player.
+     * @param starterCard         The starter card of the player.
+     * @param availableObjectives The available objective cards for the player.
+     * @param playerResources     The resources of the player.
+     * @param playerGameField     The game field of the player.
+     * @param playableCards       The cards in the hand of the player.
+     * @param chat                The chat of the player.
+     */
+    private Player(String nickname, String identity, Pawn playerPawn, GameCard starterCard, ObjectiveCard[] availableObjectives,
+                   ResourceHolder playerResources, GameField playerGameField, List<GameCard> playableCards, PlayerChat chat) {
         this.nickname = nickname;
         this.playerPawn = playerPawn;
         this.availableObjectives = availableObjectives;
         this.starterCard = starterCard;
         this.identity = identity;
 
-        this.playerResources = new ResourceHolder();
-        this.playerGameField = new GameField();
-        this.playableCards = new ArrayList<>();
+        this.playerResources = playerResources;
+        this.playerGameField = playerGameField;
+        this.playableCards = playableCards;
         this.playerObjectiveCard = null;
 
-        this.chat = new PlayerChat(new ArrayList<>(), nickname);
+        this.chat = chat;
     }
 
 
@@ -175,6 +209,17 @@ public class Player implements Serializable {
      */
     public void setPlayerObjectiveCard(ObjectiveCard playerObjectiveCard) {
         this.playerObjectiveCard = playerObjectiveCard;
+        rebuildObjectiveTracker();
+    }
+
+    /**
+     * Sets the objective cards shared by all the players of the game.
+     *
+     * @param commonObjectives The common objective cards.
+     */
+    public void setCommonObjectives(ObjectiveCard[] commonObjectives) {
+        this.commonObjectives = commonObjectives;
+        rebuildObjectiveTracker();
     }
 
     /**
@@ -244,6 +289,8 @@ public class Player implements Serializable {
         // the associated score of a gold card includes the resources added by the card itself
         playerScore += card.calculateAssociatedScore(playerResources, coveredCorners);
 
+        objectiveTracker().onCardPlaced(pos, diff);
+
         // I have to remove the card from the hand
         if (card.color() != Symbol.STARTER) {
             try {
@@ -264,6 +311,15 @@ public class Player implements Serializable {
         return playerGameField.getPlacedCards();
     }
 
+    /**
+     * Retrieves the positions of the game field where a card can currently be placed, regardless of its requirements.
+     *
+     * @return An unmodifiable set of the available positions.
+     */
+    public Set<GameFieldPosition> getAvailablePositions() {
+        return playerGameField.getAvailablePositions();
+    }
+
     /**
      * Retrieves the list of playable cards.
      *
@@ -283,9 +339,11 @@ public class Player implements Serializable {
      * @author Gabriele Corti
      */
     private void removeCardFromHand(Side side) throws IllegalArgumentException {
-        for (GameCard c : playableCards) {
-            if (c.front().equals(side) || c.back().equals(side)) {
-                playableCards.remove(c);
+        for (int i = 0; i < playableCards.size(); i++) {
+            GameCard c = playableCards.get(i);
+            // Compare the ids first, to avoid comparing the sides of every card in the hand
+            if (c.id() == side.id() && (c.front().equals(side) || c.back().equals(side))) {
+                playableCards.remove(i);
                 return;
             }
         }
@@ -313,12 +371,63 @@ public class Player implements Serializable {
     }
 
     /**
-     * Evalutes the score the player has achieved for the provided objective card.
+     * Evaluates the final score the player has achieved for the personal and common objective cards.
+     * It can be called more than once: the score is not added again.
+     */
+    public void evaluateObjectiveScore() {
+        this.playerObjectiveScore = getProvisionalObjectiveScore();
+    }
+
+    /**
+     * Retrieves the score the player would achieve for the personal and common objective cards if the game ended now.
+     *
+     * @return The current score of the objective cards.
+     */
+    public int getProvisionalObjectiveScore() {
+        return objectiveTracker().getScore();
+    }
+
+    /**
+     * Retrieves the objective tracker, building it if the player has been decoded without running its
+     * constructor or readResolve, as the json serializer does.
+     *
+     * @return The objective tracker of the player.
+     */
+    private ObjectiveTracker objectiveTracker() {
+        if (objectiveTracker == null) {
+            rebuildObjectiveTracker();
+        }
+        return objectiveTracker;
+    }
+
+    /**
+     * Builds the tracker of the personal and common objective cards set so far, calculating their current score.
+     */
+    private void rebuildObjectiveTracker() {
+        List<ObjectiveCard> objectives = new ArrayList<>();
+        if (playerObjectiveCard != null) {
+            objectives.add(playerObjectiveCard);
+        }
+        if (commonObjectives != null) {
+            for (ObjectiveCard objective : commonObjectives) {
+                if (objective != null) {
+                    objectives.add(objective);
+                }
+            }
+        }
+        objectiveTracker = new ObjectiveTracker(playerResources, playerGameField, objectives);
+    }
+
+    /**
+     * Rebuilds the objective tracker, which is not serialized, once the player has been deserialized.
+     * It is invoked by Java serialization and by the binary codec.
      *
-     * @param objective The objective card for which the score is to be evaluated.
+     * @return This player.
      */
-    public void evaluateObjectiveScore(ObjectiveCard objective) {
-        this.playerObjectiveScore += objective.calculateScore(new ResourceHolder(playerResources), playerGameField);
+    @Serial
+    private Object readResolve() {
+        rebuildObjectiveTracker();
+        return this;
     }
 
     /**
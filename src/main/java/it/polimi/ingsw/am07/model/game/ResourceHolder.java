@@ -25,6 +25,11 @@ package it.polimi.ingsw.am07.model.game;
 
 import it.polimi.ingsw.am07.model.game.side.SideFieldRepresentation;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+import java.io.Serial;
 import java.io.Serializable;
 import java.util.EnumMap;
 import java.util.List;
@@ -34,16 +39,31 @@ import java.util.Map;
  * This class represents the resources that a player can have in his possession.
  * Additionally, it is used to represent the resources that a card side provides,
  * or the resources required for a side to be placed on the game field.
+ * The amounts are stored in an array indexed by the symbol ordinal, while every serialized form still
+ * holds a map from symbol to amount, with the symbols whose amount is not zero.
  */
 public class ResourceHolder implements Serializable {
 
-    private final Map<Symbol, Integer> resources;
+    @Serial
+    private static final long serialVersionUID = 1607883212268150437L;
+
+    /**
+     * The serialized form of the resource holder, kept from when the amounts were stored in a map.
+     */
+    @Serial
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("resources", Map.class)
+    };
+
+    private static final Symbol[] SYMBOLS = Symbol.values();
+
+    private int[] resources;
 
     /**
      * Default constructor, initializes an empty resource holder.
      */
     public ResourceHolder() {
-        resources = new EnumMap<>(Symbol.class);
+        resources = new int[SYMBOLS.length];
     }
 
     /**
@@ -82,8 +102,23 @@ public class ResourceHolder implements Serializable {
      * @param resourceHolder the resource holder to copy.
      */
     public ResourceHolder(ResourceHolder resourceHolder) {
+        resources = resourceHolder.resources.clone();
+    }
+
+    /**
+     * Constructor that initializes a resource holder with the amounts of a map.
+     * Symbols that are not resources are ignored.
+     *
+     * @param resources the amount of every resource.
+     */
+    public ResourceHolder(Map<Symbol, Integer> resources) {
         this();
-        add(resourceHolder);
+
+        for (Map.Entry<Symbol, Integer> entry : resources.entrySet()) {
+            if (entry.getKey() != null && entry.getKey().isResource() && entry.getValue() != null) {
+                this.resources[entry.getKey().ordinal()] = entry.getValue();
+            }
+        }
     }
 
     /**
@@ -93,14 +128,8 @@ public class ResourceHolder implements Serializable {
      * @param symbol the resource to increment.
      */
     public void incrementResource(Symbol symbol) {
-        if (!symbol.isResource()) {
-            return;
-        }
-
-        if (resources.containsKey(symbol)) {
-            resources.put(symbol, resources.get(symbol) + 1);
-        } else {
-            resources.put(symbol, 1);
+        if (symbol.isResource()) {
+            ++resources[symbol.ordinal()];
         }
     }
 
@@ -111,14 +140,8 @@ public class ResourceHolder implements Serializable {
      * @param symbol the resource to decrement.
      */
     public void decrementResource(Symbol symbol) {
-        if (!symbol.isResource()) {
-            return;
-        }
-
-        if (resources.containsKey(symbol)) {
-            resources.put(symbol, resources.get(symbol) - 1);
-        } else {
-            resources.put(symbol, -1);
+        if (symbol.isResource()) {
+            --resources[symbol.ordinal()];
         }
     }
 
@@ -132,39 +155,53 @@ public class ResourceHolder implements Serializable {
         if (!contains(other)) {
             throw new IllegalArgumentException("The substraction results in negative amounts of resources.");
         }
-        for (Map.Entry<Symbol, Integer> entry : other.resources.entrySet()) {
-            resources.put(entry.getKey(), resources.get(entry.getKey()) - entry.getValue());
+        for (int i = 0; i < resources.length; i++) {
+            resources[i] -= other.resources[i];
         }
     }
 
     /**
      * Checks if the resource holder has at least the resources of another resource holder.
      * To put it in other words, subtracting the other holder would result in non-negative amounts.
+     * Only the resources the other holder has a non-zero amount of are compared.
      *
      * @param other the resource holder to check.
      * @return true if the resource holder contains the resources of the other resource holder, false otherwise.
      */
     public boolean contains(ResourceHolder other) {
-        for (Map.Entry<Symbol, Integer> entry : other.resources.entrySet()) {
-            if (resources.getOrDefault(entry.getKey(), 0) < entry.getValue()) {
+        for (int i = 0; i < resources.length; i++) {
+            if (other.resources[i] != 0 && resources[i] < other.resources[i]) {
                 return false;
             }
         }
         return true;
     }
 
+    /**
+     * Counts how many times the resources of another resource holder can be subtracted from this resource holder.
+     * Only the positive amounts of the other holder are taken into account.
+     *
+     * @param other the resource holder to check.
+     * @return the number of times the other resource holder is contained, or 0 if it holds no positive amount.
+     */
+    public int timesContains(ResourceHolder other) {
+        int times = Integer.MAX_VALUE;
+        for (int i = 0; i < resources.length; i++) {
+            if (other.resources[i] > 0) {
+                times = Math.min(times, Math.max(0, resources[i]) / other.resources[i]);
+            }
+        }
+        return times == Integer.MAX_VALUE ? 0 : times;
+    }
+
     /**
      * Adds the resources of another resource holder to this resource holder.
      *
      * @param other the resource holder to add.
      */
     public void add(ResourceHolder other) {
-        for (Map.Entry<Symbol, Integer> entry : other.resources.entrySet()) {
-            if (resources.containsKey(entry.getKey())) {
-                resources.put(entry.getKey(), resources.get(entry.getKey()) + entry.getValue());
-            } else {
-                resources.put(entry.getKey(), entry.getValue());
-            }
+        for (int i = 0; i < resources.length; i++) {
+            resources[i] += other.resources[i];
         }
     }
 
@@ -186,26 +223,61 @@ public class ResourceHolder implements Serializable {
      * Returns the count of a resource in the resource holder.
      *
      * @param symbol the resource to count.
-     * @return the count of the resource.
+     * @return the count of the resource, or 0 if the symbol is null.
      */
     public int countOf(Symbol symbol) {
-        return resources.getOrDefault(symbol, 0);
+        return symbol == null ? 0 : resources[symbol.ordinal()];
     }
 
     /**
-     * Returns the resources of the resource holder.
-     * The returned map is a copy of the internal map.
+     * Returns the resources of the resource holder, with the resources whose count is not zero.
+     * The returned map is a copy of the internal state.
      * Modifying the returned map does not affect the resource holder.
      * To modify the resource holder, use the provided methods.
      *
      * @return the resources of the resource holder.
      */
     public Map<Symbol, Integer> getResources() {
-        if (resources.isEmpty()) {
-            return Map.of();
-        } else {
-            return new EnumMap<>(resources);
+        Map<Symbol, Integer> map = null;
+        for (int i = 0; i < resources.length; i++) {
+            if (resources[i] != 0) {
+                if (map == null) {
+                    map = new EnumMap<>(Symbol.class);
+                }
+                map.put(SYMBOLS[i], resources[i]);
+            }
         }
+        return map == null ? Map.of() : map;
+    }
+
+    /**
+     * Writes the resource holder in its serialized form, as a map from symbol to amount.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        Map<Symbol, Integer> map = new EnumMap<>(Symbol.class);
+        map.putAll(getResources());
+
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("resources", map);
+        out.writeFields();
+    }
+
+    /**
+     * Reads a resource holder from its serialized form, as a map from symbol to amount.
+     *
+     * @param in the stream to read from
+     * @throws IOException            if the stream cannot be read
+     * @throws ClassNotFoundException if the class of the map cannot be found
+     */
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        Map<Symbol, Integer> map = (Map<Symbol, Integer>) in.readFields().get("resources", null);
+        resources = new ResourceHolder(map == null ? Map.of() : map).resources;
     }
 
 }
@@ -25,6 +25,7 @@ package it.polimi.ingsw.am07.model.game.card;
 
 import it.polimi.ingsw.am07.model.game.ResourceHolder;
 import it.polimi.ingsw.am07.model.game.gamefield.GameField;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
 
 import java.io.Serializable;
 
@@ -66,6 +67,33 @@ public abstract sealed class ObjectiveCard implements Serializable permits Resou
      */
     public abstract int calculateScore(ResourceHolder playerResources, GameField playerGameField);
 
+    /**
+     * Checks whether placing a card may have changed the score of this objective, to avoid updating it when it
+     * cannot have changed. The default implementation always returns true.
+     *
+     * @param placedResources the resources added by the placed card, minus the ones of the corners it covers
+     * @param playerGameField the game field of the player, with the card already placed
+     * @param position        the position of the placed card
+     * @return false if the score is the same as before the placement, true if it may have changed
+     */
+    public boolean mayChangeScore(ResourceHolder placedResources, GameField playerGameField, GameFieldPosition position) {
+        return true;
+    }
+
+    /**
+     * Updates the score of this objective after a card has been placed, given its score before the placement.
+     * The default implementation calculates the score again.
+     *
+     * @param score           the score before the placement
+     * @param playerResources the resources of the player, with the ones of the placed card
+     * @param playerGameField the game field of the player, with the card already placed
+     * @param position        the position of the placed card
+     * @return the score after the placement
+     */
+    public int updateScore(int score, ResourceHolder playerResources, GameField playerGameField, GameFieldPosition position) {
+        return calculateScore(playerResources, playerGameField);
+    }
+
     /**
      * Returns the score associated with the card.
      *
@@ -26,6 +26,8 @@ package it.polimi.ingsw.am07.model.game.card;
 import it.polimi.ingsw.am07.model.game.ResourceHolder;
 import it.polimi.ingsw.am07.model.game.gamefield.GameField;
 import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPattern;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPatternMatcher;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
 
 /**
  * Represents an objective card that requires a certain pattern to be completed.
@@ -40,6 +42,11 @@ public final class PatternObjectiveCard extends ObjectiveCard {
      */
     private final GameFieldPattern pattern;
 
+    /**
+     * The pattern compiled for matching, built on first use.
+     */
+    private transient GameFieldPatternMatcher matcher;
+
     /**
      * Constructs a new PatternObjectiveCard with the specified parameters.
      *
@@ -60,11 +67,54 @@ public final class PatternObjectiveCard extends ObjectiveCard {
      */
     @Override
     public int calculateScore(ResourceHolder playerResources, GameField playerGameField) {
-        int matchingPatterns = playerGameField.countMatches(pattern);
+        int matchingPatterns = playerGameField.countMatches(getMatcher());
 
         return matchingPatterns * associatedScore;
     }
 
+    /**
+     * Checks whether placing a card may have changed the score, that is whether the card completes the pattern.
+     *
+     * @param placedResources the resources added by the placed card (not used in this method)
+     * @param playerGameField the game field of the player, with the card already placed
+     * @param position        the position of the placed card
+     * @return false if the score is the same as before the placement, true if it may have changed
+     */
+    @Override
+    public boolean mayChangeScore(ResourceHolder placedResources, GameField playerGameField, GameFieldPosition position) {
+        return getMatcher().completesMatchAt(playerGameField, position.x(), position.y());
+    }
+
+    /**
+     * Updates the score with the matches added by the placed card, looking only at the matches connected to it.
+     *
+     * @param score           the score before the placement
+     * @param playerResources the resources of the player (not used in this method)
+     * @param playerGameField the game field of the player, with the card already placed
+     * @param position        the position of the placed card
+     * @return the score after the placement
+     */
+    @Override
+    public int updateScore(int score, ResourceHolder playerResources, GameField playerGameField, GameFieldPosition position) {
+        if (!getMatcher().canCountAddedMatches()) {
+            return calculateScore(playerResources, playerGameField);
+        }
+
+        return score + getMatcher().countAddedMatches(playerGameField, position.x(), position.y()) * associatedScore;
+    }
+
+    /**
+     * Returns the compiled pattern, compiling it on first use.
+     *
+     * @return the compiled pattern
+     */
+    private GameFieldPatternMatcher getMatcher() {
+        if (matcher == null) {
+            matcher = new GameFieldPatternMatcher(pattern);
+        }
+        return matcher;
+    }
+
     /**
      * Returns the pattern required to satisfy the objective.
      *
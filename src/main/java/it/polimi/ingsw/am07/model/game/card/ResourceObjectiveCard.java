@@ -24,7 +24,9 @@
 package it.polimi.ingsw.am07.model.game.card;
 
 import it.polimi.ingsw.am07.model.game.ResourceHolder;
+import it.polimi.ingsw.am07.model.game.Symbol;
 import it.polimi.ingsw.am07.model.game.gamefield.GameField;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
 
 /**
  * Represents an objective card that requires a certain amount of resources to be completed.
@@ -33,6 +35,8 @@ import it.polimi.ingsw.am07.model.game.gamefield.GameField;
  */
 public final class ResourceObjectiveCard extends ObjectiveCard {
 
+    private static final Symbol[] SYMBOLS = Symbol.values();
+
     /**
      * The resources required to satisfy the objective.
      */
@@ -58,16 +62,26 @@ public final class ResourceObjectiveCard extends ObjectiveCard {
      */
     @Override
     public int calculateScore(ResourceHolder playerResources, GameField playerGameField) {
-        int divisionResult = 0;
-
-        ResourceHolder playerResourcesCopy = new ResourceHolder(playerResources);
+        return playerResources.timesContains(requirements) * associatedScore;
+    }
 
-        while (playerResourcesCopy.contains(requirements)) {
-            playerResourcesCopy.subtract(requirements);
-            divisionResult++;
+    /**
+     * Checks whether placing a card may have changed the score, that is whether it changed the amount of a
+     * required resource.
+     *
+     * @param placedResources the resources added by the placed card, minus the ones of the corners it covers
+     * @param playerGameField the game field of the player (not used in this method)
+     * @param position        the position of the placed card (not used in this method)
+     * @return false if the score is the same as before the placement, true if it may have changed
+     */
+    @Override
+    public boolean mayChangeScore(ResourceHolder placedResources, GameField playerGameField, GameFieldPosition position) {
+        for (Symbol symbol : SYMBOLS) {
+            if (requirements.countOf(symbol) > 0 && placedResources.countOf(symbol) != 0) {
+                return true;
+            }
         }
-
-        return divisionResult * associatedScore;
+        return false;
     }
 
     /**
@@ -27,13 +27,15 @@ import it.polimi.ingsw.am07.model.game.ResourceHolder;
 import it.polimi.ingsw.am07.model.game.Symbol;
 import it.polimi.ingsw.am07.model.game.side.Side;
 import it.polimi.ingsw.am07.model.game.side.SideFieldRepresentation;
-import it.polimi.ingsw.am07.utils.matrix.Matrix;
-import it.polimi.ingsw.am07.utils.matrix.MatrixElementIterator;
-import it.polimi.ingsw.am07.utils.matrix.MatrixSubMatrixIterator;
+import it.polimi.ingsw.am07.utils.matrix.SymbolMatrix;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Represents the game field where cards are placed during the game.
@@ -48,7 +50,7 @@ public class GameField implements Serializable {
     /**
      * The matrix representing the game field.
      */
-    private final Matrix<Symbol> fieldMatrix;
+    private final SymbolMatrix fieldMatrix;
 
     /**
      * A map containing the cards that have been placed on the game field, along with their positions.
@@ -60,13 +62,51 @@ public class GameField implements Serializable {
      */
     private int currentZ;
 
+    /**
+     * Index of the placed cards: the color of every card, at the position of its top left corner.
+     * It is derived from placedCards, and rebuilt when missing or out of date, for example after deserialization.
+     */
+    private transient SymbolMatrix cardIndex;
+
+    /**
+     * The number of placed cards in the card index.
+     */
+    private transient int indexedCards;
+
+    /**
+     * Scratch bitmap of the cards already part of a match, reused by every GameFieldPatternMatcher.
+     */
+    private transient long[] visited;
+
+    /**
+     * The positions where a card can currently be placed, updated on every placement by checking only the neighbours of the new card.
+     * It is derived from the field matrix, and rebuilt when missing or out of date, for example after deserialization.
+     */
+    private transient Set<GameFieldPosition> frontier;
+
+    /**
+     * The number of placed cards in the frontier.
+     */
+    private transient int frontierCards;
+
     /**
      * Creates a new game field with an empty grid and no cards placed on it.
      */
     public GameField() {
-        fieldMatrix = new Matrix<>(SideFieldRepresentation.SIDE_SIZE, SideFieldRepresentation.SIDE_SIZE, Symbol.EMPTY);
-        placedCards = new HashMap<>();
-        currentZ = 0;
+        this(new SymbolMatrix(SideFieldRepresentation.SIDE_SIZE, SideFieldRepresentation.SIDE_SIZE, Symbol.EMPTY), new HashMap<>(), 0);
+    }
+
+    /**
+     * Creates a game field from its fields.
+     *
+     * @param fieldMatrix the symbols of the placed cards
+     * @param placedCards the placed cards, by position
+     * @param currentZ    the z coordinate given to the last placed card
+     */
+    private GameField(SymbolMatrix fieldMatrix, Map<GameFieldPosition, Side> placedCards, int currentZ) {
+        this.fieldMatrix = fieldMatrix;
+        this.placedCards = placedCards;
+        this.currentZ = currentZ;
     }
 
     /**
@@ -85,7 +125,62 @@ public class GameField implements Serializable {
             return fieldMatrix.get(0, 0) == Symbol.EMPTY && card.color() == Symbol.STARTER;
         }
 
-        if ((pos.x() + pos.y()) % 2 != 0 || placedCards.containsKey(pos)) {
+        return getAvailablePositions().contains(pos);
+    }
+
+    /**
+     * Retrieves the positions where a card can currently be placed, except for the starter card.
+     * A position is available when it is free, it covers at least one corner of another card and none of the corners it covers is NONE.
+     * The set is kept up to date while cards are placed, so reading it does not scan the game field.
+     *
+     * @return an unmodifiable view of the available positions
+     */
+    public Set<GameFieldPosition> getAvailablePositions() {
+        if (frontier == null || frontierCards != placedCards.size()) {
+            frontier = new LinkedHashSet<>();
+            for (GameFieldPosition pos : placedCards.keySet()) {
+                updateFrontierAround(pos);
+            }
+            frontierCards = placedCards.size();
+        }
+        return Collections.unmodifiableSet(frontier);
+    }
+
+    /**
+     * Updates the frontier in the neighbourhood of a card: the only positions sharing a corner with it.
+     * For a card placed on a valid position these are the four diagonal ones.
+     *
+     * @param pos the position of the card
+     */
+    private void updateFrontierAround(GameFieldPosition pos) {
+        frontier.remove(pos);
+
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                int x = pos.x() + dx;
+                int y = pos.y() + dy;
+                if ((x + y) % 2 != 0 || (dx == 0 && dy == 0)) {
+                    continue;
+                }
+
+                GameFieldPosition neighbour = new GameFieldPosition(x, y);
+                if (isAvailable(neighbour)) {
+                    frontier.add(neighbour);
+                } else {
+                    frontier.remove(neighbour);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks the game field cells under a position to decide whether a card, other than the starter card, can be placed there.
+     *
+     * @param pos the position of the top left corner of the card
+     * @return true if the position is available, false otherwise
+     */
+    private boolean isAvailable(GameFieldPosition pos) {
+        if ((pos.x() == 0 && pos.y() == 0) || placedCards.containsKey(pos)) {
             return false;
         }
 
@@ -111,53 +206,20 @@ public class GameField implements Serializable {
      * @param pattern the pattern to match
      * @return the number of matches of the given pattern in the game field
      * @author Gabriele Corti
+     * @see GameFieldPatternMatcher
      */
     public int countMatches(GameFieldPattern pattern) {
-        int matches = 0;
-        Map<GameFieldPosition, Side> placedCardsCopy = new HashMap<>(placedCards);  // copy the placed cards to avoid modifying the original map while iterating over it
-        Matrix<Symbol> shape = pattern.getShape();
-        MatrixSubMatrixIterator<Symbol> subMatrixIterator = fieldMatrix.iterator(shape.getWidth(), shape.getHeight());
-
-        while (subMatrixIterator.hasNext()) {
-            Matrix<Symbol> subMatrix = subMatrixIterator.next();
-            boolean match = true;
-
-            int relativeX = subMatrixIterator.getOffsetX();
-            int relativeY = subMatrixIterator.getOffsetY();
-
-            if (!subMatrix.containsShape(shape)) {
-                continue;
-            }
-
-            MatrixElementIterator<Symbol> elementIterator = (MatrixElementIterator<Symbol>) pattern.pattern().iterator();
-
-            while (match && elementIterator.hasNext()) {
-                Symbol color = elementIterator.next();
-                if (!color.equals(Symbol.EMPTY)) {
-                    GameFieldPosition position = new GameFieldPosition(relativeX + elementIterator.getCurrentX(), relativeY + elementIterator.getCurrentY());
-                    Side card = placedCardsCopy.get(position);
-
-                    if (card == null || !card.color().equals(color)) {
-                        match = false;
-                    }
-                }
-            }
+        return countMatches(new GameFieldPatternMatcher(pattern));
+    }
 
-            if (match) {
-                ++matches;
-                //I have to remove from placedCardsCopy the cards that I have just found
-                MatrixElementIterator<Symbol> iterator = (MatrixElementIterator<Symbol>) pattern.pattern().iterator();
-
-                while (iterator.hasNext()) {
-                    Symbol color = iterator.next();
-                    if (!color.equals(Symbol.EMPTY)) {
-                        GameFieldPosition position = new GameFieldPosition(relativeX + iterator.getCurrentX(), relativeY + iterator.getCurrentY());
-                        placedCardsCopy.remove(position);
-                    }
-                }
-            }
-        }
-        return matches;
+    /**
+     * get the number of matches of an already compiled pattern in the game field.
+     *
+     * @param matcher the compiled pattern to match
+     * @return the number of matches of the pattern in the game field
+     */
+    public int countMatches(GameFieldPatternMatcher matcher) {
+        return matcher.countMatches(this);
     }
 
     /**
@@ -201,7 +263,19 @@ public class GameField implements Serializable {
         }
 
         GameFieldPosition fieldPosition = new GameFieldPosition(pos.x(), pos.y(), currentZ);
-        placedCards.put(fieldPosition, card);
+        Side previous = placedCards.put(fieldPosition, card);
+        if (cardIndex != null && previous == null && indexedCards + 1 == placedCards.size()) {
+            cardIndex.set(pos.x(), pos.y(), card.color() == null ? Symbol.EMPTY : card.color());
+            ++indexedCards;
+        } else {
+            cardIndex = null;
+        }
+        if (frontier != null && previous == null && frontierCards + 1 == placedCards.size()) {
+            updateFrontierAround(fieldPosition);
+            ++frontierCards;
+        } else {
+            frontier = null;
+        }
         ++currentZ;
 
         resource.add(card.resources());
@@ -218,12 +292,45 @@ public class GameField implements Serializable {
         return placedCards;
     }
 
+    /**
+     * Retrieves the index of the placed cards, rebuilding it if needed.
+     *
+     * @return a matrix with the color of every placed card at the position of its top left corner
+     */
+    SymbolMatrix getCardIndex() {
+        if (cardIndex == null || indexedCards != placedCards.size()) {
+            cardIndex = new SymbolMatrix(0, 0, Symbol.EMPTY);
+            for (Map.Entry<GameFieldPosition, Side> entry : placedCards.entrySet()) {
+                Symbol color = entry.getValue().color();
+                cardIndex.set(entry.getKey().x(), entry.getKey().y(), color == null ? Symbol.EMPTY : color);
+            }
+            indexedCards = placedCards.size();
+        }
+        return cardIndex;
+    }
+
+    /**
+     * Retrieves the scratch bitmap of the pattern matchers, cleared.
+     *
+     * @param bits the number of bits needed
+     * @return a bitmap of at least the given number of bits, all cleared
+     */
+    long[] getVisitedBitmap(int bits) {
+        int words = (bits + 63) >>> 6;
+        if (visited == null || visited.length < words) {
+            visited = new long[Math.max(words, visited == null ? 0 : visited.length * 2)];
+        } else {
+            Arrays.fill(visited, 0, words, 0L);
+        }
+        return visited;
+    }
+
     /**
      * Retrieves the matrix representing the game field.
      *
      * @return the matrix representing the game field
      */
-    public Matrix<Symbol> getFieldMatrix() {
+    public SymbolMatrix getFieldMatrix() {
         return fieldMatrix;
     }
 
@@ -0,0 +1,391 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.model.game.gamefield;
+
+import it.polimi.ingsw.am07.model.game.Symbol;
+import it.polimi.ingsw.am07.utils.matrix.Matrix;
+import it.polimi.ingsw.am07.utils.matrix.MatrixElementIterator;
+import it.polimi.ingsw.am07.utils.matrix.SymbolMatrix;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * A GameFieldPattern compiled once into the offsets of its cards and of its shape, to count its matches on a game
+ * field without allocating.
+ * The matches are the same, and are found in the same order, as by scanning every window of the field with a
+ * MatrixSubMatrixIterator: a window matches when every cell of the shape is covered on the field and every card of
+ * the pattern is on the field with the same color, and the cards of a match cannot be part of a later match.
+ */
+public class GameFieldPatternMatcher {
+
+    private final int shapeWidth, shapeHeight;
+
+    /**
+     * Offsets of the cells of the shape, relative to the top left corner of the window.
+     */
+    private final int[] shapeX, shapeY;
+
+    /**
+     * Offsets and colors of the cards of the pattern, relative to the top left corner of the window.
+     * The first card is the first one in row-major order.
+     */
+    private final int[] cardX, cardY;
+    private final Symbol[] cardColor;
+
+    /**
+     * Whether the matches added by a card can be counted around the card.
+     */
+    private final boolean canCountAddedMatches;
+
+    /**
+     * Compile a pattern.
+     *
+     * @param pattern the pattern to match
+     */
+    public GameFieldPatternMatcher(GameFieldPattern pattern) {
+        Matrix<Symbol> shape = pattern.getShape();
+        shapeWidth = shape.getWidth();
+        shapeHeight = shape.getHeight();
+
+        int shapeCells = 0;
+        for (int j = 0; j < shapeHeight; j++) {
+            for (int i = 0; i < shapeWidth; i++) {
+                if (!Symbol.EMPTY.equals(shape.get(i, j))) {
+                    ++shapeCells;
+                }
+            }
+        }
+
+        shapeX = new int[shapeCells];
+        shapeY = new int[shapeCells];
+        int cell = 0;
+        for (int j = 0; j < shapeHeight; j++) {
+            for (int i = 0; i < shapeWidth; i++) {
+                if (!Symbol.EMPTY.equals(shape.get(i, j))) {
+                    shapeX[cell] = i;
+                    shapeY[cell] = j;
+                    ++cell;
+                }
+            }
+        }
+
+        int cards = 0;
+        for (Symbol color : pattern.pattern()) {
+            if (!Symbol.EMPTY.equals(color)) {
+                ++cards;
+            }
+        }
+
+        cardX = new int[cards];
+        cardY = new int[cards];
+        cardColor = new Symbol[cards];
+        int card = 0;
+        MatrixElementIterator<Symbol> iterator = (MatrixElementIterator<Symbol>) pattern.pattern().iterator();
+        while (iterator.hasNext()) {
+            Symbol color = iterator.next();
+            if (!Symbol.EMPTY.equals(color)) {
+                cardX[card] = iterator.getCurrentX();
+                cardY[card] = iterator.getCurrentY();
+                cardColor[card] = color;
+                ++card;
+            }
+        }
+
+        int minShapeX = shapeWidth, maxShapeX = -1, minShapeY = shapeHeight, maxShapeY = -1;
+        for (cell = 0; cell < shapeCells; cell++) {
+            minShapeX = Math.min(minShapeX, shapeX[cell]);
+            maxShapeX = Math.max(maxShapeX, shapeX[cell]);
+            minShapeY = Math.min(minShapeY, shapeY[cell]);
+            maxShapeY = Math.max(maxShapeY, shapeY[cell]);
+        }
+        canCountAddedMatches = cards > 0
+                && minShapeX == 0 && maxShapeX == shapeWidth - 1
+                && minShapeY == 0 && maxShapeY == shapeHeight - 1;
+    }
+
+    /**
+     * Check whether the matches added by a card can be counted without counting the whole field again.
+     * That is the case when the pattern has cards and its shape touches every side of the window: otherwise a window
+     * can start matching just because the field has grown, far from the placed card.
+     *
+     * @return true if countAddedMatches can be used
+     */
+    public boolean canCountAddedMatches() {
+        return canCountAddedMatches;
+    }
+
+    /**
+     * Count the matches of the pattern on a game field.
+     *
+     * @param field the game field
+     * @return the number of matches
+     */
+    public int countMatches(GameField field) {
+        SymbolMatrix fieldMatrix = field.getFieldMatrix();
+
+        // Top left corners of the windows that fit in the field
+        int minX = fieldMatrix.getMinX();
+        int minY = fieldMatrix.getMinY();
+        int maxX = fieldMatrix.getMaxX() - shapeWidth + 1;
+        int maxY = fieldMatrix.getMaxY() - shapeHeight + 1;
+
+        if (maxX < minX || maxY < minY) {
+            return 0;
+        }
+
+        if (cardColor.length == 0) {
+            // A pattern without cards matches every window
+            return (maxX - minX + 1) * (maxY - minY + 1);
+        }
+
+        SymbolMatrix cards = field.getCardIndex();
+        long[] visited = field.getVisitedBitmap(cards.getSize());
+        int matches = 0;
+
+        // Every match has its first card on the field: the windows are visited in the same row-major order by
+        // visiting the cards that can be the first one in row-major order
+        for (int y = cards.getMinY(); y <= cards.getMaxY(); y++) {
+            for (int x = cards.getMinX(); x <= cards.getMaxX(); x++) {
+                if (cards.get(x, y) != cardColor[0]) {
+                    continue;
+                }
+
+                int windowX = x - cardX[0];
+                int windowY = y - cardY[0];
+                if (windowX < minX || windowX > maxX || windowY < minY || windowY > maxY) {
+                    continue;
+                }
+
+                if (matchesAt(fieldMatrix, cards, visited, windowX, windowY)) {
+                    for (int card = 0; card < cardColor.length; card++) {
+                        int index = bitIndex(cards, windowX + cardX[card], windowY + cardY[card]);
+                        visited[index >>> 6] |= 1L << index;
+                    }
+                    ++matches;
+                }
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * Check whether a card completes an occurrence of the pattern, regardless of the cards already part of a match.
+     * The number of matches can only change when a placed card completes an occurrence, or, for a pattern without
+     * cards, whenever the field grows.
+     *
+     * @param field the game field
+     * @param x     the x coordinate of the card
+     * @param y     the y coordinate of the card
+     * @return true if the card at (x, y) is part of a complete occurrence of the pattern
+     */
+    public boolean completesMatchAt(GameField field, int x, int y) {
+        if (cardColor.length == 0) {
+            return true;
+        }
+
+        SymbolMatrix fieldMatrix = field.getFieldMatrix();
+        SymbolMatrix cards = field.getCardIndex();
+        Symbol color = cards.get(x, y);
+
+        for (int card = 0; card < cardColor.length; card++) {
+            if (cardColor[card] == color && isOccurrence(fieldMatrix, cards, x - cardX[card], y - cardY[card])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Count the matches added by the card just placed at (x, y), without counting the whole field again.
+     * The new card can only complete occurrences that include it, but those may overlap occurrences that were
+     * already matched and change which of them are matched. Occurrences sharing no card do not affect each other,
+     * so only the occurrences connected to the new card through shared cards are matched again, in the same order
+     * as countMatches, both with and without the occurrences that include the new card.
+     *
+     * @param field the game field, with the card already placed
+     * @param x     the x coordinate of the card
+     * @param y     the y coordinate of the card
+     * @return the number of matches after the placement minus the number of matches before it
+     * @throws IllegalStateException if the matches added by a card cannot be counted for this pattern
+     * @see #canCountAddedMatches()
+     */
+    public int countAddedMatches(GameField field, int x, int y) {
+        if (!canCountAddedMatches) {
+            throw new IllegalStateException("The matches of the pattern can change far from the placed card");
+        }
+
+        SymbolMatrix fieldMatrix = field.getFieldMatrix();
+        SymbolMatrix cards = field.getCardIndex();
+
+        // Top left corners of the connected occurrences, sorted in row-major order
+        TreeSet<Long> occurrences = new TreeSet<>();
+        Set<Long> reached = new HashSet<>();
+        ArrayDeque<Long> pending = new ArrayDeque<>();
+        reached.add(key(x, y));
+        pending.add(key(x, y));
+
+        while (!pending.isEmpty()) {
+            long position = pending.poll();
+            int positionX = keyX(position);
+            int positionY = keyY(position);
+            Symbol color = cards.get(positionX, positionY);
+
+            for (int card = 0; card < cardColor.length; card++) {
+                int windowX = positionX - cardX[card];
+                int windowY = positionY - cardY[card];
+                if (cardColor[card] != color || !isOccurrence(fieldMatrix, cards, windowX, windowY)
+                        || !occurrences.add(key(windowX, windowY))) {
+                    continue;
+                }
+
+                for (int other = 0; other < cardColor.length; other++) {
+                    long otherPosition = key(windowX + cardX[other], windowY + cardY[other]);
+                    if (reached.add(otherPosition)) {
+                        pending.add(otherPosition);
+                    }
+                }
+            }
+        }
+
+        if (occurrences.isEmpty()) {
+            return 0;
+        }
+
+        return countDisjoint(occurrences, x, y, true) - countDisjoint(occurrences, x, y, false);
+    }
+
+    /**
+     * Match occurrences in order, skipping the ones sharing a card with an earlier match.
+     *
+     * @param occurrences    the top left corners of the occurrences, sorted in row-major order
+     * @param x              the x coordinate of the new card
+     * @param y              the y coordinate of the new card
+     * @param includeNewCard whether the occurrences including the new card are matched too
+     * @return the number of matches
+     */
+    private int countDisjoint(SortedSet<Long> occurrences, int x, int y, boolean includeNewCard) {
+        Set<Long> matched = new HashSet<>();
+        int matches = 0;
+
+        for (long occurrence : occurrences) {
+            int windowX = keyX(occurrence);
+            int windowY = keyY(occurrence);
+
+            boolean available = true;
+            for (int card = 0; available && card < cardColor.length; card++) {
+                int cardPositionX = windowX + cardX[card];
+                int cardPositionY = windowY + cardY[card];
+                available = (includeNewCard || cardPositionX != x || cardPositionY != y)
+                        && !matched.contains(key(cardPositionX, cardPositionY));
+            }
+
+            if (available) {
+                for (int card = 0; card < cardColor.length; card++) {
+                    matched.add(key(windowX + cardX[card], windowY + cardY[card]));
+                }
+                ++matches;
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * Check whether a window of the field fits the field, has every card of the pattern and has its shape covered,
+     * regardless of the cards already part of a match.
+     */
+    private boolean isOccurrence(SymbolMatrix fieldMatrix, SymbolMatrix cards, int windowX, int windowY) {
+        if (windowX < fieldMatrix.getMinX() || windowX > fieldMatrix.getMaxX() - shapeWidth + 1
+                || windowY < fieldMatrix.getMinY() || windowY > fieldMatrix.getMaxY() - shapeHeight + 1) {
+            return false;
+        }
+
+        for (int card = 0; card < cardColor.length; card++) {
+            if (cards.get(windowX + cardX[card], windowY + cardY[card]) != cardColor[card]) {
+                return false;
+            }
+        }
+
+        for (int cell = 0; cell < shapeX.length; cell++) {
+            if (fieldMatrix.get(windowX + shapeX[cell], windowY + shapeY[cell]) == Symbol.EMPTY) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean matchesAt(SymbolMatrix fieldMatrix, SymbolMatrix cards, long[] visited, int windowX, int windowY) {
+        for (int card = 0; card < cardColor.length; card++) {
+            int x = windowX + cardX[card];
+            int y = windowY + cardY[card];
+
+            if (cards.get(x, y) != cardColor[card]) {
+                return false;
+            }
+
+            int index = bitIndex(cards, x, y);
+            if ((visited[index >>> 6] & (1L << index)) != 0) {
+                return false;
+            }
+        }
+
+        for (int cell = 0; cell < shapeX.length; cell++) {
+            if (fieldMatrix.get(windowX + shapeX[cell], windowY + shapeY[cell]) == Symbol.EMPTY) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Index of a card in the visited bitmap. The position must be in the bounds of the card index.
+     */
+    private static int bitIndex(SymbolMatrix cards, int x, int y) {
+        return (x - cards.getMinX()) + (y - cards.getMinY()) * cards.getWidth();
+    }
+
+    /**
+     * Key of a position, ordered as the positions in row-major order.
+     */
+    private static long key(int x, int y) {
+        return ((long) y << 32) | (x - (long) Integer.MIN_VALUE);
+    }
+
+    private static int keyX(long key) {
+        return (int) ((key & 0xFFFFFFFFL) + Integer.MIN_VALUE);
+    }
+
+    private static int keyY(long key) {
+        return (int) (key >> 32);
+    }
+
+}
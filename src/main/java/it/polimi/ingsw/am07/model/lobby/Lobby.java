@@ -55,9 +55,7 @@ public class Lobby implements Serializable {
      * Constructs a new Lobby object with an empty list of players.
      */
     public Lobby() {
-        players = new ArrayList<>();
-        id = UUID.randomUUID();
-        state = LobbyState.WAITING_FOR_PLAYERS;
+        this(UUID.randomUUID(), new ArrayList<>(), LobbyState.WAITING_FOR_PLAYERS);
     }
 
     /**
@@ -66,9 +64,20 @@ public class Lobby implements Serializable {
      * @param other The lobby to copy.
      */
     public Lobby(Lobby other) {
-        players = new ArrayList<>(other.players);
-        id = other.id;
-        state = other.state;
+        this(other.id, new ArrayList<>(other.players), other.state);
+    }
+
+    /**
+     * Constructs a Lobby object from its fields.
+     *
+     * @param id      The id of the lobby.
+     * @param players The players in the lobby.
+     * @param state   The state of the lobby.
+     */
+    private Lobby(UUID id, List<LobbyPlayer> players, LobbyState state) {
+        this.id = id;
+        this.players = players;
+        this.state = state;
     }
 
     /**
@@ -67,6 +67,16 @@ public class Matchmaking {
      */
     private Pawn playerPawn;
 
+    /**
+     * The id of the game last seen by the player asking for reconnection.
+     */
+    private UUID lastGameId;
+
+    /**
+     * The version of the game last seen by the player asking for reconnection.
+     */
+    private long lastGameVersion;
+
     /**
      * Constructs a new Matchmaking object with a reference to the list of lobbies.
      *
@@ -130,6 +140,42 @@ public class Matchmaking {
         this.playerNickname = playerNickname;
     }
 
+    /**
+     * Retrieves the id of the game last seen by the player asking for reconnection.
+     *
+     * @return The id of the game, or null if the player has no game.
+     */
+    public UUID getLastGameId() {
+        return lastGameId;
+    }
+
+    /**
+     * Sets the id of the game last seen by the player asking for reconnection.
+     *
+     * @param lastGameId The id of the game.
+     */
+    public void setLastGameId(UUID lastGameId) {
+        this.lastGameId = lastGameId;
+    }
+
+    /**
+     * Retrieves the version of the game last seen by the player asking for reconnection.
+     *
+     * @return The version of the game, or 0 if the player has no game.
+     */
+    public long getLastGameVersion() {
+        return lastGameVersion;
+    }
+
+    /**
+     * Sets the version of the game last seen by the player asking for reconnection.
+     *
+     * @param lastGameVersion The version of the game.
+     */
+    public void setLastGameVersion(long lastGameVersion) {
+        this.lastGameVersion = lastGameVersion;
+    }
+
     /**
      * Retrieves the pawn of the admin player of the newly-created lobby.
      *
@@ -24,6 +24,7 @@
 package it.polimi.ingsw.am07.network;
 
 import it.polimi.ingsw.am07.model.ClientState;
+import it.polimi.ingsw.am07.network.connection.Encoding;
 import it.polimi.ingsw.am07.network.rmi.ClientRMINetworkManager;
 import it.polimi.ingsw.am07.network.tcp.ClientTCPNetworkManager;
 import it.polimi.ingsw.am07.reactive.Controller;
@@ -72,6 +73,8 @@ public interface ClientNetworkManager {
         private String identity;
         private ClientState clientState;
         private NetworkType networkType;
+        private Encoding encoding;
+        private boolean cardReferences;
 
         /**
          * Constructor.
@@ -82,6 +85,8 @@ public interface ClientNetworkManager {
             identity = null;
             clientState = null;
             networkType = null;
+            encoding = Encoding.JSON;
+            cardReferences = true;
         }
 
         /**
@@ -144,6 +149,28 @@ public interface ClientNetworkManager {
          *
          * @return the client network manager
          */
+        /**
+         * Set the encoding to propose to the server. Only used by TCP, defaults to JSON.
+         *
+         * @param encoding the encoding
+         * @return this factory
+         */
+        public Factory withEncoding(Encoding encoding) {
+            this.encoding = encoding;
+            return this;
+        }
+
+        /**
+         * Set whether to propose sending cards as references to the card catalogue. Only used by TCP, defaults to true.
+         *
+         * @param cardReferences true to propose card references
+         * @return this factory
+         */
+        public Factory withCardReferences(boolean cardReferences) {
+            this.cardReferences = cardReferences;
+            return this;
+        }
+
         public ClientNetworkManager build() {
             if (hostname == null || port == 0 || identity == null || clientState == null || networkType == null) {
                 throw new IllegalStateException("Missing parameters");
@@ -152,7 +179,7 @@ public interface ClientNetworkManager {
             ClientNetworkManager manager;
 
             switch (networkType) {
-                case TCP -> manager = new ClientTCPNetworkManager(hostname, port, identity);
+                case TCP -> manager = new ClientTCPNetworkManager(hostname, port, identity, encoding, cardReferences);
                 case RMI -> manager = new ClientRMINetworkManager(hostname, port, identity);
                 default -> throw new IllegalArgumentException("Invalid network type");
             }
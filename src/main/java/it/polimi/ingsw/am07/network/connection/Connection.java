@@ -23,10 +23,12 @@
 
 package it.polimi.ingsw.am07.network.connection;
 
+import it.polimi.ingsw.am07.network.packets.HeartbeatNetworkPacket;
 import it.polimi.ingsw.am07.network.packets.NetworkPacket;
 
 /**
  * Interface for a connection with a client.
+ * Connections read by a blocking thread implement {@link BlockingConnection}.
  */
 public interface Connection {
 
@@ -38,17 +40,21 @@ public interface Connection {
     void send(NetworkPacket packet);
 
     /**
-     * Block until a package is received.
+     * Send a packet shared with other connections.
+     * By default the packet is encoded again; connections can override this to reuse the frames encoded by the others.
      *
-     * @return the received packet
+     * @param packet the packet to send
      */
-    NetworkPacket receive();
+    default void send(SharedPacket packet) {
+        send(packet.getPacket());
+    }
 
     /**
-     * Check if there are packets available.
-     *
-     * @return a number higher than 0 if there are packets available
+     * Send a heartbeat to keep the connection alive.
+     * By default it is always sent; connections can skip it while other packets already prove the connection alive.
      */
-    int available();
+    default void sendHeartbeat() {
+        send(new HeartbeatNetworkPacket());
+    }
 
 }
@@ -0,0 +1,44 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.network.connection;
+
+/**
+ * How packets are delimited on a TCP stream.
+ * The framing is negotiated by the identity handshake: both ends start with {@link #LEGACY} and switch right after it.
+ */
+public enum Framing {
+
+    /**
+     * A modified UTF-8 string prefixed by its two bytes length, as written by
+     * {@link java.io.DataOutputStream#writeUTF(String)}. Packets are limited to 64KB.
+     */
+    LEGACY,
+
+    /**
+     * An unsigned varint length followed by the payload, encoded as negotiated with {@link Encoding}. There is no size
+     * limit but the one enforced by the reader.
+     */
+    VARINT
+
+}
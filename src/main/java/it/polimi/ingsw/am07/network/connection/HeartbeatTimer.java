@@ -0,0 +1,76 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.network.connection;
+
+import it.polimi.ingsw.am07.reactive.StatefulListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when a connection needs a heartbeat.
+ * Peers take any packet as a proof that the connection is alive, so heartbeats are skipped while other packets are
+ * being sent. One is still sent every half of {@link StatefulListener#HEARTBEAT_MAX_INTERVAL}, for peers that only
+ * count heartbeats.
+ */
+final class HeartbeatTimer {
+
+    private static final long TRAFFIC_WINDOW = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_SKIPPED_TIME = TimeUnit.MILLISECONDS.toNanos(StatefulListener.HEARTBEAT_MAX_INTERVAL / 2);
+
+    private volatile long lastTraffic;
+    private volatile long lastHeartbeat;
+
+    /**
+     * Constructor.
+     */
+    HeartbeatTimer() {
+        long now = System.nanoTime();
+        lastTraffic = now - TRAFFIC_WINDOW;
+        lastHeartbeat = now;
+    }
+
+    /**
+     * Record that a packet other than a heartbeat was sent.
+     */
+    void trafficSent() {
+        lastTraffic = System.nanoTime();
+    }
+
+    /**
+     * Check whether a heartbeat is needed, recording it as sent if so.
+     *
+     * @return true if the heartbeat must be sent
+     */
+    boolean heartbeatNeeded() {
+        long now = System.nanoTime();
+
+        if (now - lastTraffic < TRAFFIC_WINDOW && now - lastHeartbeat < MAX_SKIPPED_TIME) {
+            return false;
+        }
+
+        lastHeartbeat = now;
+        return true;
+    }
+
+}
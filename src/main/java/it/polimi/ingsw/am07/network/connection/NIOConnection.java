@@ -0,0 +1,521 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.network.connection;
+
+import it.polimi.ingsw.am07.network.packets.HeartbeatNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.NetworkPacket;
+import it.polimi.ingsw.am07.utils.binary.NetworkBinarySerializer;
+import it.polimi.ingsw.am07.utils.json.NetworkJsonSerializer;
+import it.polimi.ingsw.am07.utils.logging.AppLogger;
+import it.polimi.ingsw.am07.utils.metrics.Counter;
+import it.polimi.ingsw.am07.utils.metrics.MetricsRegistry;
+import okio.Buffer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking connection with a remote client, driven by a selector event loop.
+ * Packets use the same framings as {@link RemoteConnection}, so clients do not need to know which transport the server
+ * is running. Outgoing packets are queued and written by the event loop, gathering the frames queued since the last
+ * write into a single call; incoming bytes are buffered only while a frame is incomplete.
+ */
+public class NIOConnection implements Connection {
+
+    private static final int FRAME_HEADER_SIZE = 2;
+    private static final int MAX_GATHERED_FRAMES = 64;
+    private static final Counter WRITES = MetricsRegistry.getInstance().counter("connection_writes_total");
+
+    private final AppLogger LOGGER = new AppLogger(NIOConnection.class);
+
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final Executor eventLoop;
+    private final Queue<ByteBuffer> writeQueue;
+    private final AtomicBoolean flushScheduled;
+    private final ByteBuffer[] gathered;
+    private final HeartbeatTimer heartbeats;
+    private volatile NetworkJsonSerializer serializer;
+    private volatile NetworkBinarySerializer binarySerializer;
+    private ByteBuffer pendingInput;
+    private volatile boolean closed;
+    private volatile Framing framing;
+    private volatile Encoding encoding;
+    private volatile boolean cardReferences;
+    private String identity;
+
+    /**
+     * Constructor.
+     *
+     * @param channel   the channel to use, already in non-blocking mode
+     * @param key       the selection key of the channel
+     * @param eventLoop the event loop that owns the channel
+     */
+    public NIOConnection(SocketChannel channel, SelectionKey key, Executor eventLoop) {
+        this.channel = channel;
+        this.key = key;
+        this.eventLoop = eventLoop;
+
+        writeQueue = new ConcurrentLinkedQueue<>();
+        flushScheduled = new AtomicBoolean(false);
+        gathered = new ByteBuffer[MAX_GATHERED_FRAMES];
+        heartbeats = new HeartbeatTimer();
+        serializer = NetworkJsonSerializer.getInstance();
+        binarySerializer = NetworkBinarySerializer.getInstance();
+        framing = Framing.LEGACY;
+        encoding = Encoding.JSON;
+    }
+
+    /**
+     * Send a packet.
+     * The packet is encoded on the calling thread and written asynchronously by the event loop.
+     *
+     * @param packet the packet to send
+     */
+    @Override
+    public void send(NetworkPacket packet) {
+        if (closed) {
+            return;
+        }
+
+        LOGGER.debug("Sending packet {0} to {1}", packet, this);
+
+        if (!(packet instanceof HeartbeatNetworkPacket)) {
+            heartbeats.trafficSent();
+        }
+
+        try {
+            enqueue(encodeFrame(packet));
+        } catch (IOException e) {
+            LOGGER.error(e);
+        }
+    }
+
+    /**
+     * Send a packet shared with other connections.
+     * The frame is encoded only if no other connection with the same wire format did it yet. Must be called by a
+     * single thread at a time, as the controllers do, so that the wire format cannot change while the frame is picked.
+     *
+     * @param packet the packet to send
+     */
+    @Override
+    public void send(SharedPacket packet) {
+        if (closed) {
+            return;
+        }
+
+        LOGGER.debug("Sending shared packet {0} to {1}", packet.getPacket(), this);
+
+        heartbeats.trafficSent();
+
+        try {
+            enqueue(packet.getFrame(framing, encoding, cardReferences, this::encodeFrame));
+        } catch (IOException e) {
+            LOGGER.error(e);
+        }
+    }
+
+    /**
+     * Send a heartbeat, unless other packets sent recently already prove the connection alive.
+     */
+    @Override
+    public void sendHeartbeat() {
+        if (heartbeats.heartbeatNeeded()) {
+            send(new HeartbeatNetworkPacket());
+        }
+    }
+
+    /**
+     * Queue a frame to be written by the event loop.
+     * The frame is never modified, so it may be shared with other connections.
+     *
+     * @param frame the frame
+     */
+    private void enqueue(byte[] frame) {
+        writeQueue.add(ByteBuffer.wrap(frame));
+
+        if (flushScheduled.compareAndSet(false, true)) {
+            eventLoop.execute(this::flush);
+        }
+    }
+
+    /**
+     * Read every byte currently available on the channel and decode any complete packet.
+     * Packets are handed to the sink as soon as they are decoded, so a sink that switches the framing affects the
+     * very next frame. Must be called by the event loop.
+     *
+     * @param scratch a buffer shared by the event loop, used to read from the channel
+     * @param sink    the consumer of the decoded packets
+     * @return false if the remote end closed the connection, true otherwise
+     * @throws IOException if the channel cannot be read
+     */
+    public boolean read(ByteBuffer scratch, Consumer<NetworkPacket> sink) throws IOException {
+        while (!closed) {
+            scratch.clear();
+            int read = channel.read(scratch);
+
+            if (read < 0) {
+                return false;
+            }
+
+            if (read == 0) {
+                return true;
+            }
+
+            scratch.flip();
+
+            ByteBuffer input = scratch;
+            if (pendingInput != null) {
+                pendingInput = append(pendingInput, scratch);
+                pendingInput.flip();
+                input = pendingInput;
+            }
+
+            decodeFrames(input, sink);
+
+            if (!input.hasRemaining()) {
+                pendingInput = null;
+            } else if (input == scratch) {
+                pendingInput = append(ByteBuffer.allocate(Math.max(scratch.remaining(), 256)), scratch);
+            } else {
+                pendingInput.compact();
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Write as many queued frames as the socket accepts, with a gathering write for each batch of frames.
+     * Must be called by the event loop.
+     */
+    public void flush() {
+        try {
+            int count;
+            while ((count = gatherQueuedFrames()) > 0) {
+                channel.write(gathered, 0, count);
+                WRITES.increment();
+
+                int written = 0;
+                while (written < count && !gathered[written].hasRemaining()) {
+                    writeQueue.poll();
+                    written++;
+                }
+
+                Arrays.fill(gathered, 0, count, null);
+
+                if (written < count) {
+                    // The socket buffer is full, wait until the selector reports the channel as writable
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+
+            key.interestOps(SelectionKey.OP_READ);
+        } catch (Exception e) {
+            LOGGER.error(e);
+            close();
+            return;
+        }
+
+        flushScheduled.set(false);
+
+        // A packet may have been queued after the last poll but before the flag was cleared
+        if (!writeQueue.isEmpty() && flushScheduled.compareAndSet(false, true)) {
+            eventLoop.execute(this::flush);
+        }
+    }
+
+    /**
+     * Collect the frames at the head of the write queue, without removing them.
+     * The event loop is the only consumer of the queue, so the frames stay at its head until they are written.
+     *
+     * @return the number of frames collected
+     */
+    private int gatherQueuedFrames() {
+        int count = 0;
+
+        for (ByteBuffer frame : writeQueue) {
+            gathered[count++] = frame;
+
+            if (count == MAX_GATHERED_FRAMES) {
+                break;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Close the connection.
+     */
+    public void close() {
+        closed = true;
+        key.cancel();
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.error(e);
+        }
+
+        writeQueue.clear();
+    }
+
+    /**
+     * Check if the connection has been closed.
+     *
+     * @return true if the connection has been closed
+     */
+    public boolean isClosed() {
+        return closed || !channel.isOpen();
+    }
+
+    /**
+     * Switch the framing used by both directions of the connection.
+     * Packets already queued keep the framing they were encoded with; frames are decoded with the new framing
+     * starting from the one after the packet being handled. Must be called by the event loop.
+     *
+     * @param framing the new framing
+     */
+    public void setFraming(Framing framing) {
+        this.framing = framing;
+    }
+
+    /**
+     * Get the framing currently used by the connection.
+     *
+     * @return the framing
+     */
+    public Framing getFraming() {
+        return framing;
+    }
+
+    /**
+     * Switch the encoding of the packets, effective with the same rules as {@link #setFraming(Framing)}.
+     * The binary encoding requires the varint framing.
+     *
+     * @param encoding the new encoding
+     */
+    public void setEncoding(Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Get the encoding currently used by the connection.
+     *
+     * @return the encoding
+     */
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Switch whether cards are sent as references to the card catalogue, effective with the same rules as
+     * {@link #setFraming(Framing)}. Applies to every framing and encoding.
+     *
+     * @param cardReferences true to send cards as references
+     */
+    public void setCardReferences(boolean cardReferences) {
+        this.cardReferences = cardReferences;
+        serializer = NetworkJsonSerializer.getInstance(cardReferences);
+        binarySerializer = NetworkBinarySerializer.getInstance(cardReferences);
+    }
+
+    /**
+     * Set the identity of the connection.
+     *
+     * @param identity the identity
+     */
+    public void setIdentity(String identity) {
+        this.identity = identity;
+    }
+
+    /**
+     * Get the identity of the connection.
+     *
+     * @return the identity
+     */
+    public String getIdentity() {
+        return identity;
+    }
+
+    /**
+     * Decode every complete frame in the buffer, leaving its position at the start of the first incomplete one.
+     *
+     * @param input the buffer to decode
+     * @param sink  the consumer of the decoded packets
+     * @throws IOException if a frame cannot be decoded
+     */
+    private void decodeFrames(ByteBuffer input, Consumer<NetworkPacket> sink) throws IOException {
+        while (!closed) {
+            NetworkPacket packet = framing == Framing.VARINT ? decodeVarIntFrame(input) : decodeLegacyFrame(input);
+
+            if (packet == null) {
+                return;
+            }
+
+            sink.accept(packet);
+        }
+    }
+
+    /**
+     * Decode a frame written by {@link DataOutputStream#writeUTF(String)}.
+     *
+     * @param input the buffer to decode
+     * @return the packet, or null if the frame is incomplete
+     * @throws IOException if the frame cannot be decoded
+     */
+    private NetworkPacket decodeLegacyFrame(ByteBuffer input) throws IOException {
+        if (input.remaining() < FRAME_HEADER_SIZE) {
+            return null;
+        }
+
+        int length = Short.toUnsignedInt(input.getShort(input.position()));
+
+        if (input.remaining() < FRAME_HEADER_SIZE + length) {
+            return null;
+        }
+
+        byte[] frame = new byte[FRAME_HEADER_SIZE + length];
+        input.get(frame);
+
+        String json = DataInputStream.readUTF(new DataInputStream(new ByteArrayInputStream(frame)));
+        return serializer.fromJson(json);
+    }
+
+    /**
+     * Decode a frame made of a varint length and a payload.
+     *
+     * @param input the buffer to decode
+     * @return the packet, or null if the frame is incomplete
+     * @throws IOException if the frame cannot be decoded
+     */
+    private NetworkPacket decodeVarIntFrame(ByteBuffer input) throws IOException {
+        int start = input.position();
+        int length = VarInt.readFrameLength(input);
+
+        if (length == VarInt.INCOMPLETE) {
+            return null;
+        }
+
+        if (input.remaining() < length) {
+            input.position(start);
+            return null;
+        }
+
+        Buffer payload = new Buffer();
+        payload.write(input.slice(input.position(), length));
+        input.position(input.position() + length);
+
+        return encoding == Encoding.BINARY ? binarySerializer.fromBinary(payload) : serializer.fromJson(payload);
+    }
+
+    /**
+     * Encode a packet as a whole frame, in the current framing and encoding of the connection.
+     *
+     * @param packet the packet to encode
+     * @return the frame
+     * @throws IOException if the packet cannot be encoded
+     */
+    private byte[] encodeFrame(NetworkPacket packet) throws IOException {
+        // Both encoders allocate buffers of the exact frame size
+        return (framing == Framing.VARINT ? encodeVarInt(packet) : encode(serializer.toJson(packet))).array();
+    }
+
+    /**
+     * Encode a packet as a varint length followed by its payload.
+     *
+     * @param packet the packet to encode
+     * @return the encoded frame, ready to be written
+     * @throws IOException if the packet cannot be serialized
+     */
+    private ByteBuffer encodeVarInt(NetworkPacket packet) throws IOException {
+        Buffer payload = new Buffer();
+        if (encoding == Encoding.BINARY) {
+            binarySerializer.toBinary(packet, payload);
+        } else {
+            serializer.toJson(packet, payload);
+        }
+
+        int length = (int) payload.size();
+        ByteBuffer frame = ByteBuffer.allocate(VarInt.size(length) + length);
+        VarInt.write(frame, length);
+
+        while (frame.hasRemaining()) {
+            payload.read(frame);
+        }
+
+        return frame.flip();
+    }
+
+    /**
+     * Encode a string with the same framing used by {@link DataOutputStream#writeUTF(String)}.
+     *
+     * @param json the string to encode
+     * @return the encoded frame, ready to be written
+     * @throws IOException if the string is too long to be framed
+     */
+    private static ByteBuffer encode(String json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length() + FRAME_HEADER_SIZE);
+        new DataOutputStream(bytes).writeUTF(json);
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    /**
+     * Append the readable bytes of a buffer to another one, growing it if needed.
+     *
+     * @param target the buffer to append to, in write mode
+     * @param source the buffer to read from
+     * @return the target buffer, or a larger copy of it
+     */
+    private static ByteBuffer append(ByteBuffer target, ByteBuffer source) {
+        if (target.remaining() < source.remaining()) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(target.capacity() * 2, target.position() + source.remaining()));
+            target.flip();
+            grown.put(target);
+            target = grown;
+        }
+
+        return target.put(source);
+    }
+
+    @Override
+    public String toString() {
+        return "NIOConnection@" + Integer.toHexString(hashCode());
+    }
+
+}
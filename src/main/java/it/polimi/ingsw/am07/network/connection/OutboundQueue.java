@@ -0,0 +1,269 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.network.connection;
+
+import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.NetworkPacket;
+import it.polimi.ingsw.am07.utils.metrics.Counter;
+import it.polimi.ingsw.am07.utils.metrics.Gauge;
+import it.polimi.ingsw.am07.utils.metrics.Histogram;
+import it.polimi.ingsw.am07.utils.metrics.MetricsRegistry;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A bounded queue of encoded frames waiting to be written to a connection.
+ * Senders never block: when the queue is full the {@link OverflowPolicy} of the packet decides whether it is dropped,
+ * coalesced with the queued ones or whether the consumer has to be disconnected. The frames are taken in batches by a
+ * single writer thread, so that a burst of packets is written with a single call.
+ */
+public class OutboundQueue {
+
+    /**
+     * Number of frames a connection can fall behind before the overflow policy applies.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    // Tracked apart from the queues, as the sum over every connection
+    private static final Gauge QUEUED_FRAMES = MetricsRegistry.getInstance().gauge("connection_outbound_queued_frames");
+    private static final Histogram WAIT_TIME = MetricsRegistry.getInstance().histogram("connection_outbound_wait_seconds");
+    private static final Counter DROPPED = MetricsRegistry.getInstance().counter("connection_outbound_dropped_total");
+    private static final Counter COALESCED = MetricsRegistry.getInstance().counter("connection_outbound_coalesced_total");
+    private static final Counter SLOW_CONSUMERS = MetricsRegistry.getInstance().counter("connection_slow_consumers_total");
+
+    private final int capacity;
+    private final Function<NetworkPacket, OverflowPolicy> policy;
+    private final ArrayDeque<Entry> entries;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private boolean closed;
+
+    /**
+     * Constructor, with the default capacity and policies.
+     */
+    public OutboundQueue() {
+        this(DEFAULT_CAPACITY, OverflowPolicy::of);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the maximum number of queued frames
+     * @param policy   the policy of each packet sent while the queue is full
+     */
+    public OutboundQueue(int capacity, Function<NetworkPacket, OverflowPolicy> policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive");
+        }
+
+        this.capacity = capacity;
+        this.policy = policy;
+
+        entries = new ArrayDeque<>(Math.min(capacity, 64));
+        lock = new ReentrantLock();
+        notEmpty = lock.newCondition();
+    }
+
+    /**
+     * Queue the frame of a packet, applying the overflow policy of the packet if the queue is full.
+     *
+     * @param packet the packet, used to pick the policy
+     * @param frame  the encoded frame, which is never modified
+     * @return false if the consumer must be disconnected, true otherwise
+     */
+    public boolean offer(NetworkPacket packet, byte[] frame) {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+
+            if (entries.size() >= capacity) {
+                switch (policy.apply(packet)) {
+                    case DROP -> {
+                        DROPPED.increment();
+                        return true;
+                    }
+                    case COALESCE -> {
+                        if (!removeSameKind(packet)) {
+                            SLOW_CONSUMERS.increment();
+                            return false;
+                        }
+                    }
+                    case DISCONNECT -> {
+                        SLOW_CONSUMERS.increment();
+                        return false;
+                    }
+                }
+            }
+
+            entries.add(new Entry(packet, frame, System.nanoTime()));
+            QUEUED_FRAMES.increment();
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait for the next frames and append them to a batch.
+     * Every queued frame is taken until the batch reaches the size threshold. If more than one frame was queued, a
+     * burst is in progress: the writer waits up to the linger time for each next frame, and stops as soon as a wait
+     * ends without one.
+     *
+     * @param batch       the batch to append the frames to
+     * @param maxBytes    the size threshold of the batch
+     * @param lingerNanos how long to wait for the next frame of a burst, in nanoseconds
+     * @return the number of frames taken, or 0 once the queue is closed
+     * @throws InterruptedException if the writer is interrupted while waiting
+     */
+    public int takeBatch(ByteArrayOutputStream batch, int maxBytes, long lingerNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            while (entries.isEmpty() && !closed) {
+                notEmpty.await();
+            }
+
+            int frames = 0;
+
+            while (!closed && batch.size() < maxBytes) {
+                Entry entry = entries.poll();
+
+                if (entry == null) {
+                    if (frames < 2 || lingerNanos <= 0) {
+                        break;
+                    }
+
+                    notEmpty.awaitNanos(lingerNanos);
+                    if (entries.isEmpty()) {
+                        // The burst is over
+                        break;
+                    }
+                    continue;
+                }
+
+                QUEUED_FRAMES.decrement();
+                WAIT_TIME.recordSince(entry.enqueuedAt());
+                batch.writeBytes(entry.frame());
+                frames++;
+            }
+
+            return frames;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close the queue, discarding the frames not written yet and waking up the writer.
+     *
+     * @return true if the queue was open
+     */
+    public boolean close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+
+            closed = true;
+            QUEUED_FRAMES.add(-entries.size());
+            entries.clear();
+            notEmpty.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the number of frames waiting to be written.
+     *
+     * @return the number of queued frames
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove the queued packets superseded by a packet of the same kind.
+     * Must be called while holding the lock.
+     *
+     * @param packet the new packet
+     * @return true if at least one packet was removed
+     */
+    private boolean removeSameKind(NetworkPacket packet) {
+        boolean removed = false;
+
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            if (isSameKind(iterator.next().packet(), packet)) {
+                iterator.remove();
+                QUEUED_FRAMES.decrement();
+                COALESCED.increment();
+                removed = true;
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * Check whether two packets are of the same kind, comparing the classes of their actions if they carry one.
+     *
+     * @param queued the queued packet
+     * @param packet the new packet
+     * @return true if the new packet supersedes the queued one
+     */
+    private static boolean isSameKind(NetworkPacket queued, NetworkPacket packet) {
+        if (queued instanceof ActionNetworkPacket queuedAction && packet instanceof ActionNetworkPacket action) {
+            return queuedAction.getAction().getClass() == action.getAction().getClass();
+        }
+
+        return queued.getClass() == packet.getClass();
+    }
+
+    /**
+     * A queued frame.
+     *
+     * @param packet     the packet the frame encodes
+     * @param frame      the frame
+     * @param enqueuedAt when the frame was queued, in nanoseconds
+     */
+    private record Entry(NetworkPacket packet, byte[] frame, long enqueuedAt) {
+
+    }
+
+}
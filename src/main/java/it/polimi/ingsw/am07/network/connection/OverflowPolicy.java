@@ -0,0 +1,69 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.network.connection;
+
+import it.polimi.ingsw.am07.action.server.LobbyListAction;
+import it.polimi.ingsw.am07.action.server.LobbyStateSyncAction;
+import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.HeartbeatNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.NetworkPacket;
+
+/**
+ * What an {@link OutboundQueue} does with a packet sent while it is full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Discard the packet, for packets whose loss is harmless.
+     */
+    DROP,
+
+    /**
+     * Replace the queued packets of the same kind, for packets carrying a whole state that supersedes the older ones.
+     * If none is queued the consumer is disconnected.
+     */
+    COALESCE,
+
+    /**
+     * Disconnect the slow consumer, as it cannot be kept consistent anymore.
+     */
+    DISCONNECT;
+
+    /**
+     * Get the default policy of a packet: heartbeats are dropped, state syncs are coalesced and any other packet
+     * disconnects the consumer.
+     *
+     * @param packet the packet
+     * @return the policy
+     */
+    public static OverflowPolicy of(NetworkPacket packet) {
+        return switch (packet) {
+            case HeartbeatNetworkPacket ignored -> DROP;
+            case ActionNetworkPacket actionPacket when actionPacket.getAction() instanceof LobbyListAction
+                    || actionPacket.getAction() instanceof LobbyStateSyncAction -> COALESCE;
+            default -> DISCONNECT;
+        };
+    }
+
+}
@@ -23,28 +23,72 @@
 
 package it.polimi.ingsw.am07.network.connection;
 
+import it.polimi.ingsw.am07.network.packets.HeartbeatNetworkPacket;
 import it.polimi.ingsw.am07.network.packets.NetworkPacket;
+import it.polimi.ingsw.am07.utils.binary.NetworkBinarySerializer;
 import it.polimi.ingsw.am07.utils.json.NetworkJsonSerializer;
 import it.polimi.ingsw.am07.utils.logging.AppLogger;
+import it.polimi.ingsw.am07.utils.metrics.Counter;
+import it.polimi.ingsw.am07.utils.metrics.Histogram;
+import it.polimi.ingsw.am07.utils.metrics.MetricsRegistry;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
+import java.io.IOException;
 import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Connection with a remote client.
+ * Packets are framed with {@link Framing#LEGACY} until the identity handshake switches the connection to another
+ * framing through {@link #setFraming(Framing)}.
+ * <p>
+ * Packets are written by the sending thread, unless the connection has an {@link OutboundQueue}: then they are encoded
+ * by the sending thread and written by {@link #writeQueued()}, so that a slow peer never blocks the sender. Queued
+ * frames are written in batches, and heartbeats are skipped while other packets are being sent.
  */
-public class RemoteConnection implements Connection {
+public class RemoteConnection implements BlockingConnection {
+
+    private static final Histogram SEND_TIME = MetricsRegistry.getInstance().histogram("connection_send_seconds");
+    private static final Counter PACKETS_SENT = MetricsRegistry.getInstance().counter("connection_packets_sent_total");
+    private static final Counter WRITES = MetricsRegistry.getInstance().counter("connection_writes_total");
+    private static final Counter PACKETS_RECEIVED = MetricsRegistry.getInstance().counter("connection_packets_received_total");
+    // Only varint frames are counted, legacy frames are not measured
+    private static final Counter BYTES_SENT = MetricsRegistry.getInstance().counter("connection_bytes_sent_total");
+    private static final Counter BYTES_RECEIVED = MetricsRegistry.getInstance().counter("connection_bytes_received_total");
+
+    private static final int MAX_BATCH_SIZE = 64 * 1024;
+    private static final long BATCH_LINGER = TimeUnit.MILLISECONDS.toNanos(1);
 
     private final AppLogger LOGGER = new AppLogger(RemoteConnection.class);
 
     private final Socket socket;
     private final DataOutputStream outputStream;
     private final DataInputStream inputStream;
+    private final OutboundQueue outbound;
+    private final HeartbeatTimer heartbeats;
     private String identity;
 
-    private final NetworkJsonSerializer serializer;
+    private volatile NetworkJsonSerializer serializer;
+    private volatile NetworkBinarySerializer binarySerializer;
+
+    private final ReentrantLock sendLock;
+    private volatile Framing framing;
+    private volatile Encoding encoding;
+    private volatile boolean cardReferences;
+
+    // Created only once the connection leaves the legacy framing, see setFraming
+    private BufferedSink sink;
+    private BufferedSource source;
+    private final Buffer sendBuffer;
+    private final Buffer receiveBuffer;
 
     /**
      * Constructor.
@@ -54,11 +98,33 @@ public class RemoteConnection implements Connection {
      * @param outputStream the output stream to write to
      */
     public RemoteConnection(Socket socket, DataInputStream inputStream, DataOutputStream outputStream) {
+        this(socket, inputStream, outputStream, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param socket       the socket to use
+     * @param inputStream  the input stream to read from
+     * @param outputStream the output stream to write to
+     * @param outbound     the queue of the frames to write, or null to write them on the sending thread
+     */
+    public RemoteConnection(Socket socket, DataInputStream inputStream, DataOutputStream outputStream, OutboundQueue outbound) {
         this.socket = socket;
         this.inputStream = inputStream;
         this.outputStream = outputStream;
+        this.outbound = outbound;
+
+        heartbeats = new HeartbeatTimer();
 
         this.serializer = NetworkJsonSerializer.getInstance();
+        this.binarySerializer = NetworkBinarySerializer.getInstance();
+
+        sendLock = new ReentrantLock();
+        framing = Framing.LEGACY;
+        encoding = Encoding.JSON;
+        sendBuffer = new Buffer();
+        receiveBuffer = new Buffer();
     }
 
     /**
@@ -68,20 +134,162 @@ public class RemoteConnection implements Connection {
      */
     @Override
     public void send(NetworkPacket packet) {
-        LOGGER.debug("Sending packet " + packet.getClass().getSimpleName() + " to " + this);
+        LOGGER.debug("Sending packet {0} to {1}", packet, this);
 
-        String json = serializer.toJson(packet);
+        if (!(packet instanceof HeartbeatNetworkPacket)) {
+            heartbeats.trafficSent();
+        }
 
+        long start = System.nanoTime();
+        sendLock.lock();
         try {
-            outputStream.writeUTF(json);
+            if (outbound != null) {
+                enqueue(packet, encodeFrame(packet));
+            } else if (framing == Framing.VARINT) {
+                writeVarIntFrame(packet);
+                WRITES.increment();
+                PACKETS_SENT.increment();
+            } else {
+                outputStream.writeUTF(serializer.toJson(packet));
+                WRITES.increment();
+                PACKETS_SENT.increment();
+            }
         } catch (Exception e) {
-            LOGGER.error(e);
-            try {
-                // Mark the socket as closed to unblock the "receive" method
-                socket.shutdownInput();
-            } catch (Exception ex) {
-                LOGGER.error(ex);
+            sendFailed(e);
+        } finally {
+            sendLock.unlock();
+            SEND_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Send a packet shared with other connections.
+     * The frame is encoded only if no other connection with the same wire format did it yet.
+     *
+     * @param packet the packet to send
+     */
+    @Override
+    public void send(SharedPacket packet) {
+        LOGGER.debug("Sending shared packet {0} to {1}", packet.getPacket(), this);
+
+        heartbeats.trafficSent();
+
+        long start = System.nanoTime();
+        sendLock.lock();
+        try {
+            byte[] frame = packet.getFrame(framing, encoding, cardReferences, this::encodeFrame);
+
+            if (outbound != null) {
+                enqueue(packet.getPacket(), frame);
+            } else {
+                // The sink is flushed after every packet, so the frame can bypass it
+                writeFrame(frame);
+            }
+        } catch (Exception e) {
+            sendFailed(e);
+        } finally {
+            sendLock.unlock();
+            SEND_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Send a heartbeat, unless other packets sent recently already prove the connection alive.
+     */
+    @Override
+    public void sendHeartbeat() {
+        if (heartbeats.heartbeatNeeded()) {
+            send(new HeartbeatNetworkPacket());
+        }
+    }
+
+    /**
+     * Write the queued frames until the connection is closed.
+     * Frames queued together are gathered into a single write. Must be run by a dedicated thread, and only if the
+     * connection has an outbound queue.
+     */
+    public void writeQueued() {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream(8192);
+
+        try {
+            int frames;
+            while ((frames = outbound.takeBatch(batch, MAX_BATCH_SIZE, BATCH_LINGER)) > 0) {
+                batch.writeTo(outputStream);
+                WRITES.increment();
+                PACKETS_SENT.add(frames);
+
+                if (framing == Framing.VARINT) {
+                    BYTES_SENT.add(batch.size());
+                }
+
+                batch.reset();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            sendFailed(e);
+        }
+    }
+
+    /**
+     * Close the connection, discarding the frames not written yet.
+     */
+    public void close() {
+        if (outbound != null) {
+            outbound.close();
+        }
+
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.error(e);
+        }
+    }
+
+    /**
+     * Queue the frame of a packet, disconnecting the peer if it cannot keep up.
+     * Must be called while holding the send lock, so that frames are queued in the order they were encoded.
+     *
+     * @param packet the packet
+     * @param frame  the encoded frame
+     */
+    private void enqueue(NetworkPacket packet, byte[] frame) {
+        if (!outbound.offer(packet, frame) && outbound.close()) {
+            LOGGER.error("Disconnecting slow consumer {0}", this);
+
+            // Unblocks both the reader and the writer of the connection
+            close();
+        }
+    }
+
+    /**
+     * Write a whole frame to the socket.
+     *
+     * @param frame the frame
+     * @throws IOException if the socket cannot be written
+     */
+    private void writeFrame(byte[] frame) throws IOException {
+        outputStream.write(frame);
+        WRITES.increment();
+        PACKETS_SENT.increment();
+
+        if (framing == Framing.VARINT) {
+            BYTES_SENT.add(frame.length);
+        }
+    }
+
+    /**
+     * Handle a packet that could not be sent.
+     *
+     * @param e the cause
+     */
+    private void sendFailed(Exception e) {
+        LOGGER.error(e);
+        try {
+            // Mark the socket as closed to unblock the "receive" method
+            socket.shutdownInput();
+        } catch (Exception ex) {
+            LOGGER.error(ex);
         }
     }
 
@@ -92,13 +300,18 @@ public class RemoteConnection implements Connection {
      */
     @Override
     public NetworkPacket receive() {
-        LOGGER.debug("Receiving packet from " + this);
+        LOGGER.debug("Receiving packet from {0}", this);
 
         try {
+            if (framing == Framing.VARINT) {
+                return readVarIntFrame();
+            }
+
             String json = inputStream.readUTF();
+            PACKETS_RECEIVED.increment();
             return serializer.fromJson(json);
         } catch (EOFException e) {
-            LOGGER.error("Connection " + this + "Closed unexpectedly");
+            LOGGER.error("Connection {0} closed unexpectedly", this);
             throw new RuntimeException(e);
         } catch (Exception e) {
             LOGGER.error(e);
@@ -114,6 +327,10 @@ public class RemoteConnection implements Connection {
     @Override
     public int available() {
         try {
+            BufferedSource bufferedSource = source;
+            if (bufferedSource != null && bufferedSource.getBuffer().size() > 0) {
+                return (int) Math.min(Integer.MAX_VALUE, bufferedSource.getBuffer().size());
+            }
             return inputStream.available();
         } catch (Exception e) {
             return 0;
@@ -137,6 +354,160 @@ public class RemoteConnection implements Connection {
         return identity;
     }
 
+    /**
+     * Switch the framing used by both directions of the connection.
+     * Must be called by the thread that reads the connection, right after the packet that negotiated it and before
+     * reading the next one, so that no byte of the new framing has been consumed yet.
+     *
+     * @param framing the new framing
+     */
+    public void setFraming(Framing framing) {
+        sendLock.lock();
+        try {
+            if (framing != Framing.LEGACY && sink == null) {
+                // DataInputStream does not read ahead, so nothing is lost when buffering starts from here
+                sink = Okio.buffer(Okio.sink(outputStream));
+                source = Okio.buffer(Okio.source(inputStream));
+            }
+
+            this.framing = framing;
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /**
+     * Get the framing currently used by the connection.
+     *
+     * @return the framing
+     */
+    public Framing getFraming() {
+        return framing;
+    }
+
+    /**
+     * Switch the encoding of the packets, effective with the same rules as {@link #setFraming(Framing)}.
+     * The binary encoding requires the varint framing.
+     *
+     * @param encoding the new encoding
+     */
+    public void setEncoding(Encoding encoding) {
+        sendLock.lock();
+        try {
+            this.encoding = encoding;
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /**
+     * Get the encoding currently used by the connection.
+     *
+     * @return the encoding
+     */
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Switch whether cards are sent as references to the card catalogue, effective with the same rules as
+     * {@link #setFraming(Framing)}. Applies to every framing and encoding.
+     *
+     * @param cardReferences true to send cards as references
+     */
+    public void setCardReferences(boolean cardReferences) {
+        sendLock.lock();
+        try {
+            this.cardReferences = cardReferences;
+            serializer = NetworkJsonSerializer.getInstance(cardReferences);
+            binarySerializer = NetworkBinarySerializer.getInstance(cardReferences);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /**
+     * Serialize a packet into the reusable send buffer and write it as a single varint framed packet.
+     * Must be called while holding the send lock.
+     *
+     * @param packet the packet to send
+     * @throws IOException if the socket cannot be written
+     */
+    private void writeVarIntFrame(NetworkPacket packet) throws IOException {
+        try {
+            serializePayload(packet);
+
+            int length = (int) sendBuffer.size();
+            BYTES_SENT.add(VarInt.size(length) + length);
+            VarInt.write(sink, length);
+            sink.writeAll(sendBuffer);
+            sink.flush();
+        } finally {
+            sendBuffer.clear();
+        }
+    }
+
+    /**
+     * Encode a packet as a whole frame, in the current framing and encoding of the connection.
+     * Must be called while holding the send lock.
+     *
+     * @param packet the packet to encode
+     * @return the frame
+     * @throws IOException if the packet cannot be encoded
+     */
+    private byte[] encodeFrame(NetworkPacket packet) throws IOException {
+        if (framing != Framing.VARINT) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            new DataOutputStream(bytes).writeUTF(serializer.toJson(packet));
+            return bytes.toByteArray();
+        }
+
+        try {
+            serializePayload(packet);
+
+            Buffer frame = new Buffer();
+            VarInt.write(frame, (int) sendBuffer.size());
+            frame.writeAll(sendBuffer);
+            return frame.readByteArray();
+        } finally {
+            sendBuffer.clear();
+        }
+    }
+
+    /**
+     * Serialize a packet into the reusable send buffer, with the current encoding of the connection.
+     * Must be called while holding the send lock.
+     *
+     * @param packet the packet to serialize
+     * @throws IOException if the packet cannot be serialized
+     */
+    private void serializePayload(NetworkPacket packet) throws IOException {
+        if (encoding == Encoding.BINARY) {
+            binarySerializer.toBinary(packet, sendBuffer);
+        } else {
+            serializer.toJson(packet, sendBuffer);
+        }
+    }
+
+    /**
+     * Read a single varint framed packet into the reusable receive buffer and deserialize it.
+     *
+     * @return the received packet
+     * @throws IOException if the socket cannot be read or the frame is invalid
+     */
+    private NetworkPacket readVarIntFrame() throws IOException {
+        int length = VarInt.readFrameLength(source);
+        PACKETS_RECEIVED.increment();
+        BYTES_RECEIVED.add(VarInt.size(length) + length);
+
+        try {
+            source.readFully(receiveBuffer, length);
+            return encoding == Encoding.BINARY ? binarySerializer.fromBinary(receiveBuffer) : serializer.fromJson(receiveBuffer);
+        } finally {
+            receiveBuffer.clear();
+        }
+    }
+
     @Override
     public String toString() {
         //return just the id
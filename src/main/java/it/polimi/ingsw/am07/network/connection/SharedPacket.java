@@ -0,0 +1,104 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.network.connection;
+
+import it.polimi.ingsw.am07.network.packets.NetworkPacket;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A packet sent to several connections, encoded at most once for each wire format.
+ * The first connection sending the packet with a given framing, encoding and card references mode encodes the whole
+ * frame; the others write the same bytes, which must never be modified.
+ */
+public final class SharedPacket {
+
+    private static final int FRAMINGS = Framing.values().length;
+    private static final int ENCODINGS = Encoding.values().length;
+
+    private final NetworkPacket packet;
+    private final AtomicReferenceArray<byte[]> frames;
+
+    /**
+     * Constructor.
+     *
+     * @param packet the packet to send
+     */
+    public SharedPacket(NetworkPacket packet) {
+        this.packet = packet;
+
+        frames = new AtomicReferenceArray<>(FRAMINGS * ENCODINGS * 2);
+    }
+
+    /**
+     * Get the packet.
+     *
+     * @return the packet
+     */
+    public NetworkPacket getPacket() {
+        return packet;
+    }
+
+    /**
+     * Get the frame of the packet in a wire format, encoding it if no connection did yet.
+     *
+     * @param framing        the framing of the connection
+     * @param encoding       the encoding of the connection
+     * @param cardReferences whether the connection sends cards as references
+     * @param encoder        the encoder of the connection, producing the whole frame in its current wire format
+     * @return the frame, ready to be written
+     * @throws IOException if the packet cannot be encoded
+     */
+    byte[] getFrame(Framing framing, Encoding encoding, boolean cardReferences, FrameEncoder encoder) throws IOException {
+        int format = (framing.ordinal() * ENCODINGS + encoding.ordinal()) * 2 + (cardReferences ? 1 : 0);
+
+        byte[] frame = frames.get(format);
+        if (frame != null) {
+            return frame;
+        }
+
+        frame = encoder.encode(packet);
+        // Another connection may have encoded the same frame meanwhile, either copy is fine
+        return frames.compareAndSet(format, null, frame) ? frame : frames.get(format);
+    }
+
+    /**
+     * Encoder of the frames of a connection.
+     */
+    @FunctionalInterface
+    interface FrameEncoder {
+
+        /**
+         * Encode a packet as a whole frame.
+         *
+         * @param packet the packet to encode
+         * @return the frame
+         * @throws IOException if the packet cannot be encoded
+         */
+        byte[] encode(NetworkPacket packet) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.network.connection;
+
+import okio.BufferedSink;
+import okio.BufferedSource;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+/**
+ * Unsigned LEB128 variable-length integers, used as frame headers by {@link Framing#VARINT}.
+ * Values are written seven bits at a time, least significant group first, with the high bit set on every byte but
+ * the last one.
+ */
+public final class VarInt {
+
+    /**
+     * The largest accepted frame, to avoid allocating unbounded memory for a corrupted header.
+     */
+    public static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Returned by {@link #read(ByteBuffer)} when the buffer does not contain the whole value yet.
+     */
+    public static final int INCOMPLETE = -1;
+
+    private static final int MAX_BYTES = 5;
+
+    private VarInt() {
+    }
+
+    /**
+     * Get the number of bytes needed to encode a value.
+     *
+     * @param value the value, must be positive
+     * @return the encoded size
+     */
+    public static int size(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Write a value to a sink.
+     *
+     * @param sink  the sink
+     * @param value the value, must be positive
+     * @throws IOException if the sink cannot be written
+     */
+    public static void write(BufferedSink sink, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            sink.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        sink.writeByte(value);
+    }
+
+    /**
+     * Write a value to a buffer.
+     *
+     * @param buffer the buffer, with at least {@link #size(int)} bytes remaining
+     * @param value  the value, must be positive
+     */
+    public static void write(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Read a value from a source, blocking until it is available.
+     *
+     * @param source the source
+     * @return the value
+     * @throws IOException if the source cannot be read or the value is malformed
+     */
+    public static int read(BufferedSource source) throws IOException {
+        int value = 0;
+
+        for (int i = 0; i < MAX_BYTES; i++) {
+            byte b = source.readByte();
+            value |= (b & 0x7F) << (7 * i);
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new ProtocolException("Malformed varint");
+    }
+
+    /**
+     * Read a frame length from a source, blocking until it is available.
+     *
+     * @param source the source
+     * @return the frame length
+     * @throws IOException if the source cannot be read or the length is invalid
+     */
+    public static int readFrameLength(BufferedSource source) throws IOException {
+        return checkFrameLength(read(source));
+    }
+
+    /**
+     * Read a frame length from a buffer.
+     * On success the position of the buffer is moved past the value, otherwise it is left untouched.
+     *
+     * @param buffer the buffer
+     * @return the frame length, or {@link #INCOMPLETE} if the buffer does not contain it entirely
+     * @throws IOException if the length is invalid
+     */
+    public static int readFrameLength(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        int position = buffer.position();
+
+        for (int i = 0; i < MAX_BYTES; i++) {
+            if (position + i >= buffer.limit()) {
+                return INCOMPLETE;
+            }
+
+            byte b = buffer.get(position + i);
+            value |= (b & 0x7F) << (7 * i);
+
+            if ((b & 0x80) == 0) {
+                buffer.position(position + i + 1);
+                return checkFrameLength(value);
+            }
+        }
+
+        throw new ProtocolException("Malformed frame length");
+    }
+
+    /**
+     * Validate a decoded frame length.
+     *
+     * @param length the length
+     * @return the length
+     * @throws ProtocolException if the length is out of bounds
+     */
+    private static int checkFrameLength(int length) throws ProtocolException {
+        if (length < 0 || length > MAX_FRAME_SIZE) {
+            throw new ProtocolException("Frame too large: " + length);
+        }
+        return length;
+    }
+
+}
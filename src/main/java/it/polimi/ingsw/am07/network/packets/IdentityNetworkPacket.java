@@ -23,12 +23,21 @@
 
 package it.polimi.ingsw.am07.network.packets;
 
+import it.polimi.ingsw.am07.network.connection.Encoding;
+import it.polimi.ingsw.am07.network.connection.Framing;
+
 /**
  * Network packet that wraps an identity, used by a remote client to identify itself.
+ * A client may also propose a framing and an encoding for the rest of the connection: the server answers with another
+ * identity packet carrying the ones it accepted, and both ends switch to them. Clients that do not propose any
+ * framing, and servers that do not answer, keep using {@link Framing#LEGACY} and {@link Encoding#JSON}.
  */
 public final class IdentityNetworkPacket extends NetworkPacket {
 
     private final String identity;
+    private final Framing framing;
+    private final Encoding encoding;
+    private final boolean cardReferences;
 
     /**
      * Constructor.
@@ -36,7 +45,33 @@ public final class IdentityNetworkPacket extends NetworkPacket {
      * @param identity the identity
      */
     public IdentityNetworkPacket(String identity) {
+        this(identity, null, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param identity the identity
+     * @param framing  the proposed or accepted framing, null to keep the legacy one without negotiating
+     * @param encoding the proposed or accepted encoding, null for JSON
+     */
+    public IdentityNetworkPacket(String identity, Framing framing, Encoding encoding) {
+        this(identity, framing, encoding, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param identity       the identity
+     * @param framing        the proposed or accepted framing, null to keep the legacy one without negotiating
+     * @param encoding       the proposed or accepted encoding, null for JSON
+     * @param cardReferences whether cards are proposed or accepted to be sent as references to the card catalogue
+     */
+    public IdentityNetworkPacket(String identity, Framing framing, Encoding encoding, boolean cardReferences) {
         this.identity = identity;
+        this.framing = framing;
+        this.encoding = encoding;
+        this.cardReferences = cardReferences;
     }
 
     /**
@@ -48,4 +83,54 @@ public final class IdentityNetworkPacket extends NetworkPacket {
         return identity;
     }
 
+    /**
+     * Build the answer of the server to a negotiating packet.
+     * Every framing and card references are supported; the binary encoding is accepted only together with the varint
+     * framing.
+     *
+     * @return the packet acknowledging the accepted framing and encoding
+     */
+    public IdentityNetworkPacket acknowledge() {
+        Framing acceptedFraming = getFraming();
+        Encoding acceptedEncoding = acceptedFraming == Framing.VARINT ? getEncoding() : Encoding.JSON;
+
+        return new IdentityNetworkPacket(identity, acceptedFraming, acceptedEncoding, cardReferences);
+    }
+
+    /**
+     * Check if the packet takes part in the framing negotiation.
+     *
+     * @return true if a framing was proposed or accepted
+     */
+    public boolean isNegotiating() {
+        return framing != null;
+    }
+
+    /**
+     * Get the framing.
+     *
+     * @return the proposed or accepted framing, {@link Framing#LEGACY} if none was set
+     */
+    public Framing getFraming() {
+        return framing == null ? Framing.LEGACY : framing;
+    }
+
+    /**
+     * Get the encoding.
+     *
+     * @return the proposed or accepted encoding, {@link Encoding#JSON} if none was set
+     */
+    public Encoding getEncoding() {
+        return encoding == null ? Encoding.JSON : encoding;
+    }
+
+    /**
+     * Check if cards are sent as references to the card catalogue.
+     *
+     * @return true if card references were proposed or accepted
+     */
+    public boolean usesCardReferences() {
+        return cardReferences;
+    }
+
 }
@@ -56,7 +56,9 @@ public class RMIListener extends ClientListener {
      */
     @Override
     public void notify(Action action) {
-        action.reflect(clientState);
+        // The server skips pings while it is sending notifications
+        heartbeat();
+        reflect(action);
     }
 
     /**
@@ -25,17 +25,50 @@ package it.polimi.ingsw.am07.network.rmi;
 
 import it.polimi.ingsw.am07.action.Action;
 import it.polimi.ingsw.am07.reactive.StatefulListener;
+import it.polimi.ingsw.am07.server.executor.Liveness;
+import it.polimi.ingsw.am07.server.executor.Mailbox;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
 import it.polimi.ingsw.am07.utils.logging.AppLogger;
+import it.polimi.ingsw.am07.utils.metrics.Counter;
+import it.polimi.ingsw.am07.utils.metrics.Histogram;
+import it.polimi.ingsw.am07.utils.metrics.MetricsRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Remote listener for RMI, which calls the wrapped RMI listener.
+ * Remote calls go through a {@link Mailbox} on the server executor, so they reach the client one at a time and in order,
+ * and a client never holds more than one thread. Clients that fall too far behind or whose calls keep failing are
+ * evicted.
  */
 public class RMIRemoteListener implements StatefulListener {
 
+    /**
+     * Number of notifications a client can fall behind before it is evicted.
+     */
+    public static final int MAX_PENDING_CALLS = 256;
+
+    /**
+     * Number of consecutive failed calls, usually timeouts, after which a client is evicted.
+     */
+    public static final int MAX_FAILED_CALLS = 3;
+
+    private static final Histogram CALL_TIME = MetricsRegistry.getInstance().histogram("rmi_call_seconds");
+    private static final Counter FAILED_CALLS = MetricsRegistry.getInstance().counter("rmi_calls_failed_total");
+    private static final Counter EVICTIONS = MetricsRegistry.getInstance().counter("rmi_clients_evicted_total");
+
     private final AppLogger LOGGER = new AppLogger(RMIRemoteListener.class);
 
     private final RMIStatefulListener rmiListener;
-    private long lastHeartbeat = 0;
+    private final Liveness liveness;
+    private final Runnable onEviction;
+    private final Mailbox calls;
+    private final AtomicInteger pendingCalls;
+    private final AtomicInteger failedCalls;
+    private final AtomicBoolean pingPending;
+    private volatile boolean evicted;
 
     private String identity;
 
@@ -45,24 +78,87 @@ public class RMIRemoteListener implements StatefulListener {
      * @param rmiListener the RMI listener
      */
     public RMIRemoteListener(RMIStatefulListener rmiListener) {
+        this(rmiListener, ServerExecutor.getDefault());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param rmiListener the RMI listener
+     * @param executor    the executor used to perform the remote calls
+     */
+    public RMIRemoteListener(RMIStatefulListener rmiListener, ServerExecutor executor) {
+        this(rmiListener, executor, new Liveness(HEARTBEAT_MAX_INTERVAL, TimeUnit.MILLISECONDS), () -> {
+        });
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param rmiListener the RMI listener
+     * @param executor    the executor used to perform the remote calls
+     * @param liveness    the liveness of the remote client, updated by the heartbeats
+     * @param onEviction  the task run once if the client is evicted
+     */
+    public RMIRemoteListener(RMIStatefulListener rmiListener, ServerExecutor executor, Liveness liveness, Runnable onEviction) {
         this.rmiListener = rmiListener;
+        this.liveness = liveness;
+        this.onEviction = onEviction;
         this.identity = null;
+
+        calls = new Mailbox(executor);
+        pendingCalls = new AtomicInteger(0);
+        failedCalls = new AtomicInteger(0);
+        pingPending = new AtomicBoolean(false);
     }
 
     /**
      * Notify an action.
+     * The action is delivered asynchronously, after the ones notified before it.
      *
      * @param action the action to notify
      */
     @Override
     public void notify(Action action) {
-        new Thread(() -> {
-            try {
+        if (evicted) {
+            return;
+        }
+
+        if (pendingCalls.incrementAndGet() > MAX_PENDING_CALLS) {
+            pendingCalls.decrementAndGet();
+            evict("too many pending notifications");
+            return;
+        }
+
+        calls.post(() -> {
+            pendingCalls.decrementAndGet();
+            call(() -> {
                 rmiListener.notify(action);
-            } catch (Exception e) {
-                LOGGER.error(e);
-            }
-        }).start();
+                // A delivered notification proves the client alive, so it is not pinged meanwhile
+                liveness.touch();
+            });
+        });
+    }
+
+    /**
+     * Ping the client, which answers with its own pulse.
+     * A ping is queued after the pending notifications, and only if no other ping is pending.
+     */
+    public void ping() {
+        if (evicted || !pingPending.compareAndSet(false, true)) {
+            return;
+        }
+
+        calls.post(() -> {
+            pingPending.set(false);
+            call(() -> {
+                rmiListener.heartbeat();
+                if (rmiListener.checkPulse()) {
+                    LOGGER.debug("Heartbeat for {0}", getIdentity());
+                    liveness.touch();
+                }
+            });
+        });
     }
 
     /**
@@ -72,7 +168,7 @@ public class RMIRemoteListener implements StatefulListener {
      */
     @Override
     public boolean checkPulse() {
-        return System.currentTimeMillis() - lastHeartbeat < HEARTBEAT_MAX_INTERVAL;
+        return !evicted && liveness.isAlive();
     }
 
     /**
@@ -80,7 +176,7 @@ public class RMIRemoteListener implements StatefulListener {
      */
     @Override
     public void heartbeat() {
-        lastHeartbeat = System.currentTimeMillis();
+        liveness.touch();
     }
 
     /**
@@ -103,4 +199,64 @@ public class RMIRemoteListener implements StatefulListener {
         }
     }
 
+    /**
+     * Perform a remote call, evicting the client if too many calls in a row fail.
+     * The duration of the call is bounded by the RMI response timeout, see {@link ServerRMINetworkManager}.
+     *
+     * @param call the call
+     */
+    private void call(RemoteCall call) {
+        if (evicted) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            call.run();
+            failedCalls.set(0);
+        } catch (Exception e) {
+            LOGGER.error(e);
+            FAILED_CALLS.increment();
+
+            if (failedCalls.incrementAndGet() >= MAX_FAILED_CALLS) {
+                evict(MAX_FAILED_CALLS + " failed calls in a row");
+            }
+        } finally {
+            CALL_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Evict the client, dropping the calls not performed yet.
+     *
+     * @param reason the reason of the eviction
+     */
+    private void evict(String reason) {
+        synchronized (this) {
+            if (evicted) {
+                return;
+            }
+            evicted = true;
+        }
+
+        LOGGER.error("Evicting RMI client {0}, {1}", identity, reason);
+        EVICTIONS.increment();
+        onEviction.run();
+    }
+
+    /**
+     * A call to the remote client.
+     */
+    @FunctionalInterface
+    private interface RemoteCall {
+
+        /**
+         * Perform the call.
+         *
+         * @throws Exception if the call fails
+         */
+        void run() throws Exception;
+
+    }
+
 }
@@ -26,21 +26,35 @@ package it.polimi.ingsw.am07.network.rmi;
 import it.polimi.ingsw.am07.action.Action;
 import it.polimi.ingsw.am07.reactive.Dispatcher;
 import it.polimi.ingsw.am07.reactive.StatefulListener;
+import it.polimi.ingsw.am07.server.executor.Liveness;
+import it.polimi.ingsw.am07.server.executor.Mailbox;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
+import it.polimi.ingsw.am07.server.executor.TimingWheel;
 import it.polimi.ingsw.am07.utils.logging.AppLogger;
 
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * RMI dispatcher for the server.
+ * RMI clients never call the server on their own, so the server has to probe each of them: a single timeout of the
+ * shared {@link TimingWheel} per client pings it only after a heartbeat interval without successful calls, and drops
+ * it after a whole heartbeat timeout. Clients receiving notifications are never pinged. The actions of each client are executed in the order they were received, through a
+ * {@link Mailbox} of the client.
  */
 public class ServerRMIDispatcher extends UnicastRemoteObject implements RMIDispatcher {
 
+    private static final long HEARTBEAT_INTERVAL = 1000;
+
     public final Dispatcher dispatcher;
     private final AppLogger LOGGER = new AppLogger(ServerRMIDispatcher.class);
-    private final Map<RMIStatefulListener, StatefulListener> listeners;
+    private final Map<RMIStatefulListener, Registration> listeners;
+    private final Map<String, Mailbox> actions;
+    private final ServerExecutor executor;
 
     /**
      * Constructor.
@@ -49,12 +63,23 @@ public class ServerRMIDispatcher extends UnicastRemoteObject implements RMIDispa
      * @throws RemoteException if an error occurs
      */
     public ServerRMIDispatcher(Dispatcher dispatcher) throws RemoteException {
+        this(dispatcher, ServerExecutor.getDefault());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param dispatcher the dispatcher
+     * @param executor   the executor used to run actions and remote calls
+     * @throws RemoteException if an error occurs
+     */
+    public ServerRMIDispatcher(Dispatcher dispatcher, ServerExecutor executor) throws RemoteException {
         super();
 
         this.dispatcher = dispatcher;
+        this.executor = executor;
         listeners = new HashMap<>();
-
-        checkHeartbeats();
+        actions = new ConcurrentHashMap<>();
     }
 
     /**
@@ -64,8 +89,8 @@ public class ServerRMIDispatcher extends UnicastRemoteObject implements RMIDispa
      * @throws RemoteException if an error occurs
      */
     @Override
-    public synchronized void execute(Action action) throws RemoteException {
-        new Thread(() -> dispatcher.execute(action)).start();
+    public void execute(Action action) throws RemoteException {
+        actions.computeIfAbsent(action.getIdentity(), identity -> new Mailbox(executor)).post(() -> dispatcher.execute(action));
     }
 
     /**
@@ -76,10 +101,14 @@ public class ServerRMIDispatcher extends UnicastRemoteObject implements RMIDispa
      */
     @Override
     public void registerNewListener(RMIStatefulListener listener) throws RemoteException {
-        RMIRemoteListener remoteListener = new RMIRemoteListener(listener);
+        // The client has a full heartbeat interval before it expires
+        Liveness liveness = TimingWheel.getInstance().track(StatefulListener.HEARTBEAT_MAX_INTERVAL, HEARTBEAT_INTERVAL,
+                TimeUnit.MILLISECONDS, () -> ping(listener), () -> executor.execute(() -> expire(listener)));
+        RMIRemoteListener remoteListener = new RMIRemoteListener(listener, executor, liveness,
+                () -> executor.execute(() -> expire(listener)));
 
         synchronized (this) {
-            listeners.put(listener, remoteListener);
+            listeners.put(listener, new Registration(remoteListener, liveness));
         }
 
         dispatcher.registerNewListener(remoteListener);
@@ -92,55 +121,62 @@ public class ServerRMIDispatcher extends UnicastRemoteObject implements RMIDispa
      * @throws RemoteException if an error occurs
      */
     @Override
-    public synchronized void removeListener(RMIStatefulListener listener) throws RemoteException {
-        if (listeners.containsKey(listener)) {
-            dispatcher.removeListener(listeners.get(listener));
-            listeners.remove(listener);
+    public void removeListener(RMIStatefulListener listener) throws RemoteException {
+        expire(listener);
+    }
+
+    /**
+     * Ping an idle client.
+     * Pings are only queued here, the remote calls run on the executor after the pending notifications.
+     *
+     * @param listener the RMI listener of the client
+     */
+    private void ping(RMIStatefulListener listener) {
+        Registration registration;
+
+        synchronized (this) {
+            registration = listeners.get(listener);
+        }
+
+        if (registration != null) {
+            registration.listener().ping();
+        }
+    }
+
+    /**
+     * Drop a client that left, did not answer for a whole heartbeat interval or was evicted.
+     *
+     * @param listener the RMI listener of the client
+     */
+    private void expire(RMIStatefulListener listener) {
+        Registration registration;
+
+        synchronized (this) {
+            registration = listeners.remove(listener);
+        }
+
+        if (registration != null) {
+            registration.cancel();
+            dispatcher.removeListener(registration.listener());
+            actions.remove(registration.listener().getIdentity());
         }
     }
 
     /**
-     * Check the pulse for remote clients.
+     * A client registered on the dispatcher.
+     *
+     * @param listener the listener registered on the dispatcher
+     * @param liveness the liveness of the client, which also drives its pings
      */
-    private void checkHeartbeats() {
-        new Thread(() -> {
-            while (true) {
-                Map<RMIStatefulListener, StatefulListener> listeners;
-
-                synchronized (this) {
-                    listeners = new HashMap<>(this.listeners);
-                }
-
-                for (Map.Entry<RMIStatefulListener, StatefulListener> entry : listeners.entrySet()) {
-                    new Thread(() -> {
-                        try {
-                            entry.getKey().heartbeat();
-                            if (entry.getKey().checkPulse()) {
-                                System.out.println("Heartbeat for " + entry.getKey().getIdentity());
-                                entry.getValue().heartbeat();
-                            }
-                        } catch (RemoteException e) {
-                            LOGGER.error(e);
-                        }
-                    }).start();
-                }
-
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-
-                for (Map.Entry<RMIStatefulListener, StatefulListener> entry : listeners.entrySet()) {
-                    if (!entry.getValue().checkPulse()) {
-                        dispatcher.removeListener(entry.getValue());
-                        synchronized (this) {
-                            this.listeners.remove(entry.getKey());
-                        }
-                    }
-                }
-            }
-        }).start();
+    private record Registration(RMIRemoteListener listener, Liveness liveness) {
+
+        /**
+         * Stop tracking the client.
+         */
+        void cancel() {
+            liveness.cancel();
+        }
+
     }
 
 }
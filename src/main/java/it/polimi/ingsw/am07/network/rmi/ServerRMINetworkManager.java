@@ -25,20 +25,28 @@ package it.polimi.ingsw.am07.network.rmi;
 
 import it.polimi.ingsw.am07.network.ServerNetworkManager;
 import it.polimi.ingsw.am07.reactive.Dispatcher;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
 import it.polimi.ingsw.am07.utils.logging.AppLogger;
 
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
 import java.util.Properties;
 
 /**
  * RMI network manager for the server.
+ * Remote calls to the clients time out after the milliseconds set by the system property "rmi.call.timeout", 1000 by
+ * default, so that a client that stopped answering holds a thread of the server only for a bounded time.
  */
 public class ServerRMINetworkManager implements ServerNetworkManager {
 
+    private static final String CALL_TIMEOUT = System.getProperty("rmi.call.timeout", "1000");
+
     private final AppLogger LOGGER = new AppLogger(ServerRMINetworkManager.class);
     private final Dispatcher dispatcher;
+    private final ServerExecutor executor;
     private final Registry registry;
+    private ServerRMIDispatcher serverRMIDispatcher;
 
     /**
      * Constructor.
@@ -47,12 +55,24 @@ public class ServerRMINetworkManager implements ServerNetworkManager {
      * @param dispatcher the logic dispatcher
      */
     public ServerRMINetworkManager(int port, Dispatcher dispatcher) {
+        this(port, dispatcher, ServerExecutor.getDefault());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param port       the port
+     * @param dispatcher the logic dispatcher
+     * @param executor   the executor used to run actions and remote calls
+     */
+    public ServerRMINetworkManager(int port, Dispatcher dispatcher, ServerExecutor executor) {
         Properties props = System.getProperties();
-        props.setProperty("sun.rmi.transport.tcp.responseTimeout", "1000");
-        props.setProperty("sun.rmi.transport.connectionTimeout", "1000");
-        props.setProperty("sun.rmi.transport.tcp.readTimeout", "1000");
+        props.setProperty("sun.rmi.transport.tcp.responseTimeout", CALL_TIMEOUT);
+        props.setProperty("sun.rmi.transport.connectionTimeout", CALL_TIMEOUT);
+        props.setProperty("sun.rmi.transport.tcp.readTimeout", CALL_TIMEOUT);
 
         this.dispatcher = dispatcher;
+        this.executor = executor;
 
         Registry tempRegistry = null;
 
@@ -71,7 +91,7 @@ public class ServerRMINetworkManager implements ServerNetworkManager {
     @Override
     public void start() {
         try {
-            ServerRMIDispatcher serverRMIDispatcher = new ServerRMIDispatcher(dispatcher);
+            serverRMIDispatcher = new ServerRMIDispatcher(dispatcher, executor);
 
             registry.rebind("dispatcher", serverRMIDispatcher);
         } catch (Exception e) {
@@ -80,12 +100,15 @@ public class ServerRMINetworkManager implements ServerNetworkManager {
     }
 
     /**
-     * Close the connection to the remote clients
+     * Close the connection to the remote clients, and release the port of the registry.
+     * The manager cannot be started again afterwards.
      */
     @Override
     public void stop() {
         try {
             registry.unbind("dispatcher");
+            UnicastRemoteObject.unexportObject(serverRMIDispatcher, true);
+            UnicastRemoteObject.unexportObject(registry, true);
         } catch (Exception e) {
             LOGGER.error(e);
         }
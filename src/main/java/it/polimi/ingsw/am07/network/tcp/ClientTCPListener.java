@@ -53,9 +53,9 @@ public class ClientTCPListener extends ClientListener {
      */
     @Override
     public synchronized void notify(Action action) {
-        LOGGER.debug("Notifying action " + action.getIdentity() + " in " + Thread.currentThread().getName());
+        LOGGER.debug("Notifying action {0} in {1}", action.getIdentity(), Thread.currentThread().getName());
 
-        action.reflect(clientState);
+        reflect(action);
     }
 
     /**
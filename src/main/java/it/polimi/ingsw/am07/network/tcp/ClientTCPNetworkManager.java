@@ -26,7 +26,9 @@ package it.polimi.ingsw.am07.network.tcp;
 import it.polimi.ingsw.am07.action.server.HangGameAction;
 import it.polimi.ingsw.am07.model.ClientState;
 import it.polimi.ingsw.am07.network.ClientNetworkManager;
-import it.polimi.ingsw.am07.network.connection.Connection;
+import it.polimi.ingsw.am07.network.connection.BlockingConnection;
+import it.polimi.ingsw.am07.network.connection.Encoding;
+import it.polimi.ingsw.am07.network.connection.Framing;
 import it.polimi.ingsw.am07.network.connection.RemoteConnection;
 import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
 import it.polimi.ingsw.am07.network.packets.HeartbeatNetworkPacket;
@@ -39,6 +41,7 @@ import it.polimi.ingsw.am07.utils.logging.AppLogger;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 
 /**
  * Client network manager for TCP.
@@ -47,14 +50,19 @@ public class ClientTCPNetworkManager implements ClientNetworkManager {
 
     private final AppLogger LOGGER = new AppLogger(ClientTCPNetworkManager.class);
 
+    private static final Framing PREFERRED_FRAMING = Framing.VARINT;
+
     private final String serverAddress;
     private final int serverPort;
     private final String identity;
+    private final Encoding preferredEncoding;
+    private final boolean preferCardReferences;
 
     private Socket socket;
     private DataInputStream reader;
     private DataOutputStream writer;
-    private Connection connection;
+    private BlockingConnection connection;
+    private NetworkPacket pendingPacket;
     private StatefulListener listener;
     private Controller controller;
 
@@ -69,9 +77,24 @@ public class ClientTCPNetworkManager implements ClientNetworkManager {
      * @param identity      the client identity
      */
     public ClientTCPNetworkManager(String serverAddress, int serverPort, String identity) {
+        this(serverAddress, serverPort, identity, Encoding.JSON, true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param serverAddress        the server address
+     * @param serverPort           the server port
+     * @param identity             the client identity
+     * @param preferredEncoding    the encoding to propose to the server
+     * @param preferCardReferences whether to propose sending cards as references to the card catalogue
+     */
+    public ClientTCPNetworkManager(String serverAddress, int serverPort, String identity, Encoding preferredEncoding, boolean preferCardReferences) {
         this.serverAddress = serverAddress;
         this.serverPort = serverPort;
         this.identity = identity;
+        this.preferredEncoding = preferredEncoding;
+        this.preferCardReferences = preferCardReferences;
 
         controller = null;
         listener = null;
@@ -86,7 +109,7 @@ public class ClientTCPNetworkManager implements ClientNetworkManager {
      */
     @Override
     public synchronized void connect() {
-        LOGGER.debug("Connecting to " + serverAddress + ":" + serverPort);
+        LOGGER.debug("Connecting to {0}:{1,number,#}", serverAddress, serverPort);
 
         if (socket != null) {
             disconnect();
@@ -113,12 +136,51 @@ public class ClientTCPNetworkManager implements ClientNetworkManager {
             return;
         }
 
-        connection = new RemoteConnection(socket, reader, writer);
+        RemoteConnection remoteConnection = new RemoteConnection(socket, reader, writer);
+
+        // Identify ourselves to the server and agree on the framing before anything else is sent
+        remoteConnection.send(new IdentityNetworkPacket(identity, PREFERRED_FRAMING, preferredEncoding, preferCardReferences));
+        try {
+            negotiateFraming(remoteConnection);
+        } catch (Exception e) {
+            LOGGER.error(e);
+            disconnect();
+            return;
+        }
 
+        connection = remoteConnection;
         controller = new ClientTCPController(connection);
+    }
 
-        // Identify ourselves to the server
-        connection.send(new IdentityNetworkPacket(identity));
+    /**
+     * Wait for the server to acknowledge the proposed framing and encoding.
+     * Servers that do not support the negotiation never answer with an identity packet: in that case the connection
+     * keeps the legacy framing and the first packet received, if any, is kept for the receiver loop.
+     *
+     * @param remoteConnection the connection that sent the proposal
+     */
+    private void negotiateFraming(RemoteConnection remoteConnection) {
+        pendingPacket = null;
+
+        NetworkPacket reply;
+        try {
+            reply = remoteConnection.receive();
+        } catch (RuntimeException e) {
+            if (!(e.getCause() instanceof SocketTimeoutException)) {
+                throw e;
+            }
+            LOGGER.debug("No framing acknowledgement from the server, keeping the legacy framing");
+            return;
+        }
+
+        if (reply instanceof IdentityNetworkPacket identityPacket && identityPacket.isNegotiating()) {
+            LOGGER.debug("Server accepted framing {0} with encoding {1}", identityPacket.getFraming(), identityPacket.getEncoding());
+            remoteConnection.setFraming(identityPacket.getFraming());
+            remoteConnection.setEncoding(identityPacket.getEncoding());
+            remoteConnection.setCardReferences(identityPacket.usesCardReferences());
+        } else {
+            pendingPacket = reply;
+        }
     }
 
     /**
@@ -126,7 +188,7 @@ public class ClientTCPNetworkManager implements ClientNetworkManager {
      */
     @Override
     public void disconnect() {
-        LOGGER.debug("Disconnecting from " + serverAddress + ":" + serverPort);
+        LOGGER.debug("Disconnecting from {0}:{1,number,#}", serverAddress, serverPort);
 
         try {
             reader.close();
@@ -224,14 +286,22 @@ public class ClientTCPNetworkManager implements ClientNetworkManager {
      * Receives, parses and handles a packet.
      */
     private void receivePacket() {
-        NetworkPacket packet = connection.receive();
+        NetworkPacket packet = pendingPacket;
 
-        LOGGER.debug("Received packet: " + packet);
+        if (packet != null) {
+            pendingPacket = null;
+        } else {
+            packet = connection.receive();
+        }
+
+        LOGGER.debug("Received packet: {0}", packet);
 
         if (packet != null) {
             switch (packet) {
                 case ActionNetworkPacket actionPacket -> {
-                    LOGGER.debug("Received ActionNetworkPacket with Action: " + actionPacket.getAction());
+                    LOGGER.debug("Received ActionNetworkPacket with Action: {0}", actionPacket.getAction());
+                    // The server skips heartbeats while it is sending other packets
+                    listener.heartbeat();
                     listener.notify(actionPacket.getAction());
                 }
                 case HeartbeatNetworkPacket ignored -> {
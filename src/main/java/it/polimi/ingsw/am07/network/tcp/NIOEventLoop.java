@@ -0,0 +1,226 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.network.tcp;
+
+import it.polimi.ingsw.am07.network.connection.NIOConnection;
+import it.polimi.ingsw.am07.utils.logging.AppLogger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * A selector thread serving a subset of the connections of a {@link ServerNIONetworkManager}.
+ * Every read, write and close of its connections happens on this thread, other threads hand work over through
+ * {@link #execute(Runnable)}.
+ */
+class NIOEventLoop implements Runnable, Executor {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final AppLogger LOGGER = new AppLogger(NIOEventLoop.class);
+
+    private final ServerNIONetworkManager manager;
+    private final Selector selector;
+    private final Queue<Runnable> tasks;
+    private final Set<NIOConnection> connections;
+    private final ByteBuffer readBuffer;
+    private volatile boolean running;
+
+    /**
+     * Constructor.
+     *
+     * @param manager the network manager owning the loop
+     * @throws IOException if the selector cannot be opened
+     */
+    NIOEventLoop(ServerNIONetworkManager manager) throws IOException {
+        this.manager = manager;
+
+        selector = Selector.open();
+        tasks = new ConcurrentLinkedQueue<>();
+        connections = new HashSet<>();
+        readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        running = true;
+    }
+
+    /**
+     * Schedule a task on the loop thread.
+     *
+     * @param task the task to run
+     */
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Hand a freshly accepted channel over to this loop.
+     *
+     * @param channel the channel to register
+     */
+    void register(SocketChannel channel) {
+        execute(() -> {
+            try {
+                channel.configureBlocking(false);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                NIOConnection connection = new NIOConnection(channel, key, this);
+                key.attach(connection);
+                connections.add(connection);
+                manager.connectionAccepted(this, connection);
+            } catch (IOException e) {
+                LOGGER.error(e);
+                closeChannel(channel);
+            }
+        });
+    }
+
+    /**
+     * Close a connection served by this loop.
+     * Must be called by the loop thread.
+     *
+     * @param connection the connection to close
+     */
+    void close(NIOConnection connection) {
+        if (!connections.remove(connection)) {
+            return;
+        }
+
+        connection.close();
+        manager.connectionClosed(connection);
+    }
+
+    /**
+     * Stop the loop and close every connection.
+     */
+    void shutdown() {
+        execute(() -> running = false);
+    }
+
+    /**
+     * The loop body.
+     */
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                LOGGER.error(e);
+                break;
+            }
+
+            runTasks();
+            processSelectedKeys();
+        }
+
+        for (NIOConnection connection : new ArrayList<>(connections)) {
+            close(connection);
+        }
+
+        try {
+            selector.close();
+        } catch (IOException e) {
+            LOGGER.error(e);
+        }
+    }
+
+    /**
+     * Run the tasks scheduled by other threads.
+     */
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOGGER.error(e);
+            }
+        }
+    }
+
+    /**
+     * Serve the channels that are ready for reading or writing.
+     */
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+
+        while (iterator.hasNext()) {
+            SelectionKey key = iterator.next();
+            iterator.remove();
+
+            NIOConnection connection = (NIOConnection) key.attachment();
+
+            if (!key.isValid()) {
+                close(connection);
+                continue;
+            }
+
+            try {
+                if (key.isWritable()) {
+                    connection.flush();
+                }
+
+                if (key.isValid() && key.isReadable()) {
+                    boolean open = connection.read(readBuffer, packet -> manager.packetReceived(connection, packet));
+
+                    if (!open) {
+                        LOGGER.info("Connection closed by the remote end: {0}", connection);
+                        close(connection);
+                    }
+                }
+            } catch (Exception e) {
+                LOGGER.error(e);
+                close(connection);
+            }
+
+            if (connection.isClosed()) {
+                close(connection);
+            }
+        }
+    }
+
+    /**
+     * Close a channel that could not be registered.
+     *
+     * @param channel the channel
+     */
+    private void closeChannel(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.error(e);
+        }
+    }
+
+}
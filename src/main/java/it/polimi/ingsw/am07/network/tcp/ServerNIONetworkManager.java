@@ -0,0 +1,313 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.network.tcp;
+
+import it.polimi.ingsw.am07.network.ServerNetworkManager;
+import it.polimi.ingsw.am07.network.connection.NIOConnection;
+import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.HeartbeatNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.IdentityNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.NetworkPacket;
+import it.polimi.ingsw.am07.reactive.StatefulListener;
+import it.polimi.ingsw.am07.server.ServerDispatcher;
+import it.polimi.ingsw.am07.server.executor.Liveness;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
+import it.polimi.ingsw.am07.server.executor.TimingWheel;
+import it.polimi.ingsw.am07.utils.logging.AppLogger;
+import it.polimi.ingsw.am07.utils.metrics.Gauge;
+import it.polimi.ingsw.am07.utils.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking server network manager for TCP.
+ * Connections are spread over a small fixed pool of selector event loops instead of being served by a thread each,
+ * while the wire format stays the same as {@link ServerTCPNetworkManager}. Liveness is tracked by the shared
+ * {@link TimingWheel} and heartbeats answer the ones of the clients, so the event loops never scan their connections.
+ */
+public class ServerNIONetworkManager implements ServerNetworkManager {
+
+    private static final Gauge OPEN_CONNECTIONS = MetricsRegistry.getInstance().gauge("tcp_connections_open");
+
+    private final AppLogger LOGGER = new AppLogger(ServerNIONetworkManager.class);
+
+    private final int listeningPort;
+    private final int eventLoopsCount;
+    private final ServerDispatcher dispatcher;
+    private final ServerExecutor executor;
+    private final Map<String, NIOConnection> identities;
+    private final Map<NIOConnection, StatefulListener> listeners;
+    private final Map<NIOConnection, Liveness> livenesses;
+    private NIOEventLoop[] eventLoops;
+    private ServerSocketChannel serverChannel;
+
+    /**
+     * Constructor.
+     *
+     * @param listeningPort the listening port
+     * @param dispatcher    the dispatcher
+     */
+    public ServerNIONetworkManager(int listeningPort, ServerDispatcher dispatcher) {
+        this(listeningPort, dispatcher, ServerExecutor.getDefault());
+    }
+
+    /**
+     * Constructor.
+     * One event loop is used every two available processors, up to four.
+     *
+     * @param listeningPort the listening port
+     * @param dispatcher    the dispatcher
+     * @param executor      the executor running the acceptor and the event loops
+     */
+    public ServerNIONetworkManager(int listeningPort, ServerDispatcher dispatcher, ServerExecutor executor) {
+        this(listeningPort, dispatcher, executor, Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param listeningPort   the listening port
+     * @param dispatcher      the dispatcher
+     * @param executor        the executor running the acceptor and the event loops
+     * @param eventLoopsCount the number of selector threads
+     */
+    public ServerNIONetworkManager(int listeningPort, ServerDispatcher dispatcher, ServerExecutor executor, int eventLoopsCount) {
+        this.listeningPort = listeningPort;
+        this.dispatcher = dispatcher;
+        this.executor = executor;
+        this.eventLoopsCount = eventLoopsCount;
+
+        identities = new ConcurrentHashMap<>();
+        listeners = new ConcurrentHashMap<>();
+        livenesses = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Start listening for remote clients.
+     */
+    @Override
+    public void start() {
+        if (serverChannel != null) {
+            stop();
+        }
+
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(listeningPort));
+
+            eventLoops = new NIOEventLoop[eventLoopsCount];
+            for (int i = 0; i < eventLoopsCount; i++) {
+                eventLoops[i] = new NIOEventLoop(this);
+                // Event loops never end while the server runs, so they are spawned as long-lived tasks
+                executor.spawn("nio-event-loop-" + i, eventLoops[i]);
+            }
+
+            LOGGER.info("Server started on port {0,number,#} with {1} event loops", listeningPort, eventLoopsCount);
+        } catch (IOException e) {
+            LOGGER.error(e);
+            return;
+        }
+
+        listenForConnections();
+    }
+
+    /**
+     * Close the connection to the remote clients.
+     */
+    @Override
+    public void stop() {
+        if (serverChannel != null) {
+            try {
+                serverChannel.close();
+            } catch (Exception e) {
+                LOGGER.error(e);
+            }
+        }
+
+        if (eventLoops != null) {
+            for (NIOEventLoop eventLoop : eventLoops) {
+                if (eventLoop != null) {
+                    eventLoop.shutdown();
+                }
+            }
+        }
+
+        serverChannel = null;
+        eventLoops = null;
+    }
+
+    /**
+     * Accept incoming connections in a separate thread, handing each of them to an event loop.
+     */
+    private void listenForConnections() {
+        ServerSocketChannel channel = serverChannel;
+        NIOEventLoop[] loops = eventLoops;
+
+        executor.spawn("nio-acceptor", () -> {
+            int next = 0;
+
+            while (channel.isOpen()) {
+                SocketChannel socket;
+                try {
+                    socket = channel.accept();
+                    socket.socket().setTcpNoDelay(true);
+                    LOGGER.info("New connection accepted from {0}", socket.getRemoteAddress());
+                } catch (IOException e) {
+                    if (channel.isOpen()) {
+                        LOGGER.error(e);
+                    }
+                    continue;
+                }
+
+                loops[next].register(socket);
+                next = (next + 1) % loops.length;
+            }
+        });
+    }
+
+    /**
+     * Handle a packet decoded by an event loop.
+     *
+     * @param connection the connection the packet comes from
+     * @param packet     the packet
+     */
+    void packetReceived(NIOConnection connection, NetworkPacket packet) {
+        StatefulListener listener = listeners.get(connection);
+
+        switch (packet) {
+            case IdentityNetworkPacket identityPacket:
+                if (listener == null) {
+                    handshake(connection, identityPacket);
+                }
+                break;
+            case ActionNetworkPacket actionPacket:
+                if (listener == null) {
+                    LOGGER.error("Received an action before the identity packet from {0}", connection);
+                    break;
+                }
+                // Any packet proves the client alive
+                listener.heartbeat();
+                try {
+                    dispatcher.execute(actionPacket.getAction());
+                } catch (Exception e) {
+                    LOGGER.error(e);
+                }
+                break;
+            case HeartbeatNetworkPacket ignored:
+                if (listener != null) {
+                    listener.heartbeat();
+                    // Clients send a heartbeat every interval, answering it spares the server a timer per client
+                    connection.sendHeartbeat();
+                }
+                break;
+        }
+    }
+
+    /**
+     * Start tracking the liveness of a connection, called by its event loop once the channel is registered.
+     * Connections that never identify themselves are dropped after the heartbeat timeout, identified ones after the
+     * same time without packets.
+     *
+     * @param eventLoop  the event loop serving the connection
+     * @param connection the new connection
+     */
+    void connectionAccepted(NIOEventLoop eventLoop, NIOConnection connection) {
+        Liveness liveness = TimingWheel.getInstance().track(StatefulListener.HEARTBEAT_MAX_INTERVAL, TimeUnit.MILLISECONDS, () -> {
+            LOGGER.error("Connection timed out: {0}", connection);
+            eventLoop.execute(() -> eventLoop.close(connection));
+        });
+
+        livenesses.put(connection, liveness);
+    }
+
+    /**
+     * Release every resource bound to a closed connection.
+     *
+     * @param connection the closed connection
+     */
+    void connectionClosed(NIOConnection connection) {
+        LOGGER.info("Connection closed: {0}", connection);
+
+        Liveness liveness = livenesses.remove(connection);
+        if (liveness != null) {
+            liveness.cancel();
+        }
+
+        StatefulListener listener = listeners.remove(connection);
+        if (listener == null) {
+            return;
+        }
+
+        OPEN_CONNECTIONS.decrement();
+        identities.remove(listener.getIdentity(), connection);
+        dispatcher.removeListener(listener);
+    }
+
+    /**
+     * Register the listener of a connection once its identity is known.
+     *
+     * @param connection     the connection
+     * @param identityPacket the identity packet sent by the client
+     */
+    private void handshake(NIOConnection connection, IdentityNetworkPacket identityPacket) {
+        String identity = identityPacket.getIdentity();
+
+        if (identity == null) {
+            LOGGER.error("Connection closed unexpectedly. Could not read identity packet.");
+            connection.close();
+            return;
+        }
+
+        if (identities.putIfAbsent(identity, connection) != null) {
+            LOGGER.error("Connection closed unexpectedly. Identity already in use.");
+            connection.close();
+            return;
+        }
+
+        connection.setIdentity(identity);
+
+        if (identityPacket.isNegotiating()) {
+            // Acknowledge with the old framing, then switch
+            IdentityNetworkPacket ack = identityPacket.acknowledge();
+            connection.send(ack);
+            connection.setFraming(ack.getFraming());
+            connection.setEncoding(ack.getEncoding());
+            connection.setCardReferences(ack.usesCardReferences());
+        }
+
+        StatefulListener listener = new ServerTCPListener(connection, identity, livenesses.get(connection));
+        listener.heartbeat();
+        listeners.put(connection, listener);
+        OPEN_CONNECTIONS.increment();
+
+        dispatcher.registerNewListener(listener);
+    }
+
+}
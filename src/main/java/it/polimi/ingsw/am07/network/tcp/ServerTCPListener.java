@@ -24,30 +24,47 @@
 package it.polimi.ingsw.am07.network.tcp;
 
 import it.polimi.ingsw.am07.action.Action;
-import it.polimi.ingsw.am07.network.connection.RemoteConnection;
+import it.polimi.ingsw.am07.network.connection.Connection;
+import it.polimi.ingsw.am07.network.connection.SharedPacket;
 import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
+import it.polimi.ingsw.am07.reactive.Broadcast;
 import it.polimi.ingsw.am07.reactive.StatefulListener;
+import it.polimi.ingsw.am07.server.executor.Liveness;
 import it.polimi.ingsw.am07.utils.logging.AppLogger;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Server TCP listener.
  */
 public class ServerTCPListener implements StatefulListener {
 
     private final AppLogger LOGGER = new AppLogger(ServerTCPListener.class);
-    private final RemoteConnection remoteConnection;
+    private final Connection remoteConnection;
     private final String identity;
-    private long lastHeartbeatTime = 0;
+    private final Liveness liveness;
+
+    /**
+     * Constructor.
+     *
+     * @param remoteConnection the remote connection
+     * @param identity         the identity
+     */
+    public ServerTCPListener(Connection remoteConnection, String identity) {
+        this(remoteConnection, identity, new Liveness(HEARTBEAT_MAX_INTERVAL, TimeUnit.MILLISECONDS));
+    }
 
     /**
      * Constructor.
      *
      * @param remoteConnection the remote connection
      * @param identity         the identity
+     * @param liveness         the liveness of the remote client, updated by the heartbeats
      */
-    public ServerTCPListener(RemoteConnection remoteConnection, String identity) {
+    public ServerTCPListener(Connection remoteConnection, String identity, Liveness liveness) {
         this.remoteConnection = remoteConnection;
         this.identity = identity;
+        this.liveness = liveness;
     }
 
     /**
@@ -57,11 +74,25 @@ public class ServerTCPListener implements StatefulListener {
      */
     @Override
     public void notify(Action action) {
-        LOGGER.debug("Notifying action " + action + " in " + Thread.currentThread().getName());
+        LOGGER.debug("Notifying action {0} in {1}", action, Thread.currentThread().getName());
 
         remoteConnection.send(new ActionNetworkPacket(action));
     }
 
+    /**
+     * Notify an action sent to every listener of a dispatcher.
+     * The packet is shared by the TCP listeners of the broadcast, so the action is encoded once for each wire format
+     * instead of once for each connection.
+     *
+     * @param broadcast the broadcast
+     */
+    @Override
+    public void notify(Broadcast broadcast) {
+        LOGGER.debug("Notifying broadcast action {0} in {1}", broadcast.getAction(), Thread.currentThread().getName());
+
+        remoteConnection.send(broadcast.share(SharedPacket.class, action -> new SharedPacket(new ActionNetworkPacket(action))));
+    }
+
     /**
      * Check the pulse.
      *
@@ -69,7 +100,7 @@ public class ServerTCPListener implements StatefulListener {
      */
     @Override
     public boolean checkPulse() {
-        return System.currentTimeMillis() - lastHeartbeatTime < HEARTBEAT_MAX_INTERVAL;
+        return liveness.isAlive();
     }
 
     /**
@@ -77,7 +108,7 @@ public class ServerTCPListener implements StatefulListener {
      */
     @Override
     public void heartbeat() {
-        lastHeartbeatTime = System.currentTimeMillis();
+        liveness.touch();
     }
 
     /**
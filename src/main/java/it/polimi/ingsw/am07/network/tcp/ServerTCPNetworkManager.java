@@ -24,7 +24,8 @@
 package it.polimi.ingsw.am07.network.tcp;
 
 import it.polimi.ingsw.am07.network.ServerNetworkManager;
-import it.polimi.ingsw.am07.network.connection.Connection;
+import it.polimi.ingsw.am07.network.connection.BlockingConnection;
+import it.polimi.ingsw.am07.network.connection.OutboundQueue;
 import it.polimi.ingsw.am07.network.connection.RemoteConnection;
 import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
 import it.polimi.ingsw.am07.network.packets.HeartbeatNetworkPacket;
@@ -32,29 +33,41 @@ import it.polimi.ingsw.am07.network.packets.IdentityNetworkPacket;
 import it.polimi.ingsw.am07.network.packets.NetworkPacket;
 import it.polimi.ingsw.am07.reactive.StatefulListener;
 import it.polimi.ingsw.am07.server.ServerDispatcher;
+import it.polimi.ingsw.am07.server.executor.Liveness;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
+import it.polimi.ingsw.am07.server.executor.TimingWheel;
 import it.polimi.ingsw.am07.utils.logging.AppLogger;
+import it.polimi.ingsw.am07.utils.metrics.Gauge;
+import it.polimi.ingsw.am07.utils.metrics.MetricsRegistry;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Server network manager for TCP.
  * This class is responsible for managing the server-side network operations.
+ * Each connection is served by a reader and a writer thread: packets sent by the controllers are queued in the
+ * {@link OutboundQueue} of the connection, so a slow client cannot block them. Liveness is a single timeout of the
+ * shared {@link TimingWheel} per client, and heartbeats answer the ones the clients send every interval, so the server
+ * runs no periodic task per connection.
  */
 public class ServerTCPNetworkManager implements ServerNetworkManager {
 
+    private static final Gauge OPEN_CONNECTIONS = MetricsRegistry.getInstance().gauge("tcp_connections_open");
+
     private final AppLogger LOGGER = new AppLogger(ServerTCPNetworkManager.class);
 
     private final int listeningPort;
     private final ServerDispatcher dispatcher;
+    private final ServerExecutor executor;
+    private final Supplier<OutboundQueue> outboundQueues;
     private final List<RemoteConnection> connectionList;
-    private final Map<Connection, StatefulListener> listeners;
     private ServerSocket serverSocket;
 
     /**
@@ -64,11 +77,36 @@ public class ServerTCPNetworkManager implements ServerNetworkManager {
      * @param dispatcher    the dispatcher
      */
     public ServerTCPNetworkManager(int listeningPort, ServerDispatcher dispatcher) {
+        this(listeningPort, dispatcher, ServerExecutor.getDefault());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param listeningPort the listening port
+     * @param dispatcher    the dispatcher
+     * @param executor      the executor used to serve the connections
+     */
+    public ServerTCPNetworkManager(int listeningPort, ServerDispatcher dispatcher, ServerExecutor executor) {
+        this(listeningPort, dispatcher, executor, OutboundQueue::new);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param listeningPort  the listening port
+     * @param dispatcher     the dispatcher
+     * @param executor       the executor used to serve the connections
+     * @param outboundQueues the factory of the outbound queue of each connection, which sets its capacity and
+     *                       overflow policies
+     */
+    public ServerTCPNetworkManager(int listeningPort, ServerDispatcher dispatcher, ServerExecutor executor, Supplier<OutboundQueue> outboundQueues) {
         this.dispatcher = dispatcher;
         this.listeningPort = listeningPort;
+        this.executor = executor;
+        this.outboundQueues = outboundQueues;
 
         connectionList = new ArrayList<>();
-        listeners = new HashMap<>();
     }
 
     /**
@@ -82,13 +120,12 @@ public class ServerTCPNetworkManager implements ServerNetworkManager {
 
         try {
             serverSocket = new ServerSocket(listeningPort);
-            LOGGER.info("Server started on port " + listeningPort);
+            LOGGER.info("Server started on port {0,number,#}", listeningPort);
         } catch (Exception e) {
             LOGGER.error(e);
         }
 
         listenForConnections();
-        sendHeartbeats();
     }
 
     /**
@@ -109,19 +146,20 @@ public class ServerTCPNetworkManager implements ServerNetworkManager {
      * Listens for incoming connections in a separate thread.
      */
     private void listenForConnections() {
-        new Thread(() -> {
+        executor.spawn("tcp-acceptor", () -> {
             while (serverSocket != null) {
                 accept();
             }
-        }).start();
+        });
     }
 
     /**
      * Check the connection for incoming packets.
      *
      * @param connection the connection to check
+     * @param liveness   the liveness of the client
      */
-    private boolean checkConnection(Connection connection) {
+    private boolean checkConnection(BlockingConnection connection, Liveness liveness) {
         NetworkPacket packet;
         try {
             packet = connection.receive();
@@ -131,6 +169,9 @@ public class ServerTCPNetworkManager implements ServerNetworkManager {
         }
 
         if (packet != null) {
+            // Any packet proves the client alive
+            liveness.touch();
+
             switch (packet) {
                 case ActionNetworkPacket actionPacket:
                     dispatcher.execute(actionPacket.getAction());
@@ -138,14 +179,16 @@ public class ServerTCPNetworkManager implements ServerNetworkManager {
                 case IdentityNetworkPacket ignored:
                     break;
                 case HeartbeatNetworkPacket ignored:
-                    listeners.get(connection).heartbeat();
+                    connection.sendHeartbeat();
                     break;
             }
             return true;
         } else {
             synchronized (connectionList) {
-                LOGGER.error("Connection closed: " + connection);
-                connectionList.remove(connection);
+                LOGGER.error("Connection closed: {0}", connection);
+                if (connectionList.remove(connection)) {
+                    OPEN_CONNECTIONS.decrement();
+                }
             }
         }
         return false;
@@ -160,7 +203,7 @@ public class ServerTCPNetworkManager implements ServerNetworkManager {
 
         try {
             socket = serverSocket.accept();
-            LOGGER.info("New connection accepted from " + socket.getInetAddress() + ":" + socket.getPort());
+            LOGGER.info("New connection accepted from {0}:{1,number,#}", socket.getInetAddress(), socket.getPort());
         } catch (Exception e) {
             LOGGER.error(e);
             return;
@@ -177,80 +220,92 @@ public class ServerTCPNetworkManager implements ServerNetworkManager {
             return;
         }
 
-        RemoteConnection connection = new RemoteConnection(socket, reader, writer);
+        RemoteConnection connection = new RemoteConnection(socket, reader, writer, outboundQueues.get());
 
-        new Thread(() -> {
-            boolean connectionOpen = true;
+        executor.spawn("tcp-writer-" + socket.getPort(), connection::writeQueued);
+        executor.spawn("tcp-connection-" + socket.getPort(), () -> {
+            // Closing the connection unblocks its reader, which then cleans up
+            Liveness liveness = TimingWheel.getInstance().track(StatefulListener.HEARTBEAT_MAX_INTERVAL, TimeUnit.MILLISECONDS, () -> {
+                LOGGER.error("Connection timed out: {0}", connection);
+                connection.close();
+            });
 
-            IdentityNetworkPacket identityPacket;
             try {
-                // As the server, we expect the first packet to be an identity packet
-                identityPacket = (IdentityNetworkPacket) connection.receive();
-            } catch (Exception e) {
-                LOGGER.error(e);
-                return;
+                serve(connection, liveness);
+            } finally {
+                liveness.cancel();
+                // Also stops the writer
+                connection.close();
             }
+        });
+    }
 
-            if (identityPacket == null || identityPacket.getIdentity() == null) {
-                LOGGER.error("Connection closed unexpectedly. Could not read identity packet.");
-                return;
-            }
+    /**
+     * Serve a connection until it is closed.
+     *
+     * @param connection the connection to serve
+     * @param liveness   the liveness of the client
+     */
+    private void serve(RemoteConnection connection, Liveness liveness) {
+        boolean connectionOpen = true;
 
-            synchronized (connectionList) {
-                for (RemoteConnection c : connectionList) {
-                    if (c.getIdentity().equals(identityPacket.getIdentity())) {
-                        LOGGER.error("Connection closed unexpectedly. Identity already in use.");
-                        return;
-                    }
-                }
-            }
+        IdentityNetworkPacket identityPacket;
+        try {
+            // As the server, we expect the first packet to be an identity packet
+            identityPacket = (IdentityNetworkPacket) connection.receive();
+        } catch (Exception e) {
+            LOGGER.error(e);
+            return;
+        }
 
-            connection.setIdentity(identityPacket.getIdentity());
+        if (identityPacket == null || identityPacket.getIdentity() == null) {
+            LOGGER.error("Connection closed unexpectedly. Could not read identity packet.");
+            return;
+        }
 
-            StatefulListener listener = new ServerTCPListener(connection, identityPacket.getIdentity());
-            dispatcher.registerNewListener(listener);
+        synchronized (connectionList) {
+            for (RemoteConnection c : connectionList) {
+                if (c.getIdentity().equals(identityPacket.getIdentity())) {
+                    LOGGER.error("Connection closed unexpectedly. Identity already in use.");
+                    return;
+                }
+            }
+        }
 
-            listeners.put(connection, listener);
+        connection.setIdentity(identityPacket.getIdentity());
 
-            listener.heartbeat();
+        if (identityPacket.isNegotiating()) {
+            // Acknowledge with the old framing, then switch
+            IdentityNetworkPacket ack = identityPacket.acknowledge();
+            connection.send(ack);
+            connection.setFraming(ack.getFraming());
+            connection.setEncoding(ack.getEncoding());
+            connection.setCardReferences(ack.usesCardReferences());
+        }
 
-            synchronized (connectionList) {
-                connectionList.add(connection);
-            }
+        StatefulListener listener = new ServerTCPListener(connection, identityPacket.getIdentity(), liveness);
+        dispatcher.registerNewListener(listener);
 
-            while (connectionOpen && listener.checkPulse()) {
-                connectionOpen = checkConnection(connection);
-            }
+        listener.heartbeat();
 
-            LOGGER.error("Connection closed: " + connection);
+        synchronized (connectionList) {
+            connectionList.add(connection);
+            OPEN_CONNECTIONS.increment();
+        }
 
-            dispatcher.removeListener(listener);
+        while (connectionOpen && listener.checkPulse()) {
+            connectionOpen = checkConnection(connection, liveness);
+        }
 
-            synchronized (connectionList) {
-                connectionList.remove(connection);
-            }
-        }).start();
-    }
+        LOGGER.error("Connection closed: {0}", connection);
 
-    /**
-     * Send a heartbeat to all the connected clients.
-     */
-    private void sendHeartbeats() {
-        new Thread(() -> {
-            while (serverSocket != null) {
-                synchronized (connectionList) {
-                    for (Connection connection : connectionList) {
-                        connection.send(new HeartbeatNetworkPacket());
-                    }
-                }
+        dispatcher.removeListener(listener);
 
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                    LOGGER.error(e);
-                }
+        synchronized (connectionList) {
+            if (connectionList.remove(connection)) {
+                OPEN_CONNECTIONS.decrement();
             }
-        }).start();
+        }
     }
 
 }
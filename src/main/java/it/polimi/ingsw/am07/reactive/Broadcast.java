@@ -0,0 +1,80 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.reactive;
+
+import it.polimi.ingsw.am07.action.Action;
+
+import java.util.function.Function;
+
+/**
+ * An action notified to every listener of a dispatcher, see {@link Dispatcher#broadcast(Action)}.
+ * Listeners that prepare the action in the same way before delivering it, such as encoding it for the network, can
+ * share the result through {@link #share(Class, Function)}, so that the work is done once instead of once per listener.
+ * The listeners of a broadcast are notified one at a time, by the thread that started it.
+ */
+public final class Broadcast {
+
+    private final Action action;
+    private Object shared;
+
+    /**
+     * Constructor.
+     *
+     * @param action the broadcast action
+     */
+    public Broadcast(Action action) {
+        this.action = action;
+    }
+
+    /**
+     * Get the broadcast action.
+     *
+     * @return the action
+     */
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Get the object shared by the listeners, creating it if no listener did yet.
+     * A broadcast holds a single shared object: a listener asking for a different type gets a new object every time.
+     *
+     * @param type    the type of the shared object
+     * @param factory the factory creating the shared object from the action
+     * @param <T>     the type of the shared object
+     * @return the shared object
+     */
+    public <T> T share(Class<T> type, Function<Action, T> factory) {
+        if (type.isInstance(shared)) {
+            return type.cast(shared);
+        }
+
+        T created = factory.apply(action);
+        if (shared == null) {
+            shared = created;
+        }
+        return created;
+    }
+
+}
@@ -23,6 +23,7 @@
 
 package it.polimi.ingsw.am07.reactive;
 
+import it.polimi.ingsw.am07.action.Action;
 import it.polimi.ingsw.am07.model.ClientState;
 
 /**
@@ -41,4 +42,17 @@ public abstract class ClientListener implements StatefulListener {
         this.clientState = clientState;
     }
 
+    /**
+     * Reflect an action on the client state, keeping track of the version of the game it brings the client to.
+     *
+     * @param action the action to reflect
+     */
+    protected void reflect(Action action) {
+        action.reflect(clientState);
+
+        if (action.getGameVersion() > 0) {
+            clientState.setGameVersion(action.getGameVersion());
+        }
+    }
+
 }
@@ -23,6 +23,8 @@
 
 package it.polimi.ingsw.am07.reactive;
 
+import it.polimi.ingsw.am07.action.Action;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -49,6 +51,30 @@ public abstract class Dispatcher implements Controller {
         listeners = new ArrayList<>();
     }
 
+    /**
+     * Submit an action for execution.
+     * By default the action is executed right away on the calling thread; dispatchers owning a queue may defer it.
+     *
+     * @param action the action to execute
+     */
+    public void submit(Action action) {
+        execute(action);
+    }
+
+    /**
+     * Notify every listener of an action.
+     * Must be called while the listeners are guarded by the dispatcher.
+     *
+     * @param action the action to notify
+     */
+    protected void broadcast(Action action) {
+        Broadcast broadcast = new Broadcast(action);
+
+        for (Listener listener : listeners) {
+            listener.notify(broadcast);
+        }
+    }
+
     /**
      * Register a new listener.
      *
@@ -37,6 +37,17 @@ public interface Listener {
      */
     void notify(Action action);
 
+    /**
+     * Notify the listener of an action sent to every listener of a dispatcher.
+     * By default the action is notified as any other; listeners can override this to share work with the other
+     * listeners of the broadcast.
+     *
+     * @param broadcast the broadcast
+     */
+    default void notify(Broadcast broadcast) {
+        notify(broadcast.getAction());
+    }
+
     /**
      * Get the identity of the listener.
      *
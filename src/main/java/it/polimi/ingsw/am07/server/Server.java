@@ -25,13 +25,19 @@ package it.polimi.ingsw.am07.server;
 
 import it.polimi.ingsw.am07.network.ServerNetworkManager;
 import it.polimi.ingsw.am07.network.rmi.ServerRMINetworkManager;
+import it.polimi.ingsw.am07.network.tcp.ServerNIONetworkManager;
 import it.polimi.ingsw.am07.network.tcp.ServerTCPNetworkManager;
+import it.polimi.ingsw.am07.network.tcp.TCPServerMode;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
 import it.polimi.ingsw.am07.utils.GameRegistry;
 import it.polimi.ingsw.am07.utils.assets.AssetsRegistry;
 import it.polimi.ingsw.am07.utils.logging.AppLogger;
+import it.polimi.ingsw.am07.utils.metrics.MetricsEndpoint;
+import it.polimi.ingsw.am07.utils.metrics.MetricsRegistry;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -45,6 +51,10 @@ public class Server {
     private final ServerNetworkManager rmiNetworkManager;
 
     private final ServerDispatcher dispatcher;
+    private final GameRegistry gameRegistry;
+    private final ServerExecutor executor;
+    private final int metricsPort;
+    private ScheduledFuture<?> autoSave;
 
     /**
      * Constructor.
@@ -53,12 +63,67 @@ public class Server {
      * @param rmiPort the RMI port
      */
     public Server(int tcpPort, int rmiPort) {
-        GameRegistry gameRegistry = GameRegistry.getInstance();
+        this(tcpPort, rmiPort, TCPServerMode.BLOCKING);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param tcpPort       the TCP port
+     * @param rmiPort       the RMI port
+     * @param tcpServerMode the implementation used to serve TCP clients
+     */
+    public Server(int tcpPort, int rmiPort, TCPServerMode tcpServerMode) {
+        this(tcpPort, rmiPort, tcpServerMode, ServerExecutor.getDefault());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param tcpPort       the TCP port
+     * @param rmiPort       the RMI port
+     * @param tcpServerMode the implementation used to serve TCP clients
+     * @param executor      the executor running every asynchronous task of the server
+     */
+    public Server(int tcpPort, int rmiPort, TCPServerMode tcpServerMode, ServerExecutor executor) {
+        this(tcpPort, rmiPort, tcpServerMode, executor, -1);
+    }
 
-        dispatcher = new ServerDispatcher(gameRegistry.getGames());
+    /**
+     * Constructor.
+     *
+     * @param tcpPort       the TCP port
+     * @param rmiPort       the RMI port
+     * @param tcpServerMode the implementation used to serve TCP clients
+     * @param executor      the executor running every asynchronous task of the server
+     * @param metricsPort   the port of the plain-text metrics endpoint, negative to disable it
+     */
+    public Server(int tcpPort, int rmiPort, TCPServerMode tcpServerMode, ServerExecutor executor, int metricsPort) {
+        this(tcpPort, rmiPort, tcpServerMode, executor, metricsPort, GameRegistry.DEFAULT_DIRECTORY);
+    }
 
-        tcpNetworkManager = new ServerTCPNetworkManager(tcpPort, dispatcher);
-        rmiNetworkManager = new ServerRMINetworkManager(rmiPort, dispatcher);
+    /**
+     * Constructor.
+     *
+     * @param tcpPort             the TCP port
+     * @param rmiPort             the RMI port
+     * @param tcpServerMode       the implementation used to serve TCP clients
+     * @param executor            the executor running every asynchronous task of the server
+     * @param metricsPort         the port of the plain-text metrics endpoint, negative to disable it
+     * @param savedGamesDirectory the directory holding the saved games
+     */
+    public Server(int tcpPort, int rmiPort, TCPServerMode tcpServerMode, ServerExecutor executor, int metricsPort, Path savedGamesDirectory) {
+        this.gameRegistry = new GameRegistry(savedGamesDirectory);
+        this.executor = executor;
+        this.metricsPort = metricsPort;
+
+        dispatcher = new ServerDispatcher(gameRegistry, executor);
+
+        tcpNetworkManager = switch (tcpServerMode) {
+            case BLOCKING -> new ServerTCPNetworkManager(tcpPort, dispatcher, executor);
+            case NIO -> new ServerNIONetworkManager(tcpPort, dispatcher, executor);
+        };
+        rmiNetworkManager = new ServerRMINetworkManager(rmiPort, dispatcher, executor);
     }
 
     /**
@@ -76,28 +141,160 @@ public class Server {
      */
     public void entrypoint() {
         setupAutoSave();
+        exportMetrics();
 
         tcpNetworkManager.start();
         rmiNetworkManager.start();
     }
 
     /**
-     * Automatically saves the state of any active game every five seconds.
+     * Stop the server, closing its ports and the automatic saves.
+     * The executor is left running, as it may be shared.
+     */
+    public void stop() {
+        if (autoSave != null) {
+            autoSave.cancel(false);
+        }
+
+        tcpNetworkManager.stop();
+        rmiNetworkManager.stop();
+    }
+
+    /**
+     * Automatically saves the actions executed on every game, in batches.
      */
     private void setupAutoSave() {
-        Runnable autoSave = () -> {
-            // We must synchronize the access to the game registry to avoid concurrent modifications.
-            synchronized (dispatcher) {
-                dispatcher.cleanup();
-
-                if (!GameRegistry.getInstance().saveState()) {
-                    LOGGER.error("Failed to save the game state.");
-                }
+        Runnable saveTask = () -> {
+            // Only the journals are written, gameplay goes on meanwhile
+            dispatcher.cleanup();
+
+            if (!gameRegistry.saveState()) {
+                LOGGER.error("Failed to save the game state.");
             }
         };
 
-        ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
-        executor.scheduleAtFixedRate(autoSave, 0, 5, TimeUnit.SECONDS);
+        autoSave = executor.scheduleAtFixedRate(saveTask, GameRegistry.SAVE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Export the metrics of the server through JMX, and as plain text if a metrics port is set.
+     */
+    private void exportMetrics() {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.gauge("log_records_dropped", AppLogger::getDroppedRecords);
+        metrics.registerMBean();
+
+        if (metricsPort < 0) {
+            return;
+        }
+
+        try {
+            new MetricsEndpoint(metrics, metricsPort).start();
+        } catch (IOException e) {
+            LOGGER.error(e);
+        }
+    }
+
+    /**
+     * A factory for game servers.
+     */
+    public static class Factory {
+
+        private int tcpPort;
+        private int rmiPort;
+        private TCPServerMode tcpServerMode;
+        private ServerExecutor executor;
+        private int metricsPort;
+        private Path savedGamesDirectory;
+
+        /**
+         * Constructor.
+         * Ports default to the ones found in the game resources definition.
+         */
+        public Factory() {
+            tcpPort = AssetsRegistry.getInstance().getGameResourceDefinition().tcpPort();
+            rmiPort = AssetsRegistry.getInstance().getGameResourceDefinition().rmiPort();
+            tcpServerMode = TCPServerMode.BLOCKING;
+            executor = ServerExecutor.getDefault();
+            metricsPort = -1;
+            savedGamesDirectory = GameRegistry.DEFAULT_DIRECTORY;
+        }
+
+        /**
+         * Set the TCP port.
+         *
+         * @param tcpPort the TCP port
+         * @return this factory
+         */
+        public Factory withTcpPort(int tcpPort) {
+            this.tcpPort = tcpPort;
+            return this;
+        }
+
+        /**
+         * Set the RMI port.
+         *
+         * @param rmiPort the RMI port
+         * @return this factory
+         */
+        public Factory withRmiPort(int rmiPort) {
+            this.rmiPort = rmiPort;
+            return this;
+        }
+
+        /**
+         * Set the implementation used to serve TCP clients.
+         *
+         * @param tcpServerMode the TCP server mode
+         * @return this factory
+         */
+        public Factory withTcpServerMode(TCPServerMode tcpServerMode) {
+            this.tcpServerMode = tcpServerMode;
+            return this;
+        }
+
+        /**
+         * Set the executor running every asynchronous task of the server.
+         *
+         * @param executor the executor
+         * @return this factory
+         */
+        public Factory withExecutor(ServerExecutor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Serve the metrics of the server as plain text on a local port.
+         *
+         * @param metricsPort the port of the metrics endpoint
+         * @return this factory
+         */
+        public Factory withMetricsPort(int metricsPort) {
+            this.metricsPort = metricsPort;
+            return this;
+        }
+
+        /**
+         * Set the directory holding the saved games.
+         *
+         * @param savedGamesDirectory the directory
+         * @return this factory
+         */
+        public Factory withSavedGamesDirectory(Path savedGamesDirectory) {
+            this.savedGamesDirectory = savedGamesDirectory;
+            return this;
+        }
+
+        /**
+         * Build the server.
+         *
+         * @return the server
+         */
+        public Server build() {
+            return new Server(tcpPort, rmiPort, tcpServerMode, executor, metricsPort, savedGamesDirectory);
+        }
+
     }
 
 }
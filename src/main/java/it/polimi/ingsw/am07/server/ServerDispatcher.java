@@ -29,7 +29,6 @@ import it.polimi.ingsw.am07.action.lobby.CreateLobbyAction;
 import it.polimi.ingsw.am07.action.lobby.PlayerJoinAction;
 import it.polimi.ingsw.am07.action.server.HangGameAction;
 import it.polimi.ingsw.am07.action.server.LobbyListAction;
-import it.polimi.ingsw.am07.action.server.ResumeGameAction;
 import it.polimi.ingsw.am07.action.server.ServerGameStartAction;
 import it.polimi.ingsw.am07.model.game.Game;
 import it.polimi.ingsw.am07.model.game.GameState;
@@ -41,10 +40,13 @@ import it.polimi.ingsw.am07.reactive.Listener;
 import it.polimi.ingsw.am07.server.controller.GameController;
 import it.polimi.ingsw.am07.server.controller.LobbyController;
 import it.polimi.ingsw.am07.server.controller.MatchmakingController;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
+import it.polimi.ingsw.am07.utils.GameRegistry;
 import it.polimi.ingsw.am07.utils.logging.AppLogger;
+import it.polimi.ingsw.am07.utils.metrics.Histogram;
+import it.polimi.ingsw.am07.utils.metrics.MetricsRegistry;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -55,6 +57,8 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ServerDispatcher extends Dispatcher {
 
     private static final AppLogger LOGGER = new AppLogger(ServerDispatcher.class);
+    private static final Histogram ROUTE_TIME = MetricsRegistry.getInstance().histogram("dispatcher_route_seconds");
+    private static final Histogram CLEANUP_TIME = MetricsRegistry.getInstance().histogram("dispatcher_cleanup_seconds");
 
     private final Map<UUID, Lobby> lobbies;
     private final Map<UUID, Game> games;
@@ -62,6 +66,8 @@ public class ServerDispatcher extends Dispatcher {
     private final Map<Lobby, LobbyController> lobbyControllers;
     private final Map<String, Dispatcher> listenerDispatchers;
     private final MatchmakingController matchmakingController;
+    private final ServerExecutor executor;
+    private final GameRegistry registry;
 
     /**
      * Constructor.
@@ -69,17 +75,51 @@ public class ServerDispatcher extends Dispatcher {
      * @param games the list of games, restored from storage
      */
     public ServerDispatcher(Map<UUID, Game> games) {
+        this(games, ServerExecutor.getDefault());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param games    the list of games, restored from storage
+     * @param executor the executor used to run asynchronous tasks
+     */
+    public ServerDispatcher(Map<UUID, Game> games, ServerExecutor executor) {
+        this(games, executor, null);
+    }
+
+    /**
+     * Constructor.
+     * The actions executed on every game are journaled by the registry.
+     *
+     * @param registry the registry persisting the games
+     * @param executor the executor used to run asynchronous tasks
+     */
+    public ServerDispatcher(GameRegistry registry, ServerExecutor executor) {
+        this(registry.getGames(), executor, registry);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param games    the list of games, restored from storage
+     * @param executor the executor used to run asynchronous tasks
+     * @param registry the registry persisting the games, or null if games are not persisted
+     */
+    private ServerDispatcher(Map<UUID, Game> games, ServerExecutor executor, GameRegistry registry) {
         super();
 
         this.games = games;
-        this.lobbies = new HashMap<>();
+        this.executor = executor;
+        this.registry = registry;
+        this.lobbies = new ConcurrentHashMap<>();
 
         listenerDispatchers = new ConcurrentHashMap<>();
         gameControllers = new ConcurrentHashMap<>(games.size());
 
         // Create a game controller for each game
         games.forEach((id, game) -> {
-            GameController gameController = new GameController(game);
+            GameController gameController = new GameController(game, executor, registry != null ? registry.getJournal(game) : null);
             gameControllers.put(game, gameController);
         });
 
@@ -88,23 +128,41 @@ public class ServerDispatcher extends Dispatcher {
         Matchmaking matchmaking = new Matchmaking(lobbies.values());
 
         matchmakingController = new MatchmakingController(matchmaking, this::migrateToLobby, this::migrateToExistingLobby, this::reconnectToGame);
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.gauge("server_games", gameControllers::size);
+        metrics.gauge("server_lobbies", lobbyControllers::size);
+        metrics.gauge("server_listeners", listenerDispatchers::size);
     }
 
     /**
      * Execute an action.
      * Internally, the action is dispatched to the correct listener based on the action's caller identity.
+     * Game and lobby actions are queued in the mailbox of their controller, so independent games never wait on each
+     * other; matchmaking actions run in place, serialized by the matchmaking controller, and move listeners between
+     * controllers locking only the lobby or game involved.
      *
      * @param action the action to dispatch
      */
     @Override
-    public synchronized void execute(Action action) {
-        LOGGER.debug("Executing action " + action.getIdentity() + " in " + Thread.currentThread().getName());
+    public void execute(Action action) {
+        LOGGER.debug("Executing action {0} in {1}", action.getIdentity(), Thread.currentThread().getName());
 
-        if (listenerDispatchers.containsKey(action.getIdentity())) {
-            listenerDispatchers.get(action.getIdentity()).execute(action);
-        } else {
+        long start = System.nanoTime();
+        Dispatcher dispatcher = listenerDispatchers.get(action.getIdentity());
+
+        if (dispatcher == null) {
             throw new IllegalArgumentException("Listener not found");
         }
+
+        if (dispatcher == matchmakingController) {
+            dispatcher.execute(action);
+        } else {
+            dispatcher.submit(action);
+        }
+
+        // Matchmaking actions run in place, game and lobby actions are only queued
+        ROUTE_TIME.recordSince(start);
     }
 
     /**
@@ -116,51 +174,63 @@ public class ServerDispatcher extends Dispatcher {
      */
     @Override
     public void registerNewListener(Listener listener) {
-        LOGGER.debug("Registering new listener " + listener.getIdentity());
+        LOGGER.debug("Registering new listener {0}", listener.getIdentity());
 
         if (listener.getIdentity() == null) {
             LOGGER.error("Listener identity is null. Dropping connection.");
             return;
         }
 
-        synchronized (this) {
-            listenerDispatchers.put(listener.getIdentity(), matchmakingController);
-        }
+        listenerDispatchers.put(listener.getIdentity(), matchmakingController);
 
-        new Thread(() -> matchmakingController.registerNewListener(listener)).start();
+        executor.execute(() -> matchmakingController.registerNewListener(listener));
     }
 
     /**
      * Remove a listener.
+     * The other listeners of its game or lobby are notified of the disconnection through the mailbox of the controller,
+     * after the actions already queued there.
      *
      * @param listener the listener to remove
      */
     @Override
-    public synchronized void removeListener(Listener listener) {
-        LOGGER.debug("Removing listener " + listener.getIdentity());
+    public void removeListener(Listener listener) {
+        LOGGER.debug("Removing listener {0}", listener.getIdentity());
 
-        // Notify every other listener connected to the same controller that the listener has disconnected
-        listenerDispatchers.get(listener.getIdentity()).execute(new HangGameAction(listener.getIdentity()));
+        Dispatcher connectedDispatcher = listenerDispatchers.remove(listener.getIdentity());
 
-        Dispatcher connectedDispatcher = listenerDispatchers.get(listener.getIdentity());
-        connectedDispatcher.removeListener(listener);
-
-        listenerDispatchers.remove(listener.getIdentity());
+        if (connectedDispatcher == null) {
+            LOGGER.debug("Listener {0} is not registered", listener.getIdentity());
+            return;
+        }
 
-        // Verify if the dispatcher is still referenced by other listeners
-        if (listenerDispatchers.containsValue(connectedDispatcher)) {
+        if (connectedDispatcher instanceof GameController gameController) {
+            // A game is left in place for the player to reconnect, the lobby list does not change
+            gameController.submitDisconnection(listener);
             return;
         }
 
-        // If the dispatcher is a lobby controller, remove it
+        // Notify every other listener connected to the same controller that the listener has disconnected
+        connectedDispatcher.submit(new HangGameAction(listener.getIdentity()));
+
         if (connectedDispatcher instanceof LobbyController lobbyController) {
-            for (Map.Entry<Lobby, LobbyController> entry : lobbyControllers.entrySet()) {
-                if (entry.getValue().equals(lobbyController)) {
-                    lobbyControllers.remove(entry.getKey());
-                    lobbies.remove(entry.getKey().getId());
-                    break;
+            // Serialized with the players joining the lobby and with its migration to a game
+            synchronized (lobbyController) {
+                lobbyController.removeListener(listener);
+
+                // If nobody is left in the lobby, remove it
+                if (lobbyController.getListenersCount() == 0) {
+                    for (Map.Entry<Lobby, LobbyController> entry : lobbyControllers.entrySet()) {
+                        if (entry.getValue().equals(lobbyController)) {
+                            lobbyControllers.remove(entry.getKey());
+                            lobbies.remove(entry.getKey().getId());
+                            break;
+                        }
+                    }
                 }
             }
+        } else {
+            connectedDispatcher.removeListener(listener);
         }
 
         // Update the matchmaking controller
@@ -172,33 +242,50 @@ public class ServerDispatcher extends Dispatcher {
      *
      * @param lobby the lobby to migrate
      */
-    private synchronized void migrateLobbyToGame(Lobby lobby) {
-        LOGGER.debug("Migrating lobby " + lobby.getId() + " to a new game");
+    private void migrateLobbyToGame(Lobby lobby) {
+        LobbyController lobbyController = lobbyControllers.get(lobby);
+
+        // Actions still queued in the lobby mailbox may report the lobby as ready more than once
+        if (lobbyController == null) {
+            return;
+        }
+
+        // Serialized with the players joining or leaving the lobby
+        synchronized (lobbyController) {
+            if (!lobbyControllers.containsKey(lobby)) {
+                return;
+            }
 
-        // Create a new game
-        Game game = new Game.Factory()
-                .fromLobby(lobby)
-                .build();
+            LOGGER.debug("Migrating lobby {0} to a new game", lobby.getId());
 
-        // Create a new game controller
-        GameController gameController = new GameController(game);
+            // Create a new game
+            Game game = new Game.Factory()
+                    .fromLobby(lobby)
+                    .build();
 
-        // Store the new game and its controller
-        games.put(game.getId(), game);
-        gameControllers.put(game, gameController);
+            // Store the new game and create its controller
+            GameController gameController;
+            if (registry != null) {
+                gameController = new GameController(game, executor, registry.register(game));
+            } else {
+                games.put(game.getId(), game);
+                gameController = new GameController(game, executor);
+            }
+            gameControllers.put(game, gameController);
 
-        // Update the listener dispatchers
-        lobby.getPlayers().forEach(player -> listenerDispatchers.put(player.getIdentity(), gameController));
+            // Inherit the listeners from the lobby controller
+            gameController.inheritListeners(lobbyController);
 
-        // Inherit the listeners from the lobby controller
-        gameController.inheritListeners(lobbyControllers.get(lobby));
+            // Delete the lobby and lobby controller
+            lobbyControllers.remove(lobby);
+            lobbies.remove(lobby.getId());
 
-        // Delete the lobby and lobby controller
-        lobbyControllers.remove(lobby);
-        lobbies.remove(lobby.getId());
+            // Execute a game sync action to notify the listeners of the new game
+            gameController.execute(new ServerGameStartAction(game));
 
-        // Execute a game sync action to notify the listeners of the new game
-        gameController.execute(new ServerGameStartAction(game));
+            // Update the listener dispatchers, only now can game actions reach the new controller
+            lobby.getPlayers().forEach(player -> listenerDispatchers.put(player.getIdentity(), gameController));
+        }
     }
 
     /**
@@ -209,57 +296,91 @@ public class ServerDispatcher extends Dispatcher {
      * @param lobbyId    the id of the lobby to migrate to
      * @param playerPawn the pawn of the player
      */
-    private synchronized Boolean migrateToExistingLobby(Listener listener, String nickname, UUID lobbyId, Pawn playerPawn) {
+    private Boolean migrateToExistingLobby(Listener listener, String nickname, UUID lobbyId, Pawn playerPawn) {
         LOGGER.debug("Migrating to existing lobby");
 
         Lobby lobby = lobbies.get(lobbyId);
-        if (lobby == null) {
+        LobbyController lobbyController = lobby != null ? lobbyControllers.get(lobby) : null;
+        if (lobbyController == null) {
             ErrorAction errorAction = new ErrorAction("Error: Lobby not found");
             listener.notify(errorAction);
             return false;
         }
 
-        if (lobby.getPlayers().size() >= 4) {
-            ErrorAction errorAction = new ErrorAction("Error: Lobby is full");
-            listener.notify(errorAction);
-            return false;
-        }
+        // Serialized with the other players joining or leaving the lobby and with its migration to a game
+        synchronized (lobbyController) {
+            if (!lobbyControllers.containsKey(lobby)) {
+                ErrorAction errorAction = new ErrorAction("Error: Lobby not found");
+                listener.notify(errorAction);
+                return false;
+            }
 
-        try {
-            lobby.addNewPlayer(nickname, listener.getIdentity(), playerPawn);
-            //Notify the listener
-            PlayerJoinAction action = new PlayerJoinAction(nickname, listener.getIdentity(), lobbyId, playerPawn);
-            listener.notify(action);
-        } catch (IllegalArgumentException e) {
-            ErrorAction errorAction = new ErrorAction(e.getMessage());
-            listener.notify(errorAction);
-            return false;
-        }
+            if (lobby.getPlayers().size() >= 4) {
+                ErrorAction errorAction = new ErrorAction("Error: Lobby is full");
+                listener.notify(errorAction);
+                return false;
+            }
 
-        //Migrate the listener from OutOfLobbyController to LobbyController
-        listenerDispatchers.put(listener.getIdentity(), lobbyControllers.get(lobby));
-        lobbyControllers.get(lobby).registerNewListener(listener);
+            try {
+                lobby.addNewPlayer(nickname, listener.getIdentity(), playerPawn);
+                //Notify the listener
+                PlayerJoinAction action = new PlayerJoinAction(nickname, listener.getIdentity(), lobbyId, playerPawn);
+                listener.notify(action);
+            } catch (IllegalArgumentException e) {
+                ErrorAction errorAction = new ErrorAction(e.getMessage());
+                listener.notify(errorAction);
+                return false;
+            }
+
+            //Migrate the listener from OutOfLobbyController to LobbyController
+            listenerDispatchers.put(listener.getIdentity(), lobbyController);
+            lobbyController.registerNewListener(listener);
+        }
 
         return true;
     }
 
-    private synchronized Boolean reconnectToGame(Listener listener, String nickname) {
+    /**
+     * Reconnect a listener attached to the general matchmaking to the game of the player.
+     *
+     * @param listener        the listener to reconnect
+     * @param nickname        the nickname of the player
+     * @param lastGameId      the id of the game last seen by the player, null if unknown
+     * @param lastGameVersion the version of that game last seen by the player, 0 if unknown
+     * @return true if the player was found in a game, false otherwise
+     */
+    private Boolean reconnectToGame(Listener listener, String nickname, UUID lastGameId, Long lastGameVersion) {
         LOGGER.debug("Reconnecting to game");
 
+        GameController gameController = null;
+
         for (Map.Entry<Game, GameController> entry : gameControllers.entrySet()) {
             if (entry.getKey().getPlayers().stream().anyMatch(player -> player.getIdentity().equals(listener.getIdentity()) && player.getNickname().equals(nickname))) {
-                listenerDispatchers.put(listener.getIdentity(), entry.getValue());
-                entry.getValue().registerNewListener(listener);
+                gameController = entry.getValue();
+                break;
+            }
+        }
 
-                // Send the game state to the listener
-                entry.getValue().execute(new ResumeGameAction(entry.getKey(), listener.getIdentity()));
-                return true;
+        if (gameController == null && registry != null) {
+            // Saved games are only restored when one of their players comes back
+            Game game = registry.findGame(listener.getIdentity(), nickname);
+
+            if (game != null) {
+                gameController = new GameController(game, executor, registry.getJournal(game));
+                gameControllers.put(game, gameController);
             }
         }
 
-        LOGGER.debug("Reconnection failed");
+        if (gameController == null) {
+            LOGGER.debug("Reconnection failed");
+            return false;
+        }
+
+        listenerDispatchers.put(listener.getIdentity(), gameController);
 
-        return false;
+        // Send the game state, or the actions missed by the listener, after the actions already queued for the game
+        gameController.submitResume(listener, lastGameId, lastGameVersion);
+        return true;
     }
 
     /**
@@ -269,12 +390,12 @@ public class ServerDispatcher extends Dispatcher {
      * @param firstPlayerNickname the nickname of the first player
      * @param playerPawn          the pawn of the player
      */
-    private synchronized void migrateToLobby(Listener listener, String firstPlayerNickname, Pawn playerPawn) {
+    private void migrateToLobby(Listener listener, String firstPlayerNickname, Pawn playerPawn) {
         LOGGER.debug("Migrating to lobby");
 
         // Create a new lobby
         Lobby lobby = new Lobby();
-        LobbyController lobbyController = new LobbyController(lobby, this::migrateLobbyToGame);
+        LobbyController lobbyController = new LobbyController(lobby, this::migrateLobbyToGame, executor);
 
         //Notify the listener
         CreateLobbyAction action = new CreateLobbyAction(firstPlayerNickname, listener.getIdentity(), playerPawn);
@@ -299,13 +420,21 @@ public class ServerDispatcher extends Dispatcher {
      * Cleanup the dispatcher, removing ended games and the corresponding controllers.
      */
     public void cleanup() {
-        games.entrySet().removeIf(entry -> {
-            if (entry.getValue().getGameState() == GameState.ENDED) {
-                gameControllers.remove(entry.getValue());
-                return true;
+        long start = System.nanoTime();
+
+        for (Game game : games.values()) {
+            if (game.getGameState() == GameState.ENDED) {
+                gameControllers.remove(game);
+
+                if (registry != null) {
+                    registry.unregister(game.getId());
+                } else {
+                    games.remove(game.getId());
+                }
             }
-            return false;
-        });
+        }
+
+        CLEANUP_TIME.recordSince(start);
     }
 
 }
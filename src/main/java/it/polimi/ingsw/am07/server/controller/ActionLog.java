@@ -0,0 +1,115 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.polimi.ingsw.am07.server.controller;
+
+import it.polimi.ingsw.am07.action.Action;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Bounded log of the latest actions executed on a game, indexed by the version of the game they produced.
+ * Reconnecting clients are sent the actions they missed from this log; when the log no longer reaches back to the
+ * version a client has seen, the client must be sent a snapshot of the game instead.
+ * The log is not thread safe, it is guarded by the lock of its game controller.
+ */
+public class ActionLog {
+
+    /**
+     * The default number of actions kept in the log.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+    private final Deque<Action> actions;
+    private long lastVersion;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity    the maximum number of actions kept in the log
+     * @param baseVersion the version of the game when the log is created
+     */
+    public ActionLog(int capacity, long baseVersion) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity of the log must be positive");
+        }
+
+        this.capacity = capacity;
+        this.actions = new ArrayDeque<>(capacity);
+        this.lastVersion = baseVersion;
+    }
+
+    /**
+     * Append an action to the log, evicting the oldest one if the log is full.
+     *
+     * @param action the action, stamped with the version of the game it produced
+     */
+    public void append(Action action) {
+        if (action.getGameVersion() != lastVersion + 1) {
+            throw new IllegalArgumentException("Expected version " + (lastVersion + 1) + " but got " + action.getGameVersion());
+        }
+
+        if (actions.size() == capacity) {
+            actions.removeFirst();
+        }
+
+        actions.addLast(action);
+        lastVersion = action.getGameVersion();
+    }
+
+    /**
+     * Get the actions executed after a given version of the game.
+     *
+     * @param version the version of the game seen by the client
+     * @return the actions executed after the given version, in order, or null if the log does not reach back to it
+     */
+    public List<Action> since(long version) {
+        long firstVersion = lastVersion - actions.size() + 1;
+
+        if (version < firstVersion - 1 || version > lastVersion) {
+            return null;
+        }
+
+        List<Action> missed = new ArrayList<>((int) (lastVersion - version));
+        for (Action action : actions) {
+            if (action.getGameVersion() > version) {
+                missed.add(action);
+            }
+        }
+
+        return missed;
+    }
+
+    /**
+     * Get the version of the game after the last logged action.
+     *
+     * @return the last version of the game
+     */
+    public long getLastVersion() {
+        return lastVersion;
+    }
+
+}
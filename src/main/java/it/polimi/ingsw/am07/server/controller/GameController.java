@@ -24,19 +24,37 @@
 package it.polimi.ingsw.am07.server.controller;
 
 import it.polimi.ingsw.am07.action.Action;
+import it.polimi.ingsw.am07.action.server.HangGameAction;
+import it.polimi.ingsw.am07.action.server.ResumeGameAction;
 import it.polimi.ingsw.am07.model.game.Game;
 import it.polimi.ingsw.am07.reactive.Dispatcher;
 import it.polimi.ingsw.am07.reactive.Listener;
+import it.polimi.ingsw.am07.server.executor.Mailbox;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
+import it.polimi.ingsw.am07.utils.GameJournal;
 import it.polimi.ingsw.am07.utils.logging.AppLogger;
+import it.polimi.ingsw.am07.utils.metrics.HistogramFamily;
+import it.polimi.ingsw.am07.utils.metrics.MetricsRegistry;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Controller for the game.
  */
 public class GameController extends Dispatcher {
 
+    private static final HistogramFamily ACTION_TIME = MetricsRegistry.getInstance().histogramFamily("game_action_seconds", "action");
+
     private final AppLogger LOGGER = new AppLogger(GameController.class);
 
     private final Game gameModel;
+    private final Mailbox mailbox;
+    private final ActionLog actionLog;
+    private final GameJournal journal;
+    // A lock instead of a monitor, so that virtual threads blocked on listeners do not pin their carrier
+    private final ReentrantLock lock;
 
     /**
      * Constructor.
@@ -44,23 +62,146 @@ public class GameController extends Dispatcher {
      * @param game the game model
      */
     public GameController(Game game) {
+        this(game, ServerExecutor.getDefault());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param game     the game model
+     * @param executor the executor running the actions submitted to this game
+     */
+    public GameController(Game game, ServerExecutor executor) {
+        this(game, executor, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param game     the game model
+     * @param executor the executor running the actions submitted to this game
+     * @param journal  the journal persisting the actions executed on the game, or null if the game is not persisted
+     */
+    public GameController(Game game, ServerExecutor executor, GameJournal journal) {
         super(Game.MAX_PLAYERS);
         gameModel = game;
+        this.journal = journal;
+        mailbox = new Mailbox(executor);
+        actionLog = new ActionLog(ActionLog.DEFAULT_CAPACITY, game.getVersion());
+        lock = new ReentrantLock();
+    }
+
+    /**
+     * Submit an action for execution.
+     * Actions are queued in the mailbox of this game and executed one at a time, independently of other games.
+     *
+     * @param action the action to execute
+     */
+    @Override
+    public void submit(Action action) {
+        mailbox.post(() -> execute(action));
     }
 
     /**
      * Execute an action.
+     * The action is stamped with the new version of the game and recorded in the action log and in the journal before
+     * the listeners are notified.
      *
      * @param action the action to execute
      */
     @Override
-    public synchronized void execute(Action action) {
-        LOGGER.debug("Executing action on model: " + gameModel);
+    public void execute(Action action) {
+        LOGGER.debug("Executing action {0} on model {1}", action.getClass().getSimpleName(), gameModel.getId());
+
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            // The model is also locked by the game registry while it is being saved
+            synchronized (gameModel) {
+                action.execute(gameModel);
+                action.setGameVersion(gameModel.incrementVersion());
 
-        action.execute(gameModel);
+                // Journaled while the model is locked, so that a snapshot never misses or repeats an action
+                if (journal != null) {
+                    journal.append(action);
+                }
+            }
 
-        for (Listener listener : listeners) {
-            listener.notify(action);
+            actionLog.append(action);
+
+            // Encoded once for all the remote listeners
+            broadcast(action);
+        } finally {
+            lock.unlock();
+            ACTION_TIME.get(action.getClass()).recordSince(start);
+        }
+    }
+
+    /**
+     * Submit the disconnection of a player.
+     * The listener is removed and the other listeners are notified in the mailbox of this game, after the actions
+     * already submitted to it, so the caller never waits for the game.
+     *
+     * @param listener the listener of the disconnected player
+     */
+    public void submitDisconnection(Listener listener) {
+        mailbox.post(() -> {
+            removeListener(listener);
+            execute(new HangGameAction(listener.getIdentity()));
+        });
+    }
+
+    /**
+     * Submit the reconnection of a player.
+     * The listener is resumed in the mailbox of this game, after the actions already submitted to it, such as the
+     * disconnection of the previous listener of the same player.
+     *
+     * @param listener        the listener of the reconnecting player
+     * @param lastGameId      the id of the game last seen by the player, null if unknown
+     * @param lastGameVersion the version of that game last seen by the player, 0 if unknown
+     */
+    public void submitResume(Listener listener, UUID lastGameId, long lastGameVersion) {
+        mailbox.post(() -> resume(listener, lastGameId, lastGameVersion));
+    }
+
+    /**
+     * Register the listener of a reconnecting player and bring it up to date.
+     * If the player last saw this very game and the action log still reaches back to that version, only the missed
+     * actions are sent; otherwise the player receives a snapshot of the game. Either is sent to the reconnecting
+     * listener only, the other listeners are just notified that the player is back.
+     * No other action can be executed in between, so the listener sees every action exactly once.
+     *
+     * @param listener        the listener of the reconnecting player
+     * @param lastGameId      the id of the game last seen by the player, null if unknown
+     * @param lastGameVersion the version of that game last seen by the player, 0 if unknown
+     */
+    public void resume(Listener listener, UUID lastGameId, long lastGameVersion) {
+        lock.lock();
+        try {
+            // A version of another game, such as the previous game of the player, says nothing about this one
+            List<Action> missedActions = gameModel.getId().equals(lastGameId) && lastGameVersion > 0
+                    ? actionLog.since(lastGameVersion)
+                    : null;
+
+            Action comeback = new ResumeGameAction(listener.getIdentity(), List.of());
+            execute(comeback);
+
+            Action resume;
+            if (missedActions == null) {
+                LOGGER.debug("Resuming {0} from a snapshot", listener.getIdentity());
+                resume = new ResumeGameAction(gameModel, listener.getIdentity());
+            } else {
+                LOGGER.debug("Resuming {0} with {1,number,#} missed actions", listener.getIdentity(), missedActions.size());
+                // Rejected actions left the game untouched, the player does not need them
+                missedActions.removeIf(action -> action.getErrorMessage() != null);
+                resume = new ResumeGameAction(listener.getIdentity(), missedActions);
+            }
+            resume.setGameVersion(comeback.getGameVersion());
+
+            listeners.add(listener);
+            listener.notify(resume);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -70,8 +211,13 @@ public class GameController extends Dispatcher {
      * @param listener the listener to register
      */
     @Override
-    public synchronized void registerNewListener(Listener listener) {
-        listeners.add(listener);
+    public void registerNewListener(Listener listener) {
+        lock.lock();
+        try {
+            listeners.add(listener);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -80,8 +226,13 @@ public class GameController extends Dispatcher {
      * @param listener the listener to remove
      */
     @Override
-    public synchronized void removeListener(Listener listener) {
-        listeners.remove(listener);
+    public void removeListener(Listener listener) {
+        lock.lock();
+        try {
+            listeners.remove(listener);
+        } finally {
+            lock.unlock();
+        }
     }
 
 }
@@ -30,7 +30,11 @@ import it.polimi.ingsw.am07.model.lobby.Lobby;
 import it.polimi.ingsw.am07.model.lobby.LobbyPlayer;
 import it.polimi.ingsw.am07.reactive.Dispatcher;
 import it.polimi.ingsw.am07.reactive.Listener;
+import it.polimi.ingsw.am07.server.executor.Mailbox;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
 import it.polimi.ingsw.am07.utils.logging.AppLogger;
+import it.polimi.ingsw.am07.utils.metrics.HistogramFamily;
+import it.polimi.ingsw.am07.utils.metrics.MetricsRegistry;
 
 import java.util.function.Consumer;
 
@@ -39,10 +43,13 @@ import java.util.function.Consumer;
  */
 public class LobbyController extends Dispatcher {
 
+    private static final HistogramFamily ACTION_TIME = MetricsRegistry.getInstance().histogramFamily("lobby_action_seconds", "action");
+
     private final AppLogger LOGGER = new AppLogger(LobbyController.class);
 
     private final Lobby lobby;
     private final Consumer<Lobby> migrateToGame;
+    private final Mailbox mailbox;
 
     /**
      * Constructor.
@@ -51,9 +58,32 @@ public class LobbyController extends Dispatcher {
      * @param migrateToGame a callback that migrates the players in the lobby to a new game
      */
     public LobbyController(Lobby lobby, Consumer<Lobby> migrateToGame) {
+        this(lobby, migrateToGame, ServerExecutor.getDefault());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param lobby         the lobby model
+     * @param migrateToGame a callback that migrates the players in the lobby to a new game
+     * @param executor      the executor running the actions submitted to this lobby
+     */
+    public LobbyController(Lobby lobby, Consumer<Lobby> migrateToGame, ServerExecutor executor) {
         super(Game.MAX_PLAYERS);
         this.lobby = lobby;
         this.migrateToGame = migrateToGame;
+        mailbox = new Mailbox(executor);
+    }
+
+    /**
+     * Submit an action for execution.
+     * Actions are queued in the mailbox of this lobby and executed one at a time, independently of other lobbies.
+     *
+     * @param action the action to execute
+     */
+    @Override
+    public void submit(Action action) {
+        mailbox.post(() -> execute(action));
     }
 
     /**
@@ -62,17 +92,24 @@ public class LobbyController extends Dispatcher {
      * @param action the action to execute
      */
     @Override
-    public synchronized void execute(Action action) {
-        LOGGER.debug("Executing action " + action.getIdentity() + " in " + Thread.currentThread().getName());
+    public void execute(Action action) {
+        LOGGER.debug("Executing action {0} in {1}", action.getIdentity(), Thread.currentThread().getName());
+
+        long start = System.nanoTime();
+        boolean readyToStart;
 
-        action.execute(lobby);
+        synchronized (this) {
+            action.execute(lobby);
 
-        for (Listener listener : listeners) {
-            LOGGER.debug("Notifying listener " + listener + " in " + Thread.currentThread().getName());
-            listener.notify(action);
+            broadcast(action);
+
+            readyToStart = lobby.readyToStart();
         }
 
-        if (lobby.readyToStart()) {
+        ACTION_TIME.get(action.getClass()).recordSince(start);
+
+        // The migration locks this controller again, together with the players joining or leaving the lobby
+        if (readyToStart) {
             migrateToGame.accept(lobby);
         }
     }
@@ -84,7 +121,7 @@ public class LobbyController extends Dispatcher {
      */
     @Override
     public synchronized void registerNewListener(Listener listener) {
-        LOGGER.debug("Registering new listener " + listener + " in " + Thread.currentThread().getName());
+        LOGGER.debug("Registering new listener {0} in {1}", listener, Thread.currentThread().getName());
 
         listeners.add(listener);
 
@@ -98,7 +135,7 @@ public class LobbyController extends Dispatcher {
      */
     @Override
     public synchronized void removeListener(Listener listener) {
-        LOGGER.debug("Removing listener " + listener + " in " + Thread.currentThread().getName());
+        LOGGER.debug("Removing listener {0} in {1}", listener, Thread.currentThread().getName());
 
         listeners.remove(listener);
 
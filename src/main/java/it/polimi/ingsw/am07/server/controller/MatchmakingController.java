@@ -32,21 +32,24 @@ import it.polimi.ingsw.am07.reactive.Listener;
 import it.polimi.ingsw.am07.utils.lambda.QuadFunction;
 import it.polimi.ingsw.am07.utils.lambda.TriConsumer;
 import it.polimi.ingsw.am07.utils.logging.AppLogger;
+import it.polimi.ingsw.am07.utils.metrics.HistogramFamily;
+import it.polimi.ingsw.am07.utils.metrics.MetricsRegistry;
 
 import java.util.UUID;
-import java.util.function.BiFunction;
 
 /**
  * Controller for the matchmaking
  */
 public class MatchmakingController extends Dispatcher {
 
+    private static final HistogramFamily ACTION_TIME = MetricsRegistry.getInstance().histogramFamily("matchmaking_action_seconds", "action");
+
     private final AppLogger LOGGER = new AppLogger(MatchmakingController.class);
     private final Matchmaking matchmaking;
 
     private final TriConsumer<Listener, String, Pawn> migrateToLobby;
     private final QuadFunction<Listener, String, UUID, Pawn, Boolean> migrateToExistingLobby;
-    private final BiFunction<Listener, String, Boolean> reconnect;
+    private final QuadFunction<Listener, String, UUID, Long, Boolean> reconnect;
 
     /**
      * Constructor.
@@ -59,7 +62,7 @@ public class MatchmakingController extends Dispatcher {
             Matchmaking matchmaking,
             TriConsumer<Listener, String, Pawn> migrateToLobby,
             QuadFunction<Listener, String, UUID, Pawn, Boolean> migrateToExistingLobby,
-            BiFunction<Listener, String, Boolean> reconnect
+            QuadFunction<Listener, String, UUID, Long, Boolean> reconnect
     ) {
         this.matchmaking = matchmaking;
         this.migrateToLobby = migrateToLobby;
@@ -73,7 +76,7 @@ public class MatchmakingController extends Dispatcher {
      */
     @Override
     public synchronized void registerNewListener(Listener listener) {
-        LOGGER.debug("Registering new listener " + listener + " in " + Thread.currentThread().getName());
+        LOGGER.debug("Registering new listener {0} in {1}", listener, Thread.currentThread().getName());
 
         listeners.add(listener);
 
@@ -86,7 +89,7 @@ public class MatchmakingController extends Dispatcher {
      */
     @Override
     public synchronized void removeListener(Listener listener) {
-        LOGGER.debug("Removing listener " + listener + " in " + Thread.currentThread().getName());
+        LOGGER.debug("Removing listener {0} in {1}", listener, Thread.currentThread().getName());
 
         listeners.remove(listener);
     }
@@ -97,15 +100,16 @@ public class MatchmakingController extends Dispatcher {
      */
     @Override
     public synchronized void execute(Action action) {
-        LOGGER.debug("Executing action " + action + " in " + Thread.currentThread().getName());
+        LOGGER.debug("Executing action {0} in {1}", action, Thread.currentThread().getName());
 
+        long start = System.nanoTime();
         action.execute(matchmaking);
 
         if (matchmaking.hasAskedForReconnection()) {
             Listener listener = listeners.stream()
                     .filter(l -> l.getIdentity().equals(action.getIdentity())).findFirst().orElse(null);
 
-            Boolean result = reconnect.apply(listener, matchmaking.getPlayerNickname());
+            Boolean result = reconnect.apply(listener, matchmaking.getPlayerNickname(), matchmaking.getLastGameId(), matchmaking.getLastGameVersion());
 
             if (result) {
                 // Success, remove the listener from the out of lobby controller
@@ -115,7 +119,7 @@ public class MatchmakingController extends Dispatcher {
                 listener.notify(new LobbyListAction(matchmaking.getLobbies()));
             }
         } else if (matchmaking.isNewLobbyCreated()) {
-            System.out.println("New lobby created");
+            LOGGER.debug("New lobby created");
 
             Listener listener = listeners.stream()
                     .filter(l -> l.getIdentity().equals(action.getIdentity())).findFirst().orElse(null);
@@ -123,7 +127,7 @@ public class MatchmakingController extends Dispatcher {
             listeners.remove(listener);
 
             Action stateSyncAction = new LobbyListAction(matchmaking.getLobbies());
-            listeners.forEach(l -> l.notify(stateSyncAction));
+            broadcast(stateSyncAction);
         } else if (matchmaking.getLobbyId() != null) {
             Listener listener = listeners.stream()
                     .filter(l -> l.getIdentity().equals(action.getIdentity())).findFirst().orElse(null);
@@ -136,17 +140,19 @@ public class MatchmakingController extends Dispatcher {
                 listeners.remove(listener);
 
                 Action stateSyncAction = new LobbyListAction(matchmaking.getLobbies());
-                listeners.forEach(l -> l.notify(stateSyncAction));
+                broadcast(stateSyncAction);
             }
         } else {
-            for (Listener listener : listeners) {
-                listener.notify(action);
-            }
+            broadcast(action);
         }
 
         matchmaking.setAskedForReconnection(false);
         matchmaking.setNewLobbyCreated(false);
         matchmaking.setLobbyId(null);
         matchmaking.setPlayerNickname(null);
+        matchmaking.setLastGameId(null);
+        matchmaking.setLastGameVersion(0);
+
+        ACTION_TIME.get(action.getClass()).recordSince(start);
     }
 }
@@ -0,0 +1,92 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.server.executor;
+
+import it.polimi.ingsw.am07.utils.logging.AppLogger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Base class for the server executors, scheduling periodic tasks on a single timer thread that only hands them over
+ * to {@link #execute(Runnable)}.
+ */
+abstract class AbstractServerExecutor implements ServerExecutor {
+
+    private final AppLogger LOGGER = new AppLogger(AbstractServerExecutor.class);
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor.
+     */
+    protected AbstractServerExecutor() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "server-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Run a task periodically.
+     *
+     * @param task   the task to run
+     * @param period the period between two runs
+     * @param unit   the time unit of the period
+     * @return a future that can be used to cancel the task
+     */
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period, TimeUnit unit) {
+        AtomicBoolean running = new AtomicBoolean(false);
+
+        return scheduler.scheduleAtFixedRate(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return;
+            }
+
+            execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    LOGGER.error(e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        }, 0, period, unit);
+    }
+
+    /**
+     * Stop accepting new tasks.
+     */
+    @Override
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+}
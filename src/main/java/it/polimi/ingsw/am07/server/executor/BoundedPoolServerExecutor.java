@@ -0,0 +1,83 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.server.executor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server executor running short-lived tasks on a fixed pool of platform threads.
+ * Long-lived tasks still get a dedicated platform thread, as they would otherwise hold a pool thread forever.
+ */
+public class BoundedPoolServerExecutor extends AbstractServerExecutor {
+
+    private final ExecutorService executor;
+
+    /**
+     * Constructor.
+     *
+     * @param threads the number of threads in the pool
+     */
+    public BoundedPoolServerExecutor(int threads) {
+        super();
+
+        AtomicInteger counter = new AtomicInteger(0);
+        ThreadFactory threadFactory = task -> new Thread(task, "server-pool-" + counter.getAndIncrement());
+
+        executor = Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    /**
+     * Run a short-lived task on the pool.
+     *
+     * @param task the task to run
+     */
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Run a long-lived task on a dedicated platform thread.
+     *
+     * @param name the name of the task
+     * @param task the task to run
+     */
+    @Override
+    public void spawn(String name, Runnable task) {
+        new Thread(task, name).start();
+    }
+
+    /**
+     * Stop accepting new tasks.
+     */
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        executor.shutdown();
+    }
+
+}
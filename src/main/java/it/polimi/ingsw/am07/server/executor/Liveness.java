@@ -0,0 +1,135 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.server.executor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks when a peer was last seen.
+ * A liveness created by {@link TimingWheel#track(long, TimeUnit, Runnable)} also runs a task when the peer expires,
+ * and one created by {@link TimingWheel#track(long, long, TimeUnit, Runnable, Runnable)} another one while the peer is
+ * idle; one created directly can only be polled with {@link #isAlive()}.
+ */
+public class Liveness {
+
+    private final long timeoutNanos;
+    private volatile long lastSeen;
+    private volatile boolean expired;
+    private volatile TimingWheel.Timeout check;
+
+    /**
+     * Constructor. The peer is considered seen on creation.
+     *
+     * @param timeout the time after which a peer that was not seen is expired
+     * @param unit    the time unit of the timeout
+     */
+    public Liveness(long timeout, TimeUnit unit) {
+        timeoutNanos = unit.toNanos(timeout);
+        lastSeen = System.nanoTime();
+    }
+
+    /**
+     * Mark the peer as seen.
+     */
+    public void touch() {
+        lastSeen = System.nanoTime();
+    }
+
+    /**
+     * Check if the peer was seen within the timeout.
+     *
+     * @return true if the peer is alive
+     */
+    public boolean isAlive() {
+        return !expired && System.nanoTime() - lastSeen < timeoutNanos;
+    }
+
+    /**
+     * Stop tracking the peer: the expiry task will not run anymore.
+     */
+    public void cancel() {
+        expired = true;
+
+        TimingWheel.Timeout timeout = check;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Start watching the peer, checking it when its deadline expires.
+     *
+     * @param wheel    the wheel running the checks
+     * @param onExpiry the task to run when the peer expires
+     */
+    void watch(TimingWheel wheel, Runnable onExpiry) {
+        watch(wheel, Long.MAX_VALUE, () -> {
+        }, onExpiry);
+    }
+
+    /**
+     * Start watching the peer, checking it when it becomes idle and when its deadline expires.
+     *
+     * @param wheel     the wheel running the checks
+     * @param idleNanos the time after which a peer that was not seen is idle, in nanoseconds
+     * @param onIdle    the task to run every idle time while the peer is idle but not expired
+     * @param onExpiry  the task to run when the peer expires
+     */
+    void watch(TimingWheel wheel, long idleNanos, Runnable onIdle, Runnable onExpiry) {
+        check = wheel.schedule(() -> check(wheel, idleNanos, onIdle, onExpiry), Math.min(idleNanos, timeoutNanos), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Check the peer: if it was seen meanwhile the check is moved to its next deadline, if it is idle the idle task is
+     * run, otherwise it expires.
+     *
+     * @param wheel     the wheel running the checks
+     * @param idleNanos the time after which a peer that was not seen is idle, in nanoseconds
+     * @param onIdle    the task to run when the peer is idle
+     * @param onExpiry  the task to run when the peer expires
+     */
+    private void check(TimingWheel wheel, long idleNanos, Runnable onIdle, Runnable onExpiry) {
+        if (expired) {
+            return;
+        }
+
+        long idle = System.nanoTime() - lastSeen;
+        if (idle >= timeoutNanos) {
+            expired = true;
+            onExpiry.run();
+            return;
+        }
+
+        long next = timeoutNanos - idle;
+        if (idle >= idleNanos) {
+            onIdle.run();
+            next = Math.min(next, idleNanos);
+        } else {
+            next = Math.min(next, idleNanos - idle);
+        }
+
+        check = wheel.schedule(() -> check(wheel, idleNanos, onIdle, onExpiry), next, TimeUnit.NANOSECONDS);
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.server.executor;
+
+import it.polimi.ingsw.am07.utils.logging.AppLogger;
+import it.polimi.ingsw.am07.utils.metrics.Gauge;
+import it.polimi.ingsw.am07.utils.metrics.MetricsRegistry;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A queue of tasks that are run one at a time, in submission order, on a {@link ServerExecutor}.
+ * No thread is bound to the mailbox: while the queue is empty it costs nothing, and when tasks arrive a single drain
+ * task is scheduled on the executor.
+ */
+public class Mailbox {
+
+    private static final int MAX_TASKS_PER_DRAIN = 64;
+    // Tracked apart from the queues, whose size is linear in their length
+    private static final Gauge PENDING_TASKS = MetricsRegistry.getInstance().gauge("mailbox_pending_tasks");
+
+    private final AppLogger LOGGER = new AppLogger(Mailbox.class);
+
+    private final ServerExecutor executor;
+    private final Queue<Runnable> tasks;
+    private final AtomicBoolean scheduled;
+
+    /**
+     * Constructor.
+     *
+     * @param executor the executor running the tasks
+     */
+    public Mailbox(ServerExecutor executor) {
+        this.executor = executor;
+
+        tasks = new ConcurrentLinkedQueue<>();
+        scheduled = new AtomicBoolean(false);
+    }
+
+    /**
+     * Enqueue a task.
+     *
+     * @param task the task to run
+     */
+    public void post(Runnable task) {
+        tasks.add(task);
+        PENDING_TASKS.increment();
+        schedule();
+    }
+
+    /**
+     * Get the number of tasks waiting to be run.
+     *
+     * @return the number of pending tasks
+     */
+    public int size() {
+        return tasks.size();
+    }
+
+    /**
+     * Schedule a drain of the queue, unless one is already scheduled or running.
+     */
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Run the queued tasks.
+     * The drain yields after a bounded number of tasks so that a busy mailbox cannot monopolize a pool thread.
+     */
+    private void drain() {
+        Runnable task;
+        int processed = 0;
+
+        while (processed < MAX_TASKS_PER_DRAIN && (task = tasks.poll()) != null) {
+            PENDING_TASKS.decrement();
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOGGER.error(e);
+            }
+            processed++;
+        }
+
+        scheduled.set(false);
+
+        if (!tasks.isEmpty()) {
+            schedule();
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.server.executor;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every asynchronous task of the server.
+ * Network managers, dispatchers and remote listeners go through this interface instead of creating threads
+ * themselves, so the threading model can be chosen once when the server is built.
+ */
+public interface ServerExecutor {
+
+    /**
+     * Run a short-lived task asynchronously.
+     *
+     * @param task the task to run
+     */
+    void execute(Runnable task);
+
+    /**
+     * Run a long-lived task, such as a loop serving a connection, asynchronously.
+     * Implementations must not run such tasks on a shared pool, as they could starve it.
+     *
+     * @param name the name of the task, used to name its thread
+     * @param task the task to run
+     */
+    void spawn(String name, Runnable task);
+
+    /**
+     * Run a task periodically.
+     * A new run is skipped if the previous one is still in progress.
+     *
+     * @param task   the task to run
+     * @param period the period between two runs
+     * @param unit   the time unit of the period
+     * @return a future that can be used to cancel the task
+     */
+    ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period, TimeUnit unit);
+
+    /**
+     * Stop accepting new tasks.
+     */
+    void shutdown();
+
+    /**
+     * Get the executor used when none is configured explicitly.
+     *
+     * @return the default executor
+     */
+    static ServerExecutor getDefault() {
+        return VirtualThreadServerExecutor.getInstance();
+    }
+
+}
@@ -0,0 +1,306 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.server.executor;
+
+import it.polimi.ingsw.am07.utils.logging.AppLogger;
+import it.polimi.ingsw.am07.utils.metrics.Gauge;
+import it.polimi.ingsw.am07.utils.metrics.MetricsRegistry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel running timeouts on a single thread.
+ * Timeouts are hashed into a fixed number of slots by the tick they expire at; every tick only the slot of the current
+ * tick is visited, so the cost of a tick depends on the timeouts expiring in it and not on how many are pending.
+ * Scheduling and cancelling a timeout are constant time. Timeouts run on the thread of the wheel, so they must be short
+ * and must not block: slower work has to be handed to a {@link ServerExecutor}.
+ */
+public class TimingWheel {
+
+    private static final long DEFAULT_TICK = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int DEFAULT_SLOTS = 512;
+    private static final Gauge PENDING_TIMEOUTS = MetricsRegistry.getInstance().gauge("timing_wheel_pending_timeouts");
+
+    private static TimingWheel instance;
+
+    private final AppLogger LOGGER = new AppLogger(TimingWheel.class);
+
+    private final long tickNanos;
+    private final ArrayDeque<Timeout>[] slots;
+    private final int mask;
+    private final long startTime;
+    private final Thread worker;
+    // The next tick to be processed, guarded by the slots
+    private long currentTick;
+    private volatile boolean running;
+
+    /**
+     * Constructor.
+     *
+     * @param tick  the duration of a tick, which is the resolution of the timeouts
+     * @param unit  the time unit of the tick
+     * @param slots the number of slots, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tick, TimeUnit unit, int slots) {
+        if (tick <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("The tick and the number of slots must be positive");
+        }
+
+        tickNanos = unit.toNanos(tick);
+
+        int size = Integer.highestOneBit(slots - 1) << 1;
+        this.slots = new ArrayDeque[Math.max(size, 1)];
+        for (int i = 0; i < this.slots.length; i++) {
+            this.slots[i] = new ArrayDeque<>();
+        }
+        mask = this.slots.length - 1;
+
+        startTime = System.nanoTime();
+        running = true;
+
+        worker = new Thread(this::run, "timing-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Get the shared instance of the wheel, with a resolution of 100 milliseconds.
+     *
+     * @return the shared instance
+     */
+    public static synchronized TimingWheel getInstance() {
+        if (instance == null) {
+            instance = new TimingWheel(DEFAULT_TICK, TimeUnit.NANOSECONDS, DEFAULT_SLOTS);
+        }
+        return instance;
+    }
+
+    /**
+     * Run a task once after a delay.
+     *
+     * @param task  the task to run
+     * @param delay the delay, rounded up to the next tick
+     * @param unit  the time unit of the delay
+     * @return the timeout, which can be used to cancel the task
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(task, 0);
+        add(timeout, deadlineOf(unit.toNanos(delay)));
+        return timeout;
+    }
+
+    /**
+     * Run a task periodically, starting after one period.
+     *
+     * @param task   the task to run
+     * @param period the period, rounded up to a whole number of ticks
+     * @param unit   the time unit of the period
+     * @return the timeout, which can be used to cancel the task
+     */
+    public Timeout scheduleAtFixedRate(Runnable task, long period, TimeUnit unit) {
+        long periodTicks = Math.max(1, (unit.toNanos(period) + tickNanos - 1) / tickNanos);
+
+        Timeout timeout = new Timeout(task, periodTicks);
+        add(timeout, deadlineOf(unit.toNanos(period)));
+        return timeout;
+    }
+
+    /**
+     * Track the liveness of a peer, running a task if it is not seen for a whole timeout.
+     * The peer is checked only when its deadline expires, so marking it as seen is constant time.
+     *
+     * @param timeout  the timeout
+     * @param unit     the time unit of the timeout
+     * @param onExpiry the task to run when the peer expires
+     * @return the liveness of the peer
+     */
+    public Liveness track(long timeout, TimeUnit unit, Runnable onExpiry) {
+        Liveness liveness = new Liveness(timeout, unit);
+        liveness.watch(this, onExpiry);
+        return liveness;
+    }
+
+    /**
+     * Track the liveness of a peer, running a task every idle time while it is not seen, and another one if it is not
+     * seen for a whole timeout.
+     * The idle task is meant to probe the peer, for instance with a heartbeat: peers that are seen often are never
+     * probed, and a single timeout per peer drives both the probes and the expiry.
+     *
+     * @param timeout     the timeout
+     * @param idleTimeout the time after which a peer that was not seen is idle
+     * @param unit        the time unit of the timeouts
+     * @param onIdle      the task to run while the peer is idle
+     * @param onExpiry    the task to run when the peer expires
+     * @return the liveness of the peer
+     */
+    public Liveness track(long timeout, long idleTimeout, TimeUnit unit, Runnable onIdle, Runnable onExpiry) {
+        if (idleTimeout <= 0) {
+            throw new IllegalArgumentException("The idle timeout must be positive");
+        }
+
+        Liveness liveness = new Liveness(timeout, unit);
+        liveness.watch(this, unit.toNanos(idleTimeout), onIdle, onExpiry);
+        return liveness;
+    }
+
+    /**
+     * Stop the wheel, discarding the pending timeouts.
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Compute the tick a delay starting now expires at.
+     *
+     * @param delayNanos the delay, in nanoseconds
+     * @return the tick of the deadline
+     */
+    private long deadlineOf(long delayNanos) {
+        long elapsed = System.nanoTime() - startTime + Math.max(delayNanos, 0);
+        return (elapsed + tickNanos - 1) / tickNanos;
+    }
+
+    /**
+     * Add a timeout to the slot of its deadline.
+     *
+     * @param timeout  the timeout
+     * @param deadline the tick of the deadline
+     */
+    private void add(Timeout timeout, long deadline) {
+        synchronized (slots) {
+            // A deadline already passed is run by the next tick
+            timeout.deadline = Math.max(deadline, currentTick);
+            slots[(int) (timeout.deadline & mask)].add(timeout);
+        }
+
+        PENDING_TIMEOUTS.increment();
+    }
+
+    /**
+     * Process the ticks as they pass, until the wheel is stopped.
+     */
+    private void run() {
+        List<Timeout> expired = new ArrayList<>();
+
+        while (running) {
+            long tickEnd = startTime + (currentTick + 1) * tickNanos;
+            long wait = tickEnd - System.nanoTime();
+
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+
+            synchronized (slots) {
+                Iterator<Timeout> iterator = slots[(int) (currentTick & mask)].iterator();
+                while (iterator.hasNext()) {
+                    Timeout timeout = iterator.next();
+
+                    // Timeouts farther than a whole turn of the wheel wait for their turn
+                    if (timeout.cancelled || timeout.deadline <= currentTick) {
+                        iterator.remove();
+                        PENDING_TIMEOUTS.decrement();
+
+                        if (!timeout.cancelled) {
+                            expired.add(timeout);
+                        }
+                    }
+                }
+
+                currentTick++;
+            }
+
+            for (Timeout timeout : expired) {
+                expire(timeout);
+            }
+
+            expired.clear();
+        }
+    }
+
+    /**
+     * Run an expired timeout, rescheduling it if it is periodic.
+     *
+     * @param timeout the timeout
+     */
+    private void expire(Timeout timeout) {
+        try {
+            timeout.task.run();
+        } catch (Exception e) {
+            LOGGER.error(e);
+        }
+
+        if (timeout.period > 0 && !timeout.cancelled) {
+            add(timeout, timeout.deadline + timeout.period);
+        }
+    }
+
+    /**
+     * A task scheduled on the wheel.
+     */
+    public static final class Timeout {
+
+        private final Runnable task;
+        private final long period;
+        private long deadline;
+        private volatile boolean cancelled;
+
+        /**
+         * Constructor.
+         *
+         * @param task   the task to run
+         * @param period the period in ticks, or 0 if the task runs once
+         */
+        private Timeout(Runnable task, long period) {
+            this.task = task;
+            this.period = period;
+        }
+
+        /**
+         * Cancel the task. The wheel drops it lazily, when its slot comes up.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Check if the task was cancelled.
+         *
+         * @return true if the task was cancelled
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.server.executor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Server executor running every task on its own virtual thread.
+ * Creating a virtual thread costs about as much as a small allocation, so tasks can be fired freely.
+ */
+public class VirtualThreadServerExecutor extends AbstractServerExecutor {
+
+    private static VirtualThreadServerExecutor instance;
+
+    private final ExecutorService executor;
+
+    /**
+     * Constructor.
+     */
+    public VirtualThreadServerExecutor() {
+        super();
+
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("server-task-", 0).factory());
+    }
+
+    /**
+     * Get the shared instance of the executor.
+     *
+     * @return the shared instance
+     */
+    public static synchronized VirtualThreadServerExecutor getInstance() {
+        if (instance == null) {
+            instance = new VirtualThreadServerExecutor();
+        }
+        return instance;
+    }
+
+    /**
+     * Run a short-lived task on a new virtual thread.
+     *
+     * @param task the task to run
+     */
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Run a long-lived task on a new virtual thread.
+     *
+     * @param name the name of the task
+     * @param task the task to run
+     */
+    @Override
+    public void spawn(String name, Runnable task) {
+        Thread.ofVirtual().name(name).start(task);
+    }
+
+    /**
+     * Stop accepting new tasks.
+     */
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        executor.shutdown();
+    }
+
+}
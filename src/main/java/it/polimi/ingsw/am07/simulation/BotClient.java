@@ -0,0 +1,298 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.simulation;
+
+import it.polimi.ingsw.am07.action.Action;
+import it.polimi.ingsw.am07.action.lobby.CreateLobbyAction;
+import it.polimi.ingsw.am07.action.lobby.GameStartAction;
+import it.polimi.ingsw.am07.action.lobby.PlayerJoinAction;
+import it.polimi.ingsw.am07.action.player.PlayerInitialChoiceAction;
+import it.polimi.ingsw.am07.action.player.PlayerPickCardAction;
+import it.polimi.ingsw.am07.action.player.PlayerPlaceCardAction;
+import it.polimi.ingsw.am07.model.ClientState;
+import it.polimi.ingsw.am07.model.PlayerState;
+import it.polimi.ingsw.am07.model.game.Game;
+import it.polimi.ingsw.am07.model.game.Pawn;
+import it.polimi.ingsw.am07.model.game.Player;
+import it.polimi.ingsw.am07.model.game.card.GameCard;
+import it.polimi.ingsw.am07.network.ClientNetworkManager;
+import it.polimi.ingsw.am07.network.NetworkType;
+import it.polimi.ingsw.am07.reactive.Controller;
+import it.polimi.ingsw.am07.utils.IdentityManager;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * A bot client, playing through the same client state and network managers as the user interfaces.
+ * The bot reacts to the updates of its client state: whenever it enters a state where it has to act, it asks its
+ * strategy for a move and sends the corresponding action.
+ * The round trip of an action is measured until the client state leaves the state the action was sent from, which is
+ * when the server has executed the action and its effect has been reflected on the client.
+ */
+class BotClient implements Consumer<ClientState> {
+
+    private final String nickname;
+    private final Pawn pawn;
+    private final NetworkType networkType;
+    private final PlayerStrategy strategy;
+    private final Random random;
+    private final TransportStatistics statistics;
+    private final Executor executor;
+    private final ClientState clientState;
+    private final Map<PlayerState, CompletableFuture<Void>> reachedStates;
+    private final CompletableFuture<Void> stalled;
+
+    private ClientNetworkManager networkManager;
+    private PlayerState lastState;
+    private PlayerState pendingState;
+    private long pendingSince;
+
+    /**
+     * Constructor.
+     *
+     * @param nickname    the nickname of the bot
+     * @param pawn        the pawn of the bot
+     * @param networkType the transport used by the bot
+     * @param strategy    the strategy of the bot
+     * @param seed        the seed of the decisions of the bot
+     * @param statistics  the statistics of the transport
+     * @param executor    the executor running the decisions of the bot, out of the network threads
+     * @param stalled     completed by the first bot of the game that has no legal move
+     */
+    BotClient(String nickname, Pawn pawn, NetworkType networkType, PlayerStrategy strategy, long seed, TransportStatistics statistics, Executor executor, CompletableFuture<Void> stalled) {
+        this.nickname = nickname;
+        this.pawn = pawn;
+        this.networkType = networkType;
+        this.strategy = strategy;
+        this.random = new Random(seed);
+        this.statistics = statistics;
+        this.executor = executor;
+        this.stalled = stalled;
+
+        clientState = new ClientState(this, IdentityManager.generateIdentity());
+        clientState.setNickname(nickname);
+        reachedStates = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Connect to the server.
+     *
+     * @param hostname the hostname of the server
+     * @param port     the port of the transport of the bot
+     * @return true if the bot is connected
+     */
+    boolean connect(String hostname, int port) {
+        networkManager = new ClientNetworkManager.Factory()
+                .withHostname(hostname)
+                .withPort(port)
+                .withIdentity(clientState.getIdentity())
+                .withNetworkType(networkType)
+                .withState(clientState)
+                .build();
+
+        return networkManager.getController() != null;
+    }
+
+    /**
+     * Disconnect from the server.
+     */
+    void disconnect() {
+        if (networkManager != null) {
+            networkManager.disconnect();
+        }
+    }
+
+    /**
+     * Create a new lobby.
+     */
+    void createLobby() {
+        send(new CreateLobbyAction(nickname, clientState.getIdentity(), pawn), PlayerState.SELECTING_LOBBY);
+    }
+
+    /**
+     * Join a lobby.
+     *
+     * @param lobbyId the id of the lobby
+     */
+    void joinLobby(UUID lobbyId) {
+        send(new PlayerJoinAction(nickname, clientState.getIdentity(), lobbyId, pawn), PlayerState.SELECTING_LOBBY);
+    }
+
+    /**
+     * Start the game of the lobby created by the bot.
+     */
+    void startGame() {
+        send(new GameStartAction(nickname, clientState.getIdentity()), PlayerState.ADMIN_WAITING_FOR_PLAYERS);
+    }
+
+    /**
+     * Wait for the client state to reach a player state.
+     *
+     * @param playerState the player state
+     * @param deadline    the deadline, as returned by {@link System#nanoTime()}
+     * @return true if the state was reached, false if a bot of the game has no legal move
+     * @throws TimeoutException if the state is not reached before the deadline
+     */
+    boolean await(PlayerState playerState, long deadline) throws TimeoutException {
+        CompletableFuture<Void> reached = reachedStates.computeIfAbsent(playerState, state -> new CompletableFuture<>());
+
+        try {
+            CompletableFuture.anyOf(reached, stalled).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        return reached.isDone();
+    }
+
+    /**
+     * Get the transport used by the bot.
+     *
+     * @return the transport
+     */
+    NetworkType getNetworkType() {
+        return networkType;
+    }
+
+    /**
+     * Get the client state of the bot.
+     *
+     * @return the client state
+     */
+    ClientState getClientState() {
+        return clientState;
+    }
+
+    /**
+     * Called by the client state on every update.
+     *
+     * @param state the client state
+     */
+    @Override
+    public void accept(ClientState state) {
+        if (state.getClientStringErrorMessage() != null) {
+            statistics.addError();
+        }
+
+        PlayerState playerState = state.getPlayerState();
+
+        synchronized (this) {
+            if (playerState == lastState) {
+                return;
+            }
+            lastState = playerState;
+
+            if (pendingState != null && playerState != pendingState) {
+                statistics.addLatency(System.nanoTime() - pendingSince);
+                pendingState = null;
+            }
+        }
+
+        if (playerState != null) {
+            reachedStates.computeIfAbsent(playerState, s -> new CompletableFuture<>()).complete(null);
+
+            switch (playerState) {
+                case SELECTING_STARTER_CARD_SIDE, PLACING_CARD, PICKING_CARD -> executor.execute(() -> play(playerState));
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * Make the move required by a player state.
+     *
+     * @param playerState the player state
+     */
+    private void play(PlayerState playerState) {
+        Game game = clientState.getGameModel();
+        Player self = game.getSelf();
+        String identity = clientState.getIdentity();
+
+        Action action = switch (playerState) {
+            case SELECTING_STARTER_CARD_SIDE ->
+                    new PlayerInitialChoiceAction(nickname, identity, strategy.chooseObjective(self, game, random), strategy.chooseStarterSide(self, game, random));
+            case PLACING_CARD -> {
+                Placement placement = strategy.choosePlacement(self, game, random);
+                yield placement == null ? null : new PlayerPlaceCardAction(nickname, identity, placement.side(), placement.position());
+            }
+            case PICKING_CARD -> {
+                GameCard card = strategy.choosePick(self, game, random);
+                yield card == null ? null : new PlayerPickCardAction(nickname, identity, card);
+            }
+            default -> null;
+        };
+
+        if (action == null) {
+            // No legal move, for example because the deck ran out of cards: the game cannot go on
+            stalled.complete(null);
+            return;
+        }
+
+        send(action, playerState);
+    }
+
+    /**
+     * Send an action, starting to measure its round trip.
+     *
+     * @param action the action
+     * @param from   the player state the action is sent from
+     */
+    private void send(Action action, PlayerState from) {
+        Controller controller = networkManager.getController();
+        if (controller == null) {
+            statistics.addError();
+            return;
+        }
+
+        synchronized (this) {
+            pendingState = from;
+            pendingSince = System.nanoTime();
+        }
+
+        try {
+            controller.execute(action);
+        } catch (Exception e) {
+            statistics.addError();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return nickname + " (" + networkType + ", " + clientState.getPlayerState() + ")";
+    }
+
+}
@@ -0,0 +1,261 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.simulation;
+
+import it.polimi.ingsw.am07.action.Action;
+import it.polimi.ingsw.am07.action.player.PlayerInitialChoiceAction;
+import it.polimi.ingsw.am07.action.player.PlayerPickCardAction;
+import it.polimi.ingsw.am07.action.player.PlayerPlaceCardAction;
+import it.polimi.ingsw.am07.exceptions.IllegalGameStateException;
+import it.polimi.ingsw.am07.model.game.Game;
+import it.polimi.ingsw.am07.model.game.GameState;
+import it.polimi.ingsw.am07.model.game.Pawn;
+import it.polimi.ingsw.am07.model.game.Player;
+import it.polimi.ingsw.am07.model.game.card.GameCard;
+import it.polimi.ingsw.am07.model.lobby.Lobby;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+/**
+ * Plays games without any client or network, driving the model through the same actions sent by the clients.
+ * Every game is built from a synthetic lobby and played to the end by one strategy per seat. The randomness of a game
+ * only depends on the seed of the simulator and on the index of the game, so any game can be reproduced on its own,
+ * and many games can be played in parallel with the same results.
+ */
+public class GameSimulator {
+
+    private static final String NICKNAME_PREFIX = "bot-";
+
+    private final List<PlayerStrategy> strategies;
+    private final long seed;
+    private final boolean recordActions;
+
+    /**
+     * Constructor.
+     *
+     * @param strategies    the strategy of every seat
+     * @param seed          the seed of the simulation
+     * @param recordActions whether the actions of every game are recorded in its result
+     */
+    private GameSimulator(List<PlayerStrategy> strategies, long seed, boolean recordActions) {
+        this.strategies = strategies;
+        this.seed = seed;
+        this.recordActions = recordActions;
+    }
+
+    /**
+     * Play a single game.
+     *
+     * @param game the index of the game, which determines its randomness together with the seed of the simulator
+     * @return the result of the game
+     * @throws IllegalStateException if the model rejects a move that the simulator considers legal
+     */
+    public SimulationResult simulate(long game) {
+        Random random = new Random(seedOf(game));
+
+        Lobby lobby = new Lobby();
+        for (int seat = 0; seat < strategies.size(); seat++) {
+            lobby.addNewPlayer(NICKNAME_PREFIX + seat, NICKNAME_PREFIX + seat, Pawn.values()[seat]);
+        }
+
+        Game gameModel = new Game.Factory()
+                .fromLobby(lobby)
+                .withRandom(random)
+                .build();
+        List<Action> actions = recordActions ? new ArrayList<>() : null;
+
+        for (Player player : gameModel.getPlayers()) {
+            PlayerStrategy strategy = strategyOf(player);
+            execute(gameModel, new PlayerInitialChoiceAction(player.getNickname(), player.getIdentity(),
+                    strategy.chooseObjective(player, gameModel, random), strategy.chooseStarterSide(player, gameModel, random)), actions);
+        }
+
+        int turns = 0;
+        boolean completed = true;
+        while (gameModel.getGameState() != GameState.ENDED) {
+            Player player = gameModel.getPlayingPlayer();
+            PlayerStrategy strategy = strategyOf(player);
+
+            Placement placement = strategy.choosePlacement(player, gameModel, random);
+            if (placement == null) {
+                completed = false;
+                break;
+            }
+            execute(gameModel, new PlayerPlaceCardAction(player.getNickname(), player.getIdentity(), placement.side(), placement.position()), actions);
+
+            GameCard card = strategy.choosePick(player, gameModel, random);
+            if (card == null) {
+                completed = false;
+                break;
+            }
+            execute(gameModel, new PlayerPickCardAction(player.getNickname(), player.getIdentity(), card), actions);
+
+            ++turns;
+        }
+
+        List<Integer> scores = new ArrayList<>(Collections.nCopies(strategies.size(), 0));
+        List<Integer> winners = new ArrayList<>();
+        if (completed) {
+            try {
+                for (Player player : gameModel.getWinners()) {
+                    winners.add(seatOf(player));
+                }
+            } catch (IllegalGameStateException e) {
+                throw new IllegalStateException(e);
+            }
+
+            for (Player player : gameModel.getPlayers()) {
+                scores.set(seatOf(player), player.getPlayerScore() + player.getPlayerObjectiveScore());
+            }
+        }
+
+        return new SimulationResult(game, completed, turns, scores, winners, actions);
+    }
+
+    /**
+     * Play many games in parallel, using every core.
+     *
+     * @param games the number of games, with indexes from 0 to games - 1
+     * @return the statistics of the games
+     */
+    public SimulationSummary run(long games) {
+        return LongStream.range(0, games)
+                .parallel()
+                .mapToObj(this::simulate)
+                .collect(() -> new SimulationSummary(strategies.size()), SimulationSummary::add, SimulationSummary::merge);
+    }
+
+    /**
+     * Execute an action on the game, as the server would.
+     *
+     * @param game    the game
+     * @param action  the action
+     * @param actions the list of the executed actions, or null
+     * @throws IllegalStateException if the action is rejected
+     */
+    private static void execute(Game game, Action action, List<Action> actions) {
+        action.execute(game);
+        if (!action.isExecutedCorrectly()) {
+            throw new IllegalStateException(action.getClass().getSimpleName() + " rejected: " + action.getErrorMessage());
+        }
+
+        action.setGameVersion(game.incrementVersion());
+        if (actions != null) {
+            actions.add(action);
+        }
+    }
+
+    private PlayerStrategy strategyOf(Player player) {
+        return strategies.get(seatOf(player));
+    }
+
+    private static int seatOf(Player player) {
+        return Integer.parseInt(player.getNickname().substring(NICKNAME_PREFIX.length()));
+    }
+
+    /**
+     * Mix the seed of the simulator with the index of a game, so that consecutive games get unrelated seeds.
+     *
+     * @param game the index of the game
+     * @return the seed of the game
+     */
+    private long seedOf(long game) {
+        long z = seed + (game + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * The companion factory class for the GameSimulator class.
+     */
+    public static class Factory {
+
+        private final List<PlayerStrategy> strategies;
+        private long seed;
+        private boolean recordActions;
+
+        /**
+         * Constructor for the Factory class.
+         */
+        public Factory() {
+            strategies = new ArrayList<>();
+            seed = 0;
+            recordActions = false;
+        }
+
+        /**
+         * Add a seat to the games, played with the given strategy.
+         *
+         * @param strategy the strategy of the seat
+         * @return the factory object
+         */
+        public Factory withPlayer(PlayerStrategy strategy) {
+            strategies.add(strategy);
+            return this;
+        }
+
+        /**
+         * Set the seed of the simulation.
+         *
+         * @param seed the seed
+         * @return the factory object
+         */
+        public Factory withSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Record the actions executed on every game in its result, for example to replay them against a server.
+         *
+         * @param recordActions whether the actions are recorded
+         * @return the factory object
+         */
+        public Factory withRecordedActions(boolean recordActions) {
+            this.recordActions = recordActions;
+            return this;
+        }
+
+        /**
+         * Build the simulator.
+         *
+         * @return the simulator
+         * @throws IllegalArgumentException if the number of players is not supported
+         */
+        public GameSimulator build() {
+            if (strategies.size() < 2 || strategies.size() > 4) {
+                throw new IllegalArgumentException("A game needs from 2 to 4 players");
+            }
+
+            return new GameSimulator(List.copyOf(strategies), seed, recordActions);
+        }
+
+    }
+
+}
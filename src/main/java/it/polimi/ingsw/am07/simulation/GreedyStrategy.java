@@ -0,0 +1,106 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.simulation;
+
+import it.polimi.ingsw.am07.model.game.Game;
+import it.polimi.ingsw.am07.model.game.Player;
+import it.polimi.ingsw.am07.model.game.ResourceHolder;
+import it.polimi.ingsw.am07.model.game.card.GameCard;
+import it.polimi.ingsw.am07.model.game.gamefield.GameField;
+import it.polimi.ingsw.am07.model.game.side.Side;
+import it.polimi.ingsw.am07.model.game.side.SideFieldRepresentation;
+
+import java.util.Random;
+
+/**
+ * A strategy that places the card scoring the most points right away, and picks the card worth the most points.
+ * Ties are broken at random.
+ */
+public class GreedyStrategy extends RandomStrategy {
+
+    @Override
+    public Side chooseStarterSide(Player player, Game game, Random random) {
+        // The front of the starter cards has more free corners
+        return player.getStarterCard().front();
+    }
+
+    @Override
+    public Placement choosePlacement(Player player, Game game, Random random) {
+        Placement best = null;
+        int bestScore = -1;
+        int ties = 0;
+
+        for (Placement placement : PlayerStrategy.legalPlacements(player)) {
+            int score = scoreOf(player, placement);
+            if (score > bestScore) {
+                best = placement;
+                bestScore = score;
+                ties = 1;
+            } else if (score == bestScore && random.nextInt(++ties) == 0) {
+                best = placement;
+            }
+        }
+
+        return best;
+    }
+
+    @Override
+    public GameCard choosePick(Player player, Game game, Random random) {
+        GameCard best = null;
+        int ties = 0;
+
+        for (GameCard card : PlayerStrategy.pickableCards(game.getDeck())) {
+            if (best == null || card.front().getAssociatedScore() > best.front().getAssociatedScore()) {
+                best = card;
+                ties = 1;
+            } else if (card.front().getAssociatedScore() == best.front().getAssociatedScore() && random.nextInt(++ties) == 0) {
+                best = card;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Computes the points a placement would score, without placing the card.
+     *
+     * @param player    the player
+     * @param placement the placement
+     * @return the points scored by the placement
+     */
+    private static int scoreOf(Player player, Placement placement) {
+        GameField field = player.getPlayerGameField();
+        ResourceHolder resources = new ResourceHolder(player.getPlayerResources());
+
+        for (int i = 0; i < SideFieldRepresentation.SIDE_SIZE; i++) {
+            for (int j = 0; j < SideFieldRepresentation.SIDE_SIZE; j++) {
+                resources.decrementResource(field.getFieldMatrix().get(placement.position().x() + i, placement.position().y() + j));
+            }
+        }
+        resources.add(placement.side().resources());
+
+        return placement.side().calculateAssociatedScore(resources, field.countCoveredCorners(placement.position()));
+    }
+
+}
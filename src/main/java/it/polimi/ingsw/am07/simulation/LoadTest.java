@@ -0,0 +1,376 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.simulation;
+
+import it.polimi.ingsw.am07.model.PlayerState;
+import it.polimi.ingsw.am07.model.game.Pawn;
+import it.polimi.ingsw.am07.network.NetworkType;
+import it.polimi.ingsw.am07.utils.assets.AssetsRegistry;
+import it.polimi.ingsw.am07.utils.logging.AppLogger;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A load generator, playing many concurrent games against a server with bot clients.
+ * Every game is played by its own group of bots, which connect, create and join a lobby, start the game and play it
+ * until the end with their strategies. The bots can use different transports, and the report keeps their statistics
+ * apart.
+ */
+public class LoadTest {
+
+    private static final AppLogger LOGGER = new AppLogger(LoadTest.class);
+
+    /**
+     * The maximum number of bots connecting at the same time, to stay within the backlog of the server socket.
+     */
+    private static final int CONCURRENT_CONNECTIONS = 32;
+
+    private final String hostname;
+    private final int tcpPort;
+    private final int rmiPort;
+    private final long games;
+    private final List<PlayerStrategy> strategies;
+    private final List<NetworkType> networkTypes;
+    private final long seed;
+    private final long timeoutMillis;
+
+    private final Semaphore connections;
+    private final Map<NetworkType, TransportStatistics> statistics;
+
+    /**
+     * Constructor.
+     *
+     * @param hostname      the hostname of the server
+     * @param tcpPort       the TCP port of the server
+     * @param rmiPort       the RMI port of the server
+     * @param games         the number of games
+     * @param strategies    the strategy of every seat of a game
+     * @param networkTypes  the transports, assigned to the bots in turn
+     * @param seed          the seed of the decisions of the bots
+     * @param timeoutMillis the time a game has to end, from when its bots start connecting
+     */
+    private LoadTest(String hostname, int tcpPort, int rmiPort, long games, List<PlayerStrategy> strategies, List<NetworkType> networkTypes, long seed, long timeoutMillis) {
+        this.hostname = hostname;
+        this.tcpPort = tcpPort;
+        this.rmiPort = rmiPort;
+        this.games = games;
+        this.strategies = strategies;
+        this.networkTypes = networkTypes;
+        this.seed = seed;
+        this.timeoutMillis = timeoutMillis;
+
+        connections = new Semaphore(CONCURRENT_CONNECTIONS);
+        statistics = new EnumMap<>(NetworkType.class);
+        for (NetworkType networkType : networkTypes) {
+            statistics.put(networkType, new TransportStatistics());
+        }
+    }
+
+    /**
+     * Play every game at the same time, and wait for all of them to end or time out.
+     *
+     * @return the report of the load test
+     */
+    public LoadTestReport run() {
+        long start = System.nanoTime();
+        long completedGames = 0;
+        long stalledGames = 0;
+
+        // Platform threads: the client network managers block on sockets while holding monitors, which would pin the
+        // carriers of virtual threads and starve an in-process server
+        try (ExecutorService executor = Executors.newCachedThreadPool()) {
+            List<Future<GameOutcome>> results = new ArrayList<>();
+            for (long game = 0; game < games; game++) {
+                long index = game;
+                results.add(executor.submit(() -> play(index, executor)));
+            }
+
+            for (Future<GameOutcome> result : results) {
+                try {
+                    switch (result.get()) {
+                        case COMPLETED -> ++completedGames;
+                        case STALLED -> ++stalledGames;
+                        default -> {
+                        }
+                    }
+                } catch (Exception e) {
+                    LOGGER.error(e);
+                }
+            }
+        }
+
+        return new LoadTestReport(games, completedGames, stalledGames, System.nanoTime() - start, statistics);
+    }
+
+    /**
+     * Play a game with a new group of bots.
+     *
+     * @param game     the index of the game
+     * @param executor the executor running the decisions of the bots
+     * @return how the game ended
+     */
+    private GameOutcome play(long game, ExecutorService executor) {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+        CompletableFuture<Void> stalled = new CompletableFuture<>();
+
+        List<BotClient> bots = new ArrayList<>(strategies.size());
+        for (int seat = 0; seat < strategies.size(); seat++) {
+            long bot = game * strategies.size() + seat;
+            NetworkType networkType = networkTypes.get((int) (bot % networkTypes.size()));
+            bots.add(new BotClient("bot-" + game + "-" + seat, Pawn.values()[seat], networkType, strategies.get(seat),
+                    seed + bot, statistics.get(networkType), executor, stalled));
+        }
+
+        boolean[] finished = new boolean[bots.size()];
+        GameOutcome outcome = GameOutcome.FAILED;
+        try {
+            for (BotClient bot : bots) {
+                connect(bot);
+            }
+            for (BotClient bot : bots) {
+                bot.await(PlayerState.SELECTING_LOBBY, deadline);
+            }
+
+            BotClient admin = bots.getFirst();
+            admin.createLobby();
+            admin.await(PlayerState.ADMIN_WAITING_FOR_PLAYERS, deadline);
+
+            UUID lobbyId = admin.getClientState().getLobbyModel().getId();
+            for (BotClient bot : bots.subList(1, bots.size())) {
+                bot.joinLobby(lobbyId);
+            }
+            for (BotClient bot : bots.subList(1, bots.size())) {
+                bot.await(PlayerState.WAITING_FOR_PLAYERS, deadline);
+            }
+
+            admin.startGame();
+            outcome = GameOutcome.COMPLETED;
+            for (int seat = 0; seat < bots.size() && outcome == GameOutcome.COMPLETED; seat++) {
+                finished[seat] = bots.get(seat).await(PlayerState.GAME_ENDED, deadline);
+                if (!finished[seat]) {
+                    outcome = GameOutcome.STALLED;
+                }
+            }
+        } catch (TimeoutException | IllegalStateException e) {
+            outcome = GameOutcome.FAILED;
+            LOGGER.error("Game {0} did not end: {1}", game, bots.stream().map(BotClient::toString).toList());
+        } finally {
+            for (int seat = 0; seat < bots.size(); seat++) {
+                BotClient bot = bots.get(seat);
+                bot.disconnect();
+
+                // Stalled games are a limit of the rules, not of the server
+                TransportStatistics botStatistics = statistics.get(bot.getNetworkType());
+                botStatistics.addBot(finished[seat]);
+                if (outcome == GameOutcome.FAILED && !finished[seat]) {
+                    botStatistics.addError();
+                }
+            }
+        }
+
+        return outcome;
+    }
+
+    /**
+     * How a game of the load test ended.
+     */
+    private enum GameOutcome {
+        /**
+         * Every bot saw the end of the game.
+         */
+        COMPLETED,
+        /**
+         * A bot had no legal move, as it happens in the simulator when the deck runs out of cards.
+         */
+        STALLED,
+        /**
+         * A bot could not connect, or the game did not end in time.
+         */
+        FAILED
+    }
+
+    /**
+     * Connect a bot to the server, limiting the number of concurrent connections.
+     *
+     * @param bot the bot
+     * @throws IllegalStateException if the bot could not connect
+     */
+    private void connect(BotClient bot) {
+        int port = bot.getNetworkType() == NetworkType.TCP ? tcpPort : rmiPort;
+
+        connections.acquireUninterruptibly();
+        try {
+            if (!bot.connect(hostname, port)) {
+                throw new IllegalStateException("Connection failed");
+            }
+        } finally {
+            connections.release();
+        }
+    }
+
+    /**
+     * The companion factory class for the LoadTest class.
+     */
+    public static class Factory {
+
+        private String hostname;
+        private int tcpPort;
+        private int rmiPort;
+        private long games;
+        private final List<PlayerStrategy> strategies;
+        private final List<NetworkType> networkTypes;
+        private long seed;
+        private long timeoutMillis;
+
+        /**
+         * Constructor.
+         * Ports default to the ones found in the game resources definition.
+         */
+        public Factory() {
+            hostname = "localhost";
+            tcpPort = AssetsRegistry.getInstance().getGameResourceDefinition().tcpPort();
+            rmiPort = AssetsRegistry.getInstance().getGameResourceDefinition().rmiPort();
+            games = 1;
+            strategies = new ArrayList<>();
+            networkTypes = new ArrayList<>();
+            seed = 0;
+            timeoutMillis = 60_000;
+        }
+
+        /**
+         * Set the hostname of the server.
+         *
+         * @param hostname the hostname
+         * @return the factory object
+         */
+        public Factory withHostname(String hostname) {
+            this.hostname = hostname;
+            return this;
+        }
+
+        /**
+         * Set the TCP port of the server.
+         *
+         * @param tcpPort the TCP port
+         * @return the factory object
+         */
+        public Factory withTcpPort(int tcpPort) {
+            this.tcpPort = tcpPort;
+            return this;
+        }
+
+        /**
+         * Set the RMI port of the server.
+         *
+         * @param rmiPort the RMI port
+         * @return the factory object
+         */
+        public Factory withRmiPort(int rmiPort) {
+            this.rmiPort = rmiPort;
+            return this;
+        }
+
+        /**
+         * Set the number of games played at the same time.
+         *
+         * @param games the number of games
+         * @return the factory object
+         */
+        public Factory withGames(long games) {
+            this.games = games;
+            return this;
+        }
+
+        /**
+         * Add a seat to the games, played by bots with the given strategy.
+         *
+         * @param strategy the strategy of the seat
+         * @return the factory object
+         */
+        public Factory withPlayer(PlayerStrategy strategy) {
+            strategies.add(strategy);
+            return this;
+        }
+
+        /**
+         * Add a transport. Bots are assigned to the transports in turn, so that every game mixes them.
+         *
+         * @param networkType the transport
+         * @return the factory object
+         */
+        public Factory withNetworkType(NetworkType networkType) {
+            networkTypes.add(networkType);
+            return this;
+        }
+
+        /**
+         * Set the seed of the decisions of the bots.
+         *
+         * @param seed the seed
+         * @return the factory object
+         */
+        public Factory withSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Set the time every game has to end, from when its bots start connecting.
+         *
+         * @param timeoutMillis the timeout, in milliseconds
+         * @return the factory object
+         */
+        public Factory withTimeout(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+            return this;
+        }
+
+        /**
+         * Build the load test.
+         *
+         * @return the load test
+         * @throws IllegalArgumentException if the number of players is not supported
+         */
+        public LoadTest build() {
+            if (strategies.size() < 2 || strategies.size() > 4) {
+                throw new IllegalArgumentException("A game needs from 2 to 4 players");
+            }
+
+            List<NetworkType> types = networkTypes.isEmpty() ? List.of(NetworkType.TCP) : List.copyOf(networkTypes);
+            return new LoadTest(hostname, tcpPort, rmiPort, games, List.copyOf(strategies), types, seed, timeoutMillis);
+        }
+
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.simulation;
+
+import it.polimi.ingsw.am07.network.NetworkType;
+
+import java.util.Map;
+
+/**
+ * The outcome of a load test: how many games ended, how long it took and the statistics of every transport.
+ *
+ * @param games          the number of games
+ * @param completedGames the number of games that every bot played until the end
+ * @param stalledGames   the number of games stopped because a bot had no legal move
+ * @param elapsedNanos   the duration of the load test, in nanoseconds
+ * @param transports     the statistics of the bots of every transport
+ */
+public record LoadTestReport(long games, long completedGames, long stalledGames, long elapsedNanos, Map<NetworkType, TransportStatistics> transports) {
+
+    /**
+     * Get the statistics of a transport.
+     *
+     * @param networkType the transport
+     * @return the statistics, empty if no bot used the transport
+     */
+    public TransportStatistics getStatistics(NetworkType networkType) {
+        return transports.getOrDefault(networkType, new TransportStatistics());
+    }
+
+    /**
+     * Get the number of actions acknowledged per second, over the whole load test.
+     *
+     * @param networkType the transport
+     * @return the throughput, in actions per second
+     */
+    public double getThroughput(NetworkType networkType) {
+        return elapsedNanos == 0 ? 0 : getStatistics(networkType).getActions() * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder()
+                .append(String.format("%d games, %d completed, %d stalled in %.1f s%n", games, completedGames, stalledGames, elapsedNanos / 1e9));
+        for (Map.Entry<NetworkType, TransportStatistics> entry : transports.entrySet()) {
+            TransportStatistics statistics = entry.getValue();
+            builder.append(String.format("%s: %d bots, %d finished, %d errors, %d actions, %.1f actions/s%n",
+                    entry.getKey(), statistics.getBots(), statistics.getFinishedBots(), statistics.getErrors(),
+                    statistics.getActions(), getThroughput(entry.getKey())));
+            builder.append(String.format("%s: round trip p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    entry.getKey(), statistics.getLatencyPercentile(50) / 1e6, statistics.getLatencyPercentile(90) / 1e6,
+                    statistics.getLatencyPercentile(99) / 1e6, statistics.getLatencyPercentile(100) / 1e6));
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.simulation;
+
+import it.polimi.ingsw.am07.model.game.Deck;
+import it.polimi.ingsw.am07.model.game.Game;
+import it.polimi.ingsw.am07.model.game.Player;
+import it.polimi.ingsw.am07.model.game.card.GameCard;
+import it.polimi.ingsw.am07.model.game.card.ObjectiveCard;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
+import it.polimi.ingsw.am07.model.game.side.Side;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The decisions of a simulated player.
+ * Every decision receives the source of randomness of the simulated game: strategies must not use any other one, so
+ * that a game can be reproduced from its seed. A strategy is shared by all the games of a simulation, which are played
+ * in parallel, so it must not keep any state between calls.
+ */
+public interface PlayerStrategy {
+
+    /**
+     * Choose the personal objective of the player.
+     *
+     * @param player the player
+     * @param game   the game
+     * @param random the source of randomness of the game
+     * @return one of the available objectives of the player
+     */
+    ObjectiveCard chooseObjective(Player player, Game game, Random random);
+
+    /**
+     * Choose the side of the starter card.
+     *
+     * @param player the player
+     * @param game   the game
+     * @param random the source of randomness of the game
+     * @return one of the sides of the starter card of the player
+     */
+    Side chooseStarterSide(Player player, Game game, Random random);
+
+    /**
+     * Choose the card to place, and where.
+     *
+     * @param player the playing player
+     * @param game   the game
+     * @param random the source of randomness of the game
+     * @return one of the legal placements, or null if there is none
+     */
+    Placement choosePlacement(Player player, Game game, Random random);
+
+    /**
+     * Choose the card to pick from the deck.
+     *
+     * @param player the playing player
+     * @param game   the game
+     * @param random the source of randomness of the game
+     * @return one of the pickable cards, or null if there is none
+     */
+    GameCard choosePick(Player player, Game game, Random random);
+
+    /**
+     * List the placements allowed for a player: both sides of every card in the hand, on every available position.
+     *
+     * @param player the player
+     * @return the legal placements
+     */
+    static List<Placement> legalPlacements(Player player) {
+        List<Placement> placements = new ArrayList<>();
+        for (GameCard card : player.getPlayableCards()) {
+            for (GameFieldPosition position : player.getAvailablePositions()) {
+                if (player.canBePlacedAt(card.front(), position)) {
+                    placements.add(new Placement(card.front(), position));
+                }
+                if (player.canBePlacedAt(card.back(), position)) {
+                    placements.add(new Placement(card.back(), position));
+                }
+            }
+        }
+        return placements;
+    }
+
+    /**
+     * List the cards that can be picked from the deck: the visible ones and the top card of each pile.
+     *
+     * @param deck the deck
+     * @return the pickable cards
+     */
+    static List<GameCard> pickableCards(Deck deck) {
+        List<GameCard> cards = new ArrayList<>(2 * Deck.VISIBLE_CARDS_COUNT + 2);
+        for (GameCard card : deck.visibleResCards()) {
+            if (card != null) {
+                cards.add(card);
+            }
+        }
+        for (GameCard card : deck.visibleGoldCards()) {
+            if (card != null) {
+                cards.add(card);
+            }
+        }
+        if (deck.peekTopResCard() != null) {
+            cards.add(deck.peekTopResCard());
+        }
+        if (deck.peekTopGoldCard() != null) {
+            cards.add(deck.peekTopGoldCard());
+        }
+        return cards;
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.simulation;
+
+import it.polimi.ingsw.am07.model.game.Game;
+import it.polimi.ingsw.am07.model.game.Player;
+import it.polimi.ingsw.am07.model.game.card.GameCard;
+import it.polimi.ingsw.am07.model.game.card.ObjectiveCard;
+import it.polimi.ingsw.am07.model.game.side.Side;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A strategy that makes every decision uniformly at random among the legal ones.
+ */
+public class RandomStrategy implements PlayerStrategy {
+
+    @Override
+    public ObjectiveCard chooseObjective(Player player, Game game, Random random) {
+        ObjectiveCard[] objectives = player.getAvailableObjectives();
+        return objectives[random.nextInt(objectives.length)];
+    }
+
+    @Override
+    public Side chooseStarterSide(Player player, Game game, Random random) {
+        return random.nextBoolean() ? player.getStarterCard().front() : player.getStarterCard().back();
+    }
+
+    @Override
+    public Placement choosePlacement(Player player, Game game, Random random) {
+        List<Placement> placements = PlayerStrategy.legalPlacements(player);
+        return placements.isEmpty() ? null : placements.get(random.nextInt(placements.size()));
+    }
+
+    @Override
+    public GameCard choosePick(Player player, Game game, Random random) {
+        List<GameCard> cards = PlayerStrategy.pickableCards(game.getDeck());
+        return cards.isEmpty() ? null : cards.get(random.nextInt(cards.size()));
+    }
+
+}
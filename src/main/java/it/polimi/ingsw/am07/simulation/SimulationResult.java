@@ -0,0 +1,43 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.simulation;
+
+import it.polimi.ingsw.am07.action.Action;
+
+import java.util.List;
+
+/**
+ * The outcome of a simulated game.
+ * Players are identified by their seat, the index of their strategy in the simulator, not by their turn order.
+ *
+ * @param game      the index of the game in the simulation
+ * @param completed true if the game ended, false if a player had no legal move
+ * @param turns     the number of turns played
+ * @param scores    the final score of every seat, objectives included
+ * @param winners   the seats of the winners, empty if the game did not end
+ * @param actions   the actions executed on the game, in order, or null if they were not recorded
+ */
+public record SimulationResult(long game, boolean completed, int turns, List<Integer> scores, List<Integer> winners,
+                               List<Action> actions) {
+}
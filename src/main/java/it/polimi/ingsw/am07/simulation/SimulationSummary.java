@@ -0,0 +1,141 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.simulation;
+
+/**
+ * Aggregated statistics of many simulated games, per seat.
+ * Summaries are filled by a single thread and then merged, so this class is not thread safe.
+ */
+public class SimulationSummary {
+
+    private long games;
+    private long completedGames;
+    private long turns;
+    private final long[] wins;
+    private final long[] totalScores;
+
+    /**
+     * Constructor.
+     *
+     * @param seats the number of players of every game
+     */
+    public SimulationSummary(int seats) {
+        wins = new long[seats];
+        totalScores = new long[seats];
+    }
+
+    /**
+     * Add the result of a game.
+     *
+     * @param result the result of the game
+     */
+    public void add(SimulationResult result) {
+        ++games;
+        turns += result.turns();
+
+        if (result.completed()) {
+            ++completedGames;
+            for (int seat = 0; seat < totalScores.length; seat++) {
+                totalScores[seat] += result.scores().get(seat);
+            }
+            for (int seat : result.winners()) {
+                ++wins[seat];
+            }
+        }
+    }
+
+    /**
+     * Add the games of another summary.
+     *
+     * @param other the other summary, with the same number of seats
+     */
+    public void merge(SimulationSummary other) {
+        games += other.games;
+        completedGames += other.completedGames;
+        turns += other.turns;
+        for (int seat = 0; seat < wins.length; seat++) {
+            wins[seat] += other.wins[seat];
+            totalScores[seat] += other.totalScores[seat];
+        }
+    }
+
+    /**
+     * Get the number of simulated games.
+     *
+     * @return the number of games
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Get the number of games that ended, instead of stopping because a player had no legal move.
+     *
+     * @return the number of completed games
+     */
+    public long getCompletedGames() {
+        return completedGames;
+    }
+
+    /**
+     * Get the average number of turns of a game.
+     *
+     * @return the average number of turns
+     */
+    public double getAverageTurns() {
+        return games == 0 ? 0 : (double) turns / games;
+    }
+
+    /**
+     * Get the number of completed games won by a seat, ties included.
+     *
+     * @param seat the seat
+     * @return the number of wins
+     */
+    public long getWins(int seat) {
+        return wins[seat];
+    }
+
+    /**
+     * Get the average final score of a seat in the completed games.
+     *
+     * @param seat the seat
+     * @return the average score
+     */
+    public double getAverageScore(int seat) {
+        return completedGames == 0 ? 0 : (double) totalScores[seat] / completedGames;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder()
+                .append(String.format("%d games, %d completed, %.1f turns per game%n", games, completedGames, getAverageTurns()));
+        for (int seat = 0; seat < wins.length; seat++) {
+            builder.append(String.format("seat %d: %.2f%% wins, %.2f average score%n", seat,
+                    completedGames == 0 ? 0 : 100.0 * wins[seat] / completedGames, getAverageScore(seat)));
+        }
+        return builder.toString();
+    }
+
+}
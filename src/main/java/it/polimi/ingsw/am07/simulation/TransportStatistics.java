@@ -0,0 +1,132 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Statistics of the bots of a load test that use the same transport.
+ * Bots report from their own threads, so every method is synchronized.
+ */
+public class TransportStatistics {
+
+    private long[] latencies;
+    private int actions;
+    private long errors;
+    private long bots;
+    private long finishedBots;
+
+    /**
+     * Constructor.
+     */
+    public TransportStatistics() {
+        latencies = new long[1024];
+    }
+
+    /**
+     * Record the round trip of an action: the time from when it was sent to when its effect reached the client.
+     *
+     * @param nanos the round trip, in nanoseconds
+     */
+    public synchronized void addLatency(long nanos) {
+        if (actions == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencies.length * 2);
+        }
+        latencies[actions++] = nanos;
+    }
+
+    /**
+     * Record an error: a rejected action, a failed connection or a game that did not end in time.
+     */
+    public synchronized void addError() {
+        ++errors;
+    }
+
+    /**
+     * Record a bot, and whether it played its game until the end.
+     *
+     * @param finished true if the bot saw the end of its game
+     */
+    public synchronized void addBot(boolean finished) {
+        ++bots;
+        if (finished) {
+            ++finishedBots;
+        }
+    }
+
+    /**
+     * Get the number of actions whose round trip was recorded.
+     *
+     * @return the number of actions
+     */
+    public synchronized int getActions() {
+        return actions;
+    }
+
+    /**
+     * Get the number of errors.
+     *
+     * @return the number of errors
+     */
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Get the number of bots.
+     *
+     * @return the number of bots
+     */
+    public synchronized long getBots() {
+        return bots;
+    }
+
+    /**
+     * Get the number of bots that played their game until the end.
+     *
+     * @return the number of bots
+     */
+    public synchronized long getFinishedBots() {
+        return finishedBots;
+    }
+
+    /**
+     * Get a percentile of the recorded round trips, with the nearest rank method.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the round trip in nanoseconds, or 0 if nothing was recorded
+     */
+    public synchronized long getLatencyPercentile(double percentile) {
+        if (actions == 0) {
+            return 0;
+        }
+
+        long[] sorted = Arrays.copyOf(latencies, actions);
+        Arrays.sort(sorted);
+
+        int rank = (int) Math.ceil(percentile / 100 * actions);
+        return sorted[Math.clamp(rank - 1, 0, actions - 1)];
+    }
+
+}
@@ -0,0 +1,344 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.polimi.ingsw.am07.utils;
+
+import it.polimi.ingsw.am07.action.Action;
+import it.polimi.ingsw.am07.model.game.Game;
+import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.NetworkPacket;
+import it.polimi.ingsw.am07.utils.binary.NetworkBinarySerializer;
+import it.polimi.ingsw.am07.utils.logging.AppLogger;
+import okio.Buffer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of a single game.
+ * The game is stored as a snapshot, followed by an append-only journal of the actions executed after the snapshot.
+ * Actions are buffered in memory when they are executed and written to disk in batches by {@link #flush()}, so
+ * gameplay never waits on the disk. Every so often the journal is compacted into a new snapshot by
+ * {@link #compact(Game)}.
+ * <p>
+ * Every record of the journal is made of the length of the action, its CRC32 and the action itself, in the compact
+ * binary encoding used on the network. A record torn by a crash is detected and discarded when the game is restored.
+ */
+public class GameJournal {
+
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
+    private static final String JOURNAL_EXTENSION = ".journal";
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private static final AppLogger LOGGER = new AppLogger(GameJournal.class);
+
+    private final UUID id;
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final NetworkBinarySerializer serializer;
+    private final Consumer<UUID> onAppend;
+
+    // Records waiting to be written to disk, guarded by this
+    private final Buffer pending;
+    private int pendingRecords;
+
+    // Accessed only by the thread flushing the journal
+    private FileChannel channel;
+    private int journaledRecords;
+    private boolean snapshotWritten;
+
+    /**
+     * Constructor.
+     *
+     * @param directory the directory holding the saved games
+     * @param id        the id of the game
+     */
+    public GameJournal(Path directory, UUID id) {
+        this(directory, id, game -> {
+        });
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param directory the directory holding the saved games
+     * @param id        the id of the game
+     * @param onAppend  the callback notified with the id of the game whenever an action is appended
+     */
+    public GameJournal(Path directory, UUID id, Consumer<UUID> onAppend) {
+        this.id = id;
+        this.onAppend = onAppend;
+        this.snapshotPath = directory.resolve(id + SNAPSHOT_EXTENSION);
+        this.journalPath = directory.resolve(id + JOURNAL_EXTENSION);
+        this.serializer = NetworkBinarySerializer.getInstance(true);
+        this.pending = new Buffer();
+        this.snapshotWritten = Files.exists(snapshotPath);
+    }
+
+    /**
+     * Append an executed action to the journal.
+     * The action is only buffered in memory, it reaches the disk on the next {@link #flush()}.
+     * Must be called while holding the monitor of the game, right after the action has been executed.
+     *
+     * @param action the action, stamped with the version of the game it produced
+     */
+    public void append(Action action) {
+        byte[] payload = serializer.toBinary(new ActionNetworkPacket(action));
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        synchronized (this) {
+            pending.writeInt(payload.length);
+            pending.writeInt((int) crc.getValue());
+            pending.write(payload);
+            pendingRecords++;
+        }
+
+        onAppend.accept(id);
+    }
+
+    /**
+     * Write the buffered actions to the journal and force them to the disk.
+     * Must not be called concurrently with itself or with {@link #compact(Game)}.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    public void flush() throws IOException {
+        Buffer batch = new Buffer();
+        int records;
+
+        synchronized (this) {
+            if (pendingRecords == 0) {
+                return;
+            }
+
+            batch.writeAll(pending);
+            records = pendingRecords;
+            pendingRecords = 0;
+        }
+
+        FileChannel journal = openJournal();
+        ByteBuffer buffer = ByteBuffer.wrap(batch.readByteArray());
+        while (buffer.hasRemaining()) {
+            journal.write(buffer);
+        }
+        journal.force(false);
+
+        journaledRecords += records;
+    }
+
+    /**
+     * Write a snapshot of the game and empty the journal.
+     * The snapshot replaces the previous one atomically, so a crash leaves either the old snapshot and journal or the
+     * new snapshot, with a journal whose stale records are skipped on restore.
+     * Must not be called concurrently with itself or with {@link #flush()}.
+     *
+     * @param game the game
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void compact(Game game) throws IOException {
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+
+        // Actions are appended while holding the monitor of the game, the snapshot includes every buffered one
+        synchronized (game) {
+            try (ObjectOutputStream out = new ObjectOutputStream(snapshot)) {
+                out.writeObject(game);
+            }
+
+            synchronized (this) {
+                pending.clear();
+                pendingRecords = 0;
+            }
+        }
+
+        Path temporary = snapshotPath.resolveSibling(snapshotPath.getFileName() + TEMPORARY_EXTENSION);
+        try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(snapshot.toByteArray());
+            while (buffer.hasRemaining()) {
+                file.write(buffer);
+            }
+            file.force(true);
+        }
+        Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        snapshotWritten = true;
+
+        FileChannel journal = openJournal();
+        journal.truncate(0);
+        journal.position(0);
+        journal.force(false);
+
+        journaledRecords = 0;
+    }
+
+    /**
+     * Check whether the journal should be compacted into a new snapshot.
+     *
+     * @param threshold the number of journaled actions after which the journal is compacted
+     * @return true if there is no snapshot yet or the journal holds at least the given number of actions
+     */
+    public boolean shouldCompact(int threshold) {
+        return !snapshotWritten || journaledRecords >= threshold;
+    }
+
+    /**
+     * Close the journal and delete its files, once the game is over.
+     *
+     * @throws IOException if the files cannot be deleted
+     */
+    public void delete() throws IOException {
+        close();
+
+        Files.deleteIfExists(journalPath);
+        Files.deleteIfExists(snapshotPath);
+    }
+
+    /**
+     * Close the journal file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Restore the game from its snapshot, replaying the journaled actions.
+     * A torn or corrupted record ends the journal, and is cut off so that new records can be appended after the
+     * last valid one.
+     *
+     * @return the restored game, or null if there is no snapshot
+     * @throws IOException if the files cannot be read
+     */
+    public Game restore() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return null;
+        }
+
+        Game game;
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            game = (Game) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Invalid snapshot " + snapshotPath, e);
+        }
+
+        if (!Files.exists(journalPath)) {
+            return game;
+        }
+
+        Buffer journal = new Buffer().write(Files.readAllBytes(journalPath));
+        long validLength = 0;
+
+        while (journal.size() >= RECORD_HEADER_SIZE) {
+            int length = journal.readInt();
+            int checksum = journal.readInt();
+
+            if (length < 0 || journal.size() < length) {
+                break;
+            }
+
+            byte[] payload = journal.readByteArray(length);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            Action action = decode(payload);
+            if (action == null) {
+                break;
+            }
+
+            // Records older than the snapshot are left over by a compaction interrupted by a crash
+            if (action.getGameVersion() <= game.getVersion()) {
+                validLength += RECORD_HEADER_SIZE + length;
+                continue;
+            }
+
+            if (action.getGameVersion() != game.getVersion() + 1) {
+                LOGGER.error("Missing actions in the journal of game {0} after version {1,number,#}", game.getId(), game.getVersion());
+                break;
+            }
+
+            validLength += RECORD_HEADER_SIZE + length;
+            action.execute(game);
+            game.incrementVersion();
+            journaledRecords++;
+        }
+
+        if (validLength < Files.size(journalPath)) {
+            LOGGER.error("Discarding the torn tail of the journal of game {0}", game.getId());
+
+            try (FileChannel file = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+                file.truncate(validLength);
+                file.force(false);
+            }
+        }
+
+        return game;
+    }
+
+    /**
+     * Decode a journaled action.
+     *
+     * @param payload the encoded action
+     * @return the action, or null if the payload is not a valid action
+     */
+    private Action decode(byte[] payload) {
+        try {
+            NetworkPacket packet = serializer.fromBinary(payload);
+            return packet instanceof ActionNetworkPacket actionPacket ? actionPacket.getAction() : null;
+        } catch (RuntimeException e) {
+            LOGGER.error(e);
+            return null;
+        }
+    }
+
+    /**
+     * Open the journal file for appending, if it is not open yet.
+     *
+     * @return the journal file
+     * @throws IOException if the file cannot be opened
+     */
+    private FileChannel openJournal() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+
+        return channel;
+    }
+
+}
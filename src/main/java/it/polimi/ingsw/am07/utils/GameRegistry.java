@@ -24,100 +24,378 @@
 package it.polimi.ingsw.am07.utils;
 
 import it.polimi.ingsw.am07.model.game.Game;
+import it.polimi.ingsw.am07.model.game.Player;
 import it.polimi.ingsw.am07.utils.logging.AppLogger;
+import it.polimi.ingsw.am07.utils.metrics.Histogram;
+import it.polimi.ingsw.am07.utils.metrics.MetricsRegistry;
 
 import java.io.*;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * GameRegistry is a singleton that contains the games that are currently being played.
+ * GameRegistry contains the games that are currently being played, and saves them in its own directory.
+ * Every game is persisted by its own {@link GameJournal}: the actions executed on a game are journaled as they happen,
+ * and the registry periodically writes the journals of the games that executed any action, compacting long journals
+ * into new snapshots.
+ * <p>
+ * A manifest lists the saved games and their players. On startup only the manifest is read, and a saved game is
+ * restored the first time one of its players reconnects.
  */
 public class GameRegistry {
 
-    private static final String FILENAME = "savedGames.ser";
-    private static GameRegistry instance = null;
+    /**
+     * The interval between two saves, which is the most gameplay that can be lost on a crash.
+     */
+    public static final long SAVE_INTERVAL_MILLIS = 200;
+
+    /**
+     * The number of journaled actions after which a game is compacted into a new snapshot.
+     */
+    public static final int COMPACTION_THRESHOLD = 256;
+
+    /**
+     * The directory holding the saved games when none is given.
+     */
+    public static final Path DEFAULT_DIRECTORY = Path.of("savedGames");
+
+    private static final String LEGACY_FILENAME = "savedGames.ser";
+    private static final String MANIFEST_FILENAME = "manifest";
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+    private static final String MANIFEST_SEPARATOR = "\t";
+    // The registry stays locked for the whole save
+    private static final Histogram SAVE_TIME = MetricsRegistry.getInstance().histogram("registry_save_seconds");
+
     private final AppLogger LOGGER = new AppLogger(GameRegistry.class);
+    private final Path directory;
+
+    // The games loaded in memory
     private final Map<UUID, Game> games;
+    private final Map<UUID, GameJournal> journals;
 
-    private GameRegistry() {
-        games = loadSavedGames();
-    }
+    // The saved games, loaded or not, with the nickname of every player identity
+    private final Map<UUID, Map<String, String>> manifest;
+    private final Map<String, UUID> gamesByIdentity;
+    private volatile boolean manifestChanged;
+
+    // The games to be written on the next save
+    private final Set<UUID> dirtyGames;
+    private final Set<UUID> removedGames;
 
     /**
-     * Returns the singleton instance of the class.
+     * Constructor.
+     * The games saved by older versions in a single file next to the directory are imported if the directory does not
+     * exist yet.
      *
-     * @return The singleton instance of the class.
+     * @param directory the directory holding the saved games
      */
-    public static GameRegistry getInstance() {
-        if (instance == null) {
-            instance = new GameRegistry();
-        }
-        return instance;
+    public GameRegistry(Path directory) {
+        this.directory = directory;
+        this.games = new ConcurrentHashMap<>();
+        this.journals = new ConcurrentHashMap<>();
+        this.manifest = new ConcurrentHashMap<>();
+        this.gamesByIdentity = new ConcurrentHashMap<>();
+        this.dirtyGames = ConcurrentHashMap.newKeySet();
+        this.removedGames = ConcurrentHashMap.newKeySet();
+
+        loadManifest();
     }
 
     /**
-     * Retrieves the map of games.
+     * Retrieves the map of games loaded in memory.
+     * Saved games that none of their players has reconnected to yet are not part of the map.
      *
-     * @return the map of games, either active or ended.
+     * @return the map of loaded games, either active or ended.
      */
     public Map<UUID, Game> getGames() {
         return games;
     }
 
     /**
-     * Saves the current state of the games.
+     * Registers a new game.
      *
-     * @return true if the state was saved successfully, false otherwise.
+     * @param game the game
+     * @return the journal of the game
      */
-    public boolean saveState() {
-        try {
-            FileOutputStream fileOut = new FileOutputStream(FILENAME);
-            ObjectOutputStream out = new ObjectOutputStream(fileOut);
+    public GameJournal register(Game game) {
+        Map<String, String> players = new HashMap<>();
+        for (Player player : game.getPlayers()) {
+            players.put(player.getIdentity(), player.getNickname());
+            gamesByIdentity.put(player.getIdentity(), game.getId());
+        }
+
+        games.put(game.getId(), game);
+        manifest.put(game.getId(), players);
+        manifestChanged = true;
+
+        // The first save writes the snapshot of the new game
+        dirtyGames.add(game.getId());
+
+        return getJournal(game);
+    }
+
+    /**
+     * Unregisters a game, deleting its files on the next save.
+     *
+     * @param id the id of the game
+     */
+    public void unregister(UUID id) {
+        games.remove(id);
 
-            out.writeObject(games);
+        Map<String, String> players = manifest.remove(id);
+        if (players != null) {
+            players.keySet().forEach(identity -> gamesByIdentity.remove(identity, id));
+        }
+        manifestChanged = true;
+
+        removedGames.add(id);
+    }
+
+    /**
+     * Retrieves the journal of a game, creating it if needed.
+     *
+     * @param game the game
+     * @return the journal of the game
+     */
+    public GameJournal getJournal(Game game) {
+        return journals.computeIfAbsent(game.getId(), id -> new GameJournal(directory, id, dirtyGames::add));
+    }
 
-            out.close();
-            fileOut.close();
+    /**
+     * Finds the game a player belongs to, restoring it from its files if it is not loaded yet.
+     *
+     * @param identity the identity of the player
+     * @param nickname the nickname of the player
+     * @return the game, or null if the player does not belong to any saved game
+     */
+    public Game findGame(String identity, String nickname) {
+        UUID id = gamesByIdentity.get(identity);
+        if (id == null) {
+            return null;
+        }
+
+        Map<String, String> players = manifest.get(id);
+        if (players == null || !nickname.equals(players.get(identity))) {
+            return null;
+        }
 
-            return true;
+        return getGame(id);
+    }
+
+    /**
+     * Retrieves a saved game, restoring it from its files if it is not loaded yet.
+     *
+     * @param id the id of the game
+     * @return the game, or null if the game is not saved or cannot be restored
+     */
+    public synchronized Game getGame(UUID id) {
+        Game game = games.get(id);
+        if (game != null || !manifest.containsKey(id)) {
+            return game;
+        }
+
+        GameJournal journal = new GameJournal(directory, id, dirtyGames::add);
+        try {
+            game = journal.restore();
         } catch (IOException e) {
             LOGGER.error(e);
-            return false;
         }
+
+        if (game == null) {
+            LOGGER.error("Failed to restore game {0}", id);
+            return null;
+        }
+
+        LOGGER.debug("Restored game {0} at version {1,number,#}", id, game.getVersion());
+
+        journals.put(id, journal);
+        games.put(id, game);
+
+        return game;
     }
 
     /**
-     * Loads the saved games from the file.
+     * Saves the current state of the games.
+     * Only the games that executed an action since the last save are written: their actions are appended to their
+     * journal, and the ones whose journal has grown too long are compacted into a new snapshot. Only a game being
+     * compacted is locked, and only while its snapshot is taken in memory. The files of unregistered games are deleted.
      *
-     * @return the map of saved games.
+     * @return true if the state was saved successfully, false otherwise.
      */
-    private Map<UUID, Game> loadSavedGames() {
-        Map<UUID, Game> games = null;
+    public synchronized boolean saveState() {
+        long start = System.nanoTime();
+        boolean saved = true;
+
+        for (Iterator<UUID> iterator = dirtyGames.iterator(); iterator.hasNext(); ) {
+            UUID id = iterator.next();
+            iterator.remove();
+
+            Game game = games.get(id);
+            GameJournal journal = journals.get(id);
+            if (game == null || journal == null) {
+                continue;
+            }
+
+            try {
+                if (journal.shouldCompact(COMPACTION_THRESHOLD)) {
+                    journal.compact(game);
+                } else {
+                    journal.flush();
+                }
+            } catch (IOException e) {
+                LOGGER.error(e);
+                // Try again on the next save
+                dirtyGames.add(id);
+                saved = false;
+            }
+        }
+
+        for (Iterator<UUID> iterator = removedGames.iterator(); iterator.hasNext(); ) {
+            UUID id = iterator.next();
+            iterator.remove();
+
+            GameJournal journal = journals.remove(id);
+            try {
+                (journal != null ? journal : new GameJournal(directory, id)).delete();
+            } catch (IOException e) {
+                LOGGER.error(e);
+                saved = false;
+            }
+        }
+
+        if (manifestChanged) {
+            manifestChanged = false;
+
+            try {
+                writeManifest();
+            } catch (IOException e) {
+                LOGGER.error(e);
+                manifestChanged = true;
+                saved = false;
+            }
+        }
+
+        SAVE_TIME.recordSince(start);
+        return saved;
+    }
+
+    /**
+     * Writes the manifest, replacing the previous one atomically.
+     * Every line of the manifest holds the id of a game, the identity of one of its players and their nickname,
+     * separated by tabs.
+     *
+     * @throws IOException if the manifest cannot be written
+     */
+    private void writeManifest() throws IOException {
+        StringBuilder content = new StringBuilder();
+        manifest.forEach((id, players) -> players.forEach((identity, nickname) ->
+                content.append(String.join(MANIFEST_SEPARATOR, id.toString(), identity, nickname)).append('\n')
+        ));
+
+        Path manifestPath = directory.resolve(MANIFEST_FILENAME);
+        Path temporary = directory.resolve(MANIFEST_FILENAME + TEMPORARY_EXTENSION);
+
+        Files.writeString(temporary, content, StandardCharsets.UTF_8);
+        Files.move(temporary, manifestPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads the manifest of the saved games.
+     * Without a manifest, every snapshot in the directory is restored and a new manifest is written.
+     */
+    private void loadManifest() {
+        // Older versions saved every game in a single file, which is imported on the first start
+        if (!Files.isDirectory(directory)) {
+            importLegacyGames();
+            return;
+        }
+
+        Path manifestPath = directory.resolve(MANIFEST_FILENAME);
+        if (!Files.exists(manifestPath)) {
+            restoreAllGames();
+            return;
+        }
 
         try {
-            FileInputStream fileIn = new FileInputStream(FILENAME);
-            ObjectInputStream in = new ObjectInputStream(fileIn);
+            for (String line : Files.readAllLines(manifestPath, StandardCharsets.UTF_8)) {
+                String[] fields = line.split(MANIFEST_SEPARATOR, 3);
+                if (fields.length != 3) {
+                    continue;
+                }
 
-            Object obj = in.readObject();
+                UUID id = UUID.fromString(fields[0]);
+                manifest.computeIfAbsent(id, key -> new HashMap<>()).put(fields[1], fields[2]);
+                gamesByIdentity.put(fields[1], id);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.error(e);
+        }
+    }
+
+    /**
+     * Restores every snapshot in the directory, rebuilding the manifest.
+     */
+    private void restoreAllGames() {
+        try (DirectoryStream<Path> snapshots = Files.newDirectoryStream(directory, "*" + SNAPSHOT_EXTENSION)) {
+            for (Path snapshot : snapshots) {
+                String name = snapshot.getFileName().toString();
+                UUID id = UUID.fromString(name.substring(0, name.length() - SNAPSHOT_EXTENSION.length()));
 
-            if (obj instanceof Map) {
-                games = (Map<UUID, Game>) obj;
+                GameJournal journal = new GameJournal(directory, id, dirtyGames::add);
+                try {
+                    Game game = journal.restore();
+                    journals.put(id, journal);
+                    register(game);
+                } catch (IOException e) {
+                    LOGGER.error(e);
+                }
             }
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.error(e);
+        }
+    }
+
+    /**
+     * Imports the games saved by older versions, which wrote the map of every game to a single file next to the
+     * directory, and writes them as snapshots.
+     */
+    @SuppressWarnings("unchecked")
+    private void importLegacyGames() {
+        Path legacy = directory.resolveSibling(LEGACY_FILENAME);
 
-            in.close();
-            fileIn.close();
-        } catch (IOException | ClassNotFoundException e) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
             LOGGER.error(e);
-            games = null;
+            return;
         }
 
-        if (games != null) {
-            return new HashMap<>(games);
-        } else {
-            return new HashMap<>();
+        if (!Files.exists(legacy)) {
+            return;
         }
+
+        Map<UUID, Game> imported;
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(legacy)))) {
+            imported = (Map<UUID, Game>) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            LOGGER.error(e);
+            return;
+        }
+
+        if (imported == null) {
+            return;
+        }
+
+        imported.values().forEach(this::register);
+
+        // Write the snapshots right away, the legacy file is not imported again
+        saveState();
     }
 
 }
@@ -54,8 +54,7 @@ public class IdentityManager {
             }
         }
 
-        UUID uuid = UUID.randomUUID();
-        String identity = uuid.toString();
+        String identity = generateIdentity();
 
         try {
             Files.writeString(identityPath, identity);
@@ -66,6 +65,16 @@ public class IdentityManager {
         return identity;
     }
 
+    /**
+     * Generate a new identity, without storing it.
+     * Used by clients that do not need to keep their identity across restarts, such as bots.
+     *
+     * @return the identity
+     */
+    public static String generateIdentity() {
+        return UUID.randomUUID().toString();
+    }
+
     /**
      * Clear the identity of the client by deleting the file "identity.txt".
      */
@@ -30,6 +30,7 @@ import it.polimi.ingsw.am07.utils.json.GameDataJsonParser;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 /**
  * GameResources is a singleton that contains the game resources.
@@ -41,6 +42,8 @@ public class GameResources {
     private final List<GameCard> resourceCards;
     private final List<GameCard> starterCards;
     private final List<ObjectiveCard> objectiveCards;
+    private GameCard[] cardsById;
+    private ObjectiveCard[] objectivesById;
 
     private GameResources() {
         goldCards = new ArrayList<>();
@@ -54,7 +57,7 @@ public class GameResources {
      *
      * @return the singleton instance of the class
      */
-    public static GameResources getInstance() {
+    public static synchronized GameResources getInstance() {
         if (instance == null) {
             instance = new GameResources();
             instance.initializeCards();
@@ -88,6 +91,47 @@ public class GameResources {
         String objectivesJson = AssetsRegistry.getInstance().getObjectivesJson();
 
         objectiveCards.addAll(objectiveCardParser.listFromJson(objectivesJson));
+
+        cardsById = new GameCard[cards.stream().mapToInt(GameCard::id).max().orElse(-1) + 1];
+        for (GameCard card : cards) {
+            cardsById[card.id()] = card;
+        }
+
+        objectivesById = new ObjectiveCard[objectiveCards.stream().mapToInt(ObjectiveCard::getId).max().orElse(-1) + 1];
+        for (ObjectiveCard objective : objectiveCards) {
+            objectivesById[objective.getId()] = objective;
+        }
+    }
+
+    /**
+     * Returns the card with the given id.
+     * Cards are loaded once, so the same instance is returned for the same id.
+     *
+     * @param id the id of the card
+     * @return the card
+     * @throws IllegalArgumentException if there is no card with the given id
+     */
+    public GameCard getCardById(int id) {
+        GameCard card = id >= 0 && id < cardsById.length ? cardsById[id] : null;
+        if (card == null) {
+            throw new IllegalArgumentException("Unknown card id " + id);
+        }
+        return card;
+    }
+
+    /**
+     * Returns the objective card with the given id.
+     *
+     * @param id the id of the objective card
+     * @return the objective card
+     * @throws IllegalArgumentException if there is no objective card with the given id
+     */
+    public ObjectiveCard getObjectiveById(int id) {
+        ObjectiveCard objective = id >= 0 && id < objectivesById.length ? objectivesById[id] : null;
+        if (objective == null) {
+            throw new IllegalArgumentException("Unknown objective card id " + id);
+        }
+        return objective;
     }
 
     /**
@@ -137,6 +181,18 @@ public class GameResources {
         return shuffled;
     }
 
+    /**
+     * Returns the objective cards, shuffled with the given source of randomness.
+     *
+     * @param random the source of randomness
+     * @return the objective cards, already shuffled
+     */
+    public List<ObjectiveCard> getShuffledObjectiveCards(Random random) {
+        List<ObjectiveCard> shuffled = new ArrayList<>(objectiveCards);
+        Collections.shuffle(shuffled, random);
+        return shuffled;
+    }
+
     /**
      * Returns the starter cards, already shuffled.
      *
@@ -148,6 +204,18 @@ public class GameResources {
         return shuffled;
     }
 
+    /**
+     * Returns the starter cards, shuffled with the given source of randomness.
+     *
+     * @param random the source of randomness
+     * @return the starter cards, already shuffled
+     */
+    public List<GameCard> getShuffledStarterCards(Random random) {
+        List<GameCard> shuffled = new ArrayList<>(starterCards);
+        Collections.shuffle(shuffled, random);
+        return shuffled;
+    }
+
     /**
      * Returns the number of cards (either gold or resource).
      *
@@ -0,0 +1,587 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.binary;
+
+import it.polimi.ingsw.am07.network.connection.VarInt;
+import okio.BufferedSink;
+import okio.BufferedSource;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
+import java.net.ProtocolException;
+import java.util.*;
+
+/**
+ * Compact binary encoding of object graphs, driven by a registry of types.
+ * Every value is prefixed by the small integer id of its type (0 for null), so polymorphic fields and collections
+ * do not need any label. Registered classes are encoded as the sequence of the fields of their {@link Layout}, as
+ * described by an {@link ObjectSchema} built once per class; enums are encoded by ordinal.
+ * Both ends of a connection must register the same types in the same order.
+ */
+public class BinaryCodec {
+
+    static final int NULL_ID = 0;
+
+    private static final int STRING_ID = 1;
+    private static final int INTEGER_ID = 2;
+    private static final int LONG_ID = 3;
+    private static final int BOOLEAN_ID = 4;
+    private static final int DOUBLE_ID = 5;
+    private static final int FLOAT_ID = 6;
+    private static final int SHORT_ID = 7;
+    private static final int BYTE_ID = 8;
+    private static final int CHARACTER_ID = 9;
+    private static final int UUID_ID = 10;
+    private static final int DATE_ID = 11;
+    private static final int LIST_ID = 12;
+    private static final int SET_ID = 13;
+    private static final int LINKED_SET_ID = 14;
+    private static final int MAP_ID = 15;
+    private static final int LINKED_MAP_ID = 16;
+    private static final int ENUM_MAP_ID = 17;
+    private static final int ARRAY_ID = 18;
+
+    /**
+     * The id given to the first registered type, the ones below are reserved for built-in types.
+     */
+    static final int FIRST_REGISTERED_ID = 32;
+
+    private final TypeCodec[] codecsById;
+    private final Map<Class<?>, TypeCodec> codecsByType;
+    private final ClassValue<TypeCodec> codecsByRuntimeType;
+
+    /**
+     * Constructor.
+     *
+     * @param types   the registered types, in registration order, with their custom codec if any
+     * @param layouts the layouts of the registered classes encoded field by field
+     */
+    private BinaryCodec(List<TypeCodec> types, Map<Class<?>, Layout> layouts) {
+        codecsById = new TypeCodec[FIRST_REGISTERED_ID + types.size()];
+        codecsByType = new HashMap<>();
+
+        registerBuiltInTypes();
+
+        for (int i = 0; i < types.size(); i++) {
+            register(new TypeCodec(FIRST_REGISTERED_ID + i, types.get(i).type(), null, null));
+        }
+
+        // Object schemas may refer to any other registered type, so they are built once every id is known
+        for (int i = 0; i < types.size(); i++) {
+            TypeCodec type = types.get(i);
+            int id = FIRST_REGISTERED_ID + i;
+
+            if (type.writer() != null) {
+                register(new TypeCodec(id, type.type(), type.writer(), type.reader()));
+            } else {
+                register(codecFor(id, type.type(), layouts.get(type.type())));
+            }
+        }
+
+        codecsByRuntimeType = new ClassValue<>() {
+            @Override
+            protected TypeCodec computeValue(Class<?> type) {
+                return resolve(type);
+            }
+        };
+    }
+
+    /**
+     * Write a value, prefixed by its type id.
+     *
+     * @param sink  the sink to write to
+     * @param value the value, may be null
+     * @throws IOException if the sink cannot be written
+     * @throws IllegalArgumentException if the type of the value, or of one of the values it contains, is not registered
+     */
+    public void writeValue(BufferedSink sink, Object value) throws IOException {
+        if (value == null) {
+            sink.writeByte(NULL_ID);
+            return;
+        }
+
+        TypeCodec codec = codecsByRuntimeType.get(value.getClass());
+        VarInt.write(sink, codec.id());
+        codec.writer().write(sink, value);
+    }
+
+    /**
+     * Read a value written by {@link #writeValue(BufferedSink, Object)}.
+     *
+     * @param source the source to read from
+     * @return the value, may be null
+     * @throws IOException if the source cannot be read or contains an unknown type
+     */
+    public Object readValue(BufferedSource source) throws IOException {
+        int id = VarInt.read(source);
+
+        if (id == NULL_ID) {
+            return null;
+        }
+
+        TypeCodec codec = codecById(id);
+        if (codec.reader() == null) {
+            throw new ProtocolException("Type " + codec.type().getName() + " cannot be instantiated");
+        }
+
+        return codec.reader().read(source);
+    }
+
+    /**
+     * Write a signed integer as a zigzag varint, so that small negative values stay small.
+     *
+     * @param sink  the sink to write to
+     * @param value the value
+     * @throws IOException if the sink cannot be written
+     */
+    static void writeInt(BufferedSink sink, int value) throws IOException {
+        VarInt.write(sink, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Read a signed integer written by {@link #writeInt(BufferedSink, int)}.
+     *
+     * @param source the source to read from
+     * @return the value
+     * @throws IOException if the source cannot be read
+     */
+    static int readInt(BufferedSource source) throws IOException {
+        int value = VarInt.read(source);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Write a signed long as a zigzag varint.
+     *
+     * @param sink  the sink to write to
+     * @param value the value
+     * @throws IOException if the sink cannot be written
+     */
+    static void writeLong(BufferedSink sink, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+
+        while ((zigzag & ~0x7FL) != 0) {
+            sink.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        sink.writeByte((int) zigzag);
+    }
+
+    /**
+     * Read a signed long written by {@link #writeLong(BufferedSink, long)}.
+     *
+     * @param source the source to read from
+     * @return the value
+     * @throws IOException if the source cannot be read or the value is malformed
+     */
+    static long readLong(BufferedSource source) throws IOException {
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = source.readByte();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return (value >>> 1) ^ -(value & 1);
+            }
+        }
+
+        throw new ProtocolException("Malformed varint");
+    }
+
+    /**
+     * Read the number of elements of a value, before allocating room for them.
+     * Every element takes at least one byte, so a length above the bytes left in the frame is malformed.
+     *
+     * @param source the source to read from, holding the rest of the frame
+     * @return the length
+     * @throws IOException if the source cannot be read or the length is malformed
+     */
+    static int readLength(BufferedSource source) throws IOException {
+        int length = VarInt.read(source);
+        if (length < 0 || length > source.getBuffer().size()) {
+            throw new ProtocolException("Invalid length " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Get the codec of a registered type.
+     *
+     * @param id the type id
+     * @return the codec
+     * @throws ProtocolException if no type is registered with that id
+     */
+    TypeCodec codecById(int id) throws ProtocolException {
+        TypeCodec codec = id < codecsById.length ? codecsById[id] : null;
+        if (codec == null) {
+            throw new ProtocolException("Unknown type id " + id);
+        }
+        return codec;
+    }
+
+    /**
+     * Get the codec used to write instances of a class.
+     *
+     * @param type the runtime class
+     * @return the codec
+     * @throws IllegalArgumentException if the class is not registered
+     */
+    TypeCodec codecByType(Class<?> type) {
+        return codecsByRuntimeType.get(type);
+    }
+
+    private void register(TypeCodec codec) {
+        codecsById[codec.id()] = codec;
+        codecsByType.put(codec.type(), codec);
+    }
+
+    /**
+     * Build the codec of a registered type.
+     * Abstract types are only registered to be usable as array components, so their codec cannot write anything.
+     *
+     * @param id     the type id
+     * @param type   the type
+     * @param layout the layout of the type, null for enums and abstract types
+     * @return the codec
+     * @throws IllegalArgumentException if a concrete class has no layout, or a layout that does not match the class
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private TypeCodec codecFor(int id, Class<?> type, Layout layout) {
+        if (type.isEnum()) {
+            Object[] constants = type.getEnumConstants();
+            return new TypeCodec(id, type,
+                    (sink, value) -> VarInt.write(sink, ((Enum) value).ordinal()),
+                    source -> {
+                        int ordinal = VarInt.read(source);
+                        if (ordinal < 0 || ordinal >= constants.length) {
+                            throw new ProtocolException("Unknown " + type.getSimpleName() + " ordinal " + ordinal);
+                        }
+                        return constants[ordinal];
+                    });
+        }
+
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return new TypeCodec(id, type, null, null);
+        }
+
+        if (layout == null) {
+            throw new IllegalArgumentException("No binary layout registered for " + type.getName());
+        }
+
+        ObjectSchema schema = new ObjectSchema(type, layout);
+        return new TypeCodec(id, type,
+                (sink, value) -> schema.write(this, sink, value),
+                source -> schema.read(this, source));
+    }
+
+    /**
+     * Find the codec of a runtime class, mapping collection implementations to the built-in codecs.
+     *
+     * @param type the runtime class
+     * @return the codec
+     * @throws IllegalArgumentException if the class is not registered
+     */
+    private TypeCodec resolve(Class<?> type) {
+        TypeCodec codec = codecsByType.get(type);
+        if (codec != null && codec.writer() != null) {
+            return codec;
+        }
+
+        // Enum constants with a body are instances of an anonymous subclass
+        if (type.getSuperclass() != null && type.getSuperclass().isEnum()) {
+            return resolve(type.getSuperclass());
+        }
+
+        // Maps and sets of unknown implementations, such as the ones built by Moshi, may have a meaningful
+        // iteration order: it is preserved by decoding them as linked collections
+        if (EnumMap.class.isAssignableFrom(type)) {
+            return codecsById[ENUM_MAP_ID];
+        }
+        if (HashMap.class.isAssignableFrom(type) && !LinkedHashMap.class.isAssignableFrom(type)) {
+            return codecsById[MAP_ID];
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return codecsById[LINKED_MAP_ID];
+        }
+        if (HashSet.class.isAssignableFrom(type) && !LinkedHashSet.class.isAssignableFrom(type)) {
+            return codecsById[SET_ID];
+        }
+        if (Set.class.isAssignableFrom(type)) {
+            return codecsById[LINKED_SET_ID];
+        }
+        if (List.class.isAssignableFrom(type)) {
+            return codecsById[LIST_ID];
+        }
+        if (type.isArray() && !type.getComponentType().isPrimitive()) {
+            return codecsById[ARRAY_ID];
+        }
+
+        throw new IllegalArgumentException("Type not registered for binary encoding: " + type.getName());
+    }
+
+    /**
+     * Register the codecs of the types every codec knows about.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void registerBuiltInTypes() {
+        register(new TypeCodec(STRING_ID, String.class,
+                (sink, value) -> {
+                    String string = (String) value;
+                    VarInt.write(sink, (int) okio.Utf8.size(string));
+                    sink.writeUtf8(string);
+                },
+                source -> source.readUtf8(VarInt.read(source))));
+        register(new TypeCodec(INTEGER_ID, Integer.class,
+                (sink, value) -> writeInt(sink, (Integer) value),
+                BinaryCodec::readInt));
+        register(new TypeCodec(LONG_ID, Long.class,
+                (sink, value) -> writeLong(sink, (Long) value),
+                BinaryCodec::readLong));
+        register(new TypeCodec(BOOLEAN_ID, Boolean.class,
+                (sink, value) -> sink.writeByte((Boolean) value ? 1 : 0),
+                source -> source.readByte() != 0));
+        register(new TypeCodec(DOUBLE_ID, Double.class,
+                (sink, value) -> sink.writeLong(Double.doubleToRawLongBits((Double) value)),
+                source -> Double.longBitsToDouble(source.readLong())));
+        register(new TypeCodec(FLOAT_ID, Float.class,
+                (sink, value) -> sink.writeInt(Float.floatToRawIntBits((Float) value)),
+                source -> Float.intBitsToFloat(source.readInt())));
+        register(new TypeCodec(SHORT_ID, Short.class,
+                (sink, value) -> writeInt(sink, (Short) value),
+                source -> (short) readInt(source)));
+        register(new TypeCodec(BYTE_ID, Byte.class,
+                (sink, value) -> sink.writeByte((Byte) value),
+                BufferedSource::readByte));
+        register(new TypeCodec(CHARACTER_ID, Character.class,
+                (sink, value) -> VarInt.write(sink, (Character) value),
+                source -> (char) VarInt.read(source)));
+        register(new TypeCodec(UUID_ID, UUID.class,
+                (sink, value) -> {
+                    UUID uuid = (UUID) value;
+                    sink.writeLong(uuid.getMostSignificantBits());
+                    sink.writeLong(uuid.getLeastSignificantBits());
+                },
+                source -> new UUID(source.readLong(), source.readLong())));
+        register(new TypeCodec(DATE_ID, Date.class,
+                (sink, value) -> writeLong(sink, ((Date) value).getTime()),
+                source -> new Date(readLong(source))));
+
+        register(new TypeCodec(LIST_ID, ArrayList.class,
+                (sink, value) -> writeElements(sink, (Collection<?>) value),
+                source -> readElements(source, new ArrayList<>())));
+        register(new TypeCodec(SET_ID, HashSet.class,
+                (sink, value) -> writeElements(sink, (Collection<?>) value),
+                source -> readElements(source, new HashSet<>())));
+        register(new TypeCodec(LINKED_SET_ID, LinkedHashSet.class,
+                (sink, value) -> writeElements(sink, (Collection<?>) value),
+                source -> readElements(source, new LinkedHashSet<>())));
+        register(new TypeCodec(MAP_ID, HashMap.class,
+                (sink, value) -> writeEntries(sink, (Map<?, ?>) value),
+                source -> readEntries(source, new HashMap<>())));
+        register(new TypeCodec(LINKED_MAP_ID, LinkedHashMap.class,
+                (sink, value) -> writeEntries(sink, (Map<?, ?>) value),
+                source -> readEntries(source, new LinkedHashMap<>())));
+        register(new TypeCodec(ENUM_MAP_ID, EnumMap.class,
+                (sink, value) -> {
+                    Map<?, ?> map = (Map<?, ?>) value;
+                    // The key type of an empty map cannot be read, ObjectSchema restores it from the field type
+                    VarInt.write(sink, map.isEmpty() ? NULL_ID : codecByType(map.keySet().iterator().next().getClass()).id());
+                    writeEntries(sink, map);
+                },
+                source -> {
+                    int keyId = VarInt.read(source);
+                    Map map = keyId == NULL_ID ? new UntypedEnumMap() : new EnumMap<>((Class) codecById(keyId).type());
+                    return readEntries(source, map);
+                }));
+
+        register(new TypeCodec(ARRAY_ID, Object[].class,
+                (sink, value) -> {
+                    Object[] array = (Object[]) value;
+                    VarInt.write(sink, componentId(array.getClass().getComponentType()));
+                    VarInt.write(sink, array.length);
+                    for (Object element : array) {
+                        writeValue(sink, element);
+                    }
+                },
+                source -> {
+                    Class<?> componentType = codecById(VarInt.read(source)).type();
+                    Object[] array = (Object[]) Array.newInstance(componentType, readLength(source));
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = readValue(source);
+                    }
+                    return array;
+                }));
+    }
+
+    /**
+     * Get the id of an array component type, which may be a registered abstract type.
+     *
+     * @param componentType the component type
+     * @return the type id
+     */
+    private int componentId(Class<?> componentType) {
+        TypeCodec codec = codecsByType.get(componentType);
+        if (codec == null) {
+            throw new IllegalArgumentException("Array component type not registered for binary encoding: " + componentType.getName());
+        }
+        return codec.id();
+    }
+
+    private void writeElements(BufferedSink sink, Collection<?> collection) throws IOException {
+        VarInt.write(sink, collection.size());
+        for (Object element : collection) {
+            writeValue(sink, element);
+        }
+    }
+
+    private Collection<Object> readElements(BufferedSource source, Collection<Object> collection) throws IOException {
+        int size = readLength(source);
+        for (int i = 0; i < size; i++) {
+            collection.add(readValue(source));
+        }
+        return collection;
+    }
+
+    private void writeEntries(BufferedSink sink, Map<?, ?> map) throws IOException {
+        VarInt.write(sink, map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeValue(sink, entry.getKey());
+            writeValue(sink, entry.getValue());
+        }
+    }
+
+    private Map<Object, Object> readEntries(BufferedSource source, Map<Object, Object> map) throws IOException {
+        int size = readLength(source);
+        for (int i = 0; i < size; i++) {
+            Object key = readValue(source);
+            map.put(key, readValue(source));
+        }
+        return map;
+    }
+
+    /**
+     * An empty {@link EnumMap} received without its key type.
+     * Fields declared with an enum key type turn it back into an {@link EnumMap}, elsewhere it behaves as a
+     * {@link HashMap}.
+     */
+    static final class UntypedEnumMap extends HashMap<Object, Object> {
+    }
+
+    /**
+     * Writes a value of a known type, without its type id.
+     */
+    @FunctionalInterface
+    interface ValueWriter {
+        void write(BufferedSink sink, Object value) throws IOException;
+    }
+
+    /**
+     * Reads a value of a known type, whose type id has already been consumed.
+     */
+    @FunctionalInterface
+    interface ValueReader {
+        Object read(BufferedSource source) throws IOException;
+    }
+
+    /**
+     * The encoding of a type.
+     *
+     * @param id     the type id
+     * @param type   the type
+     * @param writer the writer, null for abstract types
+     * @param reader the reader, null for abstract types
+     */
+    record TypeCodec(int id, Class<?> type, ValueWriter writer, ValueReader reader) {
+    }
+
+    /**
+     * Factory of binary codecs.
+     * Type ids are assigned in registration order, so new types must only be appended.
+     */
+    public static class Factory {
+
+        private final List<TypeCodec> types;
+        private final Map<Class<?>, Layout> layouts;
+
+        /**
+         * Constructor.
+         */
+        public Factory() {
+            types = new ArrayList<>();
+            layouts = new HashMap<>();
+        }
+
+        /**
+         * Register an enum, or an abstract type used as an array component.
+         *
+         * @param type the type
+         * @return the factory
+         */
+        public Factory registerType(Class<?> type) {
+            return registerType(type, null, null);
+        }
+
+        /**
+         * Register a concrete class or a record, encoded as the fields of its layout.
+         *
+         * @param type   the type
+         * @param layout the fields of the type, in the order they are written
+         * @return the factory
+         */
+        public Factory registerType(Class<?> type, Layout layout) {
+            registerType(type, null, null);
+            layouts.put(type, layout);
+            return this;
+        }
+
+        /**
+         * Register a type with a custom encoding, used instead of its fields.
+         *
+         * @param type   the type
+         * @param writer the writer of the values
+         * @param reader the reader of the values
+         * @return the factory
+         */
+        Factory registerType(Class<?> type, ValueWriter writer, ValueReader reader) {
+            if (types.stream().anyMatch(registered -> registered.type() == type)) {
+                throw new IllegalArgumentException("Type already registered: " + type.getName());
+            }
+            types.add(new TypeCodec(0, type, writer, reader));
+            return this;
+        }
+
+        /**
+         * Build the codec.
+         *
+         * @return the codec
+         */
+        public BinaryCodec build() {
+            return new BinaryCodec(new ArrayList<>(types), new HashMap<>(layouts));
+        }
+
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.polimi.ingsw.am07.utils.binary;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The binary layout of a class: the names of the fields passed to its constructor, in the order of its parameters,
+ * followed by the names of the fields assigned once the instance is built.
+ * Fields are written in this order, so the layout is part of the protocol: renaming or adding a field fails when the
+ * codec is built until the layout is updated, and reordering the fields of a class does not change its encoding.
+ *
+ * @param constructorFields the fields passed to the constructor
+ * @param assignedFields    the fields assigned after the constructor
+ */
+public record Layout(List<String> constructorFields, List<String> assignedFields) {
+
+    /**
+     * Create a layout whose fields are all passed to the constructor.
+     * The constructor of a record is its canonical one, the others must have parameters of the types of the fields.
+     *
+     * @param constructorFields the fields passed to the constructor
+     * @return the layout
+     */
+    public static Layout of(String... constructorFields) {
+        return new Layout(List.of(constructorFields), List.of());
+    }
+
+    /**
+     * Create a layout with more fields, assigned after the constructor.
+     *
+     * @param fields the fields assigned after the constructor
+     * @return the layout
+     */
+    public Layout assigning(String... fields) {
+        return new Layout(constructorFields, Stream.concat(assignedFields.stream(), Stream.of(fields)).toList());
+    }
+
+    /**
+     * Get every field of the layout, in the order they are written.
+     *
+     * @return the fields
+     */
+    public List<String> fields() {
+        return Stream.concat(constructorFields.stream(), assignedFields.stream()).toList();
+    }
+
+}
@@ -0,0 +1,413 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.binary;
+
+import it.polimi.ingsw.am07.action.Action;
+import it.polimi.ingsw.am07.action.chat.SendMessageAction;
+import it.polimi.ingsw.am07.action.error.ErrorAction;
+import it.polimi.ingsw.am07.action.lobby.CreateLobbyAction;
+import it.polimi.ingsw.am07.action.lobby.GameStartAction;
+import it.polimi.ingsw.am07.action.lobby.PlayerJoinAction;
+import it.polimi.ingsw.am07.action.lobby.ReconnectAction;
+import it.polimi.ingsw.am07.action.player.PlayerInitialChoiceAction;
+import it.polimi.ingsw.am07.action.player.PlayerPickCardAction;
+import it.polimi.ingsw.am07.action.player.PlayerPlaceCardAction;
+import it.polimi.ingsw.am07.action.server.*;
+import it.polimi.ingsw.am07.model.chat.ChatMessage;
+import it.polimi.ingsw.am07.model.chat.PlayerChat;
+import it.polimi.ingsw.am07.model.game.*;
+import it.polimi.ingsw.am07.model.game.card.GameCard;
+import it.polimi.ingsw.am07.model.game.card.ObjectiveCard;
+import it.polimi.ingsw.am07.model.game.card.PatternObjectiveCard;
+import it.polimi.ingsw.am07.model.game.card.ResourceObjectiveCard;
+import it.polimi.ingsw.am07.model.game.gamefield.GameField;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPattern;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
+import it.polimi.ingsw.am07.model.game.side.*;
+import it.polimi.ingsw.am07.model.lobby.Lobby;
+import it.polimi.ingsw.am07.model.lobby.LobbyPlayer;
+import it.polimi.ingsw.am07.model.lobby.LobbyState;
+import it.polimi.ingsw.am07.network.connection.Encoding;
+import it.polimi.ingsw.am07.network.connection.VarInt;
+import it.polimi.ingsw.am07.network.connection.Framing;
+import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.HeartbeatNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.IdentityNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.NetworkPacket;
+import it.polimi.ingsw.am07.utils.assets.GameResources;
+import it.polimi.ingsw.am07.utils.matrix.Matrix;
+import it.polimi.ingsw.am07.utils.matrix.SymbolMatrix;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class is used to serialize and deserialize network packets with the compact binary encoding.
+ * It registers the same packets and actions as {@link it.polimi.ingsw.am07.utils.json.NetworkJsonSerializer}, together
+ * with every model class they carry.
+ */
+public class NetworkBinarySerializer {
+
+    /**
+     * The fields of {@link Action} set while it is executed, sent after the fields of every action.
+     */
+    private static final String[] ACTION_STATE = {"executedCorrectly", "error", "gameVersion"};
+
+    private static NetworkBinarySerializer instance;
+    private static NetworkBinarySerializer cardReferenceInstance;
+    private final BinaryCodec codec;
+
+    private NetworkBinarySerializer(boolean cardReferences) {
+        codec = initializeCodec(cardReferences);
+    }
+
+    /**
+     * Initializes the codec with every type that can be sent over the network.
+     * Type ids follow the registration order: new types must be appended at the end, or both ends must be updated.
+     * The layouts pin the order of the fields of every class, so they must only change together with the protocol.
+     *
+     * @param cardReferences whether cards are written as references to the card catalogue
+     * @return the codec
+     */
+    private static BinaryCodec initializeCodec(boolean cardReferences) {
+        BinaryCodec.Factory factory = new BinaryCodec.Factory()
+                // Packets
+                .registerType(NetworkPacket.class)
+                .registerType(ActionNetworkPacket.class, Layout.of("action"))
+                .registerType(HeartbeatNetworkPacket.class, Layout.of())
+                .registerType(IdentityNetworkPacket.class, Layout.of("identity", "framing", "encoding", "cardReferences"))
+                .registerType(Framing.class)
+                .registerType(Encoding.class)
+                // Actions
+                .registerType(Action.class)
+                .registerType(GameStartAction.class, Layout.of("playerNickname", "identity")
+                        .assigning(ACTION_STATE))
+                .registerType(PlayerPickCardAction.class, Layout.of("playerNickname", "identity", "pickedCard")
+                        .assigning("nextPlayer")
+                        .assigning(ACTION_STATE))
+                .registerType(PlayerPlaceCardAction.class, Layout.of("playerNickname", "identity", "placedSide", "position")
+                        .assigning(ACTION_STATE))
+                .registerType(LobbyStateSyncAction.class, Layout.of("lobby")
+                        .assigning("identity")
+                        .assigning(ACTION_STATE))
+                .registerType(CreateLobbyAction.class, Layout.of("playerNickname", "identity", "color")
+                        .assigning("createdLobby")
+                        .assigning(ACTION_STATE))
+                .registerType(PlayerJoinAction.class, Layout.of("playerNickname", "identity", "lobbyId", "color")
+                        .assigning(ACTION_STATE))
+                .registerType(LobbyListAction.class, Layout.of("lobbies")
+                        .assigning("identity")
+                        .assigning(ACTION_STATE))
+                .registerType(ErrorAction.class, Layout.of("errorMessage")
+                        .assigning("identity")
+                        .assigning(ACTION_STATE))
+                .registerType(SendMessageAction.class, Layout.of("playerNickname", "identity", "message")
+                        .assigning(ACTION_STATE))
+                .registerType(PlayerInitialChoiceAction.class, Layout.of("playerNickname", "identity", "selectedCard", "starterSide")
+                        .assigning("gameCanStart")
+                        .assigning(ACTION_STATE))
+                .registerType(ServerGameStartAction.class, Layout.of("game")
+                        .assigning("identity")
+                        .assigning(ACTION_STATE))
+                .registerType(ResumeGameAction.class, Layout.of("game", "identity")
+                        .assigning("missedActions")
+                        .assigning(ACTION_STATE))
+                .registerType(HangGameAction.class, Layout.of("identity")
+                        .assigning(ACTION_STATE))
+                .registerType(ReconnectAction.class, Layout.of("playerNickname", "identity", "lastGameId", "lastGameVersion")
+                        .assigning(ACTION_STATE))
+                // Model
+                .registerType(Game.class, Layout.of("id", "players", "disconnectedPlayers", "deck", "commonObjectives")
+                        .assigning("selfNickname", "currentPlayerIndex", "gameState", "version"))
+                .registerType(GameState.class)
+                .registerType(Player.class, Layout.of("nickname", "identity", "playerPawn", "starterCard", "availableObjectives",
+                                "playerResources", "playerGameField", "playableCards", "chat")
+                        .assigning("playerScore", "playerObjectiveScore", "playerObjectiveCard", "commonObjectives"))
+                .registerType(Pawn.class)
+                .registerType(Deck.class, Layout.of("availableResCards", "availableGoldCards", "visibleResCards", "visibleGoldCards"))
+                .registerType(ResourceHolder.class, NetworkBinarySerializer::writeResourceHolder, NetworkBinarySerializer::readResourceHolder)
+                .registerType(Symbol.class)
+                .registerType(GameField.class, Layout.of("fieldMatrix", "placedCards", "currentZ"))
+                .registerType(GameFieldPosition.class, Layout.of("x", "y", "z"))
+                .registerType(GameFieldPattern.class, Layout.of("pattern"))
+                .registerType(Matrix.class, Layout.of()
+                        .assigning("data", "emptyValue", "centerX", "centerY", "minX", "minY", "maxX", "maxY", "sizeX", "sizeY"));
+
+        registerCard(factory, GameCard.class, Layout.of("front", "back"), cardReferences, card -> ((GameCard) card).id(), card -> card);
+        factory.registerType(Side.class)
+                .registerType(SideFront.class);
+        registerCard(factory, SideBack.class, Layout.of("id", "fieldRepresentation", "resources", "color")
+                .assigning("associatedScore"), cardReferences, side -> ((Side) side).id(), GameCard::back);
+        registerCard(factory, SideFrontRes.class, Layout.of("id", "fieldRepresentation", "resources", "color", "associatedScore"),
+                cardReferences, side -> ((Side) side).id(), GameCard::front);
+        registerCard(factory, SideFrontGold.class, Layout.of("id", "fieldRepresentation", "resources", "associatedScore", "multiplier", "requirements", "color"),
+                cardReferences, side -> ((Side) side).id(), GameCard::front);
+        registerCard(factory, SideFrontStarter.class, Layout.of("id", "fieldRepresentation", "resources")
+                .assigning("color", "associatedScore"), cardReferences, side -> ((Side) side).id(), GameCard::front);
+        factory.registerType(SideFieldRepresentation.class, Layout.of("corners"))
+                .registerType(ObjectiveCard.class);
+        registerObjective(factory, PatternObjectiveCard.class, Layout.of("associatedScore", "id", "pattern"), cardReferences);
+        registerObjective(factory, ResourceObjectiveCard.class, Layout.of("associatedScore", "id", "requirements"), cardReferences);
+
+        return factory
+                .registerType(PlayerChat.class, Layout.of("players", "nickname")
+                        .assigning("messages"))
+                .registerType(ChatMessage.class, Layout.of("senderNickname", "receiverNicknames", "message", "timestamp"))
+                .registerType(Lobby.class, Layout.of("id", "players", "state"))
+                .registerType(LobbyPlayer.class, Layout.of("nickname", "identifier", "playerPawn"))
+                .registerType(LobbyState.class)
+                .registerType(SymbolMatrix.class, NetworkBinarySerializer::writeSymbolMatrix, NetworkBinarySerializer::readSymbolMatrix)
+                .build();
+    }
+
+    /**
+     * Register a card type, written either field by field or as the id of its card.
+     *
+     * @param factory        the codec factory
+     * @param type           the card or side type
+     * @param layout         the layout of the type, when it is written field by field
+     * @param cardReferences whether the type is written as a reference
+     * @param id             the function extracting the card id from a value
+     * @param resolve        the function resolving a value from the card with its id
+     */
+    private static void registerCard(BinaryCodec.Factory factory, Class<?> type, Layout layout, boolean cardReferences,
+                                     ToIntFunction<Object> id, Function<GameCard, Object> resolve) {
+        if (!cardReferences) {
+            factory.registerType(type, layout);
+            return;
+        }
+
+        factory.registerType(type,
+                (sink, value) -> VarInt.write(sink, id.applyAsInt(value)),
+                source -> checkType(type, resolve.apply(GameResources.getInstance().getCardById(VarInt.read(source)))));
+    }
+
+    /**
+     * Register an objective card type, written either field by field or as its id.
+     *
+     * @param factory        the codec factory
+     * @param type           the objective card type
+     * @param layout         the layout of the type, when it is written field by field
+     * @param cardReferences whether the type is written as a reference
+     */
+    private static void registerObjective(BinaryCodec.Factory factory, Class<?> type, Layout layout, boolean cardReferences) {
+        if (!cardReferences) {
+            factory.registerType(type, layout);
+            return;
+        }
+
+        factory.registerType(type,
+                (sink, value) -> VarInt.write(sink, ((ObjectiveCard) value).getId()),
+                source -> checkType(type, GameResources.getInstance().getObjectiveById(VarInt.read(source))));
+    }
+
+    /**
+     * Write a resource holder as the number of resources it holds, followed by the ordinal and amount of each.
+     *
+     * @param sink  the sink to write to
+     * @param value the resource holder
+     * @throws IOException if the sink cannot be written
+     */
+    private static void writeResourceHolder(BufferedSink sink, Object value) throws IOException {
+        Map<Symbol, Integer> resources = ((ResourceHolder) value).getResources();
+        VarInt.write(sink, resources.size());
+        for (Map.Entry<Symbol, Integer> entry : resources.entrySet()) {
+            VarInt.write(sink, entry.getKey().ordinal());
+            BinaryCodec.writeInt(sink, entry.getValue());
+        }
+    }
+
+    /**
+     * Read a resource holder written by {@link #writeResourceHolder(BufferedSink, Object)}.
+     *
+     * @param source the source to read from
+     * @return the resource holder
+     * @throws IOException if the source cannot be read or the resource holder is malformed
+     */
+    private static Object readResourceHolder(BufferedSource source) throws IOException {
+        Symbol[] symbols = Symbol.values();
+        int size = VarInt.read(source);
+        if (size < 0 || size > symbols.length) {
+            throw new ProtocolException("Malformed resource holder");
+        }
+
+        Map<Symbol, Integer> resources = new EnumMap<>(Symbol.class);
+        for (int i = 0; i < size; i++) {
+            int ordinal = VarInt.read(source);
+            if (ordinal < 0 || ordinal >= symbols.length || !symbols[ordinal].isResource()) {
+                throw new ProtocolException("Malformed resource holder");
+            }
+            resources.put(symbols[ordinal], BinaryCodec.readInt(source));
+        }
+        return new ResourceHolder(resources);
+    }
+
+    /**
+     * Write a symbol matrix as its bounds followed by one byte per element.
+     *
+     * @param sink  the sink to write to
+     * @param value the matrix
+     * @throws IOException if the sink cannot be written
+     */
+    private static void writeSymbolMatrix(BufferedSink sink, Object value) throws IOException {
+        SymbolMatrix matrix = (SymbolMatrix) value;
+        BinaryCodec.writeInt(sink, matrix.getMinX());
+        BinaryCodec.writeInt(sink, matrix.getMinY());
+        VarInt.write(sink, matrix.getWidth());
+        VarInt.write(sink, matrix.getHeight());
+        VarInt.write(sink, matrix.getEmptyValue().ordinal());
+        sink.write(matrix.toOrdinals());
+    }
+
+    /**
+     * Read a symbol matrix written by {@link #writeSymbolMatrix(BufferedSink, Object)}.
+     *
+     * @param source the source to read from
+     * @return the matrix
+     * @throws IOException if the source cannot be read or the matrix is malformed
+     */
+    private static Object readSymbolMatrix(BufferedSource source) throws IOException {
+        int minX = BinaryCodec.readInt(source);
+        int minY = BinaryCodec.readInt(source);
+        int width = VarInt.read(source);
+        int height = VarInt.read(source);
+        int emptyOrdinal = VarInt.read(source);
+
+        Symbol[] symbols = Symbol.values();
+        if (emptyOrdinal < 0 || emptyOrdinal >= symbols.length || (long) width * height > VarInt.MAX_FRAME_SIZE) {
+            throw new ProtocolException("Malformed symbol matrix");
+        }
+
+        try {
+            return SymbolMatrix.of(minX, minY, width, height, symbols[emptyOrdinal], source.readByteArray((long) width * height));
+        } catch (IllegalArgumentException e) {
+            throw new ProtocolException(e.getMessage());
+        }
+    }
+
+    /**
+     * Check that a resolved reference has the type announced on the wire.
+     *
+     * @param type  the announced type
+     * @param value the resolved value
+     * @return the value
+     * @throws ProtocolException if the value has another type
+     */
+    private static Object checkType(Class<?> type, Object value) throws ProtocolException {
+        if (!type.isInstance(value)) {
+            throw new ProtocolException("Expected " + type.getSimpleName() + " but the reference resolves to " + value.getClass().getSimpleName());
+        }
+        return value;
+    }
+
+    /**
+     * Get the singleton instance of the class
+     *
+     * @return the singleton instance of the class
+     */
+    public static NetworkBinarySerializer getInstance() {
+        return getInstance(false);
+    }
+
+    /**
+     * Get the singleton instance of the class for an encoding mode.
+     * With card references, cards, sides and objective cards are written as ids and resolved through
+     * {@link GameResources} on decode, so the decoded instances are the ones of the local catalogue.
+     *
+     * @param cardReferences whether cards are written as references to the card catalogue
+     * @return the singleton instance of the class
+     */
+    public static synchronized NetworkBinarySerializer getInstance(boolean cardReferences) {
+        if (cardReferences) {
+            if (cardReferenceInstance == null) {
+                cardReferenceInstance = new NetworkBinarySerializer(true);
+            }
+            return cardReferenceInstance;
+        }
+
+        if (instance == null) {
+            instance = new NetworkBinarySerializer(false);
+        }
+        return instance;
+    }
+
+    /**
+     * Serialize a network packet into a sink
+     *
+     * @param packet the network packet to serialize
+     * @param sink   the sink to write to
+     * @throws IOException if the sink cannot be written
+     */
+    public void toBinary(NetworkPacket packet, BufferedSink sink) throws IOException {
+        codec.writeValue(sink, packet);
+    }
+
+    /**
+     * Serialize a network packet to a byte array
+     *
+     * @param packet the network packet to serialize
+     * @return the encoded packet
+     */
+    public byte[] toBinary(NetworkPacket packet) {
+        Buffer buffer = new Buffer();
+        try {
+            toBinary(packet, buffer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return buffer.readByteArray();
+    }
+
+    /**
+     * Deserialize a network packet read from a source
+     *
+     * @param source the source to read from, positioned at the start of the packet and holding all of it
+     * @return the network packet
+     */
+    public NetworkPacket fromBinary(BufferedSource source) {
+        try {
+            return (NetworkPacket) codec.readValue(source);
+        } catch (IOException | ClassCastException | IllegalArgumentException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Deserialize a network packet from a byte array
+     *
+     * @param bytes the encoded packet
+     * @return the network packet
+     */
+    public NetworkPacket fromBinary(byte[] bytes) {
+        return fromBinary(new Buffer().write(bytes));
+    }
+
+}
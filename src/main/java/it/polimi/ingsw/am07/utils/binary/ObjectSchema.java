@@ -0,0 +1,450 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.binary;
+
+import okio.BufferedSink;
+import okio.BufferedSource;
+
+import java.io.IOException;
+import java.lang.reflect.*;
+import java.net.ProtocolException;
+import java.util.*;
+
+/**
+ * Encoding of a registered class, computed once from its {@link Layout} and used to encode its instances.
+ * Fields are written in the order of the layout, which must name every field of the class and of its superclasses
+ * but the static and transient ones, like Java serialization and Moshi skip. Instances are rebuilt through the
+ * constructor taking the first fields of the layout: the canonical constructor of a record, or the constructor of
+ * another class whose parameters have the types of those fields. The remaining fields are assigned afterwards, then
+ * a readResolve method is invoked, as Java serialization does, to rebuild the state derived from the fields.
+ */
+class ObjectSchema {
+
+    private final Class<?> type;
+    private final FieldCodec[] fields;
+    private final Constructor<?> constructor;
+    private final int argumentCount;
+    private final Method readResolve;
+
+    /**
+     * Constructor.
+     *
+     * @param type   the class to describe
+     * @param layout the layout of the class
+     * @throws IllegalArgumentException if the layout does not match the fields or the constructors of the class
+     */
+    ObjectSchema(Class<?> type, Layout layout) {
+        this.type = type;
+
+        List<String> names = layout.fields();
+        fields = new FieldCodec[names.size()];
+        argumentCount = layout.constructorFields().size();
+
+        try {
+            Class<?>[] parameterTypes = new Class<?>[argumentCount];
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = FieldCodec.of(findField(type, names.get(i)));
+                if (i < argumentCount) {
+                    parameterTypes[i] = fields[i].field.getType();
+                }
+            }
+
+            checkLayout(type, layout);
+            constructor = findConstructor(type, parameterTypes);
+            constructor.setAccessible(true);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot build the binary schema of " + type.getName(), e);
+        }
+
+        readResolve = findReadResolve(type);
+    }
+
+    /**
+     * Write every field of an instance.
+     *
+     * @param codec the codec used for the values of reference fields
+     * @param sink  the sink to write to
+     * @param value the instance
+     * @throws IOException if the sink cannot be written
+     */
+    void write(BinaryCodec codec, BufferedSink sink, Object value) throws IOException {
+        try {
+            for (FieldCodec field : fields) {
+                field.write(codec, sink, value);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Read an instance written by {@link #write(BinaryCodec, BufferedSink, Object)}.
+     *
+     * @param codec  the codec used for the values of reference fields
+     * @param source the source to read from
+     * @return the instance
+     * @throws IOException if the source cannot be read, or the values are rejected by the constructor
+     */
+    Object read(BinaryCodec codec, BufferedSource source) throws IOException {
+        Object[] values = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = fields[i].read(codec, source);
+        }
+
+        try {
+            Object instance = constructor.newInstance(Arrays.copyOf(values, argumentCount));
+            for (int i = argumentCount; i < fields.length; i++) {
+                fields[i].set(instance, values[i]);
+            }
+
+            return readResolve == null ? instance : readResolve.invoke(instance);
+        } catch (InvocationTargetException e) {
+            ProtocolException exception = new ProtocolException("Invalid " + type.getSimpleName() + " received");
+            exception.initCause(e.getCause());
+            throw exception;
+        } catch (IllegalArgumentException e) {
+            // A value of the wrong type, or null for a primitive parameter
+            throw new ProtocolException("Invalid " + type.getSimpleName() + " received: " + e.getMessage());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Find a field of a class or of its superclasses.
+     *
+     * @param type the class
+     * @param name the name of the field
+     * @return the field
+     * @throws NoSuchFieldException if there is no such field
+     */
+    private static Field findField(Class<?> type, String name) throws NoSuchFieldException {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            try {
+                return current.getDeclaredField(name);
+            } catch (NoSuchFieldException ignored) {
+                // Look in the superclass
+            }
+        }
+        throw new NoSuchFieldException(type.getName() + " has no field " + name + " named in its binary layout");
+    }
+
+    /**
+     * Check that a layout names every encoded field of a class exactly once, and that the layout of a record is made
+     * of its components in order.
+     *
+     * @param type   the class
+     * @param layout the layout of the class
+     * @throws IllegalArgumentException if the layout does not match the class
+     */
+    private static void checkLayout(Class<?> type, Layout layout) {
+        List<String> names = layout.fields();
+        if (new HashSet<>(names).size() != names.size()) {
+            throw new IllegalArgumentException("The binary layout of " + type.getName() + " names a field twice");
+        }
+
+        if (type.isRecord()) {
+            List<String> components = Arrays.stream(type.getRecordComponents()).map(RecordComponent::getName).toList();
+            if (!components.equals(layout.constructorFields()) || !layout.assignedFields().isEmpty()) {
+                throw new IllegalArgumentException("The binary layout of " + type.getName() + " must be its components " + components);
+            }
+            return;
+        }
+
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())
+                        && !names.contains(field.getName())) {
+                    throw new IllegalArgumentException("Field " + field.getName() + " of " + type.getName() + " is missing from its binary layout");
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the only constructor whose parameters accept values of the given types, in order.
+     *
+     * @param type           the class
+     * @param parameterTypes the types of the fields passed to the constructor
+     * @return the constructor
+     * @throws NoSuchMethodException if there is no such constructor, or more than one
+     */
+    private static Constructor<?> findConstructor(Class<?> type, Class<?>[] parameterTypes) throws NoSuchMethodException {
+        Constructor<?> found = null;
+
+        for (Constructor<?> candidate : type.getDeclaredConstructors()) {
+            Class<?>[] candidateTypes = candidate.getParameterTypes();
+            if (candidateTypes.length != parameterTypes.length) {
+                continue;
+            }
+
+            boolean accepts = true;
+            for (int i = 0; i < candidateTypes.length && accepts; i++) {
+                accepts = candidateTypes[i].isAssignableFrom(parameterTypes[i]);
+            }
+
+            if (accepts) {
+                if (found != null) {
+                    throw new NoSuchMethodException("More than one constructor of " + type.getName() + " takes " + Arrays.toString(parameterTypes));
+                }
+                found = candidate;
+            }
+        }
+
+        if (found == null) {
+            throw new NoSuchMethodException(type.getName() + " has no constructor taking " + Arrays.toString(parameterTypes));
+        }
+        return found;
+    }
+
+    /**
+     * Find the readResolve method of a class or of its superclasses.
+     *
+     * @param type the class
+     * @return the method, or null if there is none
+     */
+    private static Method findReadResolve(Class<?> type) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            try {
+                Method method = current.getDeclaredMethod("readResolve");
+                method.setAccessible(true);
+                return method;
+            } catch (NoSuchMethodException ignored) {
+                // Look in the superclass
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Encoding of a single field, specialized on its declared type so that primitives are never boxed on write.
+     */
+    private abstract static class FieldCodec {
+
+        protected final Field field;
+
+        private FieldCodec(Field field) {
+            this.field = field;
+            field.setAccessible(true);
+        }
+
+        static FieldCodec of(Field field) {
+            Class<?> type = field.getType();
+
+            if (type == int.class || type == short.class || type == byte.class || type == char.class) {
+                return new IntFieldCodec(field);
+            }
+            if (type == long.class) {
+                return new LongFieldCodec(field);
+            }
+            if (type == boolean.class) {
+                return new BooleanFieldCodec(field);
+            }
+            if (type == double.class || type == float.class) {
+                return new FloatingFieldCodec(field);
+            }
+
+            Class<?> enumKeyType = enumKeyType(field);
+            if (enumKeyType != null) {
+                return new EnumMapFieldCodec(field, enumKeyType);
+            }
+
+            return new ReferenceFieldCodec(field);
+        }
+
+        /**
+         * Get the key type of a field declared as a map with enum keys.
+         *
+         * @param field the field
+         * @return the enum key type, or null if the field is not such a map
+         */
+        private static Class<?> enumKeyType(Field field) {
+            if (!Map.class.isAssignableFrom(field.getType())
+                    || !(field.getGenericType() instanceof ParameterizedType parameterized)
+                    || !(parameterized.getActualTypeArguments()[0] instanceof Class<?> keyType)
+                    || !keyType.isEnum()) {
+                return null;
+            }
+            return keyType;
+        }
+
+        abstract void write(BinaryCodec codec, BufferedSink sink, Object instance) throws IOException, IllegalAccessException;
+
+        abstract Object read(BinaryCodec codec, BufferedSource source) throws IOException;
+
+        void set(Object instance, Object value) throws IllegalAccessException {
+            field.set(instance, value);
+        }
+
+    }
+
+    private static final class IntFieldCodec extends FieldCodec {
+
+        private final Class<?> type;
+
+        private IntFieldCodec(Field field) {
+            super(field);
+            type = field.getType();
+        }
+
+        @Override
+        void write(BinaryCodec codec, BufferedSink sink, Object instance) throws IOException, IllegalAccessException {
+            BinaryCodec.writeInt(sink, type == char.class ? field.getChar(instance) : field.getInt(instance));
+        }
+
+        @Override
+        Object read(BinaryCodec codec, BufferedSource source) throws IOException {
+            int value = BinaryCodec.readInt(source);
+
+            if (type == short.class) {
+                return (short) value;
+            }
+            if (type == byte.class) {
+                return (byte) value;
+            }
+            if (type == char.class) {
+                return (char) value;
+            }
+            return value;
+        }
+
+        @Override
+        void set(Object instance, Object value) throws IllegalAccessException {
+            if (type == int.class) {
+                field.setInt(instance, (Integer) value);
+            } else {
+                super.set(instance, value);
+            }
+        }
+
+    }
+
+    private static final class LongFieldCodec extends FieldCodec {
+
+        private LongFieldCodec(Field field) {
+            super(field);
+        }
+
+        @Override
+        void write(BinaryCodec codec, BufferedSink sink, Object instance) throws IOException, IllegalAccessException {
+            BinaryCodec.writeLong(sink, field.getLong(instance));
+        }
+
+        @Override
+        Object read(BinaryCodec codec, BufferedSource source) throws IOException {
+            return BinaryCodec.readLong(source);
+        }
+
+    }
+
+    private static final class BooleanFieldCodec extends FieldCodec {
+
+        private BooleanFieldCodec(Field field) {
+            super(field);
+        }
+
+        @Override
+        void write(BinaryCodec codec, BufferedSink sink, Object instance) throws IOException, IllegalAccessException {
+            sink.writeByte(field.getBoolean(instance) ? 1 : 0);
+        }
+
+        @Override
+        Object read(BinaryCodec codec, BufferedSource source) throws IOException {
+            return source.readByte() != 0;
+        }
+
+    }
+
+    private static final class FloatingFieldCodec extends FieldCodec {
+
+        private final boolean isFloat;
+
+        private FloatingFieldCodec(Field field) {
+            super(field);
+            isFloat = field.getType() == float.class;
+        }
+
+        @Override
+        void write(BinaryCodec codec, BufferedSink sink, Object instance) throws IOException, IllegalAccessException {
+            if (isFloat) {
+                sink.writeInt(Float.floatToRawIntBits(field.getFloat(instance)));
+            } else {
+                sink.writeLong(Double.doubleToRawLongBits(field.getDouble(instance)));
+            }
+        }
+
+        @Override
+        Object read(BinaryCodec codec, BufferedSource source) throws IOException {
+            if (isFloat) {
+                return Float.intBitsToFloat(source.readInt());
+            }
+            return Double.longBitsToDouble(source.readLong());
+        }
+
+    }
+
+    private static class ReferenceFieldCodec extends FieldCodec {
+
+        private ReferenceFieldCodec(Field field) {
+            super(field);
+        }
+
+        @Override
+        void write(BinaryCodec codec, BufferedSink sink, Object instance) throws IOException, IllegalAccessException {
+            codec.writeValue(sink, field.get(instance));
+        }
+
+        @Override
+        Object read(BinaryCodec codec, BufferedSource source) throws IOException {
+            return codec.readValue(source);
+        }
+
+    }
+
+    /**
+     * A map with enum keys, rebuilt as an {@link EnumMap} even when it was sent empty and its key type was unknown.
+     */
+    private static final class EnumMapFieldCodec extends ReferenceFieldCodec {
+
+        private final Class<?> keyType;
+
+        private EnumMapFieldCodec(Field field, Class<?> keyType) {
+            super(field);
+            this.keyType = keyType;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Object read(BinaryCodec codec, BufferedSource source) throws IOException {
+            Object value = super.read(codec, source);
+
+            if (value instanceof BinaryCodec.UntypedEnumMap) {
+                return new EnumMap(keyType);
+            }
+            return value;
+        }
+
+    }
+
+}
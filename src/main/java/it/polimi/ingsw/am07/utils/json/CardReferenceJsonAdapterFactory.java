@@ -0,0 +1,185 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.json;
+
+import com.squareup.moshi.*;
+import it.polimi.ingsw.am07.model.game.card.GameCard;
+import it.polimi.ingsw.am07.model.game.card.ObjectiveCard;
+import it.polimi.ingsw.am07.model.game.side.Side;
+import it.polimi.ingsw.am07.model.game.side.SideBack;
+import it.polimi.ingsw.am07.utils.assets.GameResources;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Set;
+
+/**
+ * Moshi adapter factory that writes cards as references to the catalogue loaded by {@link GameResources}.
+ * Game cards and objective cards become their id, sides become an object with the id of their card and their face.
+ * Decoded cards and sides are the instances held by {@link GameResources}, so they can be compared by identity.
+ */
+public class CardReferenceJsonAdapterFactory implements JsonAdapter.Factory {
+
+    private static final String ID_LABEL = "id";
+    private static final String FACE_LABEL = "face";
+    private static final String FRONT = "front";
+    private static final String BACK = "back";
+
+    private static final JsonReader.Options SIDE_OPTIONS = JsonReader.Options.of(ID_LABEL, FACE_LABEL);
+
+    @Override
+    public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations, Moshi moshi) {
+        if (!annotations.isEmpty()) {
+            return null;
+        }
+
+        Class<?> rawType = Types.getRawType(type);
+
+        if (rawType == GameCard.class) {
+            return new GameCardAdapter().nullSafe();
+        }
+        if (Side.class.isAssignableFrom(rawType)) {
+            return new SideAdapter(rawType).nullSafe();
+        }
+        if (ObjectiveCard.class.isAssignableFrom(rawType)) {
+            return new ObjectiveCardAdapter(rawType).nullSafe();
+        }
+
+        return null;
+    }
+
+    private static class GameCardAdapter extends JsonAdapter<GameCard> {
+
+        @Override
+        public GameCard fromJson(JsonReader reader) throws IOException {
+            return lookup(() -> GameResources.getInstance().getCardById(reader.nextInt()), reader);
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, GameCard card) throws IOException {
+            writer.value(card.id());
+        }
+
+    }
+
+    private static class SideAdapter extends JsonAdapter<Side> {
+
+        private final Class<?> sideType;
+
+        private SideAdapter(Class<?> sideType) {
+            this.sideType = sideType;
+        }
+
+        @Override
+        public Side fromJson(JsonReader reader) throws IOException {
+            int id = -1;
+            String face = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(SIDE_OPTIONS)) {
+                    case 0 -> id = reader.nextInt();
+                    case 1 -> face = reader.nextString();
+                    default -> {
+                        reader.skipName();
+                        reader.skipValue();
+                    }
+                }
+            }
+            reader.endObject();
+
+            final int cardId = id;
+            final boolean front = FRONT.equals(face);
+            Side side = lookup(() -> {
+                GameCard card = GameResources.getInstance().getCardById(cardId);
+                return front ? card.front() : card.back();
+            }, reader);
+
+            if (!sideType.isInstance(side)) {
+                throw new JsonDataException("Expected " + sideType.getSimpleName() + " but card " + id + " has a " + side.getClass().getSimpleName() + " at " + reader.getPath());
+            }
+
+            return side;
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, Side side) throws IOException {
+            writer.beginObject();
+            writer.name(ID_LABEL).value(side.id());
+            writer.name(FACE_LABEL).value(side instanceof SideBack ? BACK : FRONT);
+            writer.endObject();
+        }
+
+    }
+
+    private static class ObjectiveCardAdapter extends JsonAdapter<ObjectiveCard> {
+
+        private final Class<?> objectiveType;
+
+        private ObjectiveCardAdapter(Class<?> objectiveType) {
+            this.objectiveType = objectiveType;
+        }
+
+        @Override
+        public ObjectiveCard fromJson(JsonReader reader) throws IOException {
+            ObjectiveCard objective = lookup(() -> GameResources.getInstance().getObjectiveById(reader.nextInt()), reader);
+
+            if (!objectiveType.isInstance(objective)) {
+                throw new JsonDataException("Expected " + objectiveType.getSimpleName() + " at " + reader.getPath());
+            }
+
+            return objective;
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, ObjectiveCard objective) throws IOException {
+            writer.value(objective.getId());
+        }
+
+    }
+
+    /**
+     * Resolve a reference, turning unknown ids into a Moshi data error.
+     *
+     * @param lookup the lookup to run
+     * @param reader the reader, used to report the position of the error
+     * @param <T>    the type of the referenced object
+     * @return the referenced object
+     * @throws IOException if the reader fails or the id is unknown
+     */
+    private static <T> T lookup(Lookup<T> lookup, JsonReader reader) throws IOException {
+        try {
+            return lookup.get();
+        } catch (IllegalArgumentException e) {
+            throw new JsonDataException(e.getMessage() + " at " + reader.getPath());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Lookup<T> {
+        T get() throws IOException;
+    }
+
+}
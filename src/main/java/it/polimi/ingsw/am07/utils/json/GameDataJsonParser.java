@@ -76,6 +76,8 @@ public final class GameDataJsonParser<T> {
         UUIDJsonAdapter uuidJsonAdapter = new UUIDJsonAdapter();
         DateJSONAdapter dateJSONAdapter = new DateJSONAdapter();
         GameFieldPositionCardMapAdapter gameFieldPositionCardMapAdapter = new GameFieldPositionCardMapAdapter();
+        SymbolMatrixJsonAdapter symbolMatrixJsonAdapter = new SymbolMatrixJsonAdapter();
+        ResourceHolderJsonAdapter resourceHolderJsonAdapter = new ResourceHolderJsonAdapter();
 
         return new Moshi.Builder()
                 .add(sideFrontElegantAutoLabelingCustomPolymorphicJsonAdapterFactory)
@@ -84,6 +86,8 @@ public final class GameDataJsonParser<T> {
                 .add(uuidJsonAdapter)
                 .add(dateJSONAdapter)
                 .add(gameFieldPositionCardMapAdapter)
+                .add(symbolMatrixJsonAdapter)
+                .add(resourceHolderJsonAdapter)
                 .add(new RecordsJsonAdapterFactory())
                 .build();
     }
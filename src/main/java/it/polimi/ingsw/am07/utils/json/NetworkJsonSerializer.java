@@ -45,6 +45,10 @@ import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
 import it.polimi.ingsw.am07.network.packets.HeartbeatNetworkPacket;
 import it.polimi.ingsw.am07.network.packets.IdentityNetworkPacket;
 import it.polimi.ingsw.am07.network.packets.NetworkPacket;
+import it.polimi.ingsw.am07.utils.metrics.Histogram;
+import it.polimi.ingsw.am07.utils.metrics.MetricsRegistry;
+import okio.BufferedSink;
+import okio.BufferedSource;
 
 import java.io.IOException;
 
@@ -53,12 +57,16 @@ import java.io.IOException;
  */
 public class NetworkJsonSerializer {
 
+    private static final Histogram SERIALIZE_TIME = MetricsRegistry.getInstance().histogram("json_serialize_seconds");
+    private static final Histogram DESERIALIZE_TIME = MetricsRegistry.getInstance().histogram("json_deserialize_seconds");
+
     private static NetworkJsonSerializer instance;
+    private static NetworkJsonSerializer cardReferenceInstance;
     private final Moshi moshi;
     private final JsonAdapter<NetworkPacket> adapter;
 
-    private NetworkJsonSerializer() {
-        moshi = initializeMoshi();
+    private NetworkJsonSerializer(boolean cardReferences) {
+        moshi = initializeMoshi(cardReferences);
 
         adapter = moshi.adapter(NetworkPacket.class);
     }
@@ -66,9 +74,10 @@ public class NetworkJsonSerializer {
     /**
      * Initializes Moshi with the custom adapters required to serialize and deserialize the network packets
      *
+     * @param cardReferences whether cards are written as references to the card catalogue
      * @return Moshi
      */
-    private static Moshi initializeMoshi() {
+    private static Moshi initializeMoshi(boolean cardReferences) {
         ElegantAutoLabelingCustomPolymorphicJsonAdapterFactory<SideFront> sideFrontElegantAutoLabelingCustomPolymorphicJsonAdapterFactory = new ElegantAutoLabelingCustomPolymorphicJsonAdapterFactory<>(SideFront.class)
                 .registerSubclass(SideFrontGold.class)
                 .registerSubclass(SideFrontRes.class)
@@ -108,8 +117,17 @@ public class NetworkJsonSerializer {
         UUIDJsonAdapter uuidJsonAdapter = new UUIDJsonAdapter();
         DateJSONAdapter dateJSONAdapter = new DateJSONAdapter();
         GameFieldPositionCardMapAdapter gameFieldPositionCardMapAdapter = new GameFieldPositionCardMapAdapter();
+        SymbolMatrixJsonAdapter symbolMatrixJsonAdapter = new SymbolMatrixJsonAdapter();
+        ResourceHolderJsonAdapter resourceHolderJsonAdapter = new ResourceHolderJsonAdapter();
+
+        Moshi.Builder builder = new Moshi.Builder();
+
+        if (cardReferences) {
+            // Added first, so that it takes precedence over the polymorphic adapters of sides and objectives
+            builder.add(new CardReferenceJsonAdapterFactory());
+        }
 
-        return new Moshi.Builder()
+        return builder
                 .add(dateJSONAdapter)
                 .add(networkPacketElegantAutoLabelingCustomPolymorphicJsonAdapterFactory)
                 .add(actionElegantAutoLabelingCustomPolymorphicJsonAdapterFactory)
@@ -118,6 +136,8 @@ public class NetworkJsonSerializer {
                 .add(objectiveCardElegantAutoLabelingCustomPolymorphicJsonAdapterFactory)
                 .add(uuidJsonAdapter)
                 .add(gameFieldPositionCardMapAdapter)
+                .add(symbolMatrixJsonAdapter)
+                .add(resourceHolderJsonAdapter)
                 .add(new RecordsJsonAdapterFactory())
                 .build();
     }
@@ -128,8 +148,26 @@ public class NetworkJsonSerializer {
      * @return the singleton instance of the class
      */
     public static NetworkJsonSerializer getInstance() {
+        return getInstance(false);
+    }
+
+    /**
+     * Get the singleton instance of the class for an encoding mode
+     *
+     * @param cardReferences whether cards are written as references to the card catalogue, see
+     *                       {@link CardReferenceJsonAdapterFactory}
+     * @return the singleton instance of the class
+     */
+    public static synchronized NetworkJsonSerializer getInstance(boolean cardReferences) {
+        if (cardReferences) {
+            if (cardReferenceInstance == null) {
+                cardReferenceInstance = new NetworkJsonSerializer(true);
+            }
+            return cardReferenceInstance;
+        }
+
         if (instance == null) {
-            instance = new NetworkJsonSerializer();
+            instance = new NetworkJsonSerializer(false);
         }
         return instance;
     }
@@ -141,7 +179,23 @@ public class NetworkJsonSerializer {
      * @return the JSON string
      */
     public String toJson(NetworkPacket packet) {
-        return moshi.adapter(NetworkPacket.class).toJson(packet);
+        long start = System.nanoTime();
+        String json = adapter.toJson(packet);
+        SERIALIZE_TIME.recordSince(start);
+        return json;
+    }
+
+    /**
+     * Serialize a network packet as UTF-8 JSON directly into a sink, without building an intermediate string
+     *
+     * @param packet the network packet to serialize
+     * @param sink   the sink to write to
+     * @throws IOException if the sink cannot be written
+     */
+    public void toJson(NetworkPacket packet, BufferedSink sink) throws IOException {
+        long start = System.nanoTime();
+        adapter.toJson(sink, packet);
+        SERIALIZE_TIME.recordSince(start);
     }
 
     /**
@@ -151,10 +205,30 @@ public class NetworkJsonSerializer {
      * @return the network packet
      */
     public NetworkPacket fromJson(String json) {
+        long start = System.nanoTime();
         try {
             return adapter.fromJson(json);
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            DESERIALIZE_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Deserialize UTF-8 JSON read from a source to a network packet
+     *
+     * @param source the source to read from, positioned at the start of the packet
+     * @return the network packet
+     */
+    public NetworkPacket fromJson(BufferedSource source) {
+        long start = System.nanoTime();
+        try {
+            return adapter.fromJson(source);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            DESERIALIZE_TIME.recordSince(start);
         }
     }
 
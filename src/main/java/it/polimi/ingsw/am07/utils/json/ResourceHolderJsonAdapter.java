@@ -0,0 +1,65 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.json;
+
+import com.squareup.moshi.FromJson;
+import com.squareup.moshi.ToJson;
+import it.polimi.ingsw.am07.model.game.ResourceHolder;
+import it.polimi.ingsw.am07.model.game.Symbol;
+
+import java.util.Map;
+
+/**
+ * This class is a custom Moshi handler that can serialize and deserialize ResourceHolder objects.
+ * The resources are written as a map from symbol to amount, as in the card assets.
+ */
+public class ResourceHolderJsonAdapter {
+
+    /**
+     * Converts a ResourceHolder to its JSON representation
+     * @param holder The resource holder to convert
+     * @return The converted resource holder
+     */
+    @ToJson
+    public ResourceHolderJson toJson(ResourceHolder holder) {
+        return new ResourceHolderJson(holder.getResources());
+    }
+
+    /**
+     * Converts the JSON representation of a ResourceHolder back to the resource holder
+     * @param json The representation to convert
+     * @return The converted resource holder
+     */
+    @FromJson
+    public ResourceHolder fromJson(ResourceHolderJson json) {
+        return json.resources() == null ? new ResourceHolder() : new ResourceHolder(json.resources());
+    }
+
+    /**
+     * JSON representation of a ResourceHolder
+     */
+    public record ResourceHolderJson(Map<Symbol, Integer> resources) {
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.json;
+
+import com.squareup.moshi.FromJson;
+import com.squareup.moshi.ToJson;
+import it.polimi.ingsw.am07.model.game.Symbol;
+import it.polimi.ingsw.am07.utils.matrix.SymbolMatrix;
+
+/**
+ * This class is a custom Moshi handler that can serialize and deserialize SymbolMatrix objects.
+ * The elements are written as a string with one base-36 digit per symbol ordinal, without the spare capacity of the matrix.
+ */
+public class SymbolMatrixJsonAdapter {
+
+    /**
+     * Converts a SymbolMatrix to its JSON representation
+     * @param matrix The matrix to convert
+     * @return The converted matrix
+     */
+    @ToJson
+    public SymbolMatrixJson toJson(SymbolMatrix matrix) {
+        byte[] ordinals = matrix.toOrdinals();
+        StringBuilder cells = new StringBuilder(ordinals.length);
+        for (byte ordinal : ordinals) {
+            cells.append(Character.forDigit(ordinal, Character.MAX_RADIX));
+        }
+        return new SymbolMatrixJson(matrix.getMinX(), matrix.getMinY(), matrix.getWidth(), matrix.getHeight(), matrix.getEmptyValue(), cells.toString());
+    }
+
+    /**
+     * Converts the JSON representation of a SymbolMatrix back to the matrix
+     * @param json The representation to convert
+     * @return The converted matrix
+     */
+    @FromJson
+    public SymbolMatrix fromJson(SymbolMatrixJson json) {
+        byte[] ordinals = new byte[json.cells().length()];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = (byte) Character.digit(json.cells().charAt(i), Character.MAX_RADIX);
+        }
+        return SymbolMatrix.of(json.minX(), json.minY(), json.width(), json.height(), json.emptyValue(), ordinals);
+    }
+
+    /**
+     * JSON representation of a SymbolMatrix
+     */
+    public record SymbolMatrixJson(int minX, int minY, int width, int height, Symbol emptyValue, String cells) {
+    }
+
+}
@@ -24,8 +24,10 @@
 package it.polimi.ingsw.am07.utils.logging;
 
 import java.io.IOException;
+import java.util.function.Supplier;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.FileHandler;
+import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -33,10 +35,20 @@ import java.util.logging.Logger;
  * Utility class for logging.
  * This class is used to log messages to the console or to a file.
  * If the system property "cli" is set, the log messages will be written to a file.
+ * Only messages at the level set by the system property "log.level" or above are logged, INFO by default.
+ * <p>
+ * Messages are written by a background thread, see {@link AsyncHandler}, which is drained when the JVM exits. On hot paths, prefer the methods taking a
+ * pattern and parameters, such as {@link #debug(String, Object, Object)}, or a supplier: nothing is built when the
+ * level is disabled, and the parameters are only formatted on the background thread, so they should not be mutated
+ * after being logged.
  * IMPORTANT: Only one instance of this class is allowed per class.
  */
 public class AppLogger {
 
+    private static final Level LEVEL = parseLevel(System.getProperty("log.level"));
+
+    private static AsyncHandler handler;
+
     private final Logger LOGGER;
 
     /**
@@ -52,27 +64,86 @@ public class AppLogger {
                 return;
             }
 
-            if (System.getProperty("cli") != null) {
-                try {
-                    FileHandler fileHandler = new FileHandler("log.txt", 0, 1, true);
-                    fileHandler.setLevel(Level.ALL);
-                    fileHandler.setFormatter(new CustomFormatter());
-                    LOGGER.addHandler(fileHandler);
-                } catch (IOException e) {
-                    System.err.println("Error while creating log file! Logging will be disabled.");
-                }
-            } else {
-                ConsoleHandler consoleHandler = new ConsoleHandler();
-                consoleHandler.setLevel(Level.ALL);
-                consoleHandler.setFormatter(new CustomFormatter());
-                LOGGER.addHandler(consoleHandler);
+            Handler sharedHandler = getHandler();
+            if (sharedHandler != null) {
+                LOGGER.addHandler(sharedHandler);
             }
 
-            LOGGER.setLevel(Level.ALL);
+            LOGGER.setLevel(LEVEL);
             LOGGER.setUseParentHandlers(false);
         }
     }
 
+    /**
+     * Get the handler shared by every logger of the application, creating it on first use.
+     *
+     * @return the handler, or null if logging is disabled
+     */
+    private static synchronized Handler getHandler() {
+        if (handler != null) {
+            return handler;
+        }
+
+        Handler output;
+        if (System.getProperty("cli") != null) {
+            try {
+                output = new FileHandler("log.txt", 0, 1, true);
+            } catch (IOException e) {
+                System.err.println("Error while creating log file! Logging will be disabled.");
+                return null;
+            }
+        } else {
+            output = new ConsoleHandler();
+        }
+
+        output.setLevel(Level.ALL);
+        output.setFormatter(new CustomFormatter());
+
+        handler = new AsyncHandler(output, AsyncHandler.DEFAULT_CAPACITY);
+
+        // The records still queued when the application exits, for instance through System.exit, would be lost
+        AsyncHandler shared = handler;
+        Runtime.getRuntime().addShutdownHook(new Thread(shared::close, "log-flush"));
+
+        return handler;
+    }
+
+    /**
+     * Parse the configured logging level.
+     *
+     * @param level the name of the level, or null
+     * @return the level, INFO if the name is missing or invalid
+     */
+    private static Level parseLevel(String level) {
+        if (level == null) {
+            return Level.INFO;
+        }
+
+        try {
+            return Level.parse(level.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
+    /**
+     * Get the number of log records dropped because the background thread could not keep up.
+     *
+     * @return the number of dropped records
+     */
+    public static synchronized long getDroppedRecords() {
+        return handler == null ? 0 : handler.getDroppedRecords();
+    }
+
+    /**
+     * Check whether debug messages are logged.
+     *
+     * @return true if debug messages are logged
+     */
+    public boolean isDebugEnabled() {
+        return LOGGER.isLoggable(Level.FINE);
+    }
+
     /**
      * Logs a debug message.
      * @param message the message to log
@@ -81,6 +152,37 @@ public class AppLogger {
         LOGGER.log(Level.FINE, message);
     }
 
+    /**
+     * Logs a debug message, built only if debug messages are logged.
+     * @param message the supplier of the message
+     */
+    public void debug(Supplier<String> message) {
+        LOGGER.log(Level.FINE, message);
+    }
+
+    /**
+     * Logs a debug message with a parameter, formatted as {0} in the pattern.
+     * @param pattern the pattern of the message, in the {@link java.text.MessageFormat} syntax
+     * @param parameter the parameter
+     */
+    public void debug(String pattern, Object parameter) {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, pattern, parameter);
+        }
+    }
+
+    /**
+     * Logs a debug message with two parameters, formatted as {0} and {1} in the pattern.
+     * @param pattern the pattern of the message, in the {@link java.text.MessageFormat} syntax
+     * @param first the first parameter
+     * @param second the second parameter
+     */
+    public void debug(String pattern, Object first, Object second) {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, pattern, new Object[]{first, second});
+        }
+    }
+
     /**
      * Logs an info message.
      * @param message the message to log
@@ -89,6 +191,29 @@ public class AppLogger {
         LOGGER.log(Level.INFO, message);
     }
 
+    /**
+     * Logs an info message with a parameter, formatted as {0} in the pattern.
+     * @param pattern the pattern of the message, in the {@link java.text.MessageFormat} syntax
+     * @param parameter the parameter
+     */
+    public void info(String pattern, Object parameter) {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.log(Level.INFO, pattern, parameter);
+        }
+    }
+
+    /**
+     * Logs an info message with two parameters, formatted as {0} and {1} in the pattern.
+     * @param pattern the pattern of the message, in the {@link java.text.MessageFormat} syntax
+     * @param first the first parameter
+     * @param second the second parameter
+     */
+    public void info(String pattern, Object first, Object second) {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.log(Level.INFO, pattern, new Object[]{first, second});
+        }
+    }
+
     /**
      * Logs a warning message.
      * @param message the message to log
@@ -97,6 +222,25 @@ public class AppLogger {
         LOGGER.log(Level.SEVERE, message);
     }
 
+    /**
+     * Logs an error message with a parameter, formatted as {0} in the pattern.
+     * @param pattern the pattern of the message, in the {@link java.text.MessageFormat} syntax
+     * @param parameter the parameter
+     */
+    public void error(String pattern, Object parameter) {
+        LOGGER.log(Level.SEVERE, pattern, parameter);
+    }
+
+    /**
+     * Logs an error message with two parameters, formatted as {0} and {1} in the pattern.
+     * @param pattern the pattern of the message, in the {@link java.text.MessageFormat} syntax
+     * @param first the first parameter
+     * @param second the second parameter
+     */
+    public void error(String pattern, Object first, Object second) {
+        LOGGER.log(Level.SEVERE, pattern, new Object[]{first, second});
+    }
+
     /**
      * Logs an error message.
      * @param e the exception to log
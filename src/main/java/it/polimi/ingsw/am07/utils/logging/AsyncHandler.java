@@ -0,0 +1,260 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Log handler that hands the records over to another handler on a background thread.
+ * The logging threads only put the records in a bounded ring buffer, without locking, so they never wait for the
+ * console or the disk, and messages with parameters are formatted by the background thread. When the buffer is full,
+ * records are dropped and counted; the number of dropped records is logged as soon as the buffer is drained.
+ */
+public class AsyncHandler extends Handler {
+
+    /**
+     * The default number of records waiting to be written.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FLUSH_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long CLOSE_TIMEOUT_MILLIS = 1000;
+
+    private final Handler delegate;
+    private final int capacity;
+    private final int mask;
+
+    // Bounded queue for many producers, after Dmitry Vyukov: the sequence of a slot tells whether it can be written
+    // for a given lap of the ring or read for it
+    private final AtomicReferenceArray<LogRecord> records;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail;
+    private final AtomicLong head;
+
+    private final LongAdder dropped;
+    private final Thread worker;
+    private volatile boolean waiting;
+    private volatile boolean closed;
+
+    /**
+     * Constructor.
+     * The background thread is a daemon, so that logging never keeps the application alive.
+     *
+     * @param delegate the handler writing the records
+     * @param capacity the number of records that can wait to be written, rounded up to a power of two
+     */
+    public AsyncHandler(Handler delegate, int capacity) {
+        this.delegate = delegate;
+        this.capacity = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        mask = this.capacity - 1;
+
+        records = new AtomicReferenceArray<>(this.capacity);
+        sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+        tail = new AtomicLong();
+        head = new AtomicLong();
+        dropped = new LongAdder();
+
+        worker = new Thread(this::drain, "async-log");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Queue a record to be written by the background thread.
+     *
+     * @param record the record
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+
+        if (!offer(record)) {
+            dropped.increment();
+            return;
+        }
+
+        if (waiting) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Wait for the queued records to be written, then flush the delegate.
+     */
+    @Override
+    public void flush() {
+        long published = tail.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MILLIS);
+
+        while (head.get() < published && worker.isAlive() && System.nanoTime() < deadline) {
+            LockSupport.unpark(worker);
+            LockSupport.parkNanos(FLUSH_PARK_NANOS);
+        }
+
+        delegate.flush();
+    }
+
+    /**
+     * Write the queued records and close the delegate.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(worker);
+
+        try {
+            worker.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        delegate.close();
+    }
+
+    /**
+     * Get the number of records dropped because the buffer was full.
+     *
+     * @return the number of dropped records
+     */
+    public long getDroppedRecords() {
+        return dropped.sum();
+    }
+
+    /**
+     * Put a record in the ring buffer.
+     *
+     * @param record the record
+     * @return false if the buffer is full
+     */
+    private boolean offer(LogRecord record) {
+        long position = tail.get();
+
+        while (true) {
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    records.set(index, record);
+                    // Publishes the record to the background thread
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (sequence < position) {
+                // The slot still holds the record of the previous lap
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Take the oldest record from the ring buffer. Only called by the background thread.
+     *
+     * @return the record, or null if the buffer is empty
+     */
+    private LogRecord poll() {
+        long position = head.get();
+        int index = (int) position & mask;
+
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+
+        LogRecord record = records.getAndSet(index, null);
+        // Frees the slot for the next lap
+        sequences.set(index, position + capacity);
+        head.set(position + 1);
+        return record;
+    }
+
+    /**
+     * Write the records as they arrive, until the handler is closed and the buffer is empty.
+     */
+    private void drain() {
+        long reportedDrops = 0;
+
+        while (true) {
+            LogRecord record = poll();
+
+            if (record != null) {
+                write(record);
+                continue;
+            }
+
+            long drops = dropped.sum();
+            if (drops > reportedDrops) {
+                LogRecord warning = new LogRecord(Level.WARNING, "{0} log records dropped, the log buffer was full");
+                warning.setLoggerName(AsyncHandler.class.getName());
+                warning.setParameters(new Object[]{drops - reportedDrops});
+                write(warning);
+                reportedDrops = drops;
+            }
+
+            if (closed) {
+                break;
+            }
+
+            delegate.flush();
+
+            // A producer either sees the flag and wakes the thread up, or published before the buffer is checked
+            waiting = true;
+            if (sequences.get((int) head.get() & mask) != head.get() + 1) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            waiting = false;
+        }
+    }
+
+    /**
+     * Write a record through the delegate, which must not stop the background thread if it fails.
+     *
+     * @param record the record
+     */
+    private void write(LogRecord record) {
+        try {
+            delegate.publish(record);
+        } catch (RuntimeException e) {
+            reportError(null, e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+}
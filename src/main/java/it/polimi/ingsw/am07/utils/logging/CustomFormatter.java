@@ -28,7 +28,7 @@ import java.util.logging.SimpleFormatter;
 
 /**
  * Custom formatter for the logger.
- * It formats the log message with the calling class name.
+ * It formats the log message, with its parameters, and the calling class name.
  */
 public class CustomFormatter extends SimpleFormatter {
 
@@ -41,7 +41,7 @@ public class CustomFormatter extends SimpleFormatter {
         String sb = "[" +
                 className +
                 "] " +
-                record.getMessage() +
+                formatMessage(record) +
                 "\n";
 
         return sb;
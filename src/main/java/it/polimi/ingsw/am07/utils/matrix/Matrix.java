@@ -27,6 +27,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -384,37 +385,29 @@ public class Matrix<T> implements Iterable<T>, Serializable {
             return;
         }
 
-        while (x < minX) {
-            for (int i = 0; i < sizeY; i++) {
-                data.add(i * (sizeX + 1), emptyValue);
-            }
-            minX--;
-            centerX++;
-            sizeX++;
-        }
-        while (x > maxX) {
-            for (int i = 1; i <= sizeY; i++) {
-                data.add(i * (sizeX + 1) - 1, emptyValue);
-            }
-            maxX++;
-            sizeX++;
-        }
+        int newMinX = Math.min(minX, x);
+        int newMinY = Math.min(minY, y);
+        int newSizeX = Math.max(maxX, x) - newMinX + 1;
+        int newSizeY = Math.max(maxY, y) - newMinY + 1;
 
-        while (y < minY) {
-            for (int i = 0; i < sizeX; i++) {
-                data.add(i, emptyValue);
-            }
-            minY--;
-            centerY++;
-            sizeY++;
-        }
-        while (y > maxY) {
+        // Rebuild the list once, instead of shifting the following elements for every inserted one
+        List<T> newData = new ArrayList<>(Collections.nCopies(newSizeX * newSizeY, emptyValue));
+        for (int j = 0; j < sizeY; j++) {
             for (int i = 0; i < sizeX; i++) {
-                data.add(emptyValue);
+                newData.set((i + minX - newMinX) + (j + minY - newMinY) * newSizeX, data.get(i + j * sizeX));
             }
-            maxY++;
-            sizeY++;
         }
+        data.clear();
+        data.addAll(newData);
+
+        minX = newMinX;
+        minY = newMinY;
+        maxX = newMinX + newSizeX - 1;
+        maxY = newMinY + newSizeY - 1;
+        centerX = -newMinX;
+        centerY = -newMinY;
+        sizeX = newSizeX;
+        sizeY = newSizeY;
     }
 
     /**
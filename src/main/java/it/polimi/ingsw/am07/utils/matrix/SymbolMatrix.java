@@ -0,0 +1,354 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.matrix;
+
+import it.polimi.ingsw.am07.model.game.Symbol;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A matrix of symbols, specialized for the game field.
+ * It offers the same coordinate system as {@link Matrix}, but stores the ordinal of every symbol in a byte array.
+ * The array has spare capacity on every side: when the matrix is extended past it, the capacity of the growing
+ * side is doubled, so that extending the matrix in any direction costs O(1) amortized per added element.
+ *
+ * @see Matrix
+ */
+public class SymbolMatrix implements Serializable {
+
+    private static final Symbol[] SYMBOLS = Symbol.values();
+
+    private final Symbol emptyValue;
+
+    private byte[] cells;
+
+    /**
+     * Size of the allocated area, and coordinates of its top-left element.
+     */
+    private int capacityX, capacityY;
+    private int originX, originY;
+
+    private int minX, minY, maxX, maxY;
+
+    /**
+     * Create a new matrix with the given number of rows and columns.
+     *
+     * @param rows       the number of rows
+     * @param columns    the number of columns
+     * @param emptyValue the default value for every element of the matrix
+     * @throws IllegalArgumentException if the number of rows or columns is negative, or the empty value is null
+     */
+    public SymbolMatrix(int rows, int columns, Symbol emptyValue) throws IllegalArgumentException {
+        if (rows < 0 || columns < 0) {
+            throw new IllegalArgumentException("The number of rows and columns must not be negative");
+        }
+        if (emptyValue == null) {
+            throw new IllegalArgumentException("The empty value must not be null");
+        }
+
+        this.emptyValue = emptyValue;
+        cells = allocate(rows * columns);
+        capacityX = rows;
+        capacityY = columns;
+        originX = 0;
+        originY = 0;
+        minX = 0;
+        minY = 0;
+        maxX = rows - 1;
+        maxY = columns - 1;
+    }
+
+    /**
+     * Create a new matrix with the given bounds and elements.
+     *
+     * @param minX       the minimum row index
+     * @param minY       the minimum column index
+     * @param rows       the number of rows
+     * @param columns    the number of columns
+     * @param emptyValue the default value for the elements of the matrix
+     * @param ordinals   the ordinals of the elements, in the order of {@link #toOrdinals()}
+     * @return the matrix
+     * @throws IllegalArgumentException if the number of ordinals does not match the size, or an ordinal is invalid
+     */
+    public static SymbolMatrix of(int minX, int minY, int rows, int columns, Symbol emptyValue, byte[] ordinals) throws IllegalArgumentException {
+        SymbolMatrix matrix = new SymbolMatrix(rows, columns, emptyValue);
+        if (ordinals.length != rows * columns) {
+            throw new IllegalArgumentException("Expected " + rows * columns + " elements, got " + ordinals.length);
+        }
+        for (byte ordinal : ordinals) {
+            if (ordinal < 0 || ordinal >= SYMBOLS.length) {
+                throw new IllegalArgumentException("Invalid symbol ordinal: " + ordinal);
+            }
+        }
+
+        System.arraycopy(ordinals, 0, matrix.cells, 0, ordinals.length);
+        matrix.originX = minX;
+        matrix.originY = minY;
+        matrix.minX = minX;
+        matrix.minY = minY;
+        matrix.maxX = minX + rows - 1;
+        matrix.maxY = minY + columns - 1;
+        return matrix;
+    }
+
+    /**
+     * Get a specific element
+     *
+     * @param x the row index
+     * @param y the column index
+     * @return the element at the position (x, y), or the default value if the position is out of bounds
+     */
+    public Symbol get(int x, int y) {
+        if (x > maxX || x < minX || y > maxY || y < minY) {
+            return emptyValue;
+        }
+        return SYMBOLS[cells[index(x, y)]];
+    }
+
+    /**
+     * Set a specific element, extending the matrix if the position is out of bounds
+     *
+     * @param x     the row index
+     * @param y     the column index
+     * @param value the new value for the element
+     * @throws IllegalArgumentException if the value is null
+     */
+    public void set(int x, int y, Symbol value) throws IllegalArgumentException {
+        if (value == null) {
+            throw new IllegalArgumentException("The value must not be null");
+        }
+        if (value == emptyValue && (x > maxX || x < minX || y > maxY || y < minY)) {
+            // No need to add an empty value to the matrix when out of bounds
+            return;
+        }
+        extendTo(x, y);
+        cells[index(x, y)] = (byte) value.ordinal();
+    }
+
+    /**
+     * Clear a specific element, setting it to the default value
+     *
+     * @param x the row index
+     * @param y the column index
+     */
+    public void clear(int x, int y) {
+        set(x, y, emptyValue);
+    }
+
+    /**
+     * Get a sub-matrix of the current matrix, starting from the given position and with the given number of rows and columns.
+     *
+     * @param x       the row index of the starting position
+     * @param y       the column index of the starting position
+     * @param rows    the number of rows of the sub-matrix
+     * @param columns the number of columns of the sub-matrix
+     * @return the sub-matrix of size (rows, columns) starting from the position (x, y)
+     * @throws IllegalArgumentException if the number of rows or columns is invalid
+     */
+    public Matrix<Symbol> getSubMatrix(int x, int y, int rows, int columns) throws IllegalArgumentException {
+        if (rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("The number of rows and columns must be positive");
+        }
+
+        Matrix<Symbol> subMatrix = new Matrix<>(rows, columns, emptyValue);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                subMatrix.set(i, j, get(x + i, y + j));
+            }
+        }
+        return subMatrix;
+    }
+
+    /**
+     * Copy the current matrix into a new matrix, without its spare capacity
+     *
+     * @return a new matrix with the same bounds and elements as the current matrix
+     */
+    public SymbolMatrix copy() {
+        return of(minX, minY, getWidth(), getHeight(), emptyValue, toOrdinals());
+    }
+
+    /**
+     * Get the ordinals of the elements of the matrix, column by column, without the spare capacity.
+     * The element at (x, y) is at index {@code (x - minX) + (y - minY) * width}.
+     *
+     * @return the ordinals of the elements
+     */
+    public byte[] toOrdinals() {
+        int width = getWidth();
+        byte[] ordinals = new byte[getSize()];
+        for (int y = minY; y <= maxY; y++) {
+            System.arraycopy(cells, index(minX, y), ordinals, (y - minY) * width, width);
+        }
+        return ordinals;
+    }
+
+    /**
+     * Get the default value for the elements of the matrix
+     *
+     * @return the default value for the elements of the matrix
+     */
+    public Symbol getEmptyValue() {
+        return emptyValue;
+    }
+
+    /**
+     * Get the number of rows of the matrix
+     *
+     * @return the number of rows
+     */
+    public int getWidth() {
+        return maxX - minX + 1;
+    }
+
+    /**
+     * Get the number of columns of the matrix
+     *
+     * @return the number of columns
+     */
+    public int getHeight() {
+        return maxY - minY + 1;
+    }
+
+    /**
+     * Get the minimum row index of the matrix
+     *
+     * @return the minimum row index
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * Get the maximum row index of the matrix
+     *
+     * @return the maximum row index
+     */
+    public int getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * Get the minimum column index of the matrix
+     *
+     * @return the minimum column index
+     */
+    public int getMinY() {
+        return minY;
+    }
+
+    /**
+     * Get the maximum column index of the matrix
+     *
+     * @return the maximum column index
+     */
+    public int getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Get the total size of the matrix
+     *
+     * @return the total size of the matrix
+     */
+    public int getSize() {
+        return getWidth() * getHeight();
+    }
+
+    private int index(int x, int y) {
+        return (x - originX) + (y - originY) * capacityX;
+    }
+
+    private byte[] allocate(int size) {
+        byte[] array = new byte[size];
+        if (emptyValue.ordinal() != 0) {
+            Arrays.fill(array, (byte) emptyValue.ordinal());
+        }
+        return array;
+    }
+
+    private void extendTo(int x, int y) {
+        if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+            return;
+        }
+
+        int newMinX = Math.min(minX, x);
+        int newMaxX = Math.max(maxX, x);
+        int newMinY = Math.min(minY, y);
+        int newMaxY = Math.max(maxY, y);
+
+        if (newMinX < originX || newMaxX >= originX + capacityX || newMinY < originY || newMaxY >= originY + capacityY) {
+            grow(newMinX, newMaxX, newMinY, newMaxY);
+        }
+
+        minX = newMinX;
+        maxX = newMaxX;
+        minY = newMinY;
+        maxY = newMaxY;
+    }
+
+    /**
+     * Reallocate the elements so that the given bounds fit, doubling the capacity of every side that overflows.
+     */
+    private void grow(int newMinX, int newMaxX, int newMinY, int newMaxY) {
+        int newOriginX = originX;
+        int newCapacityX = capacityX;
+        if (newMinX < originX) {
+            int growth = Math.max(originX - newMinX, capacityX);
+            newOriginX -= growth;
+            newCapacityX += growth;
+        }
+        if (newMaxX >= originX + capacityX) {
+            newCapacityX += Math.max(newMaxX - (originX + capacityX) + 1, capacityX);
+        }
+
+        int newOriginY = originY;
+        int newCapacityY = capacityY;
+        if (newMinY < originY) {
+            int growth = Math.max(originY - newMinY, capacityY);
+            newOriginY -= growth;
+            newCapacityY += growth;
+        }
+        if (newMaxY >= originY + capacityY) {
+            newCapacityY += Math.max(newMaxY - (originY + capacityY) + 1, capacityY);
+        }
+
+        byte[] newCells = allocate(newCapacityX * newCapacityY);
+        int width = getWidth();
+        if (width > 0) {
+            for (int y = minY; y <= maxY; y++) {
+                int target = (minX - newOriginX) + (y - newOriginY) * newCapacityX;
+                System.arraycopy(cells, index(minX, y), newCells, target, width);
+            }
+        }
+
+        cells = newCells;
+        originX = newOriginX;
+        originY = newOriginY;
+        capacityX = newCapacityX;
+        capacityY = newCapacityY;
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count of events.
+ * Updates are lock-free and do not allocate, so counters can be used on the hot path.
+ */
+public class Counter {
+
+    private final LongAdder count;
+
+    /**
+     * Constructor.
+     */
+    Counter() {
+        count = new LongAdder();
+    }
+
+    /**
+     * Count one event.
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Count a number of events.
+     *
+     * @param events the number of events, not negative
+     */
+    public void add(long events) {
+        count.add(events);
+    }
+
+    /**
+     * Get the number of events counted so far.
+     *
+     * @return the count
+     */
+    public long get() {
+        return count.sum();
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A value that goes up and down, such as the number of open connections.
+ * Updates are lock-free and do not allocate. Values that are cheaper to read than to track can instead be registered
+ * as a {@link LongSupplier}, see {@link MetricsRegistry#gauge(String, LongSupplier)}.
+ */
+public class Gauge implements LongSupplier {
+
+    private final LongAdder value;
+
+    /**
+     * Constructor.
+     */
+    Gauge() {
+        value = new LongAdder();
+    }
+
+    /**
+     * Increase the value by one.
+     */
+    public void increment() {
+        value.increment();
+    }
+
+    /**
+     * Decrease the value by one.
+     */
+    public void decrement() {
+        value.decrement();
+    }
+
+    /**
+     * Change the value by a given amount.
+     *
+     * @param delta the amount to add, negative to decrease the value
+     */
+    public void add(long delta) {
+        value.add(delta);
+    }
+
+    /**
+     * Get the current value.
+     *
+     * @return the value
+     */
+    @Override
+    public long getAsLong() {
+        return value.sum();
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values, usually durations in nanoseconds.
+ * As in HdrHistogram, every power of two is split into {@value #SUB_BUCKETS} linear buckets, so that any value is
+ * known with a relative error below 1/{@value #SUB_BUCKETS} while the whole range of a long fits in a fixed array.
+ * Recording is lock-free and does not allocate; percentiles are computed when a {@link Snapshot} is taken.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets;
+    private final LongAdder sum;
+    private final AtomicLong max;
+
+    /**
+     * Constructor.
+     */
+    Histogram() {
+        buckets = new AtomicLongArray(BUCKETS);
+        sum = new LongAdder();
+        max = new AtomicLong();
+    }
+
+    /**
+     * Get the bucket of a value.
+     *
+     * @param value the value, not negative
+     * @return the index of the bucket
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        // The highest bits of the value select the power of two, the next ones the linear bucket inside it
+        int shift = Long.SIZE - SUB_BUCKET_BITS - 1 - Long.numberOfLeadingZeros(value);
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Get the highest value that falls in a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the highest value of the bucket
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Record a value.
+     *
+     * @param value the value, negative values are recorded as 0
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        buckets.incrementAndGet(bucketOf(value));
+        sum.add(value);
+
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Record the time elapsed since an instant.
+     *
+     * @param startNanos the instant, as returned by {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Take a snapshot of the recorded values.
+     * Values recorded while the snapshot is taken may be only partially included.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+
+        return new Snapshot(count, sum.sum(), max.get(), counts);
+    }
+
+    /**
+     * The values recorded by a histogram at some instant.
+     *
+     * @param count  the number of recorded values
+     * @param sum    the sum of the recorded values
+     * @param max    the highest recorded value
+     * @param counts the number of values recorded in each bucket
+     */
+    public record Snapshot(long count, long sum, long max, long[] counts) {
+
+        /**
+         * Get the value below which a fraction of the recorded values fall.
+         *
+         * @param percentile the fraction, between 0 and 1
+         * @return the highest value of the bucket holding the percentile, 0 if nothing was recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(percentile * count));
+            long seen = 0;
+
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueOf(i), max);
+                }
+            }
+
+            return max;
+        }
+
+        /**
+         * Get the mean of the recorded values.
+         *
+         * @return the mean, 0 if nothing was recorded
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+    }
+
+}
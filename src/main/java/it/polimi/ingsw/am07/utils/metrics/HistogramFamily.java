@@ -0,0 +1,61 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.metrics;
+
+/**
+ * A set of histograms of the same measure, one for each class of the measured objects, e.g. one for each type of
+ * action executed by a controller.
+ * The histogram of a class is created on first use; later lookups neither lock nor allocate.
+ */
+public class HistogramFamily {
+
+    private final ClassValue<Histogram> histograms;
+
+    /**
+     * Constructor.
+     *
+     * @param registry the registry the histograms are created in
+     * @param name     the name of the measure
+     * @param label    the name of the label telling the histograms apart
+     */
+    HistogramFamily(MetricsRegistry registry, String name, String label) {
+        histograms = new ClassValue<>() {
+            @Override
+            protected Histogram computeValue(Class<?> type) {
+                return registry.histogram(name + "{" + label + "=\"" + type.getSimpleName() + "\"}");
+            }
+        };
+    }
+
+    /**
+     * Get the histogram of a class.
+     *
+     * @param type the class
+     * @return the histogram
+     */
+    public Histogram get(Class<?> type) {
+        return histograms.get(type);
+    }
+
+}
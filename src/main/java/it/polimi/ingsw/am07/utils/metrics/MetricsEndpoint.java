@@ -0,0 +1,108 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import it.polimi.ingsw.am07.utils.logging.AppLogger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Plain-text HTTP endpoint serving a {@link MetricsRegistry} at {@code /metrics}, in the Prometheus text format.
+ * The endpoint only listens on the loopback interface, and serves one request at a time on its own thread.
+ */
+public class MetricsEndpoint {
+
+    private final AppLogger LOGGER = new AppLogger(MetricsEndpoint.class);
+
+    private final MetricsRegistry registry;
+    private final HttpServer server;
+
+    /**
+     * Constructor.
+     *
+     * @param registry the registry to serve
+     * @param port     the port to listen on, 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public MetricsEndpoint(MetricsRegistry registry, int port) throws IOException {
+        this.registry = registry;
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", this::handle);
+    }
+
+    /**
+     * Start serving requests.
+     */
+    public void start() {
+        server.start();
+        LOGGER.info("Metrics available at http://localhost:{0,number,#}/metrics", getPort());
+    }
+
+    /**
+     * Stop serving requests.
+     */
+    public void stop() {
+        server.stop(0);
+    }
+
+    /**
+     * Get the port the endpoint listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Serve a request.
+     *
+     * @param exchange the request and its response
+     * @throws IOException if the response cannot be written
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = registry.toText().getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        }
+    }
+
+}
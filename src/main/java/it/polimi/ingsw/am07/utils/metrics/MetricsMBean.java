@@ -0,0 +1,160 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.metrics;
+
+import javax.management.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-only JMX view of a {@link MetricsRegistry}.
+ * Every counter and gauge is an attribute named as the metric. Every histogram is exported as the attributes
+ * {@code <name>.count}, {@code <name>.p50}, {@code <name>.p90}, {@code <name>.p99} and {@code <name>.max}, in
+ * nanoseconds. The attributes follow the metrics registered after the bean.
+ */
+class MetricsMBean implements DynamicMBean {
+
+    private static final String[] HISTOGRAM_ATTRIBUTES = {"count", "p50", "p90", "p99", "max"};
+
+    private final MetricsRegistry registry;
+
+    /**
+     * Constructor.
+     *
+     * @param registry the exported registry
+     */
+    MetricsMBean(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Counter counter = registry.getCounters().get(attribute);
+        if (counter != null) {
+            return counter.get();
+        }
+
+        LongSupplier gauge = registry.getGauges().get(attribute);
+        if (gauge != null) {
+            return gauge.getAsLong();
+        }
+
+        int separator = attribute.lastIndexOf('.');
+        Histogram histogram = separator < 0 ? null : registry.getHistograms().get(attribute.substring(0, separator));
+        if (histogram != null) {
+            Histogram.Snapshot snapshot = histogram.snapshot();
+
+            switch (attribute.substring(separator + 1)) {
+                case "count" -> {
+                    return snapshot.count();
+                }
+                case "p50" -> {
+                    return snapshot.getValueAtPercentile(0.5);
+                }
+                case "p90" -> {
+                    return snapshot.getValueAtPercentile(0.9);
+                }
+                case "p99" -> {
+                    return snapshot.getValueAtPercentile(0.99);
+                }
+                case "max" -> {
+                    return snapshot.max();
+                }
+            }
+        }
+
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException ignored) {
+                // Missing attributes are left out of the list, as the JMX contract requires
+            }
+        }
+
+        return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws MBeanException {
+        throw new MBeanException(new UnsupportedOperationException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+
+        for (String name : registry.getCounters().keySet()) {
+            attributes.add(attributeInfo(name, "Counter"));
+        }
+
+        for (String name : registry.getGauges().keySet()) {
+            attributes.add(attributeInfo(name, "Gauge"));
+        }
+
+        for (String name : registry.getHistograms().keySet()) {
+            for (String attribute : HISTOGRAM_ATTRIBUTES) {
+                attributes.add(attributeInfo(name + "." + attribute, "Histogram " + attribute + ", in nanoseconds"));
+            }
+        }
+
+        return new MBeanInfo(
+                MetricsMBean.class.getName(),
+                "Metrics of the game server",
+                attributes.toArray(new MBeanAttributeInfo[0]),
+                null,
+                null,
+                null
+        );
+    }
+
+    /**
+     * Describe a read-only attribute.
+     *
+     * @param name        the name of the attribute
+     * @param description the description of the attribute
+     * @return the attribute info
+     */
+    private static MBeanAttributeInfo attributeInfo(String name, String description) {
+        return new MBeanAttributeInfo(name, long.class.getName(), description, true, false, false);
+    }
+
+}
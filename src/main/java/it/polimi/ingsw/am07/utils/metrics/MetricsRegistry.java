@@ -0,0 +1,251 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.metrics;
+
+import it.polimi.ingsw.am07.utils.logging.AppLogger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process registry of the metrics of the application.
+ * Metrics are looked up once, usually into static fields, and then updated without locking or allocating. They are
+ * read only when exported, either as plain text by {@link MetricsEndpoint} or through JMX by {@link MetricsMBean}.
+ * <p>
+ * Names follow the Prometheus conventions: lowercase words separated by underscores, durations in seconds, and
+ * optional labels between braces, e.g. {@code game_action_seconds{action="PlayerPickCardAction"}}.
+ */
+public class MetricsRegistry {
+
+    /**
+     * The name under which the registry is exported through JMX.
+     */
+    public static final String OBJECT_NAME = "it.polimi.ingsw.am07:type=Metrics";
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+    private static MetricsRegistry instance;
+
+    private final AppLogger LOGGER = new AppLogger(MetricsRegistry.class);
+
+    private final Map<String, Counter> counters;
+    private final Map<String, LongSupplier> gauges;
+    private final Map<String, Histogram> histograms;
+
+    /**
+     * Constructor.
+     */
+    MetricsRegistry() {
+        counters = new ConcurrentSkipListMap<>();
+        gauges = new ConcurrentSkipListMap<>();
+        histograms = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Get the singleton instance of the class
+     *
+     * @return the singleton instance of the class
+     */
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Get a counter, creating it if needed.
+     *
+     * @param name the name of the counter
+     * @return the counter
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    /**
+     * Get a gauge that is updated by the application, creating it if needed.
+     *
+     * @param name the name of the gauge
+     * @return the gauge
+     * @throws IllegalArgumentException if the name is already used by a gauge registered as a supplier
+     */
+    public Gauge gauge(String name) {
+        if (gauges.computeIfAbsent(name, n -> new Gauge()) instanceof Gauge gauge) {
+            return gauge;
+        }
+        throw new IllegalArgumentException("Gauge " + name + " is read from a supplier");
+    }
+
+    /**
+     * Register a gauge read from a supplier when the metrics are exported, replacing any gauge with the same name.
+     * The supplier is called from the exporting thread, so it must be thread safe.
+     *
+     * @param name     the name of the gauge
+     * @param supplier the supplier of the value
+     */
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * Get a histogram, creating it if needed.
+     *
+     * @param name the name of the histogram
+     * @return the histogram
+     */
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    /**
+     * Get a family of histograms, labelled by the class of the measured objects.
+     *
+     * @param name  the name of the histograms
+     * @param label the name of the label holding the simple name of the class
+     * @return the family
+     */
+    public HistogramFamily histogramFamily(String name, String label) {
+        return new HistogramFamily(this, name, label);
+    }
+
+    /**
+     * Get the counters, sorted by name.
+     *
+     * @return the counters
+     */
+    Map<String, Counter> getCounters() {
+        return counters;
+    }
+
+    /**
+     * Get the gauges, sorted by name.
+     *
+     * @return the gauges
+     */
+    Map<String, LongSupplier> getGauges() {
+        return gauges;
+    }
+
+    /**
+     * Get the histograms, sorted by name.
+     *
+     * @return the histograms
+     */
+    Map<String, Histogram> getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * Export the registry through the platform MBean server, unless it is already exported.
+     */
+    public void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            synchronized (this) {
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(new MetricsMBean(this), name);
+                }
+            }
+        } catch (JMException e) {
+            LOGGER.error(e);
+        }
+    }
+
+    /**
+     * Write every metric in the Prometheus text format.
+     * Counters and gauges are written as they are; histograms are written as summaries with the 50th, 90th and 99th
+     * percentiles, converted from nanoseconds to seconds.
+     *
+     * @return the metrics
+     */
+    public String toText() {
+        StringBuilder builder = new StringBuilder();
+        Set<String> typed = new HashSet<>();
+
+        counters.forEach((name, counter) -> {
+            writeType(builder, typed, name, "counter");
+            builder.append(name).append(' ').append(counter.get()).append('\n');
+        });
+
+        gauges.forEach((name, gauge) -> {
+            writeType(builder, typed, name, "gauge");
+            builder.append(name).append(' ').append(gauge.getAsLong()).append('\n');
+        });
+
+        histograms.forEach((name, histogram) -> {
+            String baseName = baseName(name);
+            String labels = name.substring(baseName.length());
+            Histogram.Snapshot snapshot = histogram.snapshot();
+
+            writeType(builder, typed, baseName, "summary");
+            for (double percentile : PERCENTILES) {
+                String quantile = "quantile=\"" + percentile + "\"";
+                builder.append(baseName)
+                        .append(labels.isEmpty() ? "{" + quantile + "}" : labels.substring(0, labels.length() - 1) + "," + quantile + "}")
+                        .append(' ').append(snapshot.getValueAtPercentile(percentile) / 1e9).append('\n');
+            }
+            builder.append(baseName).append("_sum").append(labels).append(' ').append(snapshot.sum() / 1e9).append('\n');
+            builder.append(baseName).append("_count").append(labels).append(' ').append(snapshot.count()).append('\n');
+        });
+
+        return builder.toString();
+    }
+
+    /**
+     * Get the name of a metric without its labels.
+     *
+     * @param name the name of the metric
+     * @return the name without labels
+     */
+    static String baseName(String name) {
+        int labels = name.indexOf('{');
+        return labels < 0 ? name : name.substring(0, labels);
+    }
+
+    /**
+     * Write the type line of a metric, only before its first sample.
+     *
+     * @param builder the builder to write to
+     * @param typed   the metrics whose type was already written
+     * @param name    the name of the metric
+     * @param type    the type of the metric
+     */
+    private static void writeType(StringBuilder builder, Set<String> typed, String name, String type) {
+        String baseName = baseName(name);
+        if (typed.add(baseName)) {
+            builder.append("# TYPE ").append(baseName).append(' ').append(type).append('\n');
+        }
+    }
+
+}
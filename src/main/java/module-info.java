@@ -7,8 +7,11 @@ open module it.polimi.ingsw.am07 {
     requires annotations;
     requires java.rmi;
     requires java.logging;
+    requires java.management;
+    requires jdk.httpserver;
     requires java.desktop;
     requires moshi.records.reflect;
+    requires okio;
 
     exports it.polimi.ingsw.am07;
     exports it.polimi.ingsw.am07.client.gui.viewController;
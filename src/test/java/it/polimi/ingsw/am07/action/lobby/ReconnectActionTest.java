@@ -28,6 +28,7 @@ import it.polimi.ingsw.am07.model.matchmaking.Matchmaking;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -50,4 +51,15 @@ class ReconnectActionTest {
         assertDoesNotThrow(() -> reconnectAction.reflect(clientState));
     }
 
+    @Test
+    void executeWithGameVersion() {
+        Matchmaking matchmaking = new Matchmaking(List.of());
+
+        UUID gameId = UUID.randomUUID();
+        new ReconnectAction("playerNickname", "identity", gameId, 42).execute(matchmaking);
+
+        assertEquals(gameId, matchmaking.getLastGameId());
+        assertEquals(42, matchmaking.getLastGameVersion());
+    }
+
 }
\ No newline at end of file
@@ -90,6 +90,7 @@ class PlayerPickCardActionTest {
 
         assertFalse(action.isExecutedCorrectly());
         assertEquals("Test error", action.getErrorMessage());
+        verify(playerMock, never()).addPlayableCard(cardMock);
     }
 
     @Test
@@ -131,9 +132,11 @@ class PlayerPickCardActionTest {
         when(playerMock.getPlayerObjectiveCard()).thenReturn(mockObjective);
         when(gameMock.getSelf()).thenReturn(playerMock);
 
-        doNothing().when(playerMock).evaluateObjectiveScore(mockObjective);
+        doNothing().when(playerMock).evaluateObjectiveScore();
 
         action.reflect(clientStateMock);
+
+        verify(playerMock).evaluateObjectiveScore();
     }
 
     @Test
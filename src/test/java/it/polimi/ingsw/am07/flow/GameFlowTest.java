@@ -28,12 +28,22 @@ import it.polimi.ingsw.am07.network.ClientNetworkManager;
 import it.polimi.ingsw.am07.network.NetworkType;
 import it.polimi.ingsw.am07.server.Server;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
 
 public class GameFlowTest {
 
+    @TempDir
+    Path savedGames;
+
     @Test
     void testGameFlow() {
-        Server server = new Server(12345, 23456);
+        Server server = new Server.Factory()
+                .withTcpPort(12345)
+                .withRmiPort(23456)
+                .withSavedGamesDirectory(savedGames)
+                .build();
 
         new Thread(server::entrypoint).start();
         new Thread(this::client1).start();
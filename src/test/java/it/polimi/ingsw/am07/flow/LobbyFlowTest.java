@@ -34,15 +34,24 @@ import it.polimi.ingsw.am07.network.NetworkType;
 import it.polimi.ingsw.am07.reactive.Controller;
 import it.polimi.ingsw.am07.server.Server;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
 public class LobbyFlowTest {
 
+    @TempDir
+    Path savedGames;
+
     @Test
     void testLobbyFlow() {
-        Server server = new Server(54321, 4321);
+        Server server = new Server.Factory()
+                .withTcpPort(54321)
+                .withRmiPort(4321)
+                .withSavedGamesDirectory(savedGames)
+                .build();
 
         new Thread(server::entrypoint).start();
         new Thread(this::client1).start();
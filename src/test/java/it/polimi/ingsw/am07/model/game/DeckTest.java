@@ -29,6 +29,7 @@ import it.polimi.ingsw.am07.model.game.side.SideBack;
 import it.polimi.ingsw.am07.model.game.side.SideFrontRes;
 import org.junit.jupiter.api.Test;
 
+import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -219,4 +220,75 @@ class DeckTest {
         });
     }
 
-}
\ No newline at end of file
+    @Test
+    void isPickable() throws CardNotFoundException {
+        Deck deck = constructDeck();
+
+        assertTrue(deck.isPickable(deck.peekTopResCard()));
+        assertTrue(deck.isPickable(deck.peekTopGoldCard()));
+        assertTrue(deck.isPickable(deck.visibleResCards()[1]));
+        assertTrue(deck.isPickable(deck.visibleGoldCards()[0]));
+        assertFalse(deck.isPickable(deck.availableResCards().get(1)));
+        assertFalse(deck.isPickable(craftCard(40)));
+        assertFalse(deck.isPickable(null));
+
+        // A covered card cannot be popped, and the deck is left untouched
+        GameCard covered = deck.availableGoldCards().get(3);
+        assertThrows(CardNotFoundException.class, () -> deck.popCard(covered));
+        assertEquals(10, deck.availableGoldCards().size());
+
+        // The card replacing a visible one can be picked from its new slot
+        GameCard top = deck.peekTopResCard();
+        GameCard visible = deck.visibleResCards()[1];
+        deck.popCard(visible);
+        assertFalse(deck.isPickable(visible));
+        assertSame(top, deck.visibleResCards()[1]);
+        assertTrue(deck.isPickable(top));
+        deck.popCard(top);
+        assertNotSame(top, deck.visibleResCards()[1]);
+
+        // Once the piles are empty, the visible slots are left empty
+        while (deck.peekTopGoldCard() != null) {
+            deck.popCard(deck.peekTopGoldCard());
+        }
+        deck.popCard(deck.visibleGoldCards()[0]);
+        assertNull(deck.visibleGoldCards()[0]);
+        assertTrue(deck.isPickable(deck.visibleGoldCards()[1]));
+    }
+
+    @Test
+    void pickableAfterSerialization() throws IOException, ClassNotFoundException, CardNotFoundException {
+        Deck deck = new Deck.Factory().build();
+        deck.popCard(deck.visibleResCards()[0]);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(deck);
+        }
+
+        Deck copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (Deck) in.readObject();
+        }
+
+        assertTrue(copy.isPickable(copy.visibleResCards()[0]));
+        assertTrue(copy.isPickable(copy.peekTopGoldCard()));
+        assertFalse(copy.isPickable(copy.availableGoldCards().getLast()));
+        assertDoesNotThrow(() -> copy.popCard(copy.visibleGoldCards()[1]));
+    }
+
+    @Test
+    void equalsAndHashCode() throws CardNotFoundException {
+        Deck deck = constructDeck();
+        Deck same = constructDeck();
+
+        assertEquals(deck, same);
+        assertEquals(deck.hashCode(), same.hashCode());
+        assertTrue(deck.toString().startsWith("Deck[availableResCards=["));
+
+        same.popCard(same.visibleResCards()[0]);
+
+        assertNotEquals(deck, same);
+    }
+
+}
@@ -23,6 +23,7 @@
 
 package it.polimi.ingsw.am07.model.game;
 
+import it.polimi.ingsw.am07.exceptions.CardNotFoundException;
 import it.polimi.ingsw.am07.exceptions.IllegalGameStateException;
 import it.polimi.ingsw.am07.exceptions.IllegalPlacementException;
 import it.polimi.ingsw.am07.model.game.card.GameCard;
@@ -233,11 +234,16 @@ class GameTest {
     void popCardTest() {
         Game game = new Game(new ArrayList<>(), null);
         int size = game.getAvailableResCardsSize();
-        GameCard gameCard = new GameCard(new SideFrontRes(1, null, null, null), new SideBack(1, null, null, null));
+        GameCard gameCard = game.getDeck().peekTopResCard();
+        GameCard coveredCard = game.getDeck().availableResCards().get(2);
 
         assertDoesNotThrow(() -> game.popCard(gameCard));
 
         assertEquals(size - 1, game.getAvailableResCardsSize());
+
+        // Only the top card of a pile can be picked
+        assertThrows(CardNotFoundException.class, () -> game.popCard(new GameCard(coveredCard.front(), coveredCard.back())));
+        assertThrows(CardNotFoundException.class, () -> game.popCard(gameCard));
     }
 
     @Test
@@ -250,6 +256,30 @@ class GameTest {
                 .build();
 
         assertEquals(1, game.getPlayers().size());
+
+        // The players score the common objectives too, here an objective met by placing the backs of the cards
+        List<Symbol> colors = List.of(Symbol.RED, Symbol.GREEN, Symbol.BLUE, Symbol.PURPLE);
+        while (!(game.getCommonObjectives()[0] instanceof ResourceObjectiveCard commonObjective)
+                || !colors.containsAll(commonObjective.getRequirements().getResources().keySet())) {
+            game = new Game.Factory()
+                    .fromLobby(lobby)
+                    .build();
+        }
+
+        Player player = game.getPlayers().getFirst();
+        player.setPlayerObjectiveCard(player.getAvailableObjectives()[0]);
+        assertDoesNotThrow(() -> player.placeAt(player.getStarterCard().front(), new GameFieldPosition(0, 0)));
+        for (GameCard card : GameResources.getInstance().getResourceCards()) {
+            player.addPlayableCard(card);
+            assertDoesNotThrow(() -> player.placeAt(card.back(), player.getAvailablePositions().iterator().next()));
+        }
+
+        int expected = player.getPlayerObjectiveCard().calculateScore(player.getPlayerResources(), player.getPlayerGameField());
+        for (ObjectiveCard objective : game.getCommonObjectives()) {
+            expected += objective.calculateScore(player.getPlayerResources(), player.getPlayerGameField());
+        }
+        assertTrue(expected > 0);
+        assertEquals(expected, player.getProvisionalObjectiveScore());
     }
 
     @Test
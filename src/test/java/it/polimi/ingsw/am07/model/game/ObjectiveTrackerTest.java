@@ -0,0 +1,104 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.model.game;
+
+import it.polimi.ingsw.am07.model.game.card.GameCard;
+import it.polimi.ingsw.am07.model.game.card.ObjectiveCard;
+import it.polimi.ingsw.am07.model.game.gamefield.GameField;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
+import it.polimi.ingsw.am07.model.game.side.Side;
+import it.polimi.ingsw.am07.utils.assets.GameResources;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectiveTrackerTest {
+
+    @Test
+    void sameScoreAsCalculation() {
+        Random random = new Random(3);
+        GameResources gameResources = GameResources.getInstance();
+        List<ObjectiveCard> objectives = gameResources.getObjectiveCards();
+
+        List<Side> sides = new ArrayList<>();
+        for (GameCard card : gameResources.getResourceCards()) {
+            sides.add(card.front());
+            sides.add(card.back());
+        }
+
+        for (int game = 0; game < 30; game++) {
+            ResourceHolder resources = new ResourceHolder();
+            GameField field = new GameField();
+            resources.add(field.placeOnFieldAt(gameResources.getStarterCards().getFirst().back(), new GameFieldPosition(0, 0)));
+
+            ObjectiveTracker tracker = new ObjectiveTracker(resources, field, objectives);
+
+            for (int card = 0; card < 60; card++) {
+                List<GameFieldPosition> positions = new ArrayList<>(field.getPlacedCards().keySet());
+                GameFieldPosition position;
+                do {
+                    GameFieldPosition from = positions.get(random.nextInt(positions.size()));
+                    position = new GameFieldPosition(from.x() + (random.nextBoolean() ? 1 : -1), from.y() + (random.nextBoolean() ? 1 : -1));
+                } while (field.getPlacedCards().containsKey(position));
+
+                ResourceHolder placedResources = field.placeOnFieldAt(sides.get(random.nextInt(sides.size())), position);
+                resources.add(placedResources);
+                tracker.onCardPlaced(position, placedResources);
+
+                int expected = 0;
+                for (ObjectiveCard objective : objectives) {
+                    expected += objective.calculateScore(resources, field);
+                }
+                assertEquals(expected, tracker.getScore());
+            }
+        }
+    }
+
+    @Test
+    void finalScoreIsNotAddedTwice() {
+        GameResources gameResources = GameResources.getInstance();
+        List<ObjectiveCard> objectives = gameResources.getObjectiveCards();
+        GameCard starterCard = gameResources.getStarterCards().getFirst();
+
+        Player player = new Player("player", "test", Pawn.RED, starterCard, null);
+        new Game(List.of(player), new ObjectiveCard[]{objectives.get(0), objectives.get(8)});
+        player.setPlayerObjectiveCard(objectives.get(12));
+
+        assertDoesNotThrow(() -> player.placeAt(starterCard.back(), new GameFieldPosition(0, 0)));
+        int provisional = player.getProvisionalObjectiveScore();
+        int expected = objectives.get(0).calculateScore(player.getPlayerResources(), player.getPlayerGameField())
+                + objectives.get(8).calculateScore(player.getPlayerResources(), player.getPlayerGameField())
+                + objectives.get(12).calculateScore(player.getPlayerResources(), player.getPlayerGameField());
+        assertEquals(expected, provisional);
+
+        player.evaluateObjectiveScore();
+        player.evaluateObjectiveScore();
+        assertEquals(provisional, player.getPlayerObjectiveScore());
+    }
+
+}
@@ -30,10 +30,15 @@ import it.polimi.ingsw.am07.model.game.card.ObjectiveCard;
 import it.polimi.ingsw.am07.model.game.card.ResourceObjectiveCard;
 import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
 import it.polimi.ingsw.am07.model.game.side.*;
+import it.polimi.ingsw.am07.utils.assets.GameResources;
 import it.polimi.ingsw.am07.utils.matrix.Matrix;
 import org.junit.jupiter.api.Test;
 
+import java.io.*;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 public class PlayerTest {
 
@@ -186,4 +191,46 @@ public class PlayerTest {
         assertEquals(1, player.getAvailableObjectives().length);
     }
 
+    @Test
+    void objectiveScoreIsUpdatedWhilePlacing() throws Exception {
+        GameResources gameResources = GameResources.getInstance();
+        List<ObjectiveCard> objectives = gameResources.getObjectiveCards();
+        GameCard starterCard = gameResources.getStarterCards().getFirst();
+
+        Player player = new Player("test", "test", Pawn.GREEN, starterCard, null);
+        ObjectiveCard personalObjective = spy(objectives.get(0));
+        player.setPlayerObjectiveCard(personalObjective);
+        player.setCommonObjectives(new ObjectiveCard[]{objectives.get(8), objectives.get(12)});
+        clearInvocations(personalObjective);
+
+        player.placeAt(starterCard.back(), new GameFieldPosition(0, 0));
+
+        for (GameCard card : gameResources.getResourceCards().subList(0, 20)) {
+            player.addPlayableCard(card);
+            player.placeAt(card.back(), player.getAvailablePositions().iterator().next());
+
+            int expected = 0;
+            for (ObjectiveCard objective : List.of(objectives.get(0), objectives.get(8), objectives.get(12))) {
+                expected += objective.calculateScore(player.getPlayerResources(), player.getPlayerGameField());
+            }
+            assertEquals(expected, player.getProvisionalObjectiveScore());
+        }
+
+        // the pattern is updated from the placed cards, without counting its matches on the whole field again
+        verify(personalObjective, atLeastOnce()).mayChangeScore(any(), any(), any());
+        verify(personalObjective, never()).calculateScore(any(), any());
+
+        player.setPlayerObjectiveCard(objectives.get(0));
+        int score = player.getProvisionalObjectiveScore();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(player);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Player restored = (Player) in.readObject();
+            assertEquals(score, restored.getProvisionalObjectiveScore());
+        }
+    }
+
 }
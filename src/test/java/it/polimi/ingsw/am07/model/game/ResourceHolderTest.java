@@ -27,7 +27,10 @@ import it.polimi.ingsw.am07.model.game.side.SideFieldRepresentation;
 import it.polimi.ingsw.am07.utils.matrix.Matrix;
 import org.junit.jupiter.api.Test;
 
+import java.io.*;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -265,4 +268,35 @@ class ResourceHolderTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    void timesContains() {
+        ResourceHolder holder = new ResourceHolder(Map.of(Symbol.RED, 7, Symbol.FLASK, 2, Symbol.BLUE, -1));
+
+        assertEquals(2, holder.timesContains(new ResourceHolder(Map.of(Symbol.RED, 3))));
+        assertEquals(1, holder.timesContains(new ResourceHolder(Map.of(Symbol.RED, 3, Symbol.FLASK, 2))));
+        assertEquals(0, holder.timesContains(new ResourceHolder(Map.of(Symbol.RED, 1, Symbol.BLUE, 1))));
+        assertEquals(0, holder.timesContains(new ResourceHolder()));
+    }
+
+    @Test
+    void serializedForm() throws IOException, ClassNotFoundException {
+        // Written when the amounts were stored in an EnumMap: RED 2, BLUE -1, FLASK 1
+        String previousForm = "rO0ABXNyAC5pdC5wb2xpbWkuaW5nc3cuYW0wNy5tb2RlbC5nYW1lLlJlc291cmNlSG9sZGVyFlBZQzuOnqUCAAFMAAlyZXNvdXJjZXN0AA9MamF2YS91dGlsL01hcDt4cHNyABFqYXZhLnV0aWwuRW51bU1hcAZdffe+kHyhAwABTAAHa2V5VHlwZXQAEUxqYXZhL2xhbmcvQ2xhc3M7eHB2cgAmaXQucG9saW1pLmluZ3N3LmFtMDcubW9kZWwuZ2FtZS5TeW1ib2wAAAAAAAAAABIAAHhyAA5qYXZhLmxhbmcuRW51bQAAAAAAAAAAEgAAeHB3BAAAAAN+cQB+AAZ0AANSRURzcgARamF2YS5sYW5nLkludGVnZXIS4qCk94GHOAIAAUkABXZhbHVleHIAEGphdmEubGFuZy5OdW1iZXKGrJUdC5TgiwIAAHhwAAAAAn5xAH4ABnQABEJMVUVzcQB+AAv/////fnEAfgAGdAAFRkxBU0tzcQB+AAsAAAABeA==";
+        ResourceHolder expected = new ResourceHolder(Map.of(Symbol.RED, 2, Symbol.BLUE, -1, Symbol.FLASK, 1));
+
+        ResourceHolder previous;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(previousForm)))) {
+            previous = (ResourceHolder) in.readObject();
+        }
+        assertEquals(expected.getResources(), previous.getResources());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(expected);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(expected.getResources(), ((ResourceHolder) in.readObject()).getResources());
+        }
+    }
+
+}
@@ -0,0 +1,237 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.model.game.gamefield;
+
+import it.polimi.ingsw.am07.model.game.Symbol;
+import it.polimi.ingsw.am07.model.game.card.GameCard;
+import it.polimi.ingsw.am07.model.game.card.ObjectiveCard;
+import it.polimi.ingsw.am07.model.game.card.PatternObjectiveCard;
+import it.polimi.ingsw.am07.model.game.side.Side;
+import it.polimi.ingsw.am07.utils.assets.GameResources;
+import it.polimi.ingsw.am07.utils.matrix.Matrix;
+import it.polimi.ingsw.am07.utils.matrix.MatrixElementIterator;
+import it.polimi.ingsw.am07.utils.matrix.SymbolMatrix;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameFieldPatternMatcherTest {
+
+    private static final Symbol[] PATTERN_SYMBOLS = {Symbol.EMPTY, Symbol.RED, Symbol.GREEN, Symbol.BLUE, Symbol.PURPLE};
+
+    /**
+     * The previous implementation of GameField.countMatches, scanning every window of the field.
+     */
+    private static int countMatchesByWindows(GameField field, GameFieldPattern pattern) {
+        int matches = 0;
+        Map<GameFieldPosition, Side> placedCardsCopy = new HashMap<>(field.getPlacedCards());
+        Matrix<Symbol> shape = pattern.getShape();
+        SymbolMatrix fieldMatrix = field.getFieldMatrix();
+
+        for (int relativeY = fieldMatrix.getMinY(); relativeY + shape.getHeight() - 1 <= fieldMatrix.getMaxY(); relativeY++) {
+            for (int relativeX = fieldMatrix.getMinX(); relativeX + shape.getWidth() - 1 <= fieldMatrix.getMaxX(); relativeX++) {
+                if (!fieldMatrix.getSubMatrix(relativeX, relativeY, shape.getWidth(), shape.getHeight()).containsShape(shape)) {
+                    continue;
+                }
+
+                boolean match = true;
+                MatrixElementIterator<Symbol> iterator = (MatrixElementIterator<Symbol>) pattern.pattern().iterator();
+                while (match && iterator.hasNext()) {
+                    Symbol color = iterator.next();
+                    if (!color.equals(Symbol.EMPTY)) {
+                        Side card = placedCardsCopy.get(new GameFieldPosition(relativeX + iterator.getCurrentX(), relativeY + iterator.getCurrentY()));
+                        match = card != null && card.color().equals(color);
+                    }
+                }
+
+                if (match) {
+                    ++matches;
+                    iterator = (MatrixElementIterator<Symbol>) pattern.pattern().iterator();
+                    while (iterator.hasNext()) {
+                        if (!iterator.next().equals(Symbol.EMPTY)) {
+                            placedCardsCopy.remove(new GameFieldPosition(relativeX + iterator.getCurrentX(), relativeY + iterator.getCurrentY()));
+                        }
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static List<GameFieldPattern> patterns(Random random) {
+        List<GameFieldPattern> patterns = new ArrayList<>();
+
+        for (ObjectiveCard objective : GameResources.getInstance().getObjectiveCards()) {
+            if (objective instanceof PatternObjectiveCard patternObjective) {
+                patterns.add(patternObjective.getPattern());
+            }
+        }
+
+        for (int i = 0; i < 30; i++) {
+            Matrix<Symbol> pattern = new Matrix<>(1 + random.nextInt(3), 1 + random.nextInt(4), Symbol.EMPTY);
+            for (int x = 0; x < pattern.getWidth(); x++) {
+                for (int y = 0; y < pattern.getHeight(); y++) {
+                    pattern.set(x, y, PATTERN_SYMBOLS[random.nextInt(PATTERN_SYMBOLS.length)]);
+                }
+            }
+            patterns.add(new GameFieldPattern(pattern));
+        }
+
+        // A pattern without cards matches every window
+        patterns.add(new GameFieldPattern(new Matrix<>(2, 2, Symbol.EMPTY)));
+
+        return patterns;
+    }
+
+    /**
+     * Place a card on a free corner of a random placed card, without checking the placement rules.
+     *
+     * @return the position of the placed card
+     */
+    private static GameFieldPosition placeRandomCard(GameField field, Random random, List<Side> sides) {
+        List<GameFieldPosition> positions = new ArrayList<>(field.getPlacedCards().keySet());
+        while (true) {
+            GameFieldPosition from = positions.get(random.nextInt(positions.size()));
+            GameFieldPosition to = new GameFieldPosition(from.x() + (random.nextBoolean() ? 1 : -1), from.y() + (random.nextBoolean() ? 1 : -1));
+            if (!field.getPlacedCards().containsKey(to)) {
+                field.placeOnFieldAt(sides.get(random.nextInt(sides.size())), to);
+                return to;
+            }
+        }
+    }
+
+    @Test
+    void sameMatchesAsWindowScan() {
+        Random random = new Random(7);
+        GameResources resources = GameResources.getInstance();
+
+        List<Side> sides = new ArrayList<>();
+        for (GameCard card : resources.getResourceCards()) {
+            sides.add(card.front());
+            sides.add(card.back());
+        }
+        for (GameCard card : resources.getGoldCards()) {
+            sides.add(card.front());
+        }
+
+        List<GameFieldPattern> patterns = patterns(random);
+        List<GameFieldPatternMatcher> matchers = patterns.stream().map(GameFieldPatternMatcher::new).toList();
+
+        int totalMatches = 0;
+        for (int field = 0; field < 100; field++) {
+            GameField gameField = new GameField();
+            gameField.placeOnFieldAt(resources.getStarterCards().get(random.nextInt(resources.getStarterCardsCount())).front(), new GameFieldPosition(0, 0));
+
+            int cards = 5 + random.nextInt(60);
+            for (int card = 0; card < cards; card++) {
+                placeRandomCard(gameField, random, sides);
+
+                // Match while the field grows, so that the card index is also updated incrementally
+                if (card % 20 == 0 || card == cards - 1) {
+                    for (int i = 0; i < patterns.size(); i++) {
+                        int expected = countMatchesByWindows(gameField, patterns.get(i));
+                        assertEquals(expected, gameField.countMatches(matchers.get(i)));
+                        assertEquals(expected, gameField.countMatches(patterns.get(i)));
+                        totalMatches += expected;
+                    }
+                }
+            }
+        }
+
+        // The fields are dense enough to exercise the matching
+        assertTrue(totalMatches > 1000);
+    }
+
+    @Test
+    void addedMatchesFollowTheWindowScan() {
+        Random random = new Random(5);
+        GameResources resources = GameResources.getInstance();
+
+        List<Side> sides = new ArrayList<>();
+        for (GameCard card : resources.getResourceCards()) {
+            sides.add(card.front());
+            sides.add(card.back());
+        }
+
+        List<GameFieldPatternMatcher> matchers = patterns(random).stream()
+                .map(GameFieldPatternMatcher::new)
+                .filter(GameFieldPatternMatcher::canCountAddedMatches)
+                .toList();
+
+        int totalMatches = 0;
+        for (int field = 0; field < 50; field++) {
+            GameField gameField = new GameField();
+            gameField.placeOnFieldAt(resources.getStarterCards().getFirst().back(), new GameFieldPosition(0, 0));
+            int[] matches = new int[matchers.size()];
+
+            for (int card = 0; card < 60; card++) {
+                GameFieldPosition position = placeRandomCard(gameField, random, sides);
+
+                for (int i = 0; i < matchers.size(); i++) {
+                    matches[i] += matchers.get(i).countAddedMatches(gameField, position.x(), position.y());
+                    assertEquals(matchers.get(i).countMatches(gameField), matches[i]);
+                }
+            }
+
+            totalMatches += Arrays.stream(matches).sum();
+        }
+
+        assertTrue(totalMatches > 1000);
+    }
+
+    @Test
+    void matchesAfterDeserialization() throws IOException, ClassNotFoundException {
+        Random random = new Random(11);
+        GameResources resources = GameResources.getInstance();
+        List<Side> sides = resources.getResourceCards().stream().<Side>map(GameCard::back).toList();
+
+        GameField gameField = new GameField();
+        gameField.placeOnFieldAt(resources.getStarterCards().getFirst().front(), new GameFieldPosition(0, 0));
+        for (int i = 0; i < 80; i++) {
+            placeRandomCard(gameField, random, sides);
+        }
+
+        List<GameFieldPattern> patterns = patterns(random);
+        for (GameFieldPattern pattern : patterns) {
+            gameField.countMatches(pattern);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(gameField);
+        }
+        GameField restored;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (GameField) in.readObject();
+        }
+
+        for (GameFieldPattern pattern : patterns) {
+            assertEquals(countMatchesByWindows(gameField, pattern), restored.countMatches(pattern));
+        }
+    }
+
+}
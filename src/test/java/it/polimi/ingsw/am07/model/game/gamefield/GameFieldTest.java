@@ -32,8 +32,12 @@ import it.polimi.ingsw.am07.utils.assets.GameResources;
 import it.polimi.ingsw.am07.utils.matrix.Matrix;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -299,4 +303,81 @@ class GameFieldTest {
         assertEquals(placedCards, gameField.getPlacedCards());
     }
 
-}
\ No newline at end of file
+    @Test
+    void getAvailablePositions() {
+        GameField gameField = new GameField();
+
+        Matrix<Symbol> corners = new Matrix<>(2, 2);
+        corners.set(0, 0, Symbol.RED);
+        corners.set(1, 0, Symbol.BLUE);
+        corners.set(0, 1, Symbol.GREEN);
+        corners.set(1, 1, Symbol.NONE);
+        SideFieldRepresentation side = new SideFieldRepresentation(corners);
+
+        ResourceHolder test = new ResourceHolder(side);
+
+        Side starter_card = new SideFrontStarter(0, side, test);
+        Side normal_card = new SideBack(1, side, test, Symbol.RED);
+
+        assertTrue(gameField.getAvailablePositions().isEmpty());
+
+        gameField.placeOnFieldAt(starter_card, new GameFieldPosition(0, 0, 0));
+        assertEquals(Set.of(new GameFieldPosition(-1, -1), new GameFieldPosition(1, -1), new GameFieldPosition(-1, 1)), gameField.getAvailablePositions());
+
+        gameField.placeOnFieldAt(normal_card, new GameFieldPosition(-1, -1, 1));
+        assertEquals(Set.of(new GameFieldPosition(1, -1), new GameFieldPosition(-1, 1), new GameFieldPosition(-2, -2), new GameFieldPosition(0, -2), new GameFieldPosition(-2, 0)), gameField.getAvailablePositions());
+
+        assertThrows(UnsupportedOperationException.class, () -> gameField.getAvailablePositions().clear());
+    }
+
+    @Test
+    void availablePositionsMatchFieldScan() {
+        Random random = new Random(7);
+        GameResources gameResources = GameResources.getInstance();
+
+        List<Side> sides = new ArrayList<>();
+        for (GameCard card : gameResources.getResourceCards()) {
+            sides.add(card.front());
+            sides.add(card.back());
+        }
+
+        for (int game = 0; game < 20; game++) {
+            GameField gameField = new GameField();
+            gameField.placeOnFieldAt(gameResources.getStarterCards().get(random.nextInt(gameResources.getStarterCards().size())).front(), new GameFieldPosition(0, 0));
+
+            for (int card = 0; card < 60 && !gameField.getAvailablePositions().isEmpty(); card++) {
+                List<GameFieldPosition> available = new ArrayList<>(gameField.getAvailablePositions());
+                gameField.placeOnFieldAt(sides.get(random.nextInt(sides.size())), available.get(random.nextInt(available.size())));
+
+                Set<GameFieldPosition> expected = new HashSet<>();
+                for (int x = gameField.getFieldMatrix().getMinX() - 1; x <= gameField.getFieldMatrix().getMaxX(); x++) {
+                    for (int y = gameField.getFieldMatrix().getMinY() - 1; y <= gameField.getFieldMatrix().getMaxY(); y++) {
+                        if ((x != 0 || y != 0) && isPlaceable(gameField, x, y)) {
+                            expected.add(new GameFieldPosition(x, y));
+                        }
+                    }
+                }
+                assertEquals(expected, gameField.getAvailablePositions());
+            }
+        }
+    }
+
+    private static boolean isPlaceable(GameField gameField, int x, int y) {
+        if ((x + y) % 2 != 0 || gameField.getPlacedCards().containsKey(new GameFieldPosition(x, y))) {
+            return false;
+        }
+
+        boolean placeable = false;
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 2; j++) {
+                Symbol symbol = gameField.getFieldMatrix().get(x + i, y + j);
+                if (symbol == Symbol.NONE) {
+                    return false;
+                }
+                placeable |= symbol != Symbol.EMPTY;
+            }
+        }
+        return placeable;
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.network.connection;
+
+import it.polimi.ingsw.am07.action.server.LobbyListAction;
+import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.HeartbeatNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.NetworkPacket;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundQueueTest {
+
+    private static final NetworkPacket LOBBY_LIST = new ActionNetworkPacket(new LobbyListAction(List.of()));
+    private static final NetworkPacket HEARTBEAT = new HeartbeatNetworkPacket();
+
+    @Test
+    void framesAreTakenInOrder() throws InterruptedException {
+        OutboundQueue queue = new OutboundQueue(4, OverflowPolicy::of);
+
+        assertTrue(queue.offer(HEARTBEAT, new byte[]{1}));
+        assertTrue(queue.offer(LOBBY_LIST, new byte[]{2}));
+        assertEquals(2, queue.size());
+
+        assertArrayEquals(new byte[]{1}, take(queue));
+        assertArrayEquals(new byte[]{2}, take(queue));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void heartbeatsAreDroppedWhenFull() throws InterruptedException {
+        OutboundQueue queue = new OutboundQueue(1, OverflowPolicy::of);
+
+        assertTrue(queue.offer(LOBBY_LIST, new byte[]{1}));
+        assertTrue(queue.offer(HEARTBEAT, new byte[]{2}));
+
+        assertEquals(1, queue.size());
+        assertArrayEquals(new byte[]{1}, take(queue));
+    }
+
+    @Test
+    void stateSyncsAreCoalescedWhenFull() throws InterruptedException {
+        OutboundQueue queue = new OutboundQueue(2, OverflowPolicy::of);
+
+        assertTrue(queue.offer(LOBBY_LIST, new byte[]{1}));
+        assertTrue(queue.offer(HEARTBEAT, new byte[]{2}));
+        assertTrue(queue.offer(new ActionNetworkPacket(new LobbyListAction(List.of())), new byte[]{3}));
+
+        assertEquals(2, queue.size());
+        assertArrayEquals(new byte[]{2}, take(queue));
+        assertArrayEquals(new byte[]{3}, take(queue));
+    }
+
+    @Test
+    void slowConsumerIsRejectedWhenNothingCanBeCoalesced() {
+        OutboundQueue queue = new OutboundQueue(1, OverflowPolicy::of);
+
+        assertTrue(queue.offer(HEARTBEAT, new byte[]{1}));
+        assertFalse(queue.offer(LOBBY_LIST, new byte[]{2}));
+
+        OutboundQueue strict = new OutboundQueue(1, packet -> OverflowPolicy.DISCONNECT);
+
+        assertTrue(strict.offer(HEARTBEAT, new byte[]{1}));
+        assertFalse(strict.offer(HEARTBEAT, new byte[]{2}));
+    }
+
+    @Test
+    void queuedFramesAreTakenInOneBatch() throws InterruptedException {
+        OutboundQueue queue = new OutboundQueue(8, OverflowPolicy::of);
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+
+        assertTrue(queue.offer(LOBBY_LIST, new byte[]{1, 2}));
+        assertTrue(queue.offer(HEARTBEAT, new byte[]{3}));
+        assertTrue(queue.offer(HEARTBEAT, new byte[]{4}));
+
+        assertEquals(3, queue.takeBatch(batch, 1024, 0));
+        assertArrayEquals(new byte[]{1, 2, 3, 4}, batch.toByteArray());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void batchesStopAtTheSizeThreshold() throws InterruptedException {
+        OutboundQueue queue = new OutboundQueue(8, OverflowPolicy::of);
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+
+        assertTrue(queue.offer(LOBBY_LIST, new byte[]{1, 2}));
+        assertTrue(queue.offer(HEARTBEAT, new byte[]{3}));
+
+        assertEquals(1, queue.takeBatch(batch, 2, 0));
+        assertArrayEquals(new byte[]{1, 2}, batch.toByteArray());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void burstsAreGatheredWithinTheLingerTime() throws Exception {
+        OutboundQueue queue = new OutboundQueue(8, OverflowPolicy::of);
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+
+        assertTrue(queue.offer(LOBBY_LIST, new byte[]{1}));
+        assertTrue(queue.offer(HEARTBEAT, new byte[]{2}));
+
+        CompletableFuture<Void> sender = CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            queue.offer(HEARTBEAT, new byte[]{3});
+        });
+
+        assertEquals(3, queue.takeBatch(batch, 1024, TimeUnit.MILLISECONDS.toNanos(500)));
+        assertArrayEquals(new byte[]{1, 2, 3}, batch.toByteArray());
+        sender.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void closeWakesUpTheWriter() throws Exception {
+        OutboundQueue queue = new OutboundQueue();
+        CompletableFuture<Integer> taken = CompletableFuture.supplyAsync(() -> {
+            try {
+                return queue.takeBatch(new ByteArrayOutputStream(), 1, 0);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertTrue(queue.close());
+        assertFalse(queue.close());
+
+        assertEquals(0, taken.get(5, TimeUnit.SECONDS));
+        assertFalse(queue.offer(HEARTBEAT, new byte[]{1}));
+        assertEquals(0, queue.size());
+    }
+
+    private static byte[] take(OutboundQueue queue) throws InterruptedException {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        queue.takeBatch(batch, 1, 0);
+        return batch.toByteArray();
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.network.connection;
+
+import it.polimi.ingsw.am07.network.packets.HeartbeatNetworkPacket;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedPacketTest {
+
+    @Test
+    void frameIsEncodedOncePerWireFormat() throws IOException {
+        SharedPacket packet = new SharedPacket(new HeartbeatNetworkPacket());
+        AtomicInteger encodings = new AtomicInteger();
+        SharedPacket.FrameEncoder encoder = p -> {
+            assertSame(packet.getPacket(), p);
+            return new byte[]{(byte) encodings.incrementAndGet()};
+        };
+
+        byte[] first = packet.getFrame(Framing.VARINT, Encoding.BINARY, true, encoder);
+        byte[] second = packet.getFrame(Framing.VARINT, Encoding.BINARY, true, encoder);
+
+        assertSame(first, second);
+        assertEquals(1, encodings.get());
+
+        byte[] json = packet.getFrame(Framing.VARINT, Encoding.JSON, true, encoder);
+        byte[] fullCards = packet.getFrame(Framing.VARINT, Encoding.BINARY, false, encoder);
+        byte[] legacy = packet.getFrame(Framing.LEGACY, Encoding.JSON, false, encoder);
+
+        assertEquals(4, encodings.get());
+        assertNotSame(first, json);
+        assertNotSame(first, fullCards);
+        assertNotSame(json, legacy);
+
+        assertSame(legacy, packet.getFrame(Framing.LEGACY, Encoding.JSON, false, encoder));
+        assertEquals(4, encodings.get());
+    }
+
+    @Test
+    void encodingErrorsAreNotCached() {
+        SharedPacket packet = new SharedPacket(new HeartbeatNetworkPacket());
+
+        assertThrows(IOException.class, () -> packet.getFrame(Framing.VARINT, Encoding.JSON, false, p -> {
+            throw new IOException("failed");
+        }));
+        assertDoesNotThrow(() -> packet.getFrame(Framing.VARINT, Encoding.JSON, false, p -> new byte[0]));
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.network.connection;
+
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VarIntTest {
+
+    private static final int[] VALUES = {0, 1, 127, 128, 255, 300, 16383, 16384, 65535, 65536, VarInt.MAX_FRAME_SIZE};
+
+    @Test
+    void roundTripThroughBuffer() throws IOException {
+        for (int value : VALUES) {
+            ByteBuffer buffer = ByteBuffer.allocate(8);
+            VarInt.write(buffer, value);
+
+            assertEquals(VarInt.size(value), buffer.position());
+
+            buffer.flip();
+            assertEquals(value, VarInt.readFrameLength(buffer));
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    void roundTripThroughSink() throws IOException {
+        Buffer buffer = new Buffer();
+
+        for (int value : VALUES) {
+            VarInt.write(buffer, value);
+        }
+
+        for (int value : VALUES) {
+            assertEquals(value, VarInt.readFrameLength(buffer));
+        }
+
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void incompleteLengthIsNotConsumed() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        VarInt.write(buffer, 65536);
+        buffer.flip();
+        buffer.limit(2);
+
+        assertEquals(VarInt.INCOMPLETE, VarInt.readFrameLength(buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void oversizedFrameIsRejected() {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        VarInt.write(buffer, VarInt.MAX_FRAME_SIZE + 1);
+        buffer.flip();
+
+        assertThrows(ProtocolException.class, () -> VarInt.readFrameLength(buffer));
+
+        ByteBuffer malformed = ByteBuffer.wrap(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 1});
+        assertThrows(ProtocolException.class, () -> VarInt.readFrameLength(malformed));
+    }
+
+}
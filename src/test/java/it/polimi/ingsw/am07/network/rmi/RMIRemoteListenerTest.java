@@ -0,0 +1,179 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.network.rmi;
+
+import it.polimi.ingsw.am07.action.Action;
+import it.polimi.ingsw.am07.action.server.LobbyListAction;
+import it.polimi.ingsw.am07.server.executor.BoundedPoolServerExecutor;
+import it.polimi.ingsw.am07.server.executor.Liveness;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RMIRemoteListenerTest {
+
+    @Test
+    void notificationsAreDeliveredInOrder() throws InterruptedException {
+        ServerExecutor executor = new BoundedPoolServerExecutor(4);
+        FakeClient client = new FakeClient(RMIRemoteListener.MAX_PENDING_CALLS);
+        RMIRemoteListener listener = new RMIRemoteListener(client, executor);
+
+        List<Action> sent = new ArrayList<>();
+        for (int i = 0; i < RMIRemoteListener.MAX_PENDING_CALLS; i++) {
+            Action action = new LobbyListAction(List.of());
+            sent.add(action);
+            listener.notify(action);
+        }
+
+        assertTrue(client.delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(sent, client.received);
+        executor.shutdown();
+    }
+
+    @Test
+    void clientsFailingTooManyCallsAreEvicted() throws InterruptedException {
+        ServerExecutor executor = new BoundedPoolServerExecutor(2);
+        FakeClient client = new FakeClient(RMIRemoteListener.MAX_FAILED_CALLS);
+        client.failing = true;
+        AtomicInteger evictions = new AtomicInteger(0);
+        CountDownLatch evicted = new CountDownLatch(1);
+
+        RMIRemoteListener listener = new RMIRemoteListener(client, executor, new Liveness(5, TimeUnit.SECONDS), () -> {
+            evictions.incrementAndGet();
+            evicted.countDown();
+        });
+
+        for (int i = 0; i < RMIRemoteListener.MAX_FAILED_CALLS; i++) {
+            listener.notify(new LobbyListAction(List.of()));
+        }
+
+        assertTrue(evicted.await(5, TimeUnit.SECONDS));
+        assertFalse(listener.checkPulse());
+
+        listener.notify(new LobbyListAction(List.of()));
+        listener.ping();
+        Thread.sleep(50);
+
+        assertEquals(RMIRemoteListener.MAX_FAILED_CALLS, client.calls.get());
+        assertEquals(1, evictions.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void clientsFallingBehindAreEvicted() throws InterruptedException {
+        ServerExecutor executor = new BoundedPoolServerExecutor(2);
+        FakeClient client = new FakeClient(1);
+        client.blocked = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+
+        RMIRemoteListener listener = new RMIRemoteListener(client, executor, new Liveness(5, TimeUnit.SECONDS), evicted::countDown);
+
+        for (int i = 0; i <= RMIRemoteListener.MAX_PENDING_CALLS + 1; i++) {
+            listener.notify(new LobbyListAction(List.of()));
+        }
+
+        assertTrue(evicted.await(5, TimeUnit.SECONDS));
+        client.blocked.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void pingsKeepTheClientAlive() throws InterruptedException {
+        ServerExecutor executor = new BoundedPoolServerExecutor(2);
+        FakeClient client = new FakeClient(0);
+        Liveness liveness = new Liveness(100, TimeUnit.MILLISECONDS);
+        RMIRemoteListener listener = new RMIRemoteListener(client, executor, liveness, () -> {
+        });
+
+        Thread.sleep(150);
+        assertFalse(listener.checkPulse());
+
+        listener.ping();
+        assertTrue(client.pinged.await(5, TimeUnit.SECONDS));
+        Thread.sleep(20);
+
+        assertTrue(listener.checkPulse());
+        executor.shutdown();
+    }
+
+    private static class FakeClient implements RMIStatefulListener {
+
+        private final List<Action> received = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch delivered;
+        private final CountDownLatch pinged = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger(0);
+        private volatile boolean failing;
+        private volatile CountDownLatch blocked;
+
+        private FakeClient(int expected) {
+            delivered = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void notify(Action action) throws RemoteException {
+            calls.incrementAndGet();
+
+            if (blocked != null) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            if (failing) {
+                throw new RemoteException("timed out");
+            }
+
+            received.add(action);
+            delivered.countDown();
+        }
+
+        @Override
+        public boolean checkPulse() {
+            return true;
+        }
+
+        @Override
+        public void heartbeat() {
+            pinged.countDown();
+        }
+
+        @Override
+        public String getIdentity() {
+            return "fake";
+        }
+
+    }
+
+}
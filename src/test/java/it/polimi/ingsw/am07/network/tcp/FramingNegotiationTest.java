@@ -0,0 +1,164 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.network.tcp;
+
+import it.polimi.ingsw.am07.action.server.LobbyListAction;
+import it.polimi.ingsw.am07.model.ClientState;
+import it.polimi.ingsw.am07.network.ClientNetworkManager;
+import it.polimi.ingsw.am07.network.NetworkType;
+import it.polimi.ingsw.am07.network.ServerNetworkManager;
+import it.polimi.ingsw.am07.network.connection.Encoding;
+import it.polimi.ingsw.am07.network.connection.Framing;
+import it.polimi.ingsw.am07.network.connection.VarInt;
+import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.IdentityNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.NetworkPacket;
+import it.polimi.ingsw.am07.server.ServerDispatcher;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
+import it.polimi.ingsw.am07.utils.binary.NetworkBinarySerializer;
+import it.polimi.ingsw.am07.utils.json.NetworkJsonSerializer;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Okio;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FramingNegotiationTest {
+
+    private static final int BLOCKING_PORT = 34568;
+    private static final int NIO_PORT = 34569;
+
+    @Test
+    void blockingServerNegotiatesFraming() throws Exception {
+        ServerNetworkManager server = new ServerTCPNetworkManager(BLOCKING_PORT, new ServerDispatcher(new HashMap<>()), ServerExecutor.getDefault());
+        server.start();
+
+        try {
+            assertNegotiatingClientIsServed(BLOCKING_PORT, "blocking-client", Encoding.JSON);
+            assertNegotiatingClientIsServed(BLOCKING_PORT, "blocking-binary", Encoding.BINARY);
+            assertLegacyClientIsServed(BLOCKING_PORT, "blocking-legacy");
+            assertVarIntFramingIsAcknowledged(BLOCKING_PORT, "blocking-varint", Encoding.JSON);
+            assertVarIntFramingIsAcknowledged(BLOCKING_PORT, "blocking-varint-binary", Encoding.BINARY);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void nioServerNegotiatesFraming() throws Exception {
+        ServerNetworkManager server = new ServerNIONetworkManager(NIO_PORT, new ServerDispatcher(new HashMap<>()), ServerExecutor.getDefault(), 1);
+        server.start();
+
+        try {
+            assertNegotiatingClientIsServed(NIO_PORT, "nio-client", Encoding.JSON);
+            assertNegotiatingClientIsServed(NIO_PORT, "nio-binary", Encoding.BINARY);
+            assertLegacyClientIsServed(NIO_PORT, "nio-legacy");
+            assertVarIntFramingIsAcknowledged(NIO_PORT, "nio-varint", Encoding.JSON);
+            assertVarIntFramingIsAcknowledged(NIO_PORT, "nio-varint-binary", Encoding.BINARY);
+        } finally {
+            server.stop();
+        }
+    }
+
+    private void assertNegotiatingClientIsServed(int port, String identity, Encoding encoding) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        ClientState clientState = new ClientState((ClientState state) -> {
+            if (state.getAvailableLobbies() != null) {
+                latch.countDown();
+            }
+        }, identity);
+
+        ClientNetworkManager client = new ClientNetworkManager.Factory()
+                .withHostname("localhost")
+                .withPort(port)
+                .withNetworkType(NetworkType.TCP)
+                .withIdentity(identity)
+                .withState(clientState)
+                .withEncoding(encoding)
+                .build();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        client.disconnect();
+    }
+
+    private void assertVarIntFramingIsAcknowledged(int port, String identity, Encoding encoding) throws Exception {
+        NetworkJsonSerializer serializer = NetworkJsonSerializer.getInstance();
+
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout(5000);
+
+            DataOutputStream writer = new DataOutputStream(socket.getOutputStream());
+            DataInputStream reader = new DataInputStream(socket.getInputStream());
+
+            writer.writeUTF(serializer.toJson(new IdentityNetworkPacket(identity, Framing.VARINT, encoding)));
+
+            // The acknowledgement still uses the legacy framing, everything after it uses the negotiated one
+            IdentityNetworkPacket ack = assertInstanceOf(IdentityNetworkPacket.class, serializer.fromJson(reader.readUTF()));
+            assertEquals(Framing.VARINT, ack.getFraming());
+            assertEquals(encoding, ack.getEncoding());
+
+            BufferedSource source = Okio.buffer(Okio.source(reader));
+            Buffer payload = new Buffer();
+            source.readFully(payload, VarInt.readFrameLength(source));
+
+            NetworkPacket packet = encoding == Encoding.BINARY
+                    ? NetworkBinarySerializer.getInstance().fromBinary(payload)
+                    : serializer.fromJson(payload);
+
+            ActionNetworkPacket actionPacket = assertInstanceOf(ActionNetworkPacket.class, packet);
+            assertInstanceOf(LobbyListAction.class, actionPacket.getAction());
+        }
+    }
+
+    private void assertLegacyClientIsServed(int port, String identity) throws Exception {
+        NetworkJsonSerializer serializer = NetworkJsonSerializer.getInstance();
+
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout(5000);
+
+            DataOutputStream writer = new DataOutputStream(socket.getOutputStream());
+            DataInputStream reader = new DataInputStream(socket.getInputStream());
+
+            // A client that predates the negotiation never proposes a framing and must not receive an acknowledgement
+            writer.writeUTF(serializer.toJson(new IdentityNetworkPacket(identity)));
+
+            NetworkPacket packet = serializer.fromJson(reader.readUTF());
+
+            ActionNetworkPacket actionPacket = assertInstanceOf(ActionNetworkPacket.class, packet);
+            assertInstanceOf(LobbyListAction.class, actionPacket.getAction());
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.network.tcp;
+
+import it.polimi.ingsw.am07.model.ClientState;
+import it.polimi.ingsw.am07.network.ClientNetworkManager;
+import it.polimi.ingsw.am07.network.NetworkType;
+import it.polimi.ingsw.am07.network.ServerNetworkManager;
+import it.polimi.ingsw.am07.server.ServerDispatcher;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServerNIONetworkManagerTest {
+
+    private static final int PORT = 34567;
+    private static final int CLIENTS = 20;
+
+    @Test
+    void clientsReceiveLobbyList() throws InterruptedException {
+        ServerNetworkManager server = new ServerNIONetworkManager(PORT, new ServerDispatcher(new HashMap<>()), ServerExecutor.getDefault(), 2);
+        server.start();
+
+        CountDownLatch latch = new CountDownLatch(CLIENTS);
+        List<ClientNetworkManager> clients = new ArrayList<>();
+
+        for (int i = 0; i < CLIENTS; i++) {
+            boolean[] notified = {false};
+            ClientState clientState = new ClientState((ClientState state) -> {
+                if (!notified[0] && state.getAvailableLobbies() != null) {
+                    notified[0] = true;
+                    latch.countDown();
+                }
+            }, "nio-client" + i);
+
+            clients.add(new ClientNetworkManager.Factory()
+                    .withHostname("localhost")
+                    .withPort(PORT)
+                    .withNetworkType(NetworkType.TCP)
+                    .withIdentity("nio-client" + i)
+                    .withState(clientState)
+                    .build());
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        clients.forEach(ClientNetworkManager::disconnect);
+        server.stop();
+    }
+
+    @Test
+    void stopAfterFailedBind() throws IOException {
+        try (ServerSocket taken = new ServerSocket(PORT + 1)) {
+            ServerNetworkManager server = new ServerNIONetworkManager(PORT + 1, new ServerDispatcher(new HashMap<>()), ServerExecutor.getDefault(), 2);
+            server.start();
+
+            assertDoesNotThrow(server::stop);
+        }
+    }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.server;
+
+import it.polimi.ingsw.am07.action.Action;
+import it.polimi.ingsw.am07.action.lobby.ReconnectAction;
+import it.polimi.ingsw.am07.action.player.PlayerInitialChoiceAction;
+import it.polimi.ingsw.am07.action.server.HangGameAction;
+import it.polimi.ingsw.am07.model.game.Game;
+import it.polimi.ingsw.am07.model.game.Pawn;
+import it.polimi.ingsw.am07.model.game.Player;
+import it.polimi.ingsw.am07.model.lobby.Lobby;
+import it.polimi.ingsw.am07.reactive.Listener;
+import it.polimi.ingsw.am07.server.executor.VirtualThreadServerExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that games are processed in parallel by the server dispatcher.
+ * A listener of a game blocks while handling an action, as a slow remote client would: the other games, and the
+ * threads reporting disconnections, must not wait for it, which a dispatcher serializing all games could not do.
+ * The throughput of several games is measured by ServerDispatcherBenchmark.
+ */
+class ServerDispatcherConcurrencyTest {
+
+    private static final int PLAYERS_PER_GAME = 2;
+
+    @Test
+    void gamesAreProcessedConcurrently() throws Exception {
+        Map<UUID, Game> games = new ConcurrentHashMap<>();
+        Game blocked = newGame(0);
+        Game other = newGame(1);
+        games.put(blocked.getId(), blocked);
+        games.put(other.getId(), other);
+
+        ServerDispatcher dispatcher = new ServerDispatcher(games, new VirtualThreadServerExecutor());
+
+        CountDownLatch blockedNotified = new CountDownLatch(1);
+        CountDownLatch otherNotified = new CountDownLatch(1);
+        List<BlockingListener> listeners = new ArrayList<>();
+
+        for (Game game : List.of(blocked, other)) {
+            for (Player player : game.getPlayers()) {
+                BlockingListener listener = game == blocked
+                        ? new BlockingListener(player.getIdentity(), blockedNotified, otherNotified)
+                        : new BlockingListener(player.getIdentity(), otherNotified, null);
+                listeners.add(listener);
+                connect(dispatcher, player, listener);
+            }
+        }
+
+        dispatcher.execute(initialChoice(blocked.getPlayers().getFirst()));
+        assertTrue(blockedNotified.await(5, TimeUnit.SECONDS));
+
+        dispatcher.execute(initialChoice(other.getPlayers().getFirst()));
+        assertTrue(otherNotified.await(5, TimeUnit.SECONDS), "Games are not processed in parallel");
+
+        for (BlockingListener listener : listeners) {
+            assertFalse(listener.timedOut, "The action of the other game was not notified while the first game was blocked");
+        }
+    }
+
+    @Test
+    void disconnectionsAreQueuedInTheGameMailbox() throws Exception {
+        Map<UUID, Game> games = new ConcurrentHashMap<>();
+        Game game = newGame(0);
+        games.put(game.getId(), game);
+
+        ServerDispatcher dispatcher = new ServerDispatcher(games, new VirtualThreadServerExecutor());
+
+        CountDownLatch notified = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        Player blockedPlayer = game.getPlayers().get(0);
+        Player leavingPlayer = game.getPlayers().get(1);
+        BlockingListener blockedListener = new BlockingListener(blockedPlayer.getIdentity(), notified, released);
+        BlockingListener leavingListener = new BlockingListener(leavingPlayer.getIdentity(), new CountDownLatch(1), null);
+        connect(dispatcher, blockedPlayer, blockedListener);
+        connect(dispatcher, leavingPlayer, leavingListener);
+
+        dispatcher.execute(initialChoice(blockedPlayer));
+        assertTrue(notified.await(5, TimeUnit.SECONDS));
+
+        // Returns while the game is still blocked, and the disconnection reaches the game after the blocking action
+        dispatcher.removeListener(leavingListener);
+        assertEquals(1, blockedListener.disconnections.getCount());
+        released.countDown();
+
+        assertTrue(blockedListener.disconnections.await(5, TimeUnit.SECONDS));
+        assertFalse(blockedListener.timedOut, "The disconnection waited for the game");
+        assertTrue(game.shouldFreezeGame());
+
+        // Listeners that were never registered, or were already removed, are ignored
+        assertDoesNotThrow(() -> dispatcher.removeListener(leavingListener));
+    }
+
+    /**
+     * Create a new game.
+     *
+     * @param index the index of the game, used to build unique identities
+     * @return the game
+     */
+    private Game newGame(int index) {
+        Lobby lobby = new Lobby();
+        for (int i = 0; i < PLAYERS_PER_GAME; i++) {
+            lobby.addNewPlayer("player" + i, "game" + index + "-player" + i, Pawn.values()[i]);
+        }
+
+        return new Game.Factory()
+                .fromLobby(lobby)
+                .build();
+    }
+
+    /**
+     * Connect the listener of a player to its game, as a reconnecting client would.
+     *
+     * @param dispatcher the server dispatcher
+     * @param player     the player
+     * @param listener   the listener of the player
+     */
+    private void connect(ServerDispatcher dispatcher, Player player, BlockingListener listener) throws InterruptedException {
+        dispatcher.registerNewListener(listener);
+        assertTrue(listener.awaitFirstNotification());
+
+        dispatcher.execute(new ReconnectAction(player.getNickname(), player.getIdentity()));
+    }
+
+    /**
+     * Build the initial choice of a player.
+     *
+     * @param player the player
+     * @return the action
+     */
+    private Action initialChoice(Player player) {
+        return new PlayerInitialChoiceAction(player.getNickname(), player.getIdentity(), player.getAvailableObjectives()[0], player.getStarterCard().front());
+    }
+
+    /**
+     * A listener that reports the initial choices of its game and, if asked to, blocks on them until another latch
+     * is released. It also reports the disconnections of the other players.
+     */
+    private static class BlockingListener implements Listener {
+
+        private final String identity;
+        private final CountDownLatch notified;
+        private final CountDownLatch blockUntil;
+        private final CountDownLatch firstNotification;
+        private final CountDownLatch disconnections;
+        private volatile boolean timedOut;
+
+        BlockingListener(String identity, CountDownLatch notified, CountDownLatch blockUntil) {
+            this.identity = identity;
+            this.notified = notified;
+            this.blockUntil = blockUntil;
+            this.firstNotification = new CountDownLatch(1);
+            this.disconnections = new CountDownLatch(1);
+        }
+
+        @Override
+        public void notify(Action action) {
+            firstNotification.countDown();
+
+            if (action instanceof HangGameAction) {
+                disconnections.countDown();
+            }
+
+            if (!(action instanceof PlayerInitialChoiceAction)) {
+                return;
+            }
+
+            notified.countDown();
+
+            if (blockUntil != null) {
+                try {
+                    timedOut = !blockUntil.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public String getIdentity() {
+            return identity;
+        }
+
+        boolean awaitFirstNotification() throws InterruptedException {
+            return firstNotification.await(5, TimeUnit.SECONDS);
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.polimi.ingsw.am07.server.controller;
+
+import it.polimi.ingsw.am07.action.Action;
+import it.polimi.ingsw.am07.action.error.ErrorAction;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionLogTest {
+
+    @Test
+    void validateMissedActions() {
+        ActionLog log = new ActionLog(4, 10);
+
+        for (long version = 11; version <= 13; version++) {
+            log.append(stamped(version));
+        }
+
+        assertEquals(13, log.getLastVersion());
+        assertEquals(List.of(), log.since(13));
+        assertEquals(List.of(12L, 13L), versions(log.since(11)));
+        assertEquals(List.of(11L, 12L, 13L), versions(log.since(10)));
+
+        // The log does not know about versions before its creation, nor about the future
+        assertNull(log.since(9));
+        assertNull(log.since(14));
+    }
+
+    @Test
+    void validateEviction() {
+        ActionLog log = new ActionLog(4, 0);
+
+        for (long version = 1; version <= 10; version++) {
+            log.append(stamped(version));
+        }
+
+        assertEquals(List.of(7L, 8L, 9L, 10L), versions(log.since(6)));
+        assertNull(log.since(5));
+    }
+
+    @Test
+    void validateVersionGapIsRejected() {
+        ActionLog log = new ActionLog(4, 0);
+
+        log.append(stamped(1));
+
+        assertThrows(IllegalArgumentException.class, () -> log.append(stamped(3)));
+        assertThrows(IllegalArgumentException.class, () -> new ActionLog(0, 0));
+    }
+
+    private Action stamped(long version) {
+        Action action = new ErrorAction("test");
+        action.setGameVersion(version);
+        return action;
+    }
+
+    private List<Long> versions(List<Action> actions) {
+        return actions.stream().map(Action::getGameVersion).toList();
+    }
+
+}
@@ -23,6 +23,202 @@
 
 package it.polimi.ingsw.am07.server.controller;
 
+import it.polimi.ingsw.am07.action.Action;
+import it.polimi.ingsw.am07.action.player.PlayerInitialChoiceAction;
+import it.polimi.ingsw.am07.action.player.PlayerPickCardAction;
+import it.polimi.ingsw.am07.action.player.PlayerPlaceCardAction;
+import it.polimi.ingsw.am07.action.server.HangGameAction;
+import it.polimi.ingsw.am07.action.server.ResumeGameAction;
+import it.polimi.ingsw.am07.action.server.ServerGameStartAction;
+import it.polimi.ingsw.am07.model.ClientState;
+import it.polimi.ingsw.am07.model.game.Game;
+import it.polimi.ingsw.am07.model.game.Pawn;
+import it.polimi.ingsw.am07.model.game.Player;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
+import it.polimi.ingsw.am07.model.lobby.Lobby;
+import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
+import it.polimi.ingsw.am07.reactive.ClientListener;
+import it.polimi.ingsw.am07.utils.binary.NetworkBinarySerializer;
+import it.polimi.ingsw.am07.utils.json.NetworkJsonSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 class GameControllerTest {
 
-}
\ No newline at end of file
+    @Test
+    void validateActionsAreVersioned() {
+        Game game = newGame();
+        GameController controller = new GameController(game);
+
+        Action start = new ServerGameStartAction(game);
+        controller.execute(start);
+
+        assertEquals(1, start.getGameVersion());
+        assertEquals(1, game.getVersion());
+    }
+
+    @Test
+    void validateResumeWithMissedActions() {
+        Game game = newGame();
+        GameController controller = new GameController(game);
+
+        Player reconnecting = game.getPlayers().get(1);
+        WireListener listener = new WireListener(reconnecting);
+        WireListener other = new WireListener(game.getPlayers().getFirst());
+        controller.registerNewListener(listener);
+        controller.registerNewListener(other);
+
+        controller.execute(new ServerGameStartAction(game));
+        for (Player player : game.getPlayers()) {
+            controller.execute(new PlayerInitialChoiceAction(player.getNickname(), player.getIdentity(), player.getAvailableObjectives()[0], player.getStarterCard().front()));
+        }
+
+        // The player loses connection while the others keep playing
+        controller.removeListener(listener);
+        controller.execute(new HangGameAction(reconnecting.getIdentity()));
+        playTurns(controller, game, 4);
+
+        WireListener resumed = new WireListener(reconnecting, listener.state);
+        controller.resume(resumed, listener.state.getGameId(), listener.state.getGameVersion());
+
+        ResumeGameAction resume = (ResumeGameAction) resumed.received.getFirst();
+        int deltaSize = encodedSize(resume);
+        int snapshotSize = encodedSize(new ResumeGameAction(game, reconnecting.getIdentity()));
+
+        assertEquals(1, resumed.received.size());
+        assertTrue(deltaSize < snapshotSize, "Expected the missed actions (" + deltaSize + " bytes) to be smaller than a snapshot (" + snapshotSize + " bytes)");
+        assertEquals(game.getVersion(), resumed.state.getGameVersion());
+        assertSameGame(game, resumed.state.getGameModel());
+
+        // The other players only learn that the player is back
+        int comebackSize = encodedSize(other.received.getLast());
+        assertTrue(comebackSize < deltaSize, "Expected the other players to receive less (" + comebackSize + " bytes) than the missed actions (" + deltaSize + " bytes)");
+        assertEquals(game.getVersion(), other.state.getGameVersion());
+        assertSameGame(game, other.state.getGameModel());
+    }
+
+    @Test
+    void validateResumeFallsBackToSnapshot() {
+        Game game = newGame();
+        GameController controller = new GameController(game);
+
+        controller.execute(new ServerGameStartAction(game));
+
+        Player reconnecting = game.getPlayers().get(1);
+        WireListener listener = new WireListener(reconnecting);
+        controller.resume(listener, null, 0);
+
+        assertEquals(game.getVersion(), listener.state.getGameVersion());
+        assertSameGame(game, listener.state.getGameModel());
+
+        // A client that has seen a version the server does not know about, e.g. after a server restart
+        WireListener future = new WireListener(reconnecting);
+        controller.resume(future, game.getId(), game.getVersion() + 10);
+
+        assertEquals(game.getVersion(), future.state.getGameVersion());
+        assertSameGame(game, future.state.getGameModel());
+
+        // A client whose version belongs to another game, e.g. the previous game of the player
+        WireListener previousGame = new WireListener(reconnecting);
+        controller.resume(previousGame, UUID.randomUUID(), 1);
+
+        assertEquals(game.getVersion(), previousGame.state.getGameVersion());
+        assertSameGame(game, previousGame.state.getGameModel());
+    }
+
+    private Game newGame() {
+        Lobby lobby = new Lobby();
+        lobby.addNewPlayer("test1", "test1", Pawn.YELLOW);
+        lobby.addNewPlayer("test2", "test2", Pawn.BLUE);
+        lobby.addNewPlayer("test3", "test3", Pawn.GREEN);
+        return new Game.Factory().fromLobby(lobby).build();
+    }
+
+    private void playTurns(GameController controller, Game game, int turns) {
+        Map<String, Integer> placed = new HashMap<>();
+
+        for (int turn = 0; turn < turns; turn++) {
+            Player player = game.getPlayingPlayer();
+            int position = placed.merge(player.getNickname(), 1, Integer::sum);
+
+            controller.execute(new PlayerPlaceCardAction(player.getNickname(), player.getIdentity(), player.getPlayableCards().getFirst().back(), new GameFieldPosition(position, position)));
+            controller.execute(new PlayerPickCardAction(player.getNickname(), player.getIdentity(), game.getDeck().peekTopResCard()));
+        }
+    }
+
+    private int encodedSize(Action action) {
+        return NetworkBinarySerializer.getInstance(true).toBinary(new ActionNetworkPacket(action)).length;
+    }
+
+    private void assertSameGame(Game expected, Game actual) {
+        NetworkJsonSerializer serializer = NetworkJsonSerializer.getInstance();
+
+        Game expectedCopy = new Game(expected);
+        Game actualCopy = new Game(actual);
+        expectedCopy.setSelfNickname(null);
+        actualCopy.setSelfNickname(null);
+
+        assertEquals(
+                serializer.toJson(new ActionNetworkPacket(new ServerGameStartAction(expectedCopy))),
+                serializer.toJson(new ActionNetworkPacket(new ServerGameStartAction(actualCopy)))
+        );
+    }
+
+    /**
+     * Listener that receives the actions through the wire encoding, like a remote client would.
+     */
+    private static class WireListener extends ClientListener {
+
+        private final ClientState state;
+        private final List<Action> received;
+
+        private WireListener(Player player) {
+            this(player, newState(player));
+        }
+
+        private WireListener(Player player, ClientState state) {
+            super(state);
+            this.state = state;
+            this.received = new ArrayList<>();
+        }
+
+        private static ClientState newState(Player player) {
+            ClientState state = new ClientState(s -> {
+            }, player.getIdentity());
+            state.setNickname(player.getNickname());
+            return state;
+        }
+
+        @Override
+        public void notify(Action action) {
+            NetworkBinarySerializer serializer = NetworkBinarySerializer.getInstance(true);
+            Action decoded = ((ActionNetworkPacket) serializer.fromBinary(serializer.toBinary(new ActionNetworkPacket(action)))).getAction();
+
+            received.add(decoded);
+            reflect(decoded);
+        }
+
+        @Override
+        public String getIdentity() {
+            return state.getIdentity();
+        }
+
+        @Override
+        public boolean checkPulse() {
+            return true;
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.server.executor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServerExecutorTest {
+
+    @Test
+    void virtualThreadExecutorRunsTasks() throws InterruptedException {
+        runsTasks(new VirtualThreadServerExecutor());
+    }
+
+    @Test
+    void boundedPoolExecutorRunsTasks() throws InterruptedException {
+        runsTasks(new BoundedPoolServerExecutor(2));
+    }
+
+    @Test
+    void scheduledTasksDoNotOverlap() throws InterruptedException {
+        ServerExecutor executor = new BoundedPoolServerExecutor(4);
+        AtomicInteger running = new AtomicInteger(0);
+        AtomicInteger maxRunning = new AtomicInteger(0);
+        CountDownLatch latch = new CountDownLatch(3);
+
+        ScheduledFuture<?> future = executor.scheduleAtFixedRate(() -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            latch.countDown();
+        }, 5, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        future.cancel(false);
+        executor.shutdown();
+
+        assertEquals(1, maxRunning.get());
+    }
+
+    private void runsTasks(ServerExecutor executor) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1001);
+
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(latch::countDown);
+        }
+        executor.spawn("long-lived", latch::countDown);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.server.executor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void timeoutsRunAfterTheirDelay() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(5, TimeUnit.MILLISECONDS, 8);
+        CountDownLatch latch = new CountDownLatch(2);
+        long start = System.nanoTime();
+
+        wheel.schedule(latch::countDown, 20, TimeUnit.MILLISECONDS);
+        // Farther than a whole turn of the wheel
+        wheel.schedule(latch::countDown, 100, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        wheel.shutdown();
+    }
+
+    @Test
+    void cancelledTimeoutsDoNotRun() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(5, TimeUnit.MILLISECONDS, 8);
+        AtomicBoolean run = new AtomicBoolean(false);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        TimingWheel.Timeout timeout = wheel.schedule(() -> run.set(true), 20, TimeUnit.MILLISECONDS);
+        timeout.cancel();
+        wheel.schedule(latch::countDown, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(timeout.isCancelled());
+        assertFalse(run.get());
+        wheel.shutdown();
+    }
+
+    @Test
+    void periodicTimeoutsRunUntilCancelled() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(5, TimeUnit.MILLISECONDS, 8);
+        AtomicInteger runs = new AtomicInteger(0);
+        CountDownLatch latch = new CountDownLatch(3);
+
+        TimingWheel.Timeout timeout = wheel.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            latch.countDown();
+        }, 10, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        timeout.cancel();
+
+        int cancelledAt = runs.get();
+        Thread.sleep(50);
+        assertTrue(runs.get() <= cancelledAt + 1);
+        wheel.shutdown();
+    }
+
+    @Test
+    void touchedPeersDoNotExpire() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(5, TimeUnit.MILLISECONDS, 8);
+        CountDownLatch expired = new CountDownLatch(1);
+
+        Liveness liveness = wheel.track(200, TimeUnit.MILLISECONDS, expired::countDown);
+
+        for (int i = 0; i < 6; i++) {
+            Thread.sleep(30);
+            liveness.touch();
+        }
+
+        assertTrue(liveness.isAlive());
+        assertEquals(1, expired.getCount());
+
+        assertTrue(expired.await(5, TimeUnit.SECONDS));
+        assertFalse(liveness.isAlive());
+        wheel.shutdown();
+    }
+
+    @Test
+    void cancelledPeersDoNotExpire() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(5, TimeUnit.MILLISECONDS, 8);
+        AtomicBoolean expired = new AtomicBoolean(false);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Liveness liveness = wheel.track(20, TimeUnit.MILLISECONDS, () -> expired.set(true));
+        liveness.cancel();
+        wheel.schedule(latch::countDown, 60, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertFalse(expired.get());
+        assertFalse(liveness.isAlive());
+        wheel.shutdown();
+    }
+
+    @Test
+    void idlePeersAreProbedUntilTheyExpire() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(5, TimeUnit.MILLISECONDS, 8);
+        AtomicInteger probes = new AtomicInteger(0);
+        CountDownLatch expired = new CountDownLatch(1);
+
+        Liveness liveness = wheel.track(200, 40, TimeUnit.MILLISECONDS, probes::incrementAndGet, expired::countDown);
+
+        // A peer seen often is never probed
+        for (int i = 0; i < 6; i++) {
+            Thread.sleep(10);
+            liveness.touch();
+        }
+        assertEquals(0, probes.get());
+
+        assertTrue(expired.await(5, TimeUnit.SECONDS));
+        assertTrue(probes.get() >= 3);
+        assertFalse(liveness.isAlive());
+        wheel.shutdown();
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.simulation;
+
+import it.polimi.ingsw.am07.action.Action;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSimulatorTest {
+
+    @Test
+    void gamesAreReproducible() {
+        GameSimulator simulator = new GameSimulator.Factory()
+                .withPlayer(new GreedyStrategy())
+                .withPlayer(new RandomStrategy())
+                .withPlayer(new RandomStrategy())
+                .withSeed(42)
+                .withRecordedActions(true)
+                .build();
+
+        for (long game = 0; game < 20; game++) {
+            SimulationResult result = simulator.simulate(game);
+            SimulationResult again = simulator.simulate(game);
+
+            assertTrue(result.completed());
+            assertFalse(result.winners().isEmpty());
+            assertEquals(result.turns(), again.turns());
+            assertEquals(result.scores(), again.scores());
+            assertEquals(result.winners(), again.winners());
+
+            // 3 initial choices, then a placement and a pick per turn
+            assertEquals(3 + 2 * result.turns(), result.actions().size());
+            for (int i = 0; i < result.actions().size(); i++) {
+                Action action = result.actions().get(i);
+                assertEquals(i + 1, action.getGameVersion());
+                assertEquals(action.getClass(), again.actions().get(i).getClass());
+            }
+        }
+    }
+
+    @Test
+    void parallelRunMatchesSequentialGames() {
+        GameSimulator simulator = new GameSimulator.Factory()
+                .withPlayer(new GreedyStrategy())
+                .withPlayer(new RandomStrategy())
+                .withSeed(7)
+                .build();
+
+        SimulationSummary expected = new SimulationSummary(2);
+        for (long game = 0; game < 200; game++) {
+            SimulationResult result = simulator.simulate(game);
+            assertNull(result.actions());
+            expected.add(result);
+        }
+
+        SimulationSummary summary = simulator.run(200);
+        assertEquals(200, summary.getGames());
+        assertEquals(expected.getCompletedGames(), summary.getCompletedGames());
+        assertEquals(expected.getAverageTurns(), summary.getAverageTurns());
+        for (int seat = 0; seat < 2; seat++) {
+            assertEquals(expected.getWins(seat), summary.getWins(seat));
+            assertEquals(expected.getAverageScore(seat), summary.getAverageScore(seat), 1e-9);
+        }
+
+        // The greedy strategy should beat a random one
+        assertTrue(summary.getWins(0) > summary.getWins(1));
+    }
+
+    @Test
+    void playersCount() {
+        assertThrows(IllegalArgumentException.class, () -> new GameSimulator.Factory().withPlayer(new RandomStrategy()).build());
+    }
+
+}
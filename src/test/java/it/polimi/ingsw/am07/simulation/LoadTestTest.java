@@ -0,0 +1,103 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.simulation;
+
+import it.polimi.ingsw.am07.network.NetworkType;
+import it.polimi.ingsw.am07.server.Server;
+import it.polimi.ingsw.am07.server.executor.BoundedPoolServerExecutor;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadTestTest {
+
+    @TempDir
+    Path savedGames;
+
+    private ServerExecutor executor;
+    private Server server;
+
+    @AfterEach
+    void stopServer() {
+        if (server != null) {
+            server.stop();
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void botsPlayAgainstALocalServer() throws IOException {
+        int tcpPort;
+        int rmiPort;
+        // Both sockets are open at once, so that the two ports differ
+        try (ServerSocket tcpSocket = new ServerSocket(0); ServerSocket rmiSocket = new ServerSocket(0)) {
+            tcpPort = tcpSocket.getLocalPort();
+            rmiPort = rmiSocket.getLocalPort();
+        }
+
+        executor = new BoundedPoolServerExecutor(4);
+        server = new Server.Factory()
+                .withTcpPort(tcpPort)
+                .withRmiPort(rmiPort)
+                .withExecutor(executor)
+                .withSavedGamesDirectory(savedGames)
+                .build();
+        server.entrypoint();
+
+        LoadTestReport report = new LoadTest.Factory()
+                .withTcpPort(tcpPort)
+                .withRmiPort(rmiPort)
+                .withGames(2)
+                .withPlayer(new GreedyStrategy())
+                .withPlayer(new GreedyStrategy())
+                .withNetworkType(NetworkType.TCP)
+                .withNetworkType(NetworkType.RMI)
+                .withTimeout(30000)
+                .build()
+                .run();
+
+        assertEquals(2, report.games());
+        assertEquals(report.games(), report.completedGames(), "Some games stalled or failed: " + report);
+        assertEquals(0, report.stalledGames());
+
+        // Seats alternate between the transports
+        for (NetworkType networkType : NetworkType.values()) {
+            TransportStatistics statistics = report.getStatistics(networkType);
+            assertEquals(2, statistics.getBots());
+            assertTrue(statistics.getActions() > 0);
+            assertTrue(statistics.getLatencyPercentile(0.5) > 0);
+            assertTrue(statistics.getLatencyPercentile(0.5) <= statistics.getLatencyPercentile(1));
+        }
+    }
+
+}
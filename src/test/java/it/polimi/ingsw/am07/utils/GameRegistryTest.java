@@ -0,0 +1,264 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.polimi.ingsw.am07.utils;
+
+import it.polimi.ingsw.am07.action.chat.SendMessageAction;
+import it.polimi.ingsw.am07.action.player.PlayerInitialChoiceAction;
+import it.polimi.ingsw.am07.action.player.PlayerPickCardAction;
+import it.polimi.ingsw.am07.action.player.PlayerPlaceCardAction;
+import it.polimi.ingsw.am07.action.server.ServerGameStartAction;
+import it.polimi.ingsw.am07.model.chat.ChatMessage;
+import it.polimi.ingsw.am07.model.game.Game;
+import it.polimi.ingsw.am07.model.game.Pawn;
+import it.polimi.ingsw.am07.model.game.Player;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
+import it.polimi.ingsw.am07.model.lobby.Lobby;
+import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
+import it.polimi.ingsw.am07.server.controller.GameController;
+import it.polimi.ingsw.am07.server.executor.ServerExecutor;
+import it.polimi.ingsw.am07.utils.json.NetworkJsonSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameRegistryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void validateRestoreFromJournal() throws Exception {
+        GameRegistry registry = new GameRegistry(directory);
+        Game game = newGame();
+        GameController controller = new GameController(game, ServerExecutor.getDefault(), registry.register(game));
+
+        controller.execute(new ServerGameStartAction(game));
+        for (Player player : game.getPlayers()) {
+            controller.execute(new PlayerInitialChoiceAction(player.getNickname(), player.getIdentity(), player.getAvailableObjectives()[0], player.getStarterCard().front()));
+        }
+
+        // The first save writes the snapshot, the following ones only append to the journal
+        assertTrue(registry.saveState());
+        playTurns(controller, game, 3);
+        assertTrue(registry.saveState());
+
+        assertTrue(Files.size(journal(game)) > 0);
+        String saved = toJson(game);
+        long savedVersion = game.getVersion();
+
+        // Actions executed after the last save are lost on a crash
+        playTurns(controller, game, 1);
+
+        Game restored = new GameRegistry(directory).getGame(game.getId());
+
+        assertNotNull(restored);
+        assertEquals(savedVersion, restored.getVersion());
+        assertEquals(saved, toJson(restored));
+    }
+
+    @Test
+    void validateTornTailIsDiscarded() throws Exception {
+        GameRegistry registry = new GameRegistry(directory);
+        Game game = newGame();
+        GameController controller = new GameController(game, ServerExecutor.getDefault(), registry.register(game));
+
+        controller.execute(new ServerGameStartAction(game));
+        registry.saveState();
+        sendMessages(controller, game, 5);
+        registry.saveState();
+
+        long journalSize = Files.size(journal(game));
+        String saved = toJson(game);
+
+        // A record cut short by a crash
+        Files.write(journal(game), new byte[]{0, 0, 1, 0, 42, 42}, StandardOpenOption.APPEND);
+
+        GameRegistry reloaded = new GameRegistry(directory);
+        Game restored = reloaded.getGame(game.getId());
+
+        assertEquals(saved, toJson(restored));
+        assertEquals(journalSize, Files.size(journal(game)));
+
+        // The journal goes on after the last valid record
+        GameController restoredController = new GameController(restored, ServerExecutor.getDefault(), reloaded.getJournal(restored));
+        sendMessages(restoredController, restored, 1);
+        reloaded.saveState();
+
+        assertEquals(toJson(restored), toJson(new GameRegistry(directory).getGame(game.getId())));
+    }
+
+    @Test
+    void validateCompaction() throws Exception {
+        GameRegistry registry = new GameRegistry(directory);
+        Game game = newGame();
+        GameController controller = new GameController(game, ServerExecutor.getDefault(), registry.register(game));
+
+        registry.saveState();
+        sendMessages(controller, game, GameRegistry.COMPACTION_THRESHOLD);
+        registry.saveState();
+
+        assertTrue(Files.size(journal(game)) > 0);
+
+        // The journal is compacted on the next save of the game
+        sendMessages(controller, game, 1);
+        registry.saveState();
+
+        assertEquals(0, Files.size(journal(game)));
+        assertEquals(toJson(game), toJson(new GameRegistry(directory).getGame(game.getId())));
+    }
+
+    @Test
+    void validateRemovedGamesAreDeleted() {
+        GameRegistry registry = new GameRegistry(directory);
+        Game game = newGame();
+        GameController controller = new GameController(game, ServerExecutor.getDefault(), registry.register(game));
+
+        controller.execute(new ServerGameStartAction(game));
+        registry.saveState();
+
+        assertTrue(Files.exists(directory.resolve(game.getId() + ".snapshot")));
+
+        registry.unregister(game.getId());
+        registry.saveState();
+
+        assertFalse(Files.exists(directory.resolve(game.getId() + ".snapshot")));
+        assertFalse(Files.exists(journal(game)));
+        assertNull(new GameRegistry(directory).getGame(game.getId()));
+    }
+
+    @Test
+    void validateGamesAreLoadedLazily() {
+        GameRegistry registry = new GameRegistry(directory);
+        Game game = newGame();
+        Lobby lobby = new Lobby();
+        lobby.addNewPlayer("test3", "test3", Pawn.GREEN);
+        lobby.addNewPlayer("test4", "test4", Pawn.RED);
+        Game other = new Game.Factory().fromLobby(lobby).build();
+        GameController controller = new GameController(game, ServerExecutor.getDefault(), registry.register(game));
+        new GameController(other, ServerExecutor.getDefault(), registry.register(other));
+
+        controller.execute(new ServerGameStartAction(game));
+        registry.saveState();
+
+        // Only the manifest is read on startup
+        GameRegistry reloaded = new GameRegistry(directory);
+        assertTrue(reloaded.getGames().isEmpty());
+
+        Player player = game.getPlayers().getFirst();
+        assertNull(reloaded.findGame(player.getIdentity(), "someone else"));
+        assertNull(reloaded.findGame("unknown", player.getNickname()));
+
+        Game restored = reloaded.findGame(player.getIdentity(), player.getNickname());
+
+        assertEquals(toJson(game), toJson(restored));
+        assertSame(restored, reloaded.findGame(player.getIdentity(), player.getNickname()));
+        assertEquals(List.of(game.getId()), List.copyOf(reloaded.getGames().keySet()));
+    }
+
+    @Test
+    void validateOnlyDirtyGamesAreSaved() throws Exception {
+        GameRegistry registry = new GameRegistry(directory);
+        Game game = newGame();
+        Game idle = newGame();
+        GameController controller = new GameController(game, ServerExecutor.getDefault(), registry.register(game));
+        new GameController(idle, ServerExecutor.getDefault(), registry.register(idle));
+
+        registry.saveState();
+
+        Path idleSnapshot = directory.resolve(idle.getId() + ".snapshot");
+        assertTrue(Files.exists(idleSnapshot));
+        Files.delete(idleSnapshot);
+
+        controller.execute(new ServerGameStartAction(game));
+        registry.saveState();
+
+        // The idle game has not been touched, so it has not been written again
+        assertFalse(Files.exists(idleSnapshot));
+        assertTrue(Files.size(journal(game)) > 0);
+    }
+
+    @Test
+    void validateLegacyGamesAreImported() throws Exception {
+        Game game = newGame();
+        Map<UUID, Game> legacyGames = new HashMap<>();
+        legacyGames.put(game.getId(), game);
+
+        // Older versions wrote the map of every game next to the directory of the saved games
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(directory.resolve("savedGames.ser")))) {
+            out.writeObject(legacyGames);
+        }
+
+        Path savedGames = directory.resolve("savedGames");
+        Player player = game.getPlayers().getFirst();
+
+        Game imported = new GameRegistry(savedGames).findGame(player.getIdentity(), player.getNickname());
+        assertNotNull(imported);
+        assertEquals(toJson(game), toJson(imported));
+        assertTrue(Files.exists(savedGames.resolve(game.getId() + ".snapshot")));
+    }
+
+    private Game newGame() {
+        Lobby lobby = new Lobby();
+        lobby.addNewPlayer("test1", "test1", Pawn.YELLOW);
+        lobby.addNewPlayer("test2", "test2", Pawn.BLUE);
+        return new Game.Factory().fromLobby(lobby).build();
+    }
+
+    private void playTurns(GameController controller, Game game, int turns) {
+        for (int turn = 0; turn < turns; turn++) {
+            Player player = game.getPlayingPlayer();
+            int position = player.getPlacedCards().size();
+
+            controller.execute(new PlayerPlaceCardAction(player.getNickname(), player.getIdentity(), player.getPlayableCards().getFirst().back(), new GameFieldPosition(position, position)));
+            controller.execute(new PlayerPickCardAction(player.getNickname(), player.getIdentity(), game.getDeck().peekTopResCard()));
+        }
+    }
+
+    private void sendMessages(GameController controller, Game game, int count) {
+        Player sender = game.getPlayers().getFirst();
+        Player receiver = game.getPlayers().getLast();
+
+        for (int i = 0; i < count; i++) {
+            controller.execute(new SendMessageAction(sender.getNickname(), sender.getIdentity(), new ChatMessage(sender.getNickname(), List.of(receiver.getNickname()), "message " + i)));
+        }
+    }
+
+    private Path journal(Game game) {
+        return directory.resolve(game.getId() + ".journal");
+    }
+
+    private String toJson(Game game) {
+        return NetworkJsonSerializer.getInstance().toJson(new ActionNetworkPacket(new ServerGameStartAction(game)));
+    }
+
+}
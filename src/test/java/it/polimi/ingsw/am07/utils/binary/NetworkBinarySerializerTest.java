@@ -0,0 +1,271 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.binary;
+
+import it.polimi.ingsw.am07.action.Action;
+import it.polimi.ingsw.am07.action.chat.SendMessageAction;
+import it.polimi.ingsw.am07.action.error.ErrorAction;
+import it.polimi.ingsw.am07.action.lobby.CreateLobbyAction;
+import it.polimi.ingsw.am07.action.lobby.GameStartAction;
+import it.polimi.ingsw.am07.action.lobby.PlayerJoinAction;
+import it.polimi.ingsw.am07.action.lobby.ReconnectAction;
+import it.polimi.ingsw.am07.action.player.PlayerInitialChoiceAction;
+import it.polimi.ingsw.am07.action.player.PlayerPickCardAction;
+import it.polimi.ingsw.am07.action.player.PlayerPlaceCardAction;
+import it.polimi.ingsw.am07.action.server.*;
+import it.polimi.ingsw.am07.model.chat.ChatMessage;
+import it.polimi.ingsw.am07.model.game.Game;
+import it.polimi.ingsw.am07.model.game.Pawn;
+import it.polimi.ingsw.am07.model.game.Player;
+import it.polimi.ingsw.am07.model.game.card.GameCard;
+import it.polimi.ingsw.am07.model.game.gamefield.GameFieldPosition;
+import it.polimi.ingsw.am07.model.lobby.Lobby;
+import it.polimi.ingsw.am07.model.lobby.LobbyPlayer;
+import it.polimi.ingsw.am07.network.connection.Encoding;
+import it.polimi.ingsw.am07.network.connection.Framing;
+import it.polimi.ingsw.am07.network.connection.VarInt;
+import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.HeartbeatNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.IdentityNetworkPacket;
+import it.polimi.ingsw.am07.network.packets.NetworkPacket;
+import it.polimi.ingsw.am07.utils.assets.GameResources;
+import it.polimi.ingsw.am07.utils.json.NetworkJsonSerializer;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkBinarySerializerTest {
+
+    @Test
+    void validatePacketsRoundTrip() {
+        for (NetworkPacket packet : samplePackets()) {
+            assertRoundTrip(packet, NetworkBinarySerializer.getInstance(false));
+            assertRoundTrip(packet, NetworkBinarySerializer.getInstance(true));
+        }
+    }
+
+    @Test
+    void validateCardReferencesAreInterned() {
+        NetworkBinarySerializer serializer = NetworkBinarySerializer.getInstance(true);
+        Game game = sampleGame();
+        Player player = game.getPlayers().getFirst();
+
+        Action action = new PlayerInitialChoiceAction(player.getNickname(), player.getIdentity(), player.getAvailableObjectives()[0], player.getStarterCard().front());
+        ActionNetworkPacket decoded = (ActionNetworkPacket) serializer.fromBinary(serializer.toBinary(new ActionNetworkPacket(action)));
+        decoded.getAction().execute(game);
+
+        assertSame(GameResources.getInstance().getCardById(player.getStarterCard().id()).front(), player.getPlacedCards().values().iterator().next());
+        assertSame(GameResources.getInstance().getObjectiveById(player.getAvailableObjectives()[0].getId()), player.getPlayerObjectiveCard());
+    }
+
+    @Test
+    void validateUnregisteredTypeIsRejected() {
+        NetworkBinarySerializer serializer = NetworkBinarySerializer.getInstance();
+
+        Action action = new ErrorAction("test") {
+        };
+
+        assertThrows(IllegalArgumentException.class, () -> serializer.toBinary(new ActionNetworkPacket(action)));
+    }
+
+    @Test
+    void validateBinaryIsSmallerThanJson() {
+        NetworkJsonSerializer json = NetworkJsonSerializer.getInstance(false);
+        NetworkJsonSerializer jsonReferences = NetworkJsonSerializer.getInstance(true);
+        NetworkBinarySerializer binary = NetworkBinarySerializer.getInstance(false);
+        NetworkBinarySerializer binaryReferences = NetworkBinarySerializer.getInstance(true);
+
+        long jsonSize = 0;
+        long jsonReferencesSize = 0;
+        long binarySize = 0;
+        long binaryReferencesSize = 0;
+
+        for (Action action : sampleActions()) {
+            NetworkPacket packet = new ActionNetworkPacket(action);
+            jsonSize += json.toJson(packet).getBytes(StandardCharsets.UTF_8).length;
+            jsonReferencesSize += jsonReferences.toJson(packet).getBytes(StandardCharsets.UTF_8).length;
+            binarySize += binary.toBinary(packet).length;
+            binaryReferencesSize += binaryReferences.toBinary(packet).length;
+        }
+
+        assertTrue(jsonReferencesSize < jsonSize);
+        assertTrue(binarySize < jsonSize);
+        assertTrue(binaryReferencesSize < binarySize);
+    }
+
+    @Test
+    void validateMalformedLengthIsRejected() throws IOException {
+        BinaryCodec codec = new BinaryCodec.Factory().registerType(Pawn.class).build();
+
+        Buffer encoded = new Buffer();
+        codec.writeValue(encoded, new Pawn[0]);
+
+        // Keep the array and component type ids, then announce far more elements than the frame holds
+        Buffer malformed = new Buffer();
+        malformed.write(encoded, 2);
+        VarInt.write(malformed, Integer.MAX_VALUE);
+        malformed.writeByte(BinaryCodec.NULL_ID);
+
+        assertThrows(ProtocolException.class, () -> codec.readValue(malformed));
+    }
+
+    @Test
+    void validateUnknownEnumOrdinalIsRejected() throws IOException {
+        BinaryCodec codec = new BinaryCodec.Factory().registerType(Pawn.class).build();
+
+        Buffer malformed = new Buffer();
+        VarInt.write(malformed, BinaryCodec.FIRST_REGISTERED_ID);
+        VarInt.write(malformed, Pawn.values().length);
+
+        assertThrows(ProtocolException.class, () -> codec.readValue(malformed));
+    }
+
+    @Test
+    void validateLayoutMustMatchTheFields() {
+        // A field missing from the layout, a field that does not exist, and the components of a record out of order
+        assertThrows(IllegalArgumentException.class, () -> new BinaryCodec.Factory()
+                .registerType(LobbyPlayer.class, Layout.of("nickname", "identifier")).build());
+        assertThrows(IllegalArgumentException.class, () -> new BinaryCodec.Factory()
+                .registerType(LobbyPlayer.class, Layout.of("nickname", "identity", "playerPawn")).build());
+        assertThrows(IllegalArgumentException.class, () -> new BinaryCodec.Factory()
+                .registerType(GameFieldPosition.class, Layout.of("y", "x", "z")).build());
+        // A concrete class registered without a layout is rejected too
+        assertThrows(IllegalArgumentException.class, () -> new BinaryCodec.Factory()
+                .registerType(LobbyPlayer.class).build());
+    }
+
+    @Test
+    void validateLayoutFixesTheFieldOrder() throws IOException {
+        BinaryCodec codec = new BinaryCodec.Factory()
+                .registerType(Pawn.class)
+                .registerType(LobbyPlayer.class, Layout.of("nickname", "identifier", "playerPawn"))
+                .build();
+
+        Buffer encoded = new Buffer();
+        codec.writeValue(encoded, new LobbyPlayer("a", "b", Pawn.RED));
+
+        Buffer expected = new Buffer();
+        VarInt.write(expected, BinaryCodec.FIRST_REGISTERED_ID + 1);
+        codec.writeValue(expected, "a");
+        codec.writeValue(expected, "b");
+        codec.writeValue(expected, Pawn.RED);
+
+        assertEquals(expected.readByteString(), encoded.readByteString());
+    }
+
+    @Test
+    void validateGameStartShrinksWithCardReferences() {
+        NetworkPacket packet = new ActionNetworkPacket(new ServerGameStartAction(sampleGame()));
+
+        int full = NetworkJsonSerializer.getInstance(false).toJson(packet).length();
+        int references = NetworkJsonSerializer.getInstance(true).toJson(packet).length();
+
+        assertTrue(references * 10 < full, "Expected " + references + " to be an order of magnitude smaller than " + full);
+        assertTrue(NetworkBinarySerializer.getInstance(true).toBinary(packet).length * 10 < NetworkBinarySerializer.getInstance(false).toBinary(packet).length);
+    }
+
+    private void assertRoundTrip(NetworkPacket packet, NetworkBinarySerializer binary) {
+        NetworkJsonSerializer json = NetworkJsonSerializer.getInstance();
+
+        byte[] encoded = binary.toBinary(packet);
+        NetworkPacket decoded = binary.fromBinary(encoded);
+
+        assertEquals(packet.getClass(), decoded.getClass());
+        assertArrayEquals(encoded, binary.toBinary(decoded));
+        // The JSON encoding covers every field, so it also tells whether the decoded object graph is the same
+        assertEquals(json.toJson(packet), json.toJson(decoded));
+    }
+
+    private List<NetworkPacket> samplePackets() {
+        List<NetworkPacket> packets = new ArrayList<>();
+        packets.add(new HeartbeatNetworkPacket());
+        packets.add(new IdentityNetworkPacket("test"));
+        packets.add(new IdentityNetworkPacket("test", Framing.VARINT, Encoding.BINARY, true));
+        sampleActions().forEach(action -> packets.add(new ActionNetworkPacket(action)));
+        return packets;
+    }
+
+    private Game sampleGame() {
+        Lobby lobby = new Lobby();
+        lobby.addNewPlayer("test1", "test1", Pawn.YELLOW);
+        lobby.addNewPlayer("test2", "test2", Pawn.BLUE);
+        return new Game.Factory().fromLobby(lobby).build();
+    }
+
+    /**
+     * Build an instance of every action type, with a game that has already been played for a few turns.
+     *
+     * @return the actions
+     */
+    private List<Action> sampleActions() {
+        Lobby lobby = new Lobby();
+        lobby.addNewPlayer("test1", "test1", Pawn.YELLOW);
+        lobby.addNewPlayer("test2", "test2", Pawn.BLUE);
+        Game game = new Game.Factory().fromLobby(lobby).build();
+
+        List<Action> actions = new ArrayList<>();
+
+        for (Player player : game.getPlayers()) {
+            Action action = new PlayerInitialChoiceAction(player.getNickname(), player.getIdentity(), player.getAvailableObjectives()[0], player.getStarterCard().front());
+            action.execute(game);
+            actions.add(action);
+        }
+
+        for (int turn = 0; turn < 4; turn++) {
+            Player player = game.getPlayingPlayer();
+            GameCard card = player.getPlayableCards().getFirst();
+
+            Action place = new PlayerPlaceCardAction(player.getNickname(), player.getIdentity(), card.back(), new GameFieldPosition(turn / 2 + 1, turn / 2 + 1));
+            place.execute(game);
+            actions.add(place);
+
+            Action pick = new PlayerPickCardAction(player.getNickname(), player.getIdentity(), game.getDeck().peekTopResCard());
+            pick.execute(game);
+            actions.add(pick);
+        }
+
+        Player player = game.getPlayers().getFirst();
+        actions.add(new SendMessageAction(player.getNickname(), player.getIdentity(), new ChatMessage(player.getNickname(), List.of("test2"), "hello")));
+        actions.add(new ServerGameStartAction(game));
+        actions.add(new ResumeGameAction(game, player.getIdentity()));
+        actions.add(new HangGameAction(player.getIdentity()));
+        actions.add(new LobbyStateSyncAction(lobby));
+        actions.add(new LobbyListAction(List.of(lobby, new Lobby())));
+        actions.add(new CreateLobbyAction("test3", "test3", Pawn.GREEN));
+        actions.add(new PlayerJoinAction("test3", "test3", lobby.getId(), Pawn.RED));
+        actions.add(new GameStartAction("test1", "test1"));
+        actions.add(new ReconnectAction("test1", "test1"));
+        actions.add(new ErrorAction("error"));
+
+        return actions;
+    }
+
+}
@@ -24,15 +24,18 @@
 package it.polimi.ingsw.am07.utils.json;
 
 import it.polimi.ingsw.am07.action.Action;
+import it.polimi.ingsw.am07.action.player.PlayerInitialChoiceAction;
 import it.polimi.ingsw.am07.action.server.LobbyStateSyncAction;
 import it.polimi.ingsw.am07.action.server.ServerGameStartAction;
 import it.polimi.ingsw.am07.model.game.Game;
 import it.polimi.ingsw.am07.model.game.Pawn;
+import it.polimi.ingsw.am07.model.game.Player;
 import it.polimi.ingsw.am07.model.lobby.Lobby;
 import it.polimi.ingsw.am07.network.packets.ActionNetworkPacket;
 import it.polimi.ingsw.am07.network.packets.HeartbeatNetworkPacket;
 import it.polimi.ingsw.am07.network.packets.IdentityNetworkPacket;
 import it.polimi.ingsw.am07.network.packets.NetworkPacket;
+import it.polimi.ingsw.am07.utils.assets.GameResources;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -95,4 +98,39 @@ class NetworkJsonSerializerTest {
         });
     }
 
+    @Test
+    void validateCardReferencesSerializability() {
+        NetworkJsonSerializer fullSerializer = NetworkJsonSerializer.getInstance(false);
+        NetworkJsonSerializer referenceSerializer = NetworkJsonSerializer.getInstance(true);
+
+        Lobby lobby = new Lobby();
+        lobby.addNewPlayer("test1", "test1", Pawn.YELLOW);
+        lobby.addNewPlayer("test2", "test2", Pawn.BLUE);
+        Game game = new Game.Factory().fromLobby(lobby).build();
+        Player player = game.getPlayers().getFirst();
+
+        assertDoesNotThrow(() -> {
+            NetworkPacket packet = new ActionNetworkPacket(new ServerGameStartAction(game));
+            String serialized = referenceSerializer.toJson(packet);
+            NetworkPacket deserialized = referenceSerializer.fromJson(serialized);
+
+            assertEquals(serialized, referenceSerializer.toJson(deserialized));
+            assertEquals(fullSerializer.toJson(packet), fullSerializer.toJson(deserialized));
+            assertTrue(serialized.length() < fullSerializer.toJson(packet).length());
+        });
+
+        assertDoesNotThrow(() -> {
+            Action action = new PlayerInitialChoiceAction(player.getNickname(), player.getIdentity(), player.getAvailableObjectives()[1], player.getStarterCard().back());
+            ActionNetworkPacket deserialized = (ActionNetworkPacket) referenceSerializer.fromJson(referenceSerializer.toJson(new ActionNetworkPacket(action)));
+            deserialized.getAction().execute(game);
+
+            assertSame(GameResources.getInstance().getCardById(player.getStarterCard().id()).back(), player.getPlacedCards().values().iterator().next());
+            assertSame(GameResources.getInstance().getObjectiveById(player.getAvailableObjectives()[1].getId()), player.getPlayerObjectiveCard());
+        });
+
+        String corrupted = referenceSerializer.toJson(new ActionNetworkPacket(new ServerGameStartAction(game)))
+                .replaceFirst("\\{\"id\":\\d+,\"face\"", "{\"id\":4242,\"face\"");
+        assertThrows(Exception.class, () -> referenceSerializer.fromJson(corrupted));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncHandlerTest {
+
+    /**
+     * Handler keeping the formatted messages, optionally blocked until released.
+     */
+    private static class RecordingHandler extends Handler {
+
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final CountDownLatch released;
+
+        RecordingHandler(CountDownLatch released) {
+            this.released = released;
+            setFormatter(new CustomFormatter());
+        }
+
+        @Override
+        public void publish(LogRecord record) {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            messages.add(getFormatter().formatMessage(record));
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+    private static LogRecord record(String pattern, Object... parameters) {
+        LogRecord record = new LogRecord(Level.INFO, pattern);
+        record.setParameters(parameters);
+        return record;
+    }
+
+    @Test
+    void recordsAreWrittenInOrderAndFormattedLater() {
+        RecordingHandler delegate = new RecordingHandler(new CountDownLatch(0));
+        AsyncHandler handler = new AsyncHandler(delegate, 16);
+
+        for (int i = 0; i < 10; i++) {
+            handler.publish(record("Message {0}", "m" + i));
+        }
+        handler.flush();
+
+        assertEquals(IntStream.range(0, 10).mapToObj(i -> "Message m" + i).toList(), delegate.messages);
+        assertEquals(0, handler.getDroppedRecords());
+        handler.close();
+    }
+
+    @Test
+    void recordsAreDroppedWhenTheBufferIsFull() {
+        CountDownLatch released = new CountDownLatch(1);
+        RecordingHandler delegate = new RecordingHandler(released);
+        AsyncHandler handler = new AsyncHandler(delegate, 4);
+
+        // The background thread holds at most one record while blocked, the others wait in the buffer
+        for (int i = 0; i < 100; i++) {
+            handler.publish(record("Message"));
+        }
+        long dropped = handler.getDroppedRecords();
+        assertTrue(dropped >= 100 - 5, "dropped " + dropped);
+
+        released.countDown();
+        handler.close();
+
+        assertEquals(100 - dropped + 1, delegate.messages.size());
+        assertEquals(dropped + " log records dropped, the log buffer was full", delegate.messages.getLast());
+    }
+
+    @Test
+    void concurrentProducersDoNotLoseRecords() {
+        RecordingHandler delegate = new RecordingHandler(new CountDownLatch(0));
+        AsyncHandler handler = new AsyncHandler(delegate, 1 << 16);
+
+        IntStream.range(0, 4).parallel().forEach(thread -> {
+            for (int i = 0; i < 5000; i++) {
+                handler.publish(record("Message"));
+            }
+        });
+        handler.close();
+
+        assertEquals(0, handler.getDroppedRecords());
+        assertEquals(20_000, delegate.messages.size());
+    }
+
+    @Test
+    void disabledLevelsAreSkipped() {
+        RecordingHandler delegate = new RecordingHandler(new CountDownLatch(0));
+        AsyncHandler handler = new AsyncHandler(delegate, 16);
+        handler.setLevel(Level.INFO);
+
+        handler.publish(new LogRecord(Level.FINE, "Debug"));
+        handler.publish(new LogRecord(Level.SEVERE, "Error"));
+        handler.close();
+
+        assertEquals(List.of("Error"), delegate.messages);
+    }
+
+}
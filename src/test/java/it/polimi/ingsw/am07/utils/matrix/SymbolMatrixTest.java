@@ -0,0 +1,152 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.matrix;
+
+import it.polimi.ingsw.am07.model.game.Symbol;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolMatrixTest {
+
+    @Test
+    void getAndSet() {
+        SymbolMatrix matrix = new SymbolMatrix(2, 2, Symbol.EMPTY);
+
+        matrix.set(0, 0, Symbol.RED);
+        matrix.set(1, 1, Symbol.FEATHER);
+
+        assertEquals(Symbol.RED, matrix.get(0, 0));
+        assertEquals(Symbol.EMPTY, matrix.get(0, 1));
+        assertEquals(Symbol.FEATHER, matrix.get(1, 1));
+        assertEquals(Symbol.EMPTY, matrix.get(5, -5));
+
+        assertEquals(2, matrix.getWidth());
+        assertEquals(2, matrix.getHeight());
+        assertEquals(4, matrix.getSize());
+
+        matrix.clear(0, 0);
+        assertEquals(Symbol.EMPTY, matrix.get(0, 0));
+
+        // Out of bounds empty values do not extend the matrix
+        matrix.set(10, 10, Symbol.EMPTY);
+        assertEquals(2, matrix.getWidth());
+        assertEquals(2, matrix.getHeight());
+
+        assertThrows(IllegalArgumentException.class, () -> matrix.set(0, 0, null));
+    }
+
+    @Test
+    void extensionInEveryDirection() {
+        SymbolMatrix matrix = new SymbolMatrix(2, 2, Symbol.EMPTY);
+        matrix.set(0, 0, Symbol.STARTER);
+
+        matrix.set(-3, 0, Symbol.RED);
+        matrix.set(4, 0, Symbol.GREEN);
+        matrix.set(0, -5, Symbol.BLUE);
+        matrix.set(0, 6, Symbol.PURPLE);
+
+        assertEquals(-3, matrix.getMinX());
+        assertEquals(4, matrix.getMaxX());
+        assertEquals(-5, matrix.getMinY());
+        assertEquals(6, matrix.getMaxY());
+        assertEquals(8, matrix.getWidth());
+        assertEquals(12, matrix.getHeight());
+
+        assertEquals(Symbol.STARTER, matrix.get(0, 0));
+        assertEquals(Symbol.RED, matrix.get(-3, 0));
+        assertEquals(Symbol.GREEN, matrix.get(4, 0));
+        assertEquals(Symbol.BLUE, matrix.get(0, -5));
+        assertEquals(Symbol.PURPLE, matrix.get(0, 6));
+        assertEquals(Symbol.EMPTY, matrix.get(-3, -5));
+        assertEquals(Symbol.EMPTY, matrix.get(4, 6));
+    }
+
+    @Test
+    void sameBehaviourAsMatrix() {
+        Random random = new Random(42);
+        Symbol[] symbols = Symbol.values();
+
+        for (Symbol emptyValue : new Symbol[]{Symbol.EMPTY, Symbol.NONE}) {
+            SymbolMatrix matrix = new SymbolMatrix(0, 0, emptyValue);
+            Matrix<Symbol> expected = new Matrix<>(0, 0, emptyValue);
+
+            for (int i = 0; i < 2000; i++) {
+                int x = random.nextInt(61) - 30;
+                int y = random.nextInt(61) - 30;
+                Symbol value = symbols[random.nextInt(symbols.length)];
+
+                if (random.nextInt(10) == 0) {
+                    matrix.clear(x, y);
+                    expected.clear(x, y);
+                } else {
+                    matrix.set(x, y, value);
+                    expected.set(x, y, value);
+                }
+
+                assertEquals(expected.getMinX(), matrix.getMinX());
+                assertEquals(expected.getMaxX(), matrix.getMaxX());
+                assertEquals(expected.getMinY(), matrix.getMinY());
+                assertEquals(expected.getMaxY(), matrix.getMaxY());
+            }
+
+            for (int x = -32; x <= 32; x++) {
+                for (int y = -32; y <= 32; y++) {
+                    assertEquals(expected.get(x, y), matrix.get(x, y));
+                }
+            }
+
+            assertTrue(expected.getSubMatrix(-5, -5, 4, 3).match(matrix.getSubMatrix(-5, -5, 4, 3)));
+        }
+    }
+
+    @Test
+    void copyAndOrdinals() {
+        SymbolMatrix matrix = new SymbolMatrix(2, 2, Symbol.EMPTY);
+        matrix.set(-1, -1, Symbol.SCROLL);
+        matrix.set(2, 0, Symbol.FLASK);
+
+        byte[] ordinals = matrix.toOrdinals();
+        assertEquals(matrix.getSize(), ordinals.length);
+        assertEquals(Symbol.SCROLL.ordinal(), ordinals[0]);
+        assertEquals(Symbol.FLASK.ordinal(), ordinals[(2 - matrix.getMinX()) + (0 - matrix.getMinY()) * matrix.getWidth()]);
+
+        SymbolMatrix copy = matrix.copy();
+        assertEquals(matrix.getMinX(), copy.getMinX());
+        assertEquals(matrix.getMaxY(), copy.getMaxY());
+        assertArrayEquals(ordinals, copy.toOrdinals());
+
+        // The copy is independent, and can keep growing
+        copy.set(-4, 3, Symbol.RED);
+        assertEquals(Symbol.EMPTY, matrix.get(-4, 3));
+        assertEquals(Symbol.RED, copy.get(-4, 3));
+        assertEquals(Symbol.SCROLL, copy.get(-1, -1));
+
+        assertThrows(IllegalArgumentException.class, () -> SymbolMatrix.of(0, 0, 2, 2, Symbol.EMPTY, new byte[3]));
+        assertThrows(IllegalArgumentException.class, () -> SymbolMatrix.of(0, 0, 1, 1, Symbol.EMPTY, new byte[]{(byte) 100}));
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+
+    @Test
+    void bucketsCoverEveryValue() {
+        int previous = -1;
+
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 33, 1000, 1_000_000, Long.MAX_VALUE}) {
+            int bucket = Histogram.bucketOf(value);
+            assertTrue(bucket >= previous);
+            assertTrue(value <= Histogram.highestValueOf(bucket));
+            previous = bucket;
+        }
+
+        for (long value = 0; value < 100_000; value++) {
+            int bucket = Histogram.bucketOf(value);
+            assertTrue(bucket == 0 || Histogram.highestValueOf(bucket - 1) < value);
+            assertTrue(value <= Histogram.highestValueOf(bucket));
+        }
+    }
+
+    @Test
+    void percentilesHaveABoundedError() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.count());
+        assertEquals(10_000_000, snapshot.max());
+        assertEquals(5_000_500, snapshot.getMean(), 1e-6);
+
+        for (double percentile : new double[]{0.5, 0.9, 0.99}) {
+            double expected = percentile * 10_000_000;
+            double value = snapshot.getValueAtPercentile(percentile);
+            assertTrue(value >= expected, percentile + ": " + value);
+            assertTrue(value <= expected * (1 + 1 / 16.0), percentile + ": " + value);
+        }
+        assertEquals(10_000_000, snapshot.getValueAtPercentile(1));
+    }
+
+    @Test
+    void concurrentRecordsAreNotLost() {
+        Histogram histogram = new Histogram();
+
+        IntStream.range(0, 8).parallel().forEach(thread -> {
+            for (int i = 0; i < 10_000; i++) {
+                histogram.record(i);
+            }
+        });
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(80_000, snapshot.count());
+        assertEquals(8L * 9_999 * 10_000 / 2, snapshot.sum());
+        assertEquals(9_999, snapshot.max());
+    }
+
+    @Test
+    void emptyHistogram() {
+        Histogram.Snapshot snapshot = new Histogram().snapshot();
+
+        assertEquals(0, snapshot.count());
+        assertEquals(0, snapshot.getValueAtPercentile(0.99));
+        assertEquals(0, snapshot.getMean());
+    }
+
+}
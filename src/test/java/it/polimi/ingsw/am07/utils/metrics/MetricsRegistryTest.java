@@ -0,0 +1,113 @@
+/*
+ * Codex Naturalis - Final Assignment for the Software Engineering Course
+ * Copyright (C) 2024 Andrea Biasion Somaschini, Roberto Alessandro Bertolini, Omar Chaabani, Gabriele Corti
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * Please note that the GNU General Public License applies only to the
+ * files that contain this license header. Other files within the project, such
+ * as assets and images, are property of the original owners and may be
+ * subject to different copyright terms.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package it.polimi.ingsw.am07.utils.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @Test
+    void metricsAreWrittenAsPrometheusText() {
+        MetricsRegistry registry = new MetricsRegistry();
+
+        registry.counter("test_events_total").add(3);
+        registry.gauge("test_open").increment();
+        registry.gauge("test_supplied", () -> 42);
+        registry.histogram("test_seconds").record(2_000_000_000L);
+        registry.histogramFamily("test_action_seconds", "action").get(String.class).record(1_000_000);
+
+        String text = registry.toText();
+
+        assertTrue(text.contains("# TYPE test_events_total counter\ntest_events_total 3\n"));
+        assertTrue(text.contains("test_open 1\n"));
+        assertTrue(text.contains("test_supplied 42\n"));
+        assertTrue(text.contains("# TYPE test_seconds summary\ntest_seconds{quantile=\"0.5\"} 2.0"));
+        assertTrue(text.contains("test_seconds_count 1\n"));
+        assertTrue(text.contains("test_action_seconds{action=\"String\",quantile=\"0.99\"} 0.001"));
+        assertTrue(text.contains("test_action_seconds_count{action=\"String\"} 1\n"));
+    }
+
+    @Test
+    void familiesReuseTheirHistograms() {
+        MetricsRegistry registry = new MetricsRegistry();
+        HistogramFamily family = registry.histogramFamily("test_seconds", "type");
+
+        assertSame(family.get(Integer.class), family.get(Integer.class));
+        assertNotSame(family.get(Integer.class), family.get(Long.class));
+        assertSame(family.get(Integer.class), registry.histogram("test_seconds{type=\"Integer\"}"));
+    }
+
+    @Test
+    void suppliedGaugesCannotBeUpdated() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.gauge("test_supplied", () -> 1);
+
+        assertThrows(IllegalArgumentException.class, () -> registry.gauge("test_supplied"));
+    }
+
+    @Test
+    void metricsAreExportedThroughJmx() throws Exception {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.counter("test_jmx_total").increment();
+        registry.histogram("test_jmx_seconds").record(500);
+        registry.registerMBean();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(MetricsRegistry.OBJECT_NAME);
+
+        assertEquals(1L, server.getAttribute(name, "test_jmx_total"));
+        assertEquals(1L, server.getAttribute(name, "test_jmx_seconds.count"));
+        assertTrue((Long) server.getAttribute(name, "test_jmx_seconds.p99") >= 500);
+    }
+
+    @Test
+    void metricsAreServedOverHttp() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("test_http_total").add(7);
+
+        MetricsEndpoint endpoint = new MetricsEndpoint(registry, 0);
+        endpoint.start();
+
+        try {
+            URL url = URI.create("http://localhost:" + endpoint.getPort() + "/metrics").toURL();
+            try (InputStream input = url.openStream()) {
+                String body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(body.contains("test_http_total 7\n"));
+            }
+        } finally {
+            endpoint.stop();
+        }
+    }
+
+}